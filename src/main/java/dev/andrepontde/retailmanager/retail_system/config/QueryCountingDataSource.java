@@ -0,0 +1,202 @@
+package dev.andrepontde.retailmanager.retail_system.config;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * DataSource that times every statement executed through its connections.
+ *
+ * Sees both Hibernate and JdbcTemplate traffic. Each execution is added to the current
+ * {@link QueryStats} scope (if any), recorded in the retail.jdbc.statements timer, and
+ * logged with its SQL when it takes longer than the slow threshold. A batch counts as one
+ * execution. Wrapping is done with JDK proxies, so unwrap() still reaches the pool and
+ * the driver; close() closes the wrapped pool (it replaces the pool's bean, so it gets
+ * the pool's destroy callback).
+ */
+public class QueryCountingDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryCountingDataSource.class);
+
+    private static final Set<String> EXECUTE_METHODS = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    private static final int MAX_LOGGED_SQL = 500;
+
+    private final long slowNanos;
+    private final ObjectProvider<MeterRegistry> meterRegistryProvider;
+
+    // Meters are looked up on first use: the DataSource is created before the registry
+    private volatile Timer statementTimer;
+    private volatile Counter slowCounter;
+
+    public QueryCountingDataSource(DataSource target, long slowMillis, ObjectProvider<MeterRegistry> meterRegistryProvider) {
+        super(target);
+        this.slowNanos = TimeUnit.MILLISECONDS.toNanos(slowMillis);
+        this.meterRegistryProvider = meterRegistryProvider;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    @Override
+    public void close() {
+        if (getTargetDataSource() instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                throw new IllegalStateException("Failed to close the wrapped DataSource", e);
+            }
+        }
+    }
+
+    private Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {Connection.class},
+                new ConnectionHandler(connection));
+    }
+
+    private void recordExecution(String sql, long elapsedNanos) {
+        QueryStats.record(sql, elapsedNanos);
+
+        if (statementTimer == null) {
+            MeterRegistry meterRegistry = meterRegistryProvider.getIfAvailable();
+            if (meterRegistry != null) {
+                slowCounter = Counter.builder("retail.jdbc.slow.statements")
+                        .description("Statements slower than retail.query-inspector.slow-ms")
+                        .register(meterRegistry);
+                statementTimer = Timer.builder("retail.jdbc.statements")
+                        .description("Time spent executing JDBC statements")
+                        .register(meterRegistry);
+            }
+        }
+        if (statementTimer != null) {
+            statementTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        }
+
+        if (elapsedNanos >= slowNanos) {
+            if (slowCounter != null) {
+                slowCounter.increment();
+            }
+            log.warn("Slow statement ({} ms): {}", TimeUnit.NANOSECONDS.toMillis(elapsedNanos), abbreviate(sql));
+        }
+    }
+
+    static String abbreviate(String sql) {
+        String compact = sql.replaceAll("\\s+", " ").trim();
+        return compact.length() > MAX_LOGGED_SQL ? compact.substring(0, MAX_LOGGED_SQL) + "..." : compact;
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+
+        private final Connection connection;
+
+        ConnectionHandler(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "QueryCounting[" + connection + "]";
+                default:
+                    break;
+            }
+
+            Object result = QueryCountingDataSource.invoke(connection, method, args);
+            String name = method.getName();
+            if (result instanceof CallableStatement statement && name.equals("prepareCall")) {
+                return wrapStatement(statement, CallableStatement.class, (String) args[0]);
+            }
+            if (result instanceof PreparedStatement statement && name.equals("prepareStatement")) {
+                return wrapStatement(statement, PreparedStatement.class, (String) args[0]);
+            }
+            if (result instanceof Statement statement && name.equals("createStatement")) {
+                return wrapStatement(statement, Statement.class, null);
+            }
+            return result;
+        }
+    }
+
+    private Object wrapStatement(Statement statement, Class<? extends Statement> type, String preparedSql) {
+        return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {type},
+                new StatementHandler(statement, preparedSql));
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+
+        private final Statement statement;
+        private final String preparedSql;
+
+        // SQL of the last addBatch(String) on a plain statement
+        private String batchSql;
+
+        StatementHandler(Statement statement, String preparedSql) {
+            this.statement = statement;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("addBatch") && args != null && args.length == 1 && args[0] instanceof String sql) {
+                batchSql = sql;
+            }
+            if (!EXECUTE_METHODS.contains(name)) {
+                return QueryCountingDataSource.invoke(statement, method, args);
+            }
+
+            String sql = preparedSql;
+            if (args != null && args.length > 0 && args[0] instanceof String executed) {
+                sql = executed;
+            } else if (sql == null) {
+                sql = batchSql != null ? batchSql : "<batch>";
+            }
+
+            long start = System.nanoTime();
+            try {
+                return QueryCountingDataSource.invoke(statement, method, args);
+            } finally {
+                recordExecution(sql, System.nanoTime() - start);
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package dev.andrepontde.retailmanager.retail_system.config;
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Counts the statements each HTTP request executes and flags likely N+1 patterns.
+ *
+ * Opens a {@link QueryStats} scope around the whole request (authentication included),
+ * records the count in the retail.request.queries summary tagged by method and URI pattern,
+ * and logs every statement executed at least repeatThreshold times, counting such requests
+ * in retail.request.repeated.statements. The stats stay available as a request attribute
+ * for tests ({@link QueryStats#REQUEST_ATTRIBUTE}).
+ */
+public class QueryInspectionFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryInspectionFilter.class);
+
+    private final MeterRegistry meterRegistry;
+    private final int repeatThreshold;
+
+    public QueryInspectionFilter(MeterRegistry meterRegistry, int repeatThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.repeatThreshold = repeatThreshold;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        QueryStats stats = QueryStats.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            QueryStats.end(stats);
+            request.setAttribute(QueryStats.REQUEST_ATTRIBUTE, stats);
+            report(request, stats);
+        }
+    }
+
+    private void report(HttpServletRequest request, QueryStats stats) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+
+        DistributionSummary.builder("retail.request.queries")
+                .description("JDBC statements executed per HTTP request")
+                .baseUnit("statements")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(stats.getCount());
+
+        Map<String, Integer> repeated = stats.getRepeated(repeatThreshold);
+        if (!repeated.isEmpty()) {
+            Counter.builder("retail.request.repeated.statements")
+                    .description("Requests that executed the same statement repeatThreshold times or more")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri)
+                    .register(meterRegistry)
+                    .increment();
+            repeated.forEach((sql, times) -> log.warn("Possible N+1 in {} {}: statement executed {} times: {}",
+                    request.getMethod(), uri, times, QueryCountingDataSource.abbreviate(sql)));
+        }
+    }
+}
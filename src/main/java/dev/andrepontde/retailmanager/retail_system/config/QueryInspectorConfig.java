@@ -0,0 +1,53 @@
+package dev.andrepontde.retailmanager.retail_system.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Query inspector: statement counting, slow statement logging and N+1 detection.
+ *
+ * Wraps the application DataSource in a {@link QueryCountingDataSource} and registers
+ * {@link QueryInspectionFilter} ahead of the security filters. Switched off entirely with
+ * retail.query-inspector.enabled=false.
+ */
+@Configuration
+@ConditionalOnProperty(name = "retail.query-inspector.enabled", havingValue = "true", matchIfMissing = true)
+public class QueryInspectorConfig {
+
+    @Bean
+    public static BeanPostProcessor queryCountingDataSourcePostProcessor(Environment environment,
+                                                                         ObjectProvider<MeterRegistry> meterRegistry) {
+        long slowMillis = environment.getProperty("retail.query-inspector.slow-ms", Long.class, 200L);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof QueryCountingDataSource)) {
+                    return new QueryCountingDataSource(dataSource, slowMillis, meterRegistry);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<QueryInspectionFilter> queryInspectionFilter(MeterRegistry meterRegistry,
+                                                                               Environment environment) {
+        int repeatThreshold = environment.getProperty("retail.query-inspector.repeat-threshold", Integer.class, 5);
+        FilterRegistrationBean<QueryInspectionFilter> registration =
+                new FilterRegistrationBean<>(new QueryInspectionFilter(meterRegistry, repeatThreshold));
+        registration.addUrlPatterns("/api/*");
+        // Before Spring Security (-100), so the user lookup of the JWT filter is counted too
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
@@ -0,0 +1,94 @@
+package dev.andrepontde.retailmanager.retail_system.config;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Statements executed by one thread during a unit of work (usually an HTTP request).
+ *
+ * Scopes nest: statements recorded while an inner scope is open count towards every
+ * enclosing scope too, so a test can wrap a MockMvc call whose filter opens its own scope.
+ * Statements are grouped by their SQL text; prepared statements keep their placeholders,
+ * so a lazy load repeated for every row of a list shows up as one statement run N times.
+ */
+public final class QueryStats {
+
+    /**
+     * Request attribute holding the stats of the request once it has been handled.
+     */
+    public static final String REQUEST_ATTRIBUTE = QueryStats.class.getName();
+
+    private static final ThreadLocal<QueryStats> CURRENT = new ThreadLocal<>();
+
+    private final QueryStats parent;
+    private final Map<String, Integer> executions = new HashMap<>();
+    private int count;
+    private long nanos;
+
+    private QueryStats(QueryStats parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * Open a scope on the current thread.
+     */
+    public static QueryStats begin() {
+        QueryStats stats = new QueryStats(CURRENT.get());
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    /**
+     * Close the innermost scope of the current thread (the enclosing one becomes current again).
+     */
+    public static void end(QueryStats stats) {
+        if (stats.parent != null) {
+            CURRENT.set(stats.parent);
+        } else {
+            CURRENT.remove();
+        }
+    }
+
+    /**
+     * The innermost open scope of the current thread, or null.
+     */
+    public static QueryStats current() {
+        return CURRENT.get();
+    }
+
+    static void record(String sql, long elapsedNanos) {
+        for (QueryStats stats = CURRENT.get(); stats != null; stats = stats.parent) {
+            stats.count++;
+            stats.nanos += elapsedNanos;
+            stats.executions.merge(sql, 1, Integer::sum);
+        }
+    }
+
+    public int getCount() { return count; }
+
+    public long getTotalNanos() { return nanos; }
+
+    /**
+     * Highest number of times a single statement was executed.
+     */
+    public int getMaxRepeats() {
+        int max = 0;
+        for (int executed : executions.values()) {
+            max = Math.max(max, executed);
+        }
+        return max;
+    }
+
+    /**
+     * Statements executed at least threshold times, most executed first.
+     */
+    public Map<String, Integer> getRepeated(int threshold) {
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        executions.entrySet().stream()
+                .filter(entry -> entry.getValue() >= threshold)
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .forEach(entry -> repeated.put(entry.getKey(), entry.getValue()));
+        return repeated;
+    }
+}
@@ -0,0 +1,44 @@
+package dev.andrepontde.retailmanager.retail_system.config;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Adds the statement count of the request to API responses (dev mode only).
+ *
+ * Headers: X-Query-Count, X-Query-Time-Ms and X-Query-Max-Repeats (most executions of a
+ * single statement). They are written just before the body, so statements run while the
+ * body is serialized are not included. Enabled by retail.query-inspector.response-headers.
+ */
+@ControllerAdvice
+public class QueryStatsHeaderAdvice implements ResponseBodyAdvice<Object> {
+
+    @Value("${retail.query-inspector.response-headers:false}")
+    private boolean enabled;
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return enabled;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        QueryStats stats = QueryStats.current();
+        if (stats != null) {
+            response.getHeaders().set("X-Query-Count", Integer.toString(stats.getCount()));
+            response.getHeaders().set("X-Query-Time-Ms", Long.toString(TimeUnit.NANOSECONDS.toMillis(stats.getTotalNanos())));
+            response.getHeaders().set("X-Query-Max-Repeats", Integer.toString(stats.getMaxRepeats()));
+        }
+        return body;
+    }
+}
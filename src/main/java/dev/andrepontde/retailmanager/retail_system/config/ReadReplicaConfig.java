@@ -0,0 +1,77 @@
+package dev.andrepontde.retailmanager.retail_system.config;
+
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Read replica: read-only transactions are served by a second database.
+ *
+ * Active when retail.datasource.replica.url is set. Replaces Boot's DataSource with a
+ * {@link ReplicaRoutingDataSource} over two Hikari pools: the primary, configured as usual
+ * by spring.datasource.*, and the replica, which takes the same pool settings plus any
+ * retail.datasource.replica.hikari.* overrides. Schema creation and every write stay on
+ * the primary.
+ */
+@Configuration
+@ConditionalOnProperty(name = "retail.datasource.replica.url")
+public class ReadReplicaConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(ReadReplicaConfig.class);
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties properties, Environment environment) {
+        Binder binder = Binder.get(environment);
+
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+
+        HikariDataSource replica = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(environment.getRequiredProperty("retail.datasource.replica.url"))
+                .username(environment.getProperty("retail.datasource.replica.username", properties.determineUsername()))
+                .password(environment.getProperty("retail.datasource.replica.password", properties.determinePassword()))
+                .build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(replica));
+        replica.setPoolName((primary.getPoolName() != null ? primary.getPoolName() : "retail") + "-replica");
+        binder.bind("retail.datasource.replica.hikari", Bindable.ofInstance(replica));
+        replica.setReadOnly(true);
+
+        log.info("Read-only transactions are routed to the replica at {}", replica.getJdbcUrl());
+        return new ReplicaRoutingDataSource(primary, replica);
+    }
+
+    /**
+     * Connection pool metrics of the replica pool (Boot binds the primary one).
+     */
+    @Bean
+    public MeterBinder replicaPoolMetrics(DataSource dataSource) {
+        return registry -> {
+            try {
+                HikariDataSource replica = dataSource.unwrap(ReplicaRoutingDataSource.class).getReplica();
+                if (replica.getMetricsTrackerFactory() == null && replica.getMetricRegistry() == null) {
+                    replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+                }
+            } catch (SQLException e) {
+                log.warn("Could not bind replica pool metrics: {}", e.getMessage());
+            }
+        };
+    }
+}
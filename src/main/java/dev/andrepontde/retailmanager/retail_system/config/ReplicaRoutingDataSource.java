@@ -0,0 +1,37 @@
+package dev.andrepontde.retailmanager.retail_system.config;
+
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * DataSource that sends read-only transactions to a read replica and everything else to the primary.
+ *
+ * Connections are fetched lazily, on the first statement: by then a read-only transaction
+ * has called setReadOnly(true) on the connection (Hibernate does so for
+ * {@code @Transactional(readOnly = true)}), and the physical connection is taken from the
+ * replica pool instead of the primary one. Work outside a read-only transaction always
+ * goes to the primary.
+ */
+public final class ReplicaRoutingDataSource extends LazyConnectionDataSourceProxy implements AutoCloseable {
+
+    private final HikariDataSource primary;
+    private final HikariDataSource replica;
+
+    public ReplicaRoutingDataSource(HikariDataSource primary, HikariDataSource replica) {
+        super(primary);
+        setReadOnlyDataSource(replica);
+        this.primary = primary;
+        this.replica = replica;
+    }
+
+    public HikariDataSource getPrimary() { return primary; }
+
+    public HikariDataSource getReplica() { return replica; }
+
+    @Override
+    public void close() {
+        replica.close();
+        primary.close();
+    }
+}
@@ -0,0 +1,89 @@
+package dev.andrepontde.retailmanager.retail_system.config;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Times every public method of the sale, inventory, item, store and user services.
+ *
+ * Each call is recorded in the retail.service timer, tagged with the service, the method,
+ * the store of the user making the request (as set by the JWT filter, "none" for scheduled
+ * jobs and startup work) and the outcome: success, client_error (IllegalArgumentException,
+ * i.e. a 400) or error. The histogram buckets are set in application.properties.
+ *
+ * Timers are cached per tag combination, so a call costs two clock reads and a map lookup.
+ * Calls between methods of the same service bypass the proxy and are not timed separately.
+ */
+@Aspect
+@Component
+public class ServiceMetricsAspect {
+
+    private static final String NO_STORE = "none";
+
+    private final MeterRegistry meterRegistry;
+
+    private record TimerKey(String service, String method, String store, String outcome) {}
+
+    private final Map<TimerKey, Timer> timers = new ConcurrentHashMap<>();
+
+    public ServiceMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(public * dev.andrepontde.retailmanager.retail_system.service.SaleService.*(..))"
+            + " || execution(public * dev.andrepontde.retailmanager.retail_system.service.InventoryService.*(..))"
+            + " || execution(public * dev.andrepontde.retailmanager.retail_system.service.ItemService.*(..))"
+            + " || execution(public * dev.andrepontde.retailmanager.retail_system.service.StoreService.*(..))"
+            + " || execution(public * dev.andrepontde.retailmanager.retail_system.service.UserService.*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        long start = System.nanoTime();
+        String outcome = "success";
+        try {
+            return joinPoint.proceed();
+        } catch (IllegalArgumentException e) {
+            outcome = "client_error";
+            throw e;
+        } catch (Throwable e) {
+            outcome = "error";
+            throw e;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            TimerKey key = new TimerKey(joinPoint.getSignature().getDeclaringType().getSimpleName(),
+                                        joinPoint.getSignature().getName(), currentStore(), outcome);
+            timers.computeIfAbsent(key, this::register).record(elapsed, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer register(TimerKey key) {
+        return Timer.builder("retail.service")
+                .description("Time spent in public service methods")
+                .tag("service", key.service())
+                .tag("method", key.method())
+                .tag("store", key.store())
+                .tag("outcome", key.outcome())
+                .register(meterRegistry);
+    }
+
+    /**
+     * Store id of the authenticated user of the current request, without touching the database.
+     */
+    private static String currentStore() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return NO_STORE;
+        }
+        Object storeId = attributes.getAttribute("userStoreId", RequestAttributes.SCOPE_REQUEST);
+        return storeId != null ? storeId.toString() : NO_STORE;
+    }
+}
@@ -0,0 +1,236 @@
+package dev.andrepontde.retailmanager.retail_system.controller;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import dev.andrepontde.retailmanager.retail_system.dto.HotItemDTO;
+import dev.andrepontde.retailmanager.retail_system.dto.InventoryValuationDTO;
+import dev.andrepontde.retailmanager.retail_system.dto.UniqueCustomersDTO;
+import dev.andrepontde.retailmanager.retail_system.service.CoPurchaseIndex;
+import dev.andrepontde.retailmanager.retail_system.service.DemandForecastService;
+import dev.andrepontde.retailmanager.retail_system.service.HotStockService;
+import dev.andrepontde.retailmanager.retail_system.service.InventoryValuationService;
+import dev.andrepontde.retailmanager.retail_system.service.UniqueCustomerService;
+import dev.andrepontde.retailmanager.retail_system.service.UserService;
+
+/**
+ * REST Controller for corporate admin operations.
+ * 
+ * All endpoints under /api/admin require the CORPORATE_ADMIN role (see SecurityConfig).
+ * Store IDs are optional and default to the current user's store.
+ */
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+
+    @Autowired
+    private HotStockService hotStockService;
+
+    @Autowired
+    private InventoryValuationService inventoryValuationService;
+
+    @Autowired
+    private UniqueCustomerService uniqueCustomerService;
+
+    @Autowired
+    private CoPurchaseIndex coPurchaseIndex;
+
+    @Autowired
+    private DemandForecastService demandForecastService;
+
+    @Autowired
+    private UserService userService;
+
+    // ================================
+    // HOT ITEMS (STRIPED STOCK)
+    // ================================
+
+    /**
+     * Get the items whose stock is striped across slots in a store.
+     * 
+     * GET /api/admin/hot-items?storeId=1
+     */
+    @GetMapping("/hot-items")
+    public ResponseEntity<List<HotItemDTO>> getHotItems(@RequestParam(value = "storeId", required = false) Long storeId) {
+        try {
+            Long hotStoreId = storeId != null ? storeId : userService.getCurrentUserStoreId();
+            return new ResponseEntity<>(hotStockService.getHotItems(hotStoreId), HttpStatus.OK);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Stripe an item's stock across slots so concurrent checkouts stop queuing on one row.
+     * 
+     * POST /api/admin/hot-items
+     * {
+     *   "itemId": 123,
+     *   "storeId": 1,
+     *   "stripes": 8
+     * }
+     */
+    @PostMapping("/hot-items")
+    public ResponseEntity<HotItemDTO> enableHotItem(@RequestBody Map<String, Object> request) {
+        try {
+            Long itemId = Long.valueOf(request.get("itemId").toString());
+            Long storeId = request.get("storeId") != null
+                    ? Long.valueOf(request.get("storeId").toString())
+                    : userService.getCurrentUserStoreId();
+            int stripes = request.get("stripes") != null ? Integer.parseInt(request.get("stripes").toString()) : 8;
+
+            HotItemDTO result = hotStockService.enableStriping(itemId, storeId, stripes);
+            return new ResponseEntity<>(result, HttpStatus.OK);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Return a hot item to a single inventory row.
+     * 
+     * DELETE /api/admin/hot-items/123?storeId=1
+     */
+    @DeleteMapping("/hot-items/{itemId}")
+    public ResponseEntity<Void> disableHotItem(@PathVariable Long itemId,
+                                               @RequestParam(value = "storeId", required = false) Long storeId) {
+        try {
+            Long hotStoreId = storeId != null ? storeId : userService.getCurrentUserStoreId();
+            hotStockService.disableStriping(itemId, hotStoreId);
+            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        } catch (Exception e) {
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // ================================
+    // INVENTORY VALUATION
+    // ================================
+
+    /**
+     * Get the stock value of every store, in total and per category.
+     * 
+     * GET /api/admin/valuation
+     */
+    @GetMapping("/valuation")
+    public ResponseEntity<List<InventoryValuationDTO>> getValuations() {
+        try {
+            return new ResponseEntity<>(inventoryValuationService.getAllValuations(), HttpStatus.OK);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Recompute the valuation of every store from the inventory table.
+     * The response includes each store's drift (incremental value minus recomputed value).
+     * 
+     * POST /api/admin/valuation/rebuild
+     */
+    @PostMapping("/valuation/rebuild")
+    public ResponseEntity<List<InventoryValuationDTO>> rebuildValuations() {
+        try {
+            return new ResponseEntity<>(inventoryValuationService.rebuild(), HttpStatus.OK);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // ================================
+    // UNIQUE CUSTOMERS
+    // ================================
+
+    /**
+     * Get the approximate number of distinct customers between two days, chain-wide
+     * or across the given stores.
+     * 
+     * GET /api/admin/customers?from=2025-03-01&to=2025-03-31
+     * GET /api/admin/customers?from=2025-03-01&to=2025-03-31&storeIds=1,2,3
+     */
+    @GetMapping("/customers")
+    public ResponseEntity<UniqueCustomersDTO> getUniqueCustomers(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(value = "storeIds", required = false) List<Long> storeIds) {
+        try {
+            UniqueCustomersDTO customers = uniqueCustomerService.getUniqueCustomers(
+                    storeIds != null ? storeIds : List.of(), from, to);
+            return new ResponseEntity<>(customers, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Build the customer sketches of a range of days from the sale table. Safe to repeat.
+     * 
+     * POST /api/admin/customers/backfill?from=2025-01-01&to=2025-03-31
+     */
+    @PostMapping("/customers/backfill")
+    public ResponseEntity<Map<String, Object>> backfillUniqueCustomers(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            long sales = uniqueCustomerService.backfill(from, to);
+            return new ResponseEntity<>(Map.of("from", from, "to", to, "sales", sales), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // ================================
+    // CO-PURCHASES
+    // ================================
+
+    /**
+     * Rebuild the frequently-bought-together index from recent sales.
+     * 
+     * POST /api/admin/co-purchase/rebuild
+     */
+    @PostMapping("/co-purchase/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildCoPurchaseIndex() {
+        try {
+            int items = coPurchaseIndex.rebuild();
+            return new ResponseEntity<>(Map.of("items", items), HttpStatus.OK);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // ================================
+    // DEMAND FORECAST
+    // ================================
+
+    /**
+     * Run the demand forecast job now (it also runs nightly): roll up new sales days,
+     * update the forecasts and write recommended min/max stock levels.
+     * 
+     * POST /api/admin/forecast/run
+     */
+    @PostMapping("/forecast/run")
+    public ResponseEntity<Map<String, Object>> runDemandForecast() {
+        try {
+            return new ResponseEntity<>(demandForecastService.run(), HttpStatus.OK);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+}
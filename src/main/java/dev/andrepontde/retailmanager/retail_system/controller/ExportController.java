@@ -0,0 +1,89 @@
+package dev.andrepontde.retailmanager.retail_system.controller;
+
+import java.time.LocalDateTime;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import dev.andrepontde.retailmanager.retail_system.service.ExportService;
+
+/**
+ * REST Controller for bulk data exports (BI extracts).
+ * 
+ * Rows are streamed from the database to the response as they are read, so exports of any
+ * size use constant memory. Formats: csv (default) or ndjson; gzip=true compresses the body
+ * (served as a .gz attachment). Under /api/admin, so the CORPORATE_ADMIN role is required.
+ * Store ID is optional; without it all stores are exported.
+ */
+@RestController
+@RequestMapping("/api/admin/export")
+public class ExportController {
+
+    @Autowired
+    private ExportService exportService;
+
+    /**
+     * Export inventory rows.
+     * 
+     * GET /api/admin/export/inventory?format=csv&gzip=true&storeId=1
+     */
+    @GetMapping("/inventory")
+    public ResponseEntity<StreamingResponseBody> exportInventory(
+            @RequestParam(value = "storeId", required = false) Long storeId,
+            @RequestParam(value = "format", defaultValue = "csv") String format,
+            @RequestParam(value = "gzip", defaultValue = "false") boolean gzip) {
+        try {
+            ExportService.Format exportFormat = ExportService.Format.parse(format);
+            StreamingResponseBody body = out -> exportService.exportInventory(storeId, exportFormat, gzip, out);
+            return new ResponseEntity<>(body, exportHeaders("inventory", exportFormat, gzip), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Export sale lines of a date range [from, to).
+     * 
+     * GET /api/admin/export/sales?from=2025-01-01T00:00:00&to=2025-02-01T00:00:00&format=ndjson
+     */
+    @GetMapping("/sales")
+    public ResponseEntity<StreamingResponseBody> exportSales(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(value = "storeId", required = false) Long storeId,
+            @RequestParam(value = "format", defaultValue = "csv") String format,
+            @RequestParam(value = "gzip", defaultValue = "false") boolean gzip) {
+        try {
+            if (!from.isBefore(to)) {
+                throw new IllegalArgumentException("Export start must be before its end");
+            }
+            ExportService.Format exportFormat = ExportService.Format.parse(format);
+            StreamingResponseBody body = out -> exportService.exportSales(storeId, from, to, exportFormat, gzip, out);
+            return new ResponseEntity<>(body, exportHeaders("sales", exportFormat, gzip), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    private HttpHeaders exportHeaders(String name, ExportService.Format format, boolean gzip) {
+        HttpHeaders headers = new HttpHeaders();
+        String filename = name + "." + format.getExtension();
+        if (gzip) {
+            headers.set(HttpHeaders.CONTENT_TYPE, "application/gzip");
+            filename += ".gz";
+        } else {
+            headers.set(HttpHeaders.CONTENT_TYPE, format.getContentType() + ";charset=UTF-8");
+        }
+        headers.setContentDisposition(ContentDisposition.attachment().filename(filename).build());
+        return headers;
+    }
+}
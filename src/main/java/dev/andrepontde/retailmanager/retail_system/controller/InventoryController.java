@@ -1,10 +1,13 @@
 package dev.andrepontde.retailmanager.retail_system.controller;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -13,9 +16,22 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import dev.andrepontde.retailmanager.retail_system.dto.BasketAvailabilityDTO;
+import dev.andrepontde.retailmanager.retail_system.dto.InventoryChangesDTO;
 import dev.andrepontde.retailmanager.retail_system.dto.InventoryDTO;
+import dev.andrepontde.retailmanager.retail_system.dto.InventoryValuationDTO;
+import dev.andrepontde.retailmanager.retail_system.dto.ItemAvailabilityDTO;
+import dev.andrepontde.retailmanager.retail_system.dto.ReorderSuggestionDTO;
+import dev.andrepontde.retailmanager.retail_system.dto.StockMovementDTO;
+import dev.andrepontde.retailmanager.retail_system.dto.StockTransferDTO;
+import dev.andrepontde.retailmanager.retail_system.service.DemandForecastService;
 import dev.andrepontde.retailmanager.retail_system.service.InventoryService;
+import dev.andrepontde.retailmanager.retail_system.service.InventoryValuationService;
+import dev.andrepontde.retailmanager.retail_system.service.StockLedgerService;
+import dev.andrepontde.retailmanager.retail_system.service.StockStreamService;
+import dev.andrepontde.retailmanager.retail_system.service.UserService;
 
 /**
  * REST Controller for Inventory management.
@@ -32,6 +48,21 @@ public class InventoryController {
     @Autowired
     private InventoryService inventoryService;
 
+    @Autowired
+    private InventoryValuationService inventoryValuationService;
+
+    @Autowired
+    private DemandForecastService demandForecastService;
+
+    @Autowired
+    private StockLedgerService stockLedgerService;
+
+    @Autowired
+    private StockStreamService stockStreamService;
+
+    @Autowired
+    private UserService userService;
+
     // ================================
     // USER-CONTEXT-AWARE ENDPOINTS (NEW APPROACH!)
     // ================================
@@ -125,6 +156,65 @@ public class InventoryController {
         }
     }
 
+    /**
+     * Get available quantity for every item of a basket in current user's store
+     * (one call per basket instead of one /stock call per scanned line).
+     * With nearby=true the other stores at the same location are included.
+     * 
+     * GET /api/inventory/availability?itemIds=123,124,125&nearby=true
+     */
+    @GetMapping("/availability")
+    public ResponseEntity<BasketAvailabilityDTO> getBasketAvailability(
+            @RequestParam List<Long> itemIds,
+            @RequestParam(value = "nearby", defaultValue = "false") boolean nearby) {
+        try {
+            BasketAvailabilityDTO availability = inventoryService.getBasketAvailability(itemIds, nearby);
+            return new ResponseEntity<>(availability, HttpStatus.OK);
+        } catch (RuntimeException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Get the stock of an item in every store that carries it ("which store has it?").
+     * 
+     * GET /api/inventory/item/123/availability
+     */
+    @GetMapping("/item/{itemId}/availability")
+    public ResponseEntity<ItemAvailabilityDTO> getItemAvailability(@PathVariable Long itemId) {
+        try {
+            ItemAvailabilityDTO availability = inventoryService.getItemAvailability(itemId);
+            return new ResponseEntity<>(availability, HttpStatus.OK);
+        } catch (RuntimeException e) {
+            return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Get the stock value of a store, in total and per category.
+     * Store ID is optional and defaults to the current user's store.
+     * 
+     * GET /api/inventory/valuation?storeId=1
+     */
+    @GetMapping("/valuation")
+    public ResponseEntity<InventoryValuationDTO> getValuation(
+            @RequestParam(value = "storeId", required = false) Long storeId) {
+        try {
+            InventoryValuationDTO valuation = storeId != null
+                    ? inventoryValuationService.getStoreValuation(storeId)
+                    : inventoryValuationService.getStoreValuation();
+            return new ResponseEntity<>(valuation, HttpStatus.OK);
+        } catch (RuntimeException e) {
+            return new ResponseEntity<>(null, HttpStatus.FORBIDDEN);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
     /**
      * Get all inventory for current user's store.
      * 
@@ -161,6 +251,125 @@ public class InventoryController {
         }
     }
 
+    /**
+     * Get the items of a store at or below their reorder point, with the quantity to order
+     * to reach their max level. Items that run out soonest at forecast demand come first.
+     * Store ID is optional and defaults to the current user's store.
+     * 
+     * GET /api/inventory/reorder-suggestions?storeId=1&limit=50
+     */
+    @GetMapping("/reorder-suggestions")
+    public ResponseEntity<List<ReorderSuggestionDTO>> getReorderSuggestions(
+            @RequestParam(value = "storeId", required = false) Long storeId,
+            @RequestParam(value = "limit", defaultValue = "50") int limit) {
+        try {
+            List<ReorderSuggestionDTO> suggestions = demandForecastService.getReorderSuggestions(storeId, limit);
+            return new ResponseEntity<>(suggestions, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        } catch (RuntimeException e) {
+            return new ResponseEntity<>(null, HttpStatus.FORBIDDEN);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Get inventory rows of current user's store changed since a version (delta sync).
+     * Start with since=0 for a full sync, then pass the returned "version" each time.
+     * 
+     * GET /api/inventory/changes?since=1042&limit=500
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<InventoryChangesDTO> getChanges(
+            @RequestParam(value = "since", defaultValue = "0") long since,
+            @RequestParam(value = "limit", defaultValue = "500") int limit) {
+        try {
+            InventoryChangesDTO changes = inventoryService.getChangesSince(since, limit);
+            return new ResponseEntity<>(changes, HttpStatus.OK);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Get stock level for an item in current user's store at a point in time.
+     * 
+     * GET /api/inventory/stock/123/at?timestamp=2025-03-01T18:00:00
+     */
+    @GetMapping("/stock/{itemId}/at")
+    public ResponseEntity<Map<String, Object>> getStockAt(
+            @PathVariable Long itemId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime timestamp) {
+        try {
+            int stock = stockLedgerService.getStockAt(itemId, timestamp);
+            Map<String, Object> response = Map.of(
+                "itemId", itemId,
+                "timestamp", timestamp,
+                "stock", stock
+            );
+            return new ResponseEntity<>(response, HttpStatus.OK);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Get stock levels of all items in current user's store at a point in time (itemId -> stock).
+     * 
+     * GET /api/inventory/my-store/at?timestamp=2025-03-01T18:00:00
+     */
+    @GetMapping("/my-store/at")
+    public ResponseEntity<Map<Long, Integer>> getMyStoreStockAt(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime timestamp) {
+        try {
+            Map<Long, Integer> stock = stockLedgerService.getStoreStockAt(timestamp);
+            return new ResponseEntity<>(stock, HttpStatus.OK);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Get the stock movements of an item in current user's store within a time range.
+     * 
+     * GET /api/inventory/movements?itemId=123&from=2025-03-01T00:00:00&to=2025-03-02T00:00:00&limit=200
+     */
+    @GetMapping("/movements")
+    public ResponseEntity<List<StockMovementDTO>> getMovements(
+            @RequestParam Long itemId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(value = "limit", defaultValue = "200") int limit) {
+        try {
+            List<StockMovementDTO> movements = stockLedgerService.getMovements(itemId, from, to, limit);
+            return new ResponseEntity<>(movements, HttpStatus.OK);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Stream stock changes for current user's store as Server-Sent Events.
+     * Replaces polling of /my-store and /low-stock on dashboards.
+     * 
+     * GET /api/inventory/stream
+     * GET /api/inventory/stream?storeId=2   (any store the user can access)
+     * 
+     * Events: "stock" (changed row), "low-stock" / "stock-recovered" (threshold crossings),
+     * "resync" (client fell behind and should reload), plus periodic heartbeat comments.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamStockChanges(@RequestParam(value = "storeId", required = false) Long storeId) {
+        try {
+            Long streamStoreId = storeId != null ? storeId : userService.getCurrentUserStoreId();
+            userService.validateStoreAccess(streamStoreId);
+            return new ResponseEntity<>(stockStreamService.subscribe(streamStoreId), HttpStatus.OK);
+        } catch (RuntimeException e) {
+            return new ResponseEntity<>(null, HttpStatus.FORBIDDEN);
+        }
+    }
+
     // ================================
     // CROSS-STORE OPERATIONS (For managers/admins)
     // ================================
@@ -193,6 +402,32 @@ public class InventoryController {
         }
     }
 
+    /**
+     * Transfer many item lines between two stores in one transaction (store rebalancing).
+     * Either all lines are transferred or none are.
+     * 
+     * POST /api/inventory/transfer-stock/batch
+     * {
+     *   "fromStoreId": 1,
+     *   "toStoreId": 2,
+     *   "lines": [
+     *     { "itemId": 123, "quantity": 10 },
+     *     { "itemId": 124, "quantity": 4 }
+     *   ]
+     * }
+     */
+    @PostMapping("/transfer-stock/batch")
+    public ResponseEntity<Map<String, Object>> transferStockBatch(@RequestBody StockTransferDTO transfer) {
+        try {
+            int lines = inventoryService.transferStock(transfer);
+            return new ResponseEntity<>(Map.of("linesTransferred", lines), HttpStatus.OK);
+        } catch (RuntimeException e) {
+            return new ResponseEntity<>(Map.of("error", String.valueOf(e.getMessage())), HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            return new ResponseEntity<>(Map.of("error", "Internal server error"), HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
     /**
      * Get inventory for a specific store (admin/manager only).
      * 
@@ -12,9 +12,12 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import dev.andrepontde.retailmanager.retail_system.dto.CoPurchaseDTO;
 import dev.andrepontde.retailmanager.retail_system.dto.ItemDTO;
+import dev.andrepontde.retailmanager.retail_system.service.CoPurchaseIndex;
 import dev.andrepontde.retailmanager.retail_system.service.ItemService;
 
 
@@ -25,6 +28,9 @@ public class ItemController {
     @Autowired
     private ItemService itemService;
 
+    @Autowired
+    private CoPurchaseIndex coPurchaseIndex;
+
     // CREATE - Add a new item
     @PostMapping
     public ResponseEntity<ItemDTO> createItem(@RequestBody ItemDTO itemDTO) {
@@ -159,4 +165,20 @@ public class ItemController {
         }
     }
 
+    // READ - Get items frequently bought together with an item
+    // This method handles GET requests to /api/items/{id}/bought-together?limit=5
+    // Results come from an in-memory index of recent sales, most frequent partner first
+    @GetMapping("/{id}/bought-together")
+    public ResponseEntity<List<CoPurchaseDTO>> getBoughtTogether(@PathVariable("id") Long id,
+                                                                 @RequestParam(defaultValue = "5") int limit) {
+        try {
+            List<CoPurchaseDTO> partners = coPurchaseIndex.getBoughtTogether(id, limit);
+            return new ResponseEntity<>(partners, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            // Limit out of range
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
 }
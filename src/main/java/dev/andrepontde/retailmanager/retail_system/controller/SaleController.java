@@ -1,5 +1,6 @@
 package dev.andrepontde.retailmanager.retail_system.controller;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -17,8 +18,13 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import dev.andrepontde.retailmanager.retail_system.dto.BestSellerDTO;
 import dev.andrepontde.retailmanager.retail_system.dto.SaleDTO;
+import dev.andrepontde.retailmanager.retail_system.dto.SalesAnalyticsDTO;
+import dev.andrepontde.retailmanager.retail_system.dto.UniqueCustomersDTO;
+import dev.andrepontde.retailmanager.retail_system.service.BestSellerService;
 import dev.andrepontde.retailmanager.retail_system.service.SaleService;
+import dev.andrepontde.retailmanager.retail_system.service.UniqueCustomerService;
 
 /**
  * REST Controller for Sale management.
@@ -38,6 +44,12 @@ public class SaleController {
     @Autowired
     private SaleService saleService;
 
+    @Autowired
+    private BestSellerService bestSellerService;
+
+    @Autowired
+    private UniqueCustomerService uniqueCustomerService;
+
     // ================================
     // SALES PROCESSING
     // ================================
@@ -166,6 +178,80 @@ public class SaleController {
         }
     }
 
+    /**
+     * Group sales of a date range by up to two dimensions, e.g. revenue by category by hour,
+     * top items (groupBy=item&limit=10) or payment method mix (groupBy=payment).
+     * Dimensions: store, item, category, payment, hour, day. Rows are sorted by revenue.
+     * Store ID is optional and defaults to the current user's store.
+     * 
+     * GET /api/sales/analytics/cube?startDate=2025-03-01T00:00:00&endDate=2025-03-31T23:59:59&groupBy=category,hour
+     */
+    @GetMapping("/analytics/cube")
+    public ResponseEntity<SalesAnalyticsDTO> getSalesAnalytics(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(value = "groupBy", required = false) List<String> groupBy,
+            @RequestParam(value = "storeId", required = false) Long storeId,
+            @RequestParam(value = "limit", defaultValue = "0") int limit) {
+        try {
+            SalesAnalyticsDTO analytics = saleService.getSalesAnalytics(storeId, startDate, endDate,
+                    groupBy != null ? groupBy : List.of(), limit);
+            return new ResponseEntity<>(analytics, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        } catch (RuntimeException e) {
+            return new ResponseEntity<>(null, HttpStatus.FORBIDDEN);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Get the live best sellers of current user's store for today, this week or this month.
+     * Store ID is optional and defaults to the current user's store.
+     * 
+     * GET /api/sales/best-sellers?window=week&limit=20
+     */
+    @GetMapping("/best-sellers")
+    public ResponseEntity<List<BestSellerDTO>> getBestSellers(
+            @RequestParam(value = "window", defaultValue = "day") String window,
+            @RequestParam(value = "limit", defaultValue = "20") int limit,
+            @RequestParam(value = "storeId", required = false) Long storeId) {
+        try {
+            List<BestSellerDTO> bestSellers = bestSellerService.getBestSellers(storeId, BestSellerService.Window.parse(window), limit);
+            return new ResponseEntity<>(bestSellers, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        } catch (RuntimeException e) {
+            return new ResponseEntity<>(null, HttpStatus.FORBIDDEN);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Get the approximate number of distinct customers of current user's store between two days.
+     * Store ID is optional and defaults to the current user's store.
+     * 
+     * GET /api/sales/analytics/customers?from=2025-03-01&to=2025-03-31
+     */
+    @GetMapping("/analytics/customers")
+    public ResponseEntity<UniqueCustomersDTO> getUniqueCustomers(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(value = "storeId", required = false) Long storeId) {
+        try {
+            UniqueCustomersDTO customers = uniqueCustomerService.getStoreUniqueCustomers(storeId, from, to);
+            return new ResponseEntity<>(customers, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        } catch (RuntimeException e) {
+            return new ResponseEntity<>(null, HttpStatus.FORBIDDEN);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
     // ================================
     // REFUNDS AND RETURNS
     // ================================
@@ -0,0 +1,56 @@
+package dev.andrepontde.retailmanager.retail_system.dto;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Data Transfer Object for the availability of a whole basket.
+ *
+ * Answers "can these items be sold right now" for every scanned line in one call:
+ * available quantity (stock minus reservations) per item id, for the current store
+ * and optionally for nearby stores. Items without stock in a store are reported as 0.
+ */
+public class BasketAvailabilityDTO {
+
+    private Long storeId;
+    private Map<Long, Integer> available = new LinkedHashMap<>();
+    private List<StoreAvailability> nearby = new ArrayList<>();
+
+    public BasketAvailabilityDTO() {}
+
+    public Long getStoreId() { return storeId; }
+    public void setStoreId(Long storeId) { this.storeId = storeId; }
+
+    public Map<Long, Integer> getAvailable() { return available; }
+    public void setAvailable(Map<Long, Integer> available) { this.available = available; }
+
+    public List<StoreAvailability> getNearby() { return nearby; }
+    public void setNearby(List<StoreAvailability> nearby) { this.nearby = nearby; }
+
+    /**
+     * Availability of the basket items in another store.
+     */
+    public static class StoreAvailability {
+        private Long storeId;
+        private String storeName;
+        private Map<Long, Integer> available = new LinkedHashMap<>();
+
+        public StoreAvailability() {}
+
+        public StoreAvailability(Long storeId, String storeName) {
+            this.storeId = storeId;
+            this.storeName = storeName;
+        }
+
+        public Long getStoreId() { return storeId; }
+        public void setStoreId(Long storeId) { this.storeId = storeId; }
+
+        public String getStoreName() { return storeName; }
+        public void setStoreName(String storeName) { this.storeName = storeName; }
+
+        public Map<Long, Integer> getAvailable() { return available; }
+        public void setAvailable(Map<Long, Integer> available) { this.available = available; }
+    }
+}
@@ -0,0 +1,36 @@
+package dev.andrepontde.retailmanager.retail_system.dto;
+
+/**
+ * Data Transfer Object for one entry of a store's best-seller list.
+ *
+ * quantity is the estimated quantity sold in the window (never below the true value);
+ * guaranteedQuantity is a lower bound, equal to quantity when the estimate is exact.
+ */
+public class BestSellerDTO {
+
+    private Long itemId;
+    private String itemName;
+    private long quantity;
+    private long guaranteedQuantity;
+
+    public BestSellerDTO() {}
+
+    public BestSellerDTO(Long itemId, String itemName, long quantity, long guaranteedQuantity) {
+        this.itemId = itemId;
+        this.itemName = itemName;
+        this.quantity = quantity;
+        this.guaranteedQuantity = guaranteedQuantity;
+    }
+
+    public Long getItemId() { return itemId; }
+    public void setItemId(Long itemId) { this.itemId = itemId; }
+
+    public String getItemName() { return itemName; }
+    public void setItemName(String itemName) { this.itemName = itemName; }
+
+    public long getQuantity() { return quantity; }
+    public void setQuantity(long quantity) { this.quantity = quantity; }
+
+    public long getGuaranteedQuantity() { return guaranteedQuantity; }
+    public void setGuaranteedQuantity(long guaranteedQuantity) { this.guaranteedQuantity = guaranteedQuantity; }
+}
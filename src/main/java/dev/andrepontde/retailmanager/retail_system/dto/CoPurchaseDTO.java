@@ -0,0 +1,36 @@
+package dev.andrepontde.retailmanager.retail_system.dto;
+
+/**
+ * Data Transfer Object for an item frequently bought together with another item.
+ *
+ * count is the number of sales that contained both items; confidence is count divided by
+ * the number of sales that contained the requested item (0..1).
+ */
+public class CoPurchaseDTO {
+
+    private Long itemId;
+    private String itemName;
+    private int count;
+    private double confidence;
+
+    public CoPurchaseDTO() {}
+
+    public CoPurchaseDTO(Long itemId, String itemName, int count, double confidence) {
+        this.itemId = itemId;
+        this.itemName = itemName;
+        this.count = count;
+        this.confidence = confidence;
+    }
+
+    public Long getItemId() { return itemId; }
+    public void setItemId(Long itemId) { this.itemId = itemId; }
+
+    public String getItemName() { return itemName; }
+    public void setItemName(String itemName) { this.itemName = itemName; }
+
+    public int getCount() { return count; }
+    public void setCount(int count) { this.count = count; }
+
+    public double getConfidence() { return confidence; }
+    public void setConfidence(double confidence) { this.confidence = confidence; }
+}
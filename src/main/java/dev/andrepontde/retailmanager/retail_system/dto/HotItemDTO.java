@@ -0,0 +1,45 @@
+package dev.andrepontde.retailmanager.retail_system.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Data Transfer Object for an item whose stock is striped across slots (hot item).
+ */
+public class HotItemDTO {
+
+    private Long inventoryId;
+    private Long itemId;
+    private Long storeId;
+    private Integer stripes;
+
+    /**
+     * Current stock, including sales not yet folded into the inventory row.
+     */
+    private Integer quantity;
+
+    /**
+     * Stock currently handed out to each slot, by slot index.
+     */
+    private List<Integer> slotQuantities = new ArrayList<>();
+
+    public HotItemDTO() {}
+
+    public Long getInventoryId() { return inventoryId; }
+    public void setInventoryId(Long inventoryId) { this.inventoryId = inventoryId; }
+
+    public Long getItemId() { return itemId; }
+    public void setItemId(Long itemId) { this.itemId = itemId; }
+
+    public Long getStoreId() { return storeId; }
+    public void setStoreId(Long storeId) { this.storeId = storeId; }
+
+    public Integer getStripes() { return stripes; }
+    public void setStripes(Integer stripes) { this.stripes = stripes; }
+
+    public Integer getQuantity() { return quantity; }
+    public void setQuantity(Integer quantity) { this.quantity = quantity; }
+
+    public List<Integer> getSlotQuantities() { return slotQuantities; }
+    public void setSlotQuantities(List<Integer> slotQuantities) { this.slotQuantities = slotQuantities; }
+}
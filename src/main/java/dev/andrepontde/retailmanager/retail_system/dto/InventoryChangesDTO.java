@@ -0,0 +1,62 @@
+package dev.andrepontde.retailmanager.retail_system.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Data Transfer Object for a page of inventory changes (delta sync).
+ * 
+ * Clients keep the returned version and pass it as "since" on the next call.
+ * Changed rows are upserted by id; deleted rows are removed by inventoryId.
+ */
+public class InventoryChangesDTO {
+
+    private Long since;
+    private Long version;
+    private boolean hasMore;
+    private List<InventoryDTO> changes = new ArrayList<>();
+    private List<Deletion> deleted = new ArrayList<>();
+
+    public InventoryChangesDTO() {}
+
+    public Long getSince() { return since; }
+    public void setSince(Long since) { this.since = since; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
+    public boolean isHasMore() { return hasMore; }
+    public void setHasMore(boolean hasMore) { this.hasMore = hasMore; }
+
+    public List<InventoryDTO> getChanges() { return changes; }
+    public void setChanges(List<InventoryDTO> changes) { this.changes = changes; }
+
+    public List<Deletion> getDeleted() { return deleted; }
+    public void setDeleted(List<Deletion> deleted) { this.deleted = deleted; }
+
+    /**
+     * Tombstone of a deleted inventory row.
+     */
+    public static class Deletion {
+        private Long inventoryId;
+        private Long itemId;
+        private Long version;
+
+        public Deletion() {}
+
+        public Deletion(Long inventoryId, Long itemId, Long version) {
+            this.inventoryId = inventoryId;
+            this.itemId = itemId;
+            this.version = version;
+        }
+
+        public Long getInventoryId() { return inventoryId; }
+        public void setInventoryId(Long inventoryId) { this.inventoryId = inventoryId; }
+
+        public Long getItemId() { return itemId; }
+        public void setItemId(Long itemId) { this.itemId = itemId; }
+
+        public Long getVersion() { return version; }
+        public void setVersion(Long version) { this.version = version; }
+    }
+}
@@ -19,6 +19,15 @@ public class InventoryDTO {
 
  
     private Long id;
+
+    private Long itemId;
+
+    private Long storeId;
+
+    /**
+     * Change version of the row, used by delta-sync clients.
+     */
+    private Long version;
     
     @NotNull(message = "Item cannot be null")
     private ItemDTO item;
@@ -51,6 +60,21 @@ public class InventoryDTO {
         this.quantity = quantity;
     }
 
+    /**
+     * Projection constructor, used by JPQL "SELECT new InventoryDTO(...)" queries.
+     */
+    public InventoryDTO(Long id, Long itemId, Long storeId, Long version, Integer quantity,
+                        Integer reservedQuantity, Integer minStockLevel, Integer maxStockLevel) {
+        this.id = id;
+        this.itemId = itemId;
+        this.storeId = storeId;
+        this.version = version;
+        this.quantity = quantity;
+        this.reservedQuantity = reservedQuantity;
+        this.minStockLevel = minStockLevel;
+        this.maxStockLevel = maxStockLevel;
+    }
+
     // ================================
     // GETTERS AND SETTERS
     // ================================
@@ -63,6 +87,30 @@ public class InventoryDTO {
         this.id = id;
     }
 
+    public Long getItemId() {
+        return itemId;
+    }
+
+    public void setItemId(Long itemId) {
+        this.itemId = itemId;
+    }
+
+    public Long getStoreId() {
+        return storeId;
+    }
+
+    public void setStoreId(Long storeId) {
+        this.storeId = storeId;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public ItemDTO getItem() {
         return item;
     }
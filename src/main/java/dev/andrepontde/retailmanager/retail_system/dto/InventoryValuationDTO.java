@@ -0,0 +1,63 @@
+package dev.andrepontde.retailmanager.retail_system.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Data Transfer Object for the stock value of a store (quantity x item price),
+ * in total and per item category.
+ *
+ * drift is only set by a rebuild: the incrementally maintained value minus the
+ * value recomputed from the inventory table (0 when both agree).
+ */
+public class InventoryValuationDTO {
+
+    private Long storeId;
+    private long units;
+    private double value;
+    private Double drift;
+    private List<CategoryValuation> categories = new ArrayList<>();
+
+    public InventoryValuationDTO() {}
+
+    public Long getStoreId() { return storeId; }
+    public void setStoreId(Long storeId) { this.storeId = storeId; }
+
+    public long getUnits() { return units; }
+    public void setUnits(long units) { this.units = units; }
+
+    public double getValue() { return value; }
+    public void setValue(double value) { this.value = value; }
+
+    public Double getDrift() { return drift; }
+    public void setDrift(Double drift) { this.drift = drift; }
+
+    public List<CategoryValuation> getCategories() { return categories; }
+    public void setCategories(List<CategoryValuation> categories) { this.categories = categories; }
+
+    /**
+     * Stock value of one item category in the store.
+     */
+    public static class CategoryValuation {
+        private String category;
+        private long units;
+        private double value;
+
+        public CategoryValuation() {}
+
+        public CategoryValuation(String category, long units, double value) {
+            this.category = category;
+            this.units = units;
+            this.value = value;
+        }
+
+        public String getCategory() { return category; }
+        public void setCategory(String category) { this.category = category; }
+
+        public long getUnits() { return units; }
+        public void setUnits(long units) { this.units = units; }
+
+        public double getValue() { return value; }
+        public void setValue(double value) { this.value = value; }
+    }
+}
@@ -0,0 +1,58 @@
+package dev.andrepontde.retailmanager.retail_system.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Data Transfer Object for the stock of one item across all stores.
+ *
+ * Answers "which other stores have this in stock" without loading any store's
+ * full inventory. Stores without an inventory row for the item are left out.
+ */
+public class ItemAvailabilityDTO {
+
+    private Long itemId;
+    private int totalQuantity;
+    private int totalAvailable;
+    private List<StoreStock> stores = new ArrayList<>();
+
+    public ItemAvailabilityDTO() {}
+
+    public Long getItemId() { return itemId; }
+    public void setItemId(Long itemId) { this.itemId = itemId; }
+
+    public int getTotalQuantity() { return totalQuantity; }
+    public void setTotalQuantity(int totalQuantity) { this.totalQuantity = totalQuantity; }
+
+    public int getTotalAvailable() { return totalAvailable; }
+    public void setTotalAvailable(int totalAvailable) { this.totalAvailable = totalAvailable; }
+
+    public List<StoreStock> getStores() { return stores; }
+    public void setStores(List<StoreStock> stores) { this.stores = stores; }
+
+    /**
+     * Stock of the item in one store.
+     */
+    public static class StoreStock {
+        private Long storeId;
+        private int quantity;
+        private int available;
+
+        public StoreStock() {}
+
+        public StoreStock(Long storeId, int quantity, int available) {
+            this.storeId = storeId;
+            this.quantity = quantity;
+            this.available = available;
+        }
+
+        public Long getStoreId() { return storeId; }
+        public void setStoreId(Long storeId) { this.storeId = storeId; }
+
+        public int getQuantity() { return quantity; }
+        public void setQuantity(int quantity) { this.quantity = quantity; }
+
+        public int getAvailable() { return available; }
+        public void setAvailable(int available) { this.available = available; }
+    }
+}
@@ -45,6 +45,12 @@ public class ItemDTO {
         this.price = price;
     }
 
+    // Projection constructor, used by JPQL "SELECT new ItemDTO(...)" queries
+    public ItemDTO(Long id, String name, String category, Double price) {
+        this(name, category, price);
+        this.id = id;
+    }
+
     public Long getId() {
         return id;
     }
@@ -0,0 +1,65 @@
+package dev.andrepontde.retailmanager.retail_system.dto;
+
+/**
+ * Data Transfer Object for an item of a store that has reached its reorder point.
+ *
+ * dailyDemand is the forecast units sold per day (null before the first forecast run),
+ * daysOfCover how long the current stock lasts at that rate (null without demand), and
+ * suggestedQuantity the units to order to bring stock back up to maxStockLevel.
+ */
+public class ReorderSuggestionDTO {
+
+    private Long storeId;
+    private Long itemId;
+    private String itemName;
+    private int quantity;
+    private int minStockLevel;
+    private int maxStockLevel;
+    private Double dailyDemand;
+    private Double daysOfCover;
+    private int suggestedQuantity;
+
+    public ReorderSuggestionDTO() {}
+
+    /**
+     * Projection constructor, used by JPQL "SELECT new ReorderSuggestionDTO(...)" queries.
+     * Derived fields are left to the caller.
+     */
+    public ReorderSuggestionDTO(Long storeId, Long itemId, String itemName, Integer quantity,
+                                Integer minStockLevel, Integer maxStockLevel, Double dailyDemand) {
+        this.storeId = storeId;
+        this.itemId = itemId;
+        this.itemName = itemName;
+        this.quantity = quantity;
+        this.minStockLevel = minStockLevel;
+        this.maxStockLevel = maxStockLevel;
+        this.dailyDemand = dailyDemand;
+    }
+
+    public Long getStoreId() { return storeId; }
+    public void setStoreId(Long storeId) { this.storeId = storeId; }
+
+    public Long getItemId() { return itemId; }
+    public void setItemId(Long itemId) { this.itemId = itemId; }
+
+    public String getItemName() { return itemName; }
+    public void setItemName(String itemName) { this.itemName = itemName; }
+
+    public int getQuantity() { return quantity; }
+    public void setQuantity(int quantity) { this.quantity = quantity; }
+
+    public int getMinStockLevel() { return minStockLevel; }
+    public void setMinStockLevel(int minStockLevel) { this.minStockLevel = minStockLevel; }
+
+    public int getMaxStockLevel() { return maxStockLevel; }
+    public void setMaxStockLevel(int maxStockLevel) { this.maxStockLevel = maxStockLevel; }
+
+    public Double getDailyDemand() { return dailyDemand; }
+    public void setDailyDemand(Double dailyDemand) { this.dailyDemand = dailyDemand; }
+
+    public Double getDaysOfCover() { return daysOfCover; }
+    public void setDaysOfCover(Double daysOfCover) { this.daysOfCover = daysOfCover; }
+
+    public int getSuggestedQuantity() { return suggestedQuantity; }
+    public void setSuggestedQuantity(int suggestedQuantity) { this.suggestedQuantity = suggestedQuantity; }
+}
@@ -0,0 +1,68 @@
+package dev.andrepontde.retailmanager.retail_system.dto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Data Transfer Object for a grouped sales analytics query
+ * (e.g. revenue by category by hour for a store).
+ *
+ * Each row holds the values of the grouped dimensions, keyed by dimension name,
+ * and the sold quantity and revenue of that group (net of refunds).
+ */
+public class SalesAnalyticsDTO {
+
+    private Long storeId;
+    private LocalDateTime startDate;
+    private LocalDateTime endDate;
+    private List<String> groupBy = new ArrayList<>();
+    private long totalQuantity;
+    private double totalRevenue;
+    private List<Row> rows = new ArrayList<>();
+
+    public SalesAnalyticsDTO() {}
+
+    public Long getStoreId() { return storeId; }
+    public void setStoreId(Long storeId) { this.storeId = storeId; }
+
+    public LocalDateTime getStartDate() { return startDate; }
+    public void setStartDate(LocalDateTime startDate) { this.startDate = startDate; }
+
+    public LocalDateTime getEndDate() { return endDate; }
+    public void setEndDate(LocalDateTime endDate) { this.endDate = endDate; }
+
+    public List<String> getGroupBy() { return groupBy; }
+    public void setGroupBy(List<String> groupBy) { this.groupBy = groupBy; }
+
+    public long getTotalQuantity() { return totalQuantity; }
+    public void setTotalQuantity(long totalQuantity) { this.totalQuantity = totalQuantity; }
+
+    public double getTotalRevenue() { return totalRevenue; }
+    public void setTotalRevenue(double totalRevenue) { this.totalRevenue = totalRevenue; }
+
+    public List<Row> getRows() { return rows; }
+    public void setRows(List<Row> rows) { this.rows = rows; }
+
+    /**
+     * One group of the result.
+     */
+    public static class Row {
+        private Map<String, String> group = new LinkedHashMap<>();
+        private long quantity;
+        private double revenue;
+
+        public Row() {}
+
+        public Map<String, String> getGroup() { return group; }
+        public void setGroup(Map<String, String> group) { this.group = group; }
+
+        public long getQuantity() { return quantity; }
+        public void setQuantity(long quantity) { this.quantity = quantity; }
+
+        public double getRevenue() { return revenue; }
+        public void setRevenue(double revenue) { this.revenue = revenue; }
+    }
+}
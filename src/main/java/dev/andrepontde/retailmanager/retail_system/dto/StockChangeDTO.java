@@ -0,0 +1,59 @@
+package dev.andrepontde.retailmanager.retail_system.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Data Transfer Object for a single stock change pushed to store dashboards.
+ * 
+ * Carries only the changed inventory row (a delta), so dashboards no longer
+ * need to re-read the whole store inventory to stay current.
+ */
+public class StockChangeDTO {
+
+    private Long inventoryId;
+    private Long storeId;
+    private Long itemId;
+    private Integer quantity;
+    private Integer reservedQuantity;
+    private Integer delta;
+    private Integer minStockLevel;
+    private boolean lowStock;
+    private String reason;
+    private LocalDateTime occurredAt;
+
+    public StockChangeDTO() {}
+
+    public Long getInventoryId() { return inventoryId; }
+    public void setInventoryId(Long inventoryId) { this.inventoryId = inventoryId; }
+
+    public Long getStoreId() { return storeId; }
+    public void setStoreId(Long storeId) { this.storeId = storeId; }
+
+    public Long getItemId() { return itemId; }
+    public void setItemId(Long itemId) { this.itemId = itemId; }
+
+    public Integer getQuantity() { return quantity; }
+    public void setQuantity(Integer quantity) { this.quantity = quantity; }
+
+    public Integer getReservedQuantity() { return reservedQuantity; }
+    public void setReservedQuantity(Integer reservedQuantity) { this.reservedQuantity = reservedQuantity; }
+
+    public Integer getDelta() { return delta; }
+    public void setDelta(Integer delta) { this.delta = delta; }
+
+    public Integer getMinStockLevel() { return minStockLevel; }
+    public void setMinStockLevel(Integer minStockLevel) { this.minStockLevel = minStockLevel; }
+
+    public boolean isLowStock() { return lowStock; }
+    public void setLowStock(boolean lowStock) { this.lowStock = lowStock; }
+
+    public String getReason() { return reason; }
+    public void setReason(String reason) { this.reason = reason; }
+
+    public LocalDateTime getOccurredAt() { return occurredAt; }
+    public void setOccurredAt(LocalDateTime occurredAt) { this.occurredAt = occurredAt; }
+
+    public Integer getAvailableQuantity() {
+        return quantity - reservedQuantity;
+    }
+}
@@ -0,0 +1,40 @@
+package dev.andrepontde.retailmanager.retail_system.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Data Transfer Object for a stock movement (ledger row).
+ */
+public class StockMovementDTO {
+
+    private Long id;
+    private Long storeId;
+    private Long itemId;
+    private String reason;
+    private Integer quantityChange;
+    private Integer quantityAfter;
+    private LocalDateTime occurredAt;
+
+    public StockMovementDTO() {}
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getStoreId() { return storeId; }
+    public void setStoreId(Long storeId) { this.storeId = storeId; }
+
+    public Long getItemId() { return itemId; }
+    public void setItemId(Long itemId) { this.itemId = itemId; }
+
+    public String getReason() { return reason; }
+    public void setReason(String reason) { this.reason = reason; }
+
+    public Integer getQuantityChange() { return quantityChange; }
+    public void setQuantityChange(Integer quantityChange) { this.quantityChange = quantityChange; }
+
+    public Integer getQuantityAfter() { return quantityAfter; }
+    public void setQuantityAfter(Integer quantityAfter) { this.quantityAfter = quantityAfter; }
+
+    public LocalDateTime getOccurredAt() { return occurredAt; }
+    public void setOccurredAt(LocalDateTime occurredAt) { this.occurredAt = occurredAt; }
+}
@@ -0,0 +1,67 @@
+package dev.andrepontde.retailmanager.retail_system.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Data Transfer Object for batch stock transfers between two stores.
+ * 
+ * Used by store-rebalancing runs that move many item lines from one store
+ * to another in a single transaction.
+ */
+public class StockTransferDTO {
+
+    @NotNull(message = "Source store cannot be null")
+    private Long fromStoreId;
+
+    @NotNull(message = "Destination store cannot be null")
+    private Long toStoreId;
+
+    private List<Line> lines = new ArrayList<>();
+
+    public StockTransferDTO() {}
+
+    public StockTransferDTO(Long fromStoreId, Long toStoreId, List<Line> lines) {
+        this.fromStoreId = fromStoreId;
+        this.toStoreId = toStoreId;
+        this.lines = lines;
+    }
+
+    public Long getFromStoreId() { return fromStoreId; }
+    public void setFromStoreId(Long fromStoreId) { this.fromStoreId = fromStoreId; }
+
+    public Long getToStoreId() { return toStoreId; }
+    public void setToStoreId(Long toStoreId) { this.toStoreId = toStoreId; }
+
+    public List<Line> getLines() { return lines; }
+    public void setLines(List<Line> lines) { this.lines = lines; }
+
+    /**
+     * A single item line of a transfer.
+     */
+    public static class Line {
+
+        @NotNull(message = "Item cannot be null")
+        private Long itemId;
+
+        @NotNull(message = "Quantity cannot be null")
+        @Min(value = 1, message = "Quantity must be at least 1")
+        private Integer quantity;
+
+        public Line() {}
+
+        public Line(Long itemId, Integer quantity) {
+            this.itemId = itemId;
+            this.quantity = quantity;
+        }
+
+        public Long getItemId() { return itemId; }
+        public void setItemId(Long itemId) { this.itemId = itemId; }
+
+        public Integer getQuantity() { return quantity; }
+        public void setQuantity(Integer quantity) { this.quantity = quantity; }
+    }
+}
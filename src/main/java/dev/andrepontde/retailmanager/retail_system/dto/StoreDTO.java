@@ -29,6 +29,15 @@ public class StoreDTO {
         this.name = name;
         this.location = location;
     }
+
+    // Projection constructor, used by JPQL "SELECT new StoreDTO(...)" queries
+    public StoreDTO(Long id, String name, String location, String address, String phone, String manager) {
+        this(name, location);
+        this.id = id;
+        this.address = address;
+        this.phone = phone;
+        this.manager = manager;
+    }
     
     // Getters and Setters
     public Long getId() { return id; }
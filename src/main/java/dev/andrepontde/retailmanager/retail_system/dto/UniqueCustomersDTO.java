@@ -0,0 +1,39 @@
+package dev.andrepontde.retailmanager.retail_system.dto;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Data Transfer Object for the approximate number of distinct customers over a range of days.
+ *
+ * storeIds is empty for chain-wide counts. standardError is the relative error of the
+ * estimate (about 0.016, i.e. two thirds of answers are within 1.6% of the true count).
+ * Customers are identified by e-mail, or by phone number when no e-mail was given;
+ * anonymous sales are not counted.
+ */
+public class UniqueCustomersDTO {
+
+    private List<Long> storeIds = new ArrayList<>();
+    private LocalDate from;
+    private LocalDate to;
+    private long uniqueCustomers;
+    private double standardError;
+
+    public UniqueCustomersDTO() {}
+
+    public List<Long> getStoreIds() { return storeIds; }
+    public void setStoreIds(List<Long> storeIds) { this.storeIds = storeIds; }
+
+    public LocalDate getFrom() { return from; }
+    public void setFrom(LocalDate from) { this.from = from; }
+
+    public LocalDate getTo() { return to; }
+    public void setTo(LocalDate to) { this.to = to; }
+
+    public long getUniqueCustomers() { return uniqueCustomers; }
+    public void setUniqueCustomers(long uniqueCustomers) { this.uniqueCustomers = uniqueCustomers; }
+
+    public double getStandardError() { return standardError; }
+    public void setStandardError(double standardError) { this.standardError = standardError; }
+}
@@ -3,6 +3,8 @@ package dev.andrepontde.retailmanager.retail_system.dto;
 import java.time.LocalDateTime;
 import java.util.Set;
 
+import dev.andrepontde.retailmanager.retail_system.entity.User;
+
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 
@@ -55,6 +57,16 @@ public class UserDTO {
         this.active = true;
     }
 
+    // Projection constructor, used by JPQL "SELECT new UserDTO(...)" queries
+    public UserDTO(Long id, String username, String email, String firstName, String lastName, User.UserRole role,
+                   boolean active, LocalDateTime createdAt, LocalDateTime lastLogin) {
+        this(username, email, firstName, lastName, role != null ? role.name() : null);
+        this.id = id;
+        this.active = active;
+        this.createdAt = createdAt;
+        this.lastLogin = lastLogin;
+    }
+
     // Getters and Setters
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
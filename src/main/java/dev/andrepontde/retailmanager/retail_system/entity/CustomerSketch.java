@@ -0,0 +1,67 @@
+package dev.andrepontde.retailmanager.retail_system.entity;
+
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * HyperLogLog sketch of the distinct customers of a store on one day.
+ * 
+ * Store ID 0 holds the chain-wide sketch of the day (all stores merged), so chain
+ * totals over a range read one row per day. Registers are in the compact serialized
+ * form of the service's HyperLogLog (a few bytes to 3 KB).
+ */
+@Entity
+@Table(name = "customer_sketch", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_customer_sketch_store_day", columnNames = {"store_id", "day"})
+})
+public class CustomerSketch {
+
+    /**
+     * Store ID of the chain-wide rows.
+     */
+    public static final long CHAIN = 0L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotNull
+    private Long storeId;
+
+    @NotNull
+    private LocalDate day;
+
+    @NotNull
+    @Column(columnDefinition = "bytea")
+    private byte[] registers;
+
+    // Constructors
+    public CustomerSketch() {}
+
+    public CustomerSketch(Long storeId, LocalDate day, byte[] registers) {
+        this.storeId = storeId;
+        this.day = day;
+        this.registers = registers;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getStoreId() { return storeId; }
+    public void setStoreId(Long storeId) { this.storeId = storeId; }
+
+    public LocalDate getDay() { return day; }
+    public void setDay(LocalDate day) { this.day = day; }
+
+    public byte[] getRegisters() { return registers; }
+    public void setRegisters(byte[] registers) { this.registers = registers; }
+}
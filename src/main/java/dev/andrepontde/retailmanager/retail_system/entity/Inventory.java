@@ -1,15 +1,32 @@
 package dev.andrepontde.retailmanager.retail_system.entity;
 
+import org.hibernate.annotations.DynamicUpdate;
+
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 
 @Entity
+// One row per store and item; transfers rely on it to create destination rows with ON CONFLICT
+@Table(uniqueConstraints = {
+    @UniqueConstraint(name = "uk_inventory_store_item", columnNames = {"store_id", "item_id"})
+}, indexes = {
+    @Index(name = "idx_inventory_item", columnList = "item_id"),
+    @Index(name = "idx_inventory_store_version", columnList = "store_id, change_version")
+})
+@EntityListeners(InventoryVersionListener.class)
+// Only changed columns are written, so editing e.g. stock levels never overwrites stock flushed by the stock engine
+@DynamicUpdate
 public class Inventory {
     
     @Id
@@ -39,6 +56,21 @@ public class Inventory {
     @Min(value = 0, message = "Maximum stock level must be at least 0")
     private Integer maxStockLevel = 100;
     
+    /**
+     * Monotonically increasing version, bumped on every insert or update.
+     * Used by delta-sync clients to fetch only the rows changed since their last sync.
+     */
+    @Column(name = "change_version")
+    private Long changeVersion;
+    
+    /**
+     * Number of InventorySlot stripes for hot items, or null when checkouts update this row directly.
+     * While striped, quantity still holds the total stock but part of it is handed out to the
+     * slots, and sales recorded in the slots are folded back in by the background rebalancer.
+     */
+    @Column(name = "stripe_count")
+    private Integer stripeCount;
+    
     // Constructors
     public Inventory() {}
     
@@ -61,6 +93,10 @@ public class Inventory {
         return quantity >= maxStockLevel;
     }
     
+    public boolean isStriped() {
+        return stripeCount != null && stripeCount > 0;
+    }
+    
     // Getters and Setters
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -82,4 +118,10 @@ public class Inventory {
     
     public Integer getMaxStockLevel() { return maxStockLevel; }
     public void setMaxStockLevel(Integer maxStockLevel) { this.maxStockLevel = maxStockLevel; }
+    
+    public Long getChangeVersion() { return changeVersion; }
+    public void setChangeVersion(Long changeVersion) { this.changeVersion = changeVersion; }
+    
+    public Integer getStripeCount() { return stripeCount; }
+    public void setStripeCount(Integer stripeCount) { this.stripeCount = stripeCount; }
 }
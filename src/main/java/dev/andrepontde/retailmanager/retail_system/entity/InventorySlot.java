@@ -0,0 +1,67 @@
+package dev.andrepontde.retailmanager.retail_system.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * One stripe of a hot item's stock in a store.
+ * 
+ * Checkouts take stock from a single slot instead of the Inventory row, so concurrent sales
+ * of the same item lock different rows. quantity is the stock still handed out to this slot;
+ * sold counts sales not yet folded back into Inventory.quantity.
+ */
+@Entity
+@Table(name = "inventory_slot", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_inventory_slot", columnNames = {"inventory_id", "slot_index"})
+})
+public class InventorySlot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotNull
+    @Column(name = "inventory_id")
+    private Long inventoryId;
+
+    @NotNull
+    @Column(name = "slot_index")
+    private Integer slotIndex;
+
+    @Min(value = 0, message = "Slot quantity must be at least 0")
+    private Integer quantity = 0;
+
+    @Min(value = 0, message = "Sold quantity must be at least 0")
+    private Integer sold = 0;
+
+    // Constructors
+    public InventorySlot() {}
+
+    public InventorySlot(Long inventoryId, Integer slotIndex) {
+        this.inventoryId = inventoryId;
+        this.slotIndex = slotIndex;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getInventoryId() { return inventoryId; }
+    public void setInventoryId(Long inventoryId) { this.inventoryId = inventoryId; }
+
+    public Integer getSlotIndex() { return slotIndex; }
+    public void setSlotIndex(Integer slotIndex) { this.slotIndex = slotIndex; }
+
+    public Integer getQuantity() { return quantity; }
+    public void setQuantity(Integer quantity) { this.quantity = quantity; }
+
+    public Integer getSold() { return sold; }
+    public void setSold(Integer sold) { this.sold = sold; }
+}
@@ -0,0 +1,62 @@
+package dev.andrepontde.retailmanager.retail_system.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Record of a deleted inventory row, kept so that delta-sync clients
+ * learn about deletions (see InventoryService#getChangesSince).
+ */
+@Entity
+@Table(name = "inventory_tombstone", indexes = {
+    @Index(name = "idx_inventory_tombstone_store_version", columnList = "store_id, change_version")
+})
+public class InventoryTombstone {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotNull
+    private Long inventoryId;
+
+    @NotNull
+    private Long storeId;
+
+    @NotNull
+    private Long itemId;
+
+    @NotNull
+    private Long changeVersion;
+
+    private LocalDateTime deletedAt;
+
+    // Constructors
+    public InventoryTombstone() {}
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getInventoryId() { return inventoryId; }
+    public void setInventoryId(Long inventoryId) { this.inventoryId = inventoryId; }
+
+    public Long getStoreId() { return storeId; }
+    public void setStoreId(Long storeId) { this.storeId = storeId; }
+
+    public Long getItemId() { return itemId; }
+    public void setItemId(Long itemId) { this.itemId = itemId; }
+
+    public Long getChangeVersion() { return changeVersion; }
+    public void setChangeVersion(Long changeVersion) { this.changeVersion = changeVersion; }
+
+    public LocalDateTime getDeletedAt() { return deletedAt; }
+    public void setDeletedAt(LocalDateTime deletedAt) { this.deletedAt = deletedAt; }
+}
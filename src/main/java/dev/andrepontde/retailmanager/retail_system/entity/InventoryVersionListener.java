@@ -0,0 +1,37 @@
+package dev.andrepontde.retailmanager.retail_system.entity;
+
+import org.springframework.beans.factory.ObjectProvider;
+
+import dev.andrepontde.retailmanager.retail_system.service.InventoryVersionService;
+
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreRemove;
+import jakarta.persistence.PreUpdate;
+
+/**
+ * JPA listener that stamps every inserted or updated Inventory row with the next
+ * change version and leaves a tombstone behind for every deleted row.
+ * 
+ * Hibernate creates this listener through Spring's bean container using constructor
+ * autowiring; the service is resolved lazily because the listener is built while the
+ * EntityManagerFactory itself is still being created.
+ */
+public class InventoryVersionListener {
+
+    private final ObjectProvider<InventoryVersionService> inventoryVersionService;
+
+    public InventoryVersionListener(ObjectProvider<InventoryVersionService> inventoryVersionService) {
+        this.inventoryVersionService = inventoryVersionService;
+    }
+
+    @PrePersist
+    @PreUpdate
+    public void assignChangeVersion(Inventory inventory) {
+        inventory.setChangeVersion(inventoryVersionService.getObject().nextVersion());
+    }
+
+    @PreRemove
+    public void recordTombstone(Inventory inventory) {
+        inventoryVersionService.getObject().recordDeletion(inventory);
+    }
+}
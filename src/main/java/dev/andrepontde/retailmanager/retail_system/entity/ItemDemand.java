@@ -0,0 +1,66 @@
+package dev.andrepontde.retailmanager.retail_system.entity;
+
+import java.time.LocalDate;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Demand forecast state of an item in a store.
+ * 
+ * dailyDemand is the exponentially smoothed number of units sold per day (the sales velocity
+ * and the forecast for every coming day), deviation the smoothed absolute forecast error.
+ * Both include every day up to throughDay, so each forecast run only reads the days after it.
+ */
+@Entity
+@Table(name = "item_demand", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_item_demand_store_item", columnNames = {"store_id", "item_id"})
+})
+public class ItemDemand {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotNull
+    private Long storeId;
+
+    @NotNull
+    private Long itemId;
+
+    @NotNull
+    private Double dailyDemand;
+
+    @NotNull
+    private Double deviation;
+
+    @NotNull
+    private LocalDate throughDay;
+
+    // Constructors
+    public ItemDemand() {}
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getStoreId() { return storeId; }
+    public void setStoreId(Long storeId) { this.storeId = storeId; }
+
+    public Long getItemId() { return itemId; }
+    public void setItemId(Long itemId) { this.itemId = itemId; }
+
+    public Double getDailyDemand() { return dailyDemand; }
+    public void setDailyDemand(Double dailyDemand) { this.dailyDemand = dailyDemand; }
+
+    public Double getDeviation() { return deviation; }
+    public void setDeviation(Double deviation) { this.deviation = deviation; }
+
+    public LocalDate getThroughDay() { return throughDay; }
+    public void setThroughDay(LocalDate throughDay) { this.throughDay = throughDay; }
+}
@@ -0,0 +1,59 @@
+package dev.andrepontde.retailmanager.retail_system.entity;
+
+import java.time.LocalDate;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Units of an item sold by a store on one day (net of refunds made before the day was rolled up).
+ * 
+ * Rows are written in bulk by the demand forecast job, one INSERT ... SELECT per completed day,
+ * so forecasting reads one row per store, item and selling day instead of every sale line.
+ */
+@Entity
+@Table(name = "item_sales_daily", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_item_sales_daily_store_item_day", columnNames = {"store_id", "item_id", "day"})
+})
+public class ItemSalesDaily {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotNull
+    private Long storeId;
+
+    @NotNull
+    private Long itemId;
+
+    @NotNull
+    private LocalDate day;
+
+    @NotNull
+    private Integer quantity;
+
+    // Constructors
+    public ItemSalesDaily() {}
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getStoreId() { return storeId; }
+    public void setStoreId(Long storeId) { this.storeId = storeId; }
+
+    public Long getItemId() { return itemId; }
+    public void setItemId(Long itemId) { this.itemId = itemId; }
+
+    public LocalDate getDay() { return day; }
+    public void setDay(LocalDate day) { this.day = day; }
+
+    public Integer getQuantity() { return quantity; }
+    public void setQuantity(Integer quantity) { this.quantity = quantity; }
+}
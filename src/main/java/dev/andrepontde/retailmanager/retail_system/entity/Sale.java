@@ -10,12 +10,18 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.Table;
 import jakarta.validation.constraints.NotNull;
 
 @Entity
+@Table(indexes = {
+    // Day-range scans (daily sales rollup, exports, backfills)
+    @Index(name = "idx_sale_date", columnList = "sale_date")
+})
 public class Sale {
     
     @Id
@@ -0,0 +1,78 @@
+package dev.andrepontde.retailmanager.retail_system.entity;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.Immutable;
+
+import dev.andrepontde.retailmanager.retail_system.event.StockChangedEvent;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Append-only ledger row for a single stock change (sale, refund, receipt, transfer, adjustment).
+ * 
+ * Rows are never updated. Ids come from a pooled sequence (not IDENTITY) so Hibernate
+ * can batch the inserts of one transaction.
+ */
+@Entity
+@Immutable
+@Table(name = "stock_movement", indexes = {
+    @Index(name = "idx_stock_movement_store_item_time", columnList = "store_id, item_id, occurred_at"),
+    @Index(name = "idx_stock_movement_store_time", columnList = "store_id, occurred_at")
+})
+public class StockMovement {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_movement_seq")
+    @SequenceGenerator(name = "stock_movement_seq", sequenceName = "stock_movement_seq", allocationSize = 50)
+    private Long id;
+
+    @NotNull
+    private Long storeId;
+
+    @NotNull
+    private Long itemId;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    private StockChangedEvent.Reason reason;
+
+    @NotNull
+    private Integer quantityChange;
+
+    @NotNull
+    private Integer quantityAfter;
+
+    @NotNull
+    private LocalDateTime occurredAt;
+
+    // Constructors
+    public StockMovement() {}
+
+    public StockMovement(StockChangedEvent event) {
+        this.storeId = event.getStoreId();
+        this.itemId = event.getItemId();
+        this.reason = event.getReason();
+        this.quantityChange = event.getDelta();
+        this.quantityAfter = event.getQuantity();
+        this.occurredAt = event.getOccurredAt();
+    }
+
+    // Getters
+    public Long getId() { return id; }
+    public Long getStoreId() { return storeId; }
+    public Long getItemId() { return itemId; }
+    public StockChangedEvent.Reason getReason() { return reason; }
+    public Integer getQuantityChange() { return quantityChange; }
+    public Integer getQuantityAfter() { return quantityAfter; }
+    public LocalDateTime getOccurredAt() { return occurredAt; }
+}
@@ -0,0 +1,72 @@
+package dev.andrepontde.retailmanager.retail_system.entity;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+import jakarta.persistence.CollectionTable;
+import jakarta.persistence.Column;
+import jakarta.persistence.ElementCollection;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.MapKeyColumn;
+import jakarta.persistence.Table;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Stock levels in a store at a point in time.
+ * 
+ * The oldest snapshot of a store holds every item; each later one only the items whose
+ * stock changed since the previous snapshot, rolled forward with their movements up to
+ * takenAt. An item's stock as of a snapshot is its line in the latest snapshot up to that
+ * one, and stock at any time T is that plus the movements after it.
+ */
+@Entity
+@Table(name = "stock_snapshot", indexes = {
+    @Index(name = "idx_stock_snapshot_store_time", columnList = "store_id, taken_at")
+})
+public class StockSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotNull
+    private Long storeId;
+
+    @NotNull
+    private LocalDateTime takenAt;
+
+    @ElementCollection(fetch = FetchType.LAZY)
+    @CollectionTable(name = "stock_snapshot_line", joinColumns = @JoinColumn(name = "snapshot_id"))
+    @MapKeyColumn(name = "item_id")
+    @Column(name = "quantity")
+    private Map<Long, Integer> quantities = new HashMap<>();
+
+    // Constructors
+    public StockSnapshot() {}
+
+    public StockSnapshot(Long storeId, LocalDateTime takenAt, Map<Long, Integer> quantities) {
+        this.storeId = storeId;
+        this.takenAt = takenAt;
+        this.quantities = quantities;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getStoreId() { return storeId; }
+    public void setStoreId(Long storeId) { this.storeId = storeId; }
+
+    public LocalDateTime getTakenAt() { return takenAt; }
+    public void setTakenAt(LocalDateTime takenAt) { this.takenAt = takenAt; }
+
+    public Map<Long, Integer> getQuantities() { return quantities; }
+    public void setQuantities(Map<Long, Integer> quantities) { this.quantities = quantities; }
+}
@@ -2,6 +2,10 @@ package dev.andrepontde.retailmanager.retail_system.entity;
 
 import java.util.List;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
@@ -11,6 +15,9 @@ import jakarta.persistence.OneToMany;
 import jakarta.validation.constraints.NotBlank;
 
 @Entity
+// Reference data: kept in the second-level cache (region in ehcache.xml)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "retail.store")
 public class Store {
     
     @Id
@@ -27,6 +34,7 @@ public class Store {
     private String phone;
     private String manager;
     
+    // Not cached: inventory rows are also written with plain JDBC, which the cache would not see
     @OneToMany(mappedBy = "store", fetch = FetchType.LAZY)
     private List<Inventory> inventories;
     
@@ -3,6 +3,12 @@ package dev.andrepontde.retailmanager.retail_system.entity;
 import java.time.LocalDateTime;
 import java.util.Set;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
@@ -25,6 +31,11 @@ import jakarta.validation.constraints.NotBlank;
  */
 @Entity
 @Table(name = "users")
+// Read on every authenticated request: kept in the second-level cache, along with
+// username lookups and the accessible stores (regions in ehcache.xml)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "retail.user")
+@NaturalIdCache(region = "retail.user.username")
 public class User {
 
     @Id
@@ -33,6 +44,7 @@ public class User {
 
     @NotBlank(message = "Username cannot be blank")
     @Column(unique = true)
+    @NaturalId
     private String username;
 
     @NotBlank(message = "Email cannot be blank")
@@ -64,6 +76,7 @@ public class User {
      * Additional stores this user can access (for managers/corporate users).
      */
     @ManyToMany(fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "retail.user.accessibleStores")
     @JoinTable(
         name = "user_store_access",
         joinColumns = @JoinColumn(name = "user_id"),
@@ -0,0 +1,68 @@
+package dev.andrepontde.retailmanager.retail_system.event;
+
+/**
+ * Application event published when a write makes cached copies of an item, store, user or an
+ * item's stock out of date.
+ *
+ * Published inside the transaction that made the change. Caches on this node are kept current
+ * by Hibernate and their own listeners; CacheInvalidationBus forwards the event to the other
+ * nodes once the transaction has committed. Stock changes that publish a StockChangedEvent
+ * are forwarded without one.
+ */
+public class CacheInvalidationEvent {
+
+    /**
+     * What was changed; the code is the prefix used in invalidation messages.
+     */
+    public enum Type {
+        ITEM('i'), STORE('s'), USER('u'), STOCK('k');
+
+        private final char code;
+
+        Type(char code) {
+            this.code = code;
+        }
+
+        public char getCode() { return code; }
+
+        public static Type fromCode(char code) {
+            for (Type type : values()) {
+                if (type.code == code) {
+                    return type;
+                }
+            }
+            throw new IllegalArgumentException("Unknown invalidation type: " + code);
+        }
+    }
+
+    private final Type type;
+    private final Long id;
+
+    public CacheInvalidationEvent(Type type, Long id) {
+        this.type = type;
+        this.id = id;
+    }
+
+    public static CacheInvalidationEvent item(Long itemId) {
+        return new CacheInvalidationEvent(Type.ITEM, itemId);
+    }
+
+    public static CacheInvalidationEvent store(Long storeId) {
+        return new CacheInvalidationEvent(Type.STORE, storeId);
+    }
+
+    public static CacheInvalidationEvent user(Long userId) {
+        return new CacheInvalidationEvent(Type.USER, userId);
+    }
+
+    /**
+     * The stock of an item changed in some store (availability caches).
+     */
+    public static CacheInvalidationEvent stock(Long itemId) {
+        return new CacheInvalidationEvent(Type.STOCK, itemId);
+    }
+
+    // Getters
+    public Type getType() { return type; }
+    public Long getId() { return id; }
+}
@@ -0,0 +1,50 @@
+package dev.andrepontde.retailmanager.retail_system.event;
+
+import java.util.Map;
+
+/**
+ * Application event published when an item's price or category changes, or the item is deleted.
+ *
+ * Carries the item's stock per store at the time of the change, so listeners that keep
+ * value aggregates (quantity x price) can move them without reading the inventory table.
+ * Published inside the transaction that made the change.
+ */
+public class ItemChangedEvent {
+
+    private final Long itemId;
+    private final String previousCategory;
+    private final Double previousPrice;
+    private final String category;
+    private final Double price;
+    private final Map<Long, Integer> stockByStore;
+
+    public ItemChangedEvent(Long itemId, String previousCategory, Double previousPrice,
+                            String category, Double price, Map<Long, Integer> stockByStore) {
+        this.itemId = itemId;
+        this.previousCategory = previousCategory;
+        this.previousPrice = previousPrice;
+        this.category = category;
+        this.price = price;
+        this.stockByStore = stockByStore;
+    }
+
+    /**
+     * Create an event for a deleted item (no category or price afterwards).
+     */
+    public static ItemChangedEvent deleted(Long itemId, String category, Double price, Map<Long, Integer> stockByStore) {
+        return new ItemChangedEvent(itemId, category, price, null, null, stockByStore);
+    }
+
+    // Business logic methods
+    public boolean isDeleted() {
+        return category == null && price == null;
+    }
+
+    // Getters
+    public Long getItemId() { return itemId; }
+    public String getPreviousCategory() { return previousCategory; }
+    public Double getPreviousPrice() { return previousPrice; }
+    public String getCategory() { return category; }
+    public Double getPrice() { return price; }
+    public Map<Long, Integer> getStockByStore() { return stockByStore; }
+}
@@ -0,0 +1,78 @@
+package dev.andrepontde.retailmanager.retail_system.event;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import dev.andrepontde.retailmanager.retail_system.entity.Item;
+import dev.andrepontde.retailmanager.retail_system.entity.Sale;
+import dev.andrepontde.retailmanager.retail_system.entity.SaleItem;
+
+/**
+ * Application event published when a sale is recorded or (partly) refunded.
+ *
+ * Refunds carry negative quantities and amounts and keep the original sale's date, so
+ * listeners that aggregate sales end up with the same figures as the sale tables.
+ * Published inside the transaction that made the change.
+ */
+public class SaleRecordedEvent {
+
+    /**
+     * One sold (or refunded) item of the sale.
+     */
+    public record Line(Long itemId, String category, int quantity, double amount) {}
+
+    private final Long saleId;
+    private final Long storeId;
+    private final LocalDateTime saleDate;
+    private final Sale.PaymentMethod paymentMethod;
+    private final String customerEmail;
+    private final String customerPhone;
+    private final List<Line> lines;
+    private final boolean refund;
+
+    public SaleRecordedEvent(Long saleId, Long storeId, LocalDateTime saleDate, Sale.PaymentMethod paymentMethod,
+                             String customerEmail, String customerPhone, List<Line> lines, boolean refund) {
+        this.saleId = saleId;
+        this.storeId = storeId;
+        this.saleDate = saleDate;
+        this.paymentMethod = paymentMethod;
+        this.customerEmail = customerEmail;
+        this.customerPhone = customerPhone;
+        this.lines = lines;
+        this.refund = refund;
+    }
+
+    /**
+     * Create an event for a newly saved sale.
+     */
+    public static SaleRecordedEvent of(Sale sale) {
+        List<Line> lines = new ArrayList<>();
+        for (SaleItem saleItem : sale.getSaleItems()) {
+            lines.add(new Line(saleItem.getItem().getId(), saleItem.getItem().getCategory(),
+                               saleItem.getQuantity(), saleItem.getTotalPrice()));
+        }
+        return new SaleRecordedEvent(sale.getId(), sale.getStore().getId(), sale.getSaleDate(),
+                                     sale.getPaymentMethod(), sale.getCustomerEmail(), sale.getCustomerPhone(),
+                                     lines, false);
+    }
+
+    /**
+     * Create an event for a refund of part of a sale.
+     */
+    public static SaleRecordedEvent refund(Sale sale, Item item, int quantity, double amount) {
+        return new SaleRecordedEvent(sale.getId(), sale.getStore().getId(), sale.getSaleDate(),
+                                     sale.getPaymentMethod(), sale.getCustomerEmail(), sale.getCustomerPhone(),
+                                     List.of(new Line(item.getId(), item.getCategory(), -quantity, -amount)), true);
+    }
+
+    // Getters
+    public Long getSaleId() { return saleId; }
+    public Long getStoreId() { return storeId; }
+    public LocalDateTime getSaleDate() { return saleDate; }
+    public Sale.PaymentMethod getPaymentMethod() { return paymentMethod; }
+    public String getCustomerEmail() { return customerEmail; }
+    public String getCustomerPhone() { return customerPhone; }
+    public List<Line> getLines() { return lines; }
+    public boolean isRefund() { return refund; }
+}
@@ -0,0 +1,110 @@
+package dev.andrepontde.retailmanager.retail_system.event;
+
+import java.time.LocalDateTime;
+
+import dev.andrepontde.retailmanager.retail_system.entity.Inventory;
+
+/**
+ * Application event published whenever the stock of an inventory row changes.
+ * 
+ * Published inside the transaction that made the change. Listeners that must only
+ * see committed data (streams, caches) should use @TransactionalEventListener.
+ */
+public class StockChangedEvent {
+
+    /**
+     * Why the stock changed.
+     */
+    public enum Reason {
+        RECEIVE, SALE, REFUND, TRANSFER_IN, TRANSFER_OUT, ADJUSTMENT, RESERVATION
+    }
+
+    private final Long inventoryId;
+    private final Long storeId;
+    private final Long itemId;
+    private final int previousQuantity;
+    private final int quantity;
+    private final int reservedQuantity;
+    private final int minStockLevel;
+    private final Reason reason;
+    private final LocalDateTime occurredAt;
+
+    public StockChangedEvent(Long inventoryId, Long storeId, Long itemId, int previousQuantity, int quantity,
+                             int reservedQuantity, int minStockLevel, Reason reason) {
+        this.inventoryId = inventoryId;
+        this.storeId = storeId;
+        this.itemId = itemId;
+        this.previousQuantity = previousQuantity;
+        this.quantity = quantity;
+        this.reservedQuantity = reservedQuantity;
+        this.minStockLevel = minStockLevel;
+        this.reason = reason;
+        this.occurredAt = LocalDateTime.now();
+    }
+
+    /**
+     * Create an event from the current state of an inventory row.
+     */
+    public static StockChangedEvent of(Inventory inventory, int previousQuantity, Reason reason) {
+        return of(inventory, previousQuantity, inventory.getQuantity(), reason);
+    }
+
+    /**
+     * Create an event for an inventory row whose current stock is not (yet) in its quantity
+     * field, e.g. a striped hot item whose slot sales are folded in later.
+     */
+    public static StockChangedEvent of(Inventory inventory, int previousQuantity, int quantity, Reason reason) {
+        return new StockChangedEvent(
+            inventory.getId(),
+            inventory.getStore().getId(),
+            inventory.getItem().getId(),
+            previousQuantity,
+            quantity,
+            inventory.getReservedQuantity() != null ? inventory.getReservedQuantity() : 0,
+            inventory.getMinStockLevel() != null ? inventory.getMinStockLevel() : 0,
+            reason
+        );
+    }
+
+    /**
+     * Create an event for an inventory row whose stock and reservations are held outside the
+     * entity, i.e. a row of a store kept in the in-memory stock engine.
+     */
+    public static StockChangedEvent of(Inventory inventory, int previousQuantity, int quantity,
+                                       int reservedQuantity, Reason reason) {
+        return new StockChangedEvent(
+            inventory.getId(),
+            inventory.getStore().getId(),
+            inventory.getItem().getId(),
+            previousQuantity,
+            quantity,
+            reservedQuantity,
+            inventory.getMinStockLevel() != null ? inventory.getMinStockLevel() : 0,
+            reason
+        );
+    }
+
+    // Business logic methods
+    public int getDelta() {
+        return quantity - previousQuantity;
+    }
+
+    public boolean isLowStock() {
+        return quantity <= minStockLevel;
+    }
+
+    public boolean wasLowStock() {
+        return previousQuantity <= minStockLevel;
+    }
+
+    // Getters
+    public Long getInventoryId() { return inventoryId; }
+    public Long getStoreId() { return storeId; }
+    public Long getItemId() { return itemId; }
+    public int getPreviousQuantity() { return previousQuantity; }
+    public int getQuantity() { return quantity; }
+    public int getReservedQuantity() { return reservedQuantity; }
+    public int getMinStockLevel() { return minStockLevel; }
+    public Reason getReason() { return reason; }
+    public LocalDateTime getOccurredAt() { return occurredAt; }
+}
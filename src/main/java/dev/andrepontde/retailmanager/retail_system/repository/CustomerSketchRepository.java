@@ -0,0 +1,35 @@
+package dev.andrepontde.retailmanager.retail_system.repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import dev.andrepontde.retailmanager.retail_system.entity.CustomerSketch;
+
+import jakarta.persistence.LockModeType;
+
+@Repository
+public interface CustomerSketchRepository extends JpaRepository<CustomerSketch, Long> {
+
+    /**
+     * Lock the sketch of a store and day (SELECT ... FOR UPDATE) before merging into it.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM CustomerSketch c WHERE c.storeId = :storeId AND c.day = :day")
+    Optional<CustomerSketch> lockByStoreIdAndDay(@Param("storeId") Long storeId, @Param("day") LocalDate day);
+
+    /**
+     * Serialized sketches of the given stores between two days (inclusive), without loading entities.
+     */
+    @Query("SELECT c.registers FROM CustomerSketch c WHERE c.storeId IN :storeIds AND c.day BETWEEN :from AND :to")
+    List<byte[]> findRegisters(@Param("storeIds") Collection<Long> storeIds,
+                               @Param("from") LocalDate from,
+                               @Param("to") LocalDate to);
+}
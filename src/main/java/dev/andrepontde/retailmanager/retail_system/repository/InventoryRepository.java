@@ -1,15 +1,30 @@
 package dev.andrepontde.retailmanager.retail_system.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import dev.andrepontde.retailmanager.retail_system.dto.InventoryDTO;
+import dev.andrepontde.retailmanager.retail_system.dto.ReorderSuggestionDTO;
 import dev.andrepontde.retailmanager.retail_system.entity.Inventory;
 import dev.andrepontde.retailmanager.retail_system.entity.Item;
 import dev.andrepontde.retailmanager.retail_system.entity.Store;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface InventoryRepository extends JpaRepository<Inventory, Long> {
    
@@ -24,7 +39,132 @@ public interface InventoryRepository extends JpaRepository<Inventory, Long> {
     List<Inventory> findByStore(Store store);
     
     /**
-     * Find all inventory for a specific item across all stores.
+     * Find all inventory for a specific item across all stores
+     * (uses the item index; stores are fetched in the same query).
      */
+    @EntityGraph(attributePaths = {"item", "store"})
     List<Inventory> findByItem(Item item);
+
+    /**
+     * Find inventory by item and store IDs (uses the store/item index).
+     */
+    @Query("SELECT i FROM Inventory i WHERE i.item.id = :itemId AND i.store.id = :storeId")
+    Optional<Inventory> findByItemIdAndStoreId(@Param("itemId") Long itemId, @Param("storeId") Long storeId);
+
+    /**
+     * Find all inventory for a store by store ID.
+     */
+    @Query("SELECT i FROM Inventory i WHERE i.store.id = :storeId")
+    List<Inventory> findByStoreId(@Param("storeId") Long storeId);
+
+    /**
+     * Lock the inventory rows of the given items in the given stores (SELECT ... FOR UPDATE).
+     * Rows are locked in (item, store) order so that concurrent transfers always acquire
+     * their locks in the same sequence and cannot deadlock on each other.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Inventory i WHERE i.item.id IN :itemIds AND i.store.id IN :storeIds " +
+           "ORDER BY i.item.id, i.store.id")
+    List<Inventory> lockByItemIdsAndStoreIds(@Param("itemIds") Collection<Long> itemIds,
+                                             @Param("storeIds") Collection<Long> storeIds);
+
+    /**
+     * Stock levels of the given items in the given stores, without loading entities
+     * (uses the store/item index). Each row is
+     * [inventoryId, itemId, storeId, quantity, reservedQuantity, stripeCount].
+     */
+    @Query("SELECT i.id, i.item.id, i.store.id, i.quantity, i.reservedQuantity, i.stripeCount FROM Inventory i " +
+           "WHERE i.store.id IN :storeIds AND i.item.id IN :itemIds")
+    List<Object[]> findStockLevels(@Param("storeIds") Collection<Long> storeIds,
+                                   @Param("itemIds") Collection<Long> itemIds);
+
+    /**
+     * Find the inventory rows whose stock is striped across slots (hot items).
+     */
+    @Query("SELECT i FROM Inventory i WHERE i.stripeCount > 0")
+    List<Inventory> findStriped();
+
+    /**
+     * Find inventory of a store with a change version in (since, upTo], oldest first.
+     */
+    @Query("SELECT i FROM Inventory i WHERE i.store.id = :storeId " +
+           "AND i.changeVersion > :since AND i.changeVersion <= :upTo ORDER BY i.changeVersion")
+    List<Inventory> findChangedSince(@Param("storeId") Long storeId,
+                                     @Param("since") Long since,
+                                     @Param("upTo") Long upTo,
+                                     Pageable pageable);
+
+    /**
+     * Stream every inventory row (of one store, or all stores when storeId is null) for exports,
+     * read through a forward-only cursor without loading entities. Must be consumed inside a
+     * transaction. Striped rows report their quantity net of slot sales not folded back yet.
+     * Each row is [inventoryId, storeId, storeName, itemId, itemName, category, price,
+     * quantity, reservedQuantity, minStockLevel, maxStockLevel].
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT i.id, s.id, s.name, it.id, it.name, it.category, it.price, " +
+           "CASE WHEN i.stripeCount > 0 THEN i.quantity - COALESCE((SELECT SUM(sl.sold) FROM InventorySlot sl " +
+           "WHERE sl.inventoryId = i.id), 0) ELSE i.quantity END, " +
+           "i.reservedQuantity, i.minStockLevel, i.maxStockLevel " +
+           "FROM Inventory i JOIN i.store s JOIN i.item it " +
+           "WHERE (:storeId IS NULL OR s.id = :storeId) ORDER BY i.id")
+    Stream<Object[]> streamForExport(@Param("storeId") Long storeId);
+
+    // ================================
+    // DTO PROJECTIONS (read endpoints: only the DTO's columns, no managed entities)
+    // ================================
+
+    /**
+     * Current quantity of a row as stored: striped rows net of slot sales not folded back yet.
+     */
+    String CURRENT_QUANTITY = "CAST(CASE WHEN i.stripeCount > 0 THEN i.quantity - COALESCE((SELECT SUM(sl.sold) " +
+                              "FROM InventorySlot sl WHERE sl.inventoryId = i.id), 0) ELSE i.quantity END AS Integer)";
+
+    String INVENTORY_DTO = "SELECT new dev.andrepontde.retailmanager.retail_system.dto.InventoryDTO(" +
+                           "i.id, i.item.id, i.store.id, i.changeVersion, " + CURRENT_QUANTITY + ", " +
+                           "COALESCE(i.reservedQuantity, 0), i.minStockLevel, i.maxStockLevel) FROM Inventory i ";
+
+    @Query(INVENTORY_DTO + "ORDER BY i.id")
+    List<InventoryDTO> findAllAsDTO();
+
+    @Query(INVENTORY_DTO + "WHERE i.id = :id")
+    Optional<InventoryDTO> findDTOById(@Param("id") Long id);
+
+    @Query(INVENTORY_DTO + "WHERE i.store.id = :storeId ORDER BY i.id")
+    List<InventoryDTO> findDTOsByStoreId(@Param("storeId") Long storeId);
+
+    /**
+     * Inventory of every store at or below its minimum stock level.
+     * Table values only: rows of stores held by the stock engine need the engine's stock.
+     */
+    @Query(INVENTORY_DTO + "WHERE " + CURRENT_QUANTITY + " <= i.minStockLevel ORDER BY i.id")
+    List<InventoryDTO> findAllLowStockDTOs();
+
+    /**
+     * Inventory of a store whose current quantity is below the threshold.
+     * Table values only: not for stores held by the stock engine.
+     */
+    @Query(INVENTORY_DTO + "WHERE i.store.id = :storeId AND " + CURRENT_QUANTITY + " < :threshold ORDER BY i.id")
+    List<InventoryDTO> findLowStockDTOs(@Param("storeId") Long storeId, @Param("threshold") int threshold);
+
+    String REORDER_SUGGESTION_DTO = "SELECT new dev.andrepontde.retailmanager.retail_system.dto.ReorderSuggestionDTO(" +
+                                    "i.store.id, it.id, it.name, " + CURRENT_QUANTITY + ", i.minStockLevel, " +
+                                    "i.maxStockLevel, d.dailyDemand) FROM Inventory i JOIN i.item it " +
+                                    "LEFT JOIN ItemDemand d ON d.storeId = i.store.id AND d.itemId = it.id ";
+
+    /**
+     * Reorder rows of a store at or below their reorder point, with the forecast demand.
+     * Table values only: not for stores held by the stock engine.
+     */
+    @Query(REORDER_SUGGESTION_DTO + "WHERE i.store.id = :storeId AND " + CURRENT_QUANTITY + " <= i.minStockLevel")
+    List<ReorderSuggestionDTO> findReorderSuggestions(@Param("storeId") Long storeId);
+
+    /**
+     * Reorder rows of every item of a store, whatever its stock (for stores held by the stock engine).
+     */
+    @Query(REORDER_SUGGESTION_DTO + "WHERE i.store.id = :storeId")
+    List<ReorderSuggestionDTO> findReorderRows(@Param("storeId") Long storeId);
 }
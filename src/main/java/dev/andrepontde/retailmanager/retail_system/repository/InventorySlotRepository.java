@@ -0,0 +1,85 @@
+package dev.andrepontde.retailmanager.retail_system.repository;
+
+import java.util.List;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import dev.andrepontde.retailmanager.retail_system.entity.InventorySlot;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+@Repository
+public interface InventorySlotRepository extends JpaRepository<InventorySlot, Long> {
+
+    /**
+     * Find the slots of an inventory row.
+     */
+    List<InventorySlot> findByInventoryIdOrderBySlotIndex(Long inventoryId);
+
+    /**
+     * Lock all slots of an inventory row (SELECT ... FOR UPDATE), waiting for running checkouts.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM InventorySlot s WHERE s.inventoryId = :inventoryId ORDER BY s.slotIndex")
+    List<InventorySlot> lockByInventoryId(@Param("inventoryId") Long inventoryId);
+
+    /**
+     * Lock the slots of an inventory row that no checkout is using right now (FOR UPDATE SKIP LOCKED).
+     */
+    @Query(value = "SELECT * FROM inventory_slot WHERE inventory_id = :inventoryId " +
+                   "ORDER BY slot_index FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<InventorySlot> lockIdleByInventoryId(@Param("inventoryId") Long inventoryId);
+
+    /**
+     * Take stock from the first idle slot holding enough, scanning from a start slot.
+     * Busy slots are skipped rather than waited for. Returns 1 if stock was taken, 0 otherwise.
+     * The native spaces hint tells Hibernate only inventory_slot changes, so the update does not
+     * evict the whole second-level cache.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "inventory_slot"))
+    @Query(value = "UPDATE inventory_slot SET quantity = quantity - :quantity, sold = sold + :quantity " +
+                   "WHERE id = (SELECT id FROM inventory_slot WHERE inventory_id = :inventoryId " +
+                   "AND quantity >= :quantity ORDER BY (slot_index + :start) % :stripes " +
+                   "LIMIT 1 FOR UPDATE SKIP LOCKED)", nativeQuery = true)
+    int takeFromIdleSlot(@Param("inventoryId") Long inventoryId,
+                         @Param("quantity") int quantity,
+                         @Param("start") int start,
+                         @Param("stripes") int stripes);
+
+    /**
+     * Take stock from the first slot holding enough, waiting for it if a checkout is using it.
+     * The quantity check is re-evaluated after the wait. Returns 1 if stock was taken, 0 otherwise.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "inventory_slot"))
+    @Query(value = "UPDATE inventory_slot SET quantity = quantity - :quantity, sold = sold + :quantity " +
+                   "WHERE id = (SELECT id FROM inventory_slot WHERE inventory_id = :inventoryId " +
+                   "AND quantity >= :quantity ORDER BY (slot_index + :start) % :stripes LIMIT 1) " +
+                   "AND quantity >= :quantity", nativeQuery = true)
+    int takeFromSlot(@Param("inventoryId") Long inventoryId,
+                     @Param("quantity") int quantity,
+                     @Param("start") int start,
+                     @Param("stripes") int stripes);
+
+    /**
+     * Sales recorded in the slots of an inventory row that have not been folded yet.
+     */
+    @Query("SELECT COALESCE(SUM(s.sold), 0) FROM InventorySlot s WHERE s.inventoryId = :inventoryId")
+    Long sumSold(@Param("inventoryId") Long inventoryId);
+
+    /**
+     * Remove the slots of an inventory row.
+     */
+    @Modifying
+    @Query("DELETE FROM InventorySlot s WHERE s.inventoryId = :inventoryId")
+    void deleteByInventoryId(@Param("inventoryId") Long inventoryId);
+}
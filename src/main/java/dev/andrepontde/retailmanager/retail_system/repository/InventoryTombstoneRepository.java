@@ -0,0 +1,25 @@
+package dev.andrepontde.retailmanager.retail_system.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import dev.andrepontde.retailmanager.retail_system.entity.InventoryTombstone;
+
+@Repository
+public interface InventoryTombstoneRepository extends JpaRepository<InventoryTombstone, Long> {
+
+    /**
+     * Find tombstones of a store with a change version in (since, upTo], oldest first.
+     */
+    @Query("SELECT t FROM InventoryTombstone t WHERE t.storeId = :storeId " +
+           "AND t.changeVersion > :since AND t.changeVersion <= :upTo ORDER BY t.changeVersion")
+    List<InventoryTombstone> findChangedSince(@Param("storeId") Long storeId,
+                                              @Param("since") Long since,
+                                              @Param("upTo") Long upTo,
+                                              Pageable pageable);
+}
@@ -0,0 +1,17 @@
+package dev.andrepontde.retailmanager.retail_system.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import dev.andrepontde.retailmanager.retail_system.entity.ItemDemand;
+
+@Repository
+public interface ItemDemandRepository extends JpaRepository<ItemDemand, Long> {
+
+    /**
+     * Demand forecasts of every item of a store.
+     */
+    List<ItemDemand> findByStoreId(Long storeId);
+}
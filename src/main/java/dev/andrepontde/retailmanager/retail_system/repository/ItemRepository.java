@@ -1,10 +1,14 @@
 package dev.andrepontde.retailmanager.retail_system.repository;
 
 import java.util.List;
+import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import dev.andrepontde.retailmanager.retail_system.dto.ItemDTO;
 import dev.andrepontde.retailmanager.retail_system.entity.Item;
 
 // The repository handles database operations for the Item entity.
@@ -17,4 +21,20 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
     List<Item> findByName(String name); // Retrieves items by their name
     List<Item> findByCategory(String category); // Retrieves items by their category
 
+    // DTO projections for read endpoints: only the columns the DTO needs, no managed entities
+    String ITEM_DTO = "SELECT new dev.andrepontde.retailmanager.retail_system.dto.ItemDTO(i.id, i.name, i.category, i.price) " +
+                      "FROM Item i ";
+
+    @Query(ITEM_DTO + "ORDER BY i.id")
+    List<ItemDTO> findAllAsDTO();
+
+    @Query(ITEM_DTO + "WHERE i.id = :id")
+    Optional<ItemDTO> findDTOById(@Param("id") Long id);
+
+    @Query(ITEM_DTO + "WHERE i.name = :name ORDER BY i.id")
+    List<ItemDTO> findDTOsByName(@Param("name") String name);
+
+    @Query(ITEM_DTO + "WHERE i.category = :category ORDER BY i.id")
+    List<ItemDTO> findDTOsByCategory(@Param("category") String category);
+
 }
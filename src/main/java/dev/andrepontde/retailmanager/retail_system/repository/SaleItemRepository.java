@@ -1,11 +1,38 @@
 package dev.andrepontde.retailmanager.retail_system.repository;
 
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import dev.andrepontde.retailmanager.retail_system.entity.SaleItem;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface SaleItemRepository extends JpaRepository<SaleItem, Long> {
-   
+
+    /**
+     * Stream the sale lines of a date range [from, to) (of one store, or all stores when storeId
+     * is null) for exports, read through a forward-only cursor without loading entities.
+     * Must be consumed inside a transaction. Each row is [saleItemId, saleId, saleDate, storeId,
+     * paymentMethod, itemId, quantity, unitPrice, discount, totalPrice].
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT si.id, s.id, s.saleDate, s.store.id, s.paymentMethod, si.item.id, " +
+           "si.quantity, si.unitPrice, si.discount, si.totalPrice " +
+           "FROM SaleItem si JOIN si.sale s " +
+           "WHERE s.saleDate >= :from AND s.saleDate < :to AND (:storeId IS NULL OR s.store.id = :storeId) " +
+           "ORDER BY si.id")
+    Stream<Object[]> streamForExport(@Param("storeId") Long storeId,
+                                     @Param("from") LocalDateTime from,
+                                     @Param("to") LocalDateTime to);
 }
@@ -0,0 +1,46 @@
+package dev.andrepontde.retailmanager.retail_system.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import dev.andrepontde.retailmanager.retail_system.entity.StockMovement;
+
+@Repository
+public interface StockMovementRepository extends JpaRepository<StockMovement, Long> {
+
+    /**
+     * Find movements of an item in a store within (from, to], oldest first.
+     */
+    @Query("SELECT m FROM StockMovement m WHERE m.storeId = :storeId AND m.itemId = :itemId " +
+           "AND m.occurredAt > :from AND m.occurredAt <= :to ORDER BY m.occurredAt, m.id")
+    List<StockMovement> findMovements(@Param("storeId") Long storeId,
+                                      @Param("itemId") Long itemId,
+                                      @Param("from") LocalDateTime from,
+                                      @Param("to") LocalDateTime to,
+                                      Pageable pageable);
+
+    /**
+     * Net quantity change of an item in a store within (from, to].
+     */
+    @Query("SELECT COALESCE(SUM(m.quantityChange), 0) FROM StockMovement m WHERE m.storeId = :storeId " +
+           "AND m.itemId = :itemId AND m.occurredAt > :from AND m.occurredAt <= :to")
+    Long sumQuantityChange(@Param("storeId") Long storeId,
+                           @Param("itemId") Long itemId,
+                           @Param("from") LocalDateTime from,
+                           @Param("to") LocalDateTime to);
+
+    /**
+     * Net quantity change per item in a store within (from, to], as [itemId, change] rows.
+     */
+    @Query("SELECT m.itemId, SUM(m.quantityChange) FROM StockMovement m WHERE m.storeId = :storeId " +
+           "AND m.occurredAt > :from AND m.occurredAt <= :to GROUP BY m.itemId")
+    List<Object[]> sumQuantityChangeByItem(@Param("storeId") Long storeId,
+                                           @Param("from") LocalDateTime from,
+                                           @Param("to") LocalDateTime to);
+}
@@ -0,0 +1,87 @@
+package dev.andrepontde.retailmanager.retail_system.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import dev.andrepontde.retailmanager.retail_system.entity.StockSnapshot;
+
+@Repository
+public interface StockSnapshotRepository extends JpaRepository<StockSnapshot, Long> {
+
+    /**
+     * Find the most recent snapshot of a store.
+     */
+    Optional<StockSnapshot> findFirstByStoreIdOrderByTakenAtDesc(Long storeId);
+
+    /**
+     * Find the latest snapshot of a store taken at or before the given time.
+     */
+    Optional<StockSnapshot> findFirstByStoreIdAndTakenAtLessThanEqualOrderByTakenAtDesc(Long storeId, LocalDateTime time);
+
+    /**
+     * Find the earliest snapshot of a store taken after the given time.
+     */
+    Optional<StockSnapshot> findFirstByStoreIdAndTakenAtGreaterThanOrderByTakenAtAsc(Long storeId, LocalDateTime time);
+
+    /**
+     * Quantity of an item in a store as of a snapshot: its line in the latest snapshot
+     * taken at or before the given time that has one.
+     */
+    @Query(value = "SELECT l.quantity FROM stock_snapshot_line l JOIN stock_snapshot s ON s.id = l.snapshot_id " +
+                   "WHERE s.store_id = :storeId AND l.item_id = :itemId AND s.taken_at <= :takenAt " +
+                   "ORDER BY s.taken_at DESC LIMIT 1",
+           nativeQuery = true)
+    Optional<Integer> findQuantity(@Param("storeId") Long storeId,
+                                   @Param("itemId") Long itemId,
+                                   @Param("takenAt") LocalDateTime takenAt);
+
+    /**
+     * Quantity of every item in a store as of a snapshot, as [itemId, quantity] rows.
+     */
+    @Query(value = "SELECT DISTINCT ON (l.item_id) l.item_id, l.quantity " +
+                   "FROM stock_snapshot_line l JOIN stock_snapshot s ON s.id = l.snapshot_id " +
+                   "WHERE s.store_id = :storeId AND s.taken_at <= :takenAt " +
+                   "ORDER BY l.item_id, s.taken_at DESC",
+           nativeQuery = true)
+    List<Object[]> findQuantities(@Param("storeId") Long storeId, @Param("takenAt") LocalDateTime takenAt);
+
+    /**
+     * Add to a snapshot the latest line of every item that only older snapshots of the store have.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO stock_snapshot_line (snapshot_id, item_id, quantity) " +
+                   "SELECT :snapshotId, older.item_id, older.quantity FROM (" +
+                   "  SELECT DISTINCT ON (l.item_id) l.item_id, l.quantity " +
+                   "  FROM stock_snapshot_line l JOIN stock_snapshot s ON s.id = l.snapshot_id " +
+                   "  WHERE s.store_id = :storeId AND s.taken_at < :takenAt " +
+                   "  ORDER BY l.item_id, s.taken_at DESC) older " +
+                   "WHERE NOT EXISTS (SELECT 1 FROM stock_snapshot_line b " +
+                   "                  WHERE b.snapshot_id = :snapshotId AND b.item_id = older.item_id)",
+           nativeQuery = true)
+    int completeSnapshot(@Param("snapshotId") Long snapshotId,
+                         @Param("storeId") Long storeId,
+                         @Param("takenAt") LocalDateTime takenAt);
+
+    /**
+     * Delete the lines of a store's snapshots taken before the given time.
+     */
+    @Modifying
+    @Query(value = "DELETE FROM stock_snapshot_line WHERE snapshot_id IN " +
+                   "(SELECT id FROM stock_snapshot WHERE store_id = :storeId AND taken_at < :takenAt)",
+           nativeQuery = true)
+    int deleteLinesTakenBefore(@Param("storeId") Long storeId, @Param("takenAt") LocalDateTime takenAt);
+
+    /**
+     * Delete a store's snapshots taken before the given time (their lines first).
+     */
+    @Modifying
+    @Query(value = "DELETE FROM stock_snapshot WHERE store_id = :storeId AND taken_at < :takenAt", nativeQuery = true)
+    int deleteTakenBefore(@Param("storeId") Long storeId, @Param("takenAt") LocalDateTime takenAt);
+}
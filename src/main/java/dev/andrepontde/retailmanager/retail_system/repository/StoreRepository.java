@@ -1,10 +1,14 @@
 package dev.andrepontde.retailmanager.retail_system.repository;
 
 import java.util.List;
+import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import dev.andrepontde.retailmanager.retail_system.dto.StoreDTO;
 import dev.andrepontde.retailmanager.retail_system.entity.Store;
 
 @Repository
@@ -24,4 +28,29 @@ public interface StoreRepository extends JpaRepository<Store, Long> {
      * Find stores by location.
      */
     List<Store> findByLocation(String location);
+
+    // ================================
+    // DTO PROJECTIONS (read endpoints: only the DTO's columns, no managed entities)
+    // ================================
+
+    String STORE_DTO = "SELECT new dev.andrepontde.retailmanager.retail_system.dto.StoreDTO(" +
+                       "s.id, s.name, s.location, s.address, s.phone, s.manager) FROM Store s ";
+
+    @Query(STORE_DTO + "ORDER BY s.id")
+    List<StoreDTO> findAllAsDTO();
+
+    @Query(STORE_DTO + "WHERE s.id = :id")
+    Optional<StoreDTO> findDTOById(@Param("id") Long id);
+
+    /**
+     * Stores whose name contains the given string (case insensitive).
+     */
+    @Query(STORE_DTO + "WHERE LOWER(s.name) LIKE LOWER(CONCAT('%', :name, '%')) ORDER BY s.id")
+    List<StoreDTO> findDTOsByNameContaining(@Param("name") String name);
+
+    /**
+     * Stores whose address contains the given string (case insensitive).
+     */
+    @Query(STORE_DTO + "WHERE LOWER(s.address) LIKE LOWER(CONCAT('%', :address, '%')) ORDER BY s.id")
+    List<StoreDTO> findDTOsByAddressContaining(@Param("address") String address);
 }
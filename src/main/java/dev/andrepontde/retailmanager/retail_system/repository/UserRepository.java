@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import dev.andrepontde.retailmanager.retail_system.dto.UserDTO;
 import dev.andrepontde.retailmanager.retail_system.entity.User;
 import dev.andrepontde.retailmanager.retail_system.entity.User.UserRole;
 
@@ -58,4 +59,24 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * Check if email exists.
      */
     boolean existsByEmail(String email);
+
+    // ================================
+    // DTO PROJECTIONS (read endpoints: only the DTO's columns, no managed entities)
+    // ================================
+
+    String USER_DTO = "SELECT new dev.andrepontde.retailmanager.retail_system.dto.UserDTO(" +
+                      "u.id, u.username, u.email, u.firstName, u.lastName, u.role, u.active, u.createdAt, u.lastLogin) " +
+                      "FROM User u ";
+
+    @Query(USER_DTO + "ORDER BY u.id")
+    List<UserDTO> findAllAsDTO();
+
+    @Query(USER_DTO + "WHERE u.id = :id")
+    Optional<UserDTO> findDTOById(@Param("id") Long id);
+
+    @Query(USER_DTO + "WHERE u.username = :username")
+    Optional<UserDTO> findDTOByUsername(@Param("username") String username);
+
+    @Query(USER_DTO + "WHERE u.primaryStore.id = :storeId ORDER BY u.id")
+    List<UserDTO> findDTOsByPrimaryStoreId(@Param("storeId") Long storeId);
 }
@@ -12,6 +12,8 @@ import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfigurationSource;
 
+import jakarta.servlet.DispatcherType;
+
 /**
  * Spring Security configuration for JWT-based authentication.
  * Configures security rules, password encoding, and JWT filter integration.
@@ -47,10 +49,14 @@ public class SecurityConfig {
             
             // Configure authorization rules
             .authorizeHttpRequests(authz -> authz
+                // Async dispatches (SSE streams, streamed responses) were authorized on the original request
+                .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
+
                 // Public endpoints - no authentication required
                 .requestMatchers("/api/users/login", "/api/users/register").permitAll()
                 .requestMatchers("/api/public/**").permitAll()
                 .requestMatchers("/h2-console/**").permitAll() // For H2 database console
+                .requestMatchers("/actuator/health", "/actuator/prometheus").permitAll() // Management port, bound to loopback by default
                 
                 // Static resources - no authentication required
                 .requestMatchers("/", "/index.html", "/styles.css", "/script.js").permitAll()
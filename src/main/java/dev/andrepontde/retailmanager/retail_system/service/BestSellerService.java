@@ -0,0 +1,324 @@
+package dev.andrepontde.retailmanager.retail_system.service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import dev.andrepontde.retailmanager.retail_system.dto.BestSellerDTO;
+import dev.andrepontde.retailmanager.retail_system.entity.Item;
+import dev.andrepontde.retailmanager.retail_system.event.SaleRecordedEvent;
+import dev.andrepontde.retailmanager.retail_system.repository.ItemRepository;
+
+/**
+ * Service class for live best-seller lists per store.
+ *
+ * Each store keeps, for today, this week (from Monday) and this month, a Space-Saving summary
+ * of the most sold items plus a Count-Min sketch of all items' sold quantities. Memory per
+ * store is fixed (retail.best-sellers.capacity counters and one sketch per window) whatever
+ * the number of SKUs. An item's estimate is the lower of its Space-Saving count and its
+ * Count-Min estimate; both only ever overestimate, so the lower one is the tighter bound.
+ * Refunds are only subtracted from the Space-Saving counters: a Count-Min sketch that takes
+ * negative updates can underestimate an item whose buckets it shares with refunded ones.
+ *
+ * Committed sales and refunds are applied as they happen (refunds only to the windows that
+ * contain the original sale). Windows are reset when their period rolls over. At startup the
+ * current month, week and day are seeded from the sale tables with grouped queries on one
+ * snapshot started through SaleCommitGate; sales and refunds committed after it are counted
+ * once the seed has finished.
+ */
+@Service
+public class BestSellerService {
+
+    private static final Logger log = LoggerFactory.getLogger(BestSellerService.class);
+
+    private static final int SKETCH_DEPTH = 4;
+
+    private static final int SKETCH_WIDTH = 1024;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private SaleCommitGate saleCommitGate;
+
+    @Value("${retail.best-sellers.capacity:100}")
+    private int capacity;
+
+    private final Map<Long, StoreSellers> stores = new ConcurrentHashMap<>();
+
+    // Sales and refunds committed after the seed's snapshot, until the seed has finished
+    private final List<SaleRecordedEvent> pending = new ArrayList<>();
+    private boolean seeded;
+
+    /**
+     * Best-seller windows.
+     */
+    public enum Window {
+        DAY, WEEK, MONTH;
+
+        public static Window parse(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown window: " + value);
+            }
+        }
+
+        /**
+         * Key of the period a date falls in (epoch day, Monday's epoch day, or year * 12 + month).
+         */
+        long period(LocalDate date) {
+            return switch (this) {
+                case DAY -> date.toEpochDay();
+                case WEEK -> date.with(DayOfWeek.MONDAY).toEpochDay();
+                case MONTH -> date.getYear() * 12L + date.getMonthValue();
+            };
+        }
+
+        LocalDate start(LocalDate today) {
+            return switch (this) {
+                case DAY -> today;
+                case WEEK -> today.with(DayOfWeek.MONDAY);
+                case MONTH -> today.withDayOfMonth(1);
+            };
+        }
+    }
+
+    // ================================
+    // QUERIES
+    // ================================
+
+    /**
+     * Get the best sellers of current user's store (or another accessible store) in a window.
+     */
+    public List<BestSellerDTO> getBestSellers(Long storeId, Window window, int limit) {
+        Long sellersStoreId = storeId != null ? storeId : userService.getCurrentUserStoreId();
+        userService.validateStoreAccess(sellersStoreId);
+        if (limit < 1 || limit > capacity) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + capacity);
+        }
+
+        StoreSellers sellers = stores.get(sellersStoreId);
+        if (sellers == null) {
+            return new ArrayList<>();
+        }
+        List<long[]> top = sellers.top(window, LocalDate.now(), limit);
+
+        Map<Long, Item> items = itemRepository.findAllById(top.stream().map(entry -> entry[0]).collect(Collectors.toList()))
+                .stream().collect(Collectors.toMap(Item::getId, Function.identity()));
+        List<BestSellerDTO> result = new ArrayList<>();
+        for (long[] entry : top) {
+            Item item = items.get(entry[0]);
+            result.add(new BestSellerDTO(entry[0], item != null ? item.getName() : null, entry[1], entry[2]));
+        }
+        return result;
+    }
+
+    // ================================
+    // UPDATES
+    // ================================
+
+    /**
+     * Count a committed sale or refund in the windows that contain the sale.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSaleRecorded(SaleRecordedEvent event) {
+        synchronized (pending) {
+            if (!seeded) {
+                pending.add(event);
+                return;
+            }
+        }
+        count(event);
+    }
+
+    /**
+     * Seed the current windows from the sale tables, then count the sales and refunds
+     * committed after the seed's snapshot.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        long start = System.currentTimeMillis();
+        TransactionTemplate snapshot = new TransactionTemplate(transactionManager);
+        snapshot.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        snapshot.executeWithoutResult(status -> seedSnapshot(LocalDate.now()));
+
+        synchronized (pending) {
+            pending.forEach(this::count);
+            pending.clear();
+            seeded = true;
+        }
+        log.info("Best sellers seeded for {} stores in {} ms", stores.size(), System.currentTimeMillis() - start);
+    }
+
+    private void seedSnapshot(LocalDate today) {
+        // Everything received so far is in the snapshot
+        saleCommitGate.startSnapshot(() -> {
+            synchronized (pending) {
+                pending.clear();
+            }
+        });
+        for (Window window : Window.values()) {
+            LocalDateTime from = window.start(today).atStartOfDay();
+            jdbcTemplate.query(
+                "SELECT s.store_id, si.item_id, SUM(si.quantity) FROM sale_item si JOIN sale s ON s.id = si.sale_id " +
+                "WHERE s.sale_date >= ? GROUP BY s.store_id, si.item_id",
+                (RowCallbackHandler) rs -> stores.computeIfAbsent(rs.getLong(1), id -> new StoreSellers(capacity))
+                        .seed(window, today, rs.getLong(2), rs.getLong(3)),
+                from);
+        }
+    }
+
+    private void count(SaleRecordedEvent event) {
+        StoreSellers sellers = stores.computeIfAbsent(event.getStoreId(), id -> new StoreSellers(capacity));
+        LocalDate saleDay = event.getSaleDate().toLocalDate();
+        for (SaleRecordedEvent.Line line : event.getLines()) {
+            sellers.add(line.itemId(), line.quantity(), saleDay, LocalDate.now());
+        }
+    }
+
+    // ================================
+    // SKETCHES
+    // ================================
+
+    /**
+     * The three windows of one store. All access is synchronized on the instance.
+     */
+    private static final class StoreSellers {
+        private final Map<Window, WindowSketch> windows = new HashMap<>();
+        private final int capacity;
+
+        StoreSellers(int capacity) {
+            this.capacity = capacity;
+        }
+
+        synchronized void add(long itemId, long quantity, LocalDate saleDay, LocalDate today) {
+            for (Window window : Window.values()) {
+                if (window.period(saleDay) == window.period(today)) {
+                    current(window, today).add(itemId, quantity);
+                }
+            }
+        }
+
+        synchronized void seed(Window window, LocalDate today, long itemId, long quantity) {
+            current(window, today).add(itemId, quantity);
+        }
+
+        synchronized List<long[]> top(Window window, LocalDate today, int limit) {
+            return current(window, today).top(limit);
+        }
+
+        private WindowSketch current(Window window, LocalDate today) {
+            long period = window.period(today);
+            WindowSketch sketch = windows.get(window);
+            if (sketch == null || sketch.period != period) {
+                sketch = new WindowSketch(period, capacity);
+                windows.put(window, sketch);
+            }
+            return sketch;
+        }
+    }
+
+    /**
+     * Space-Saving summary (weighted, with decrements for refunds) plus a Count-Min sketch of sales only.
+     */
+    private static final class WindowSketch {
+        private final long period;
+        private final int capacity;
+        // itemId -> {count, error}
+        private final Map<Long, long[]> counters = new HashMap<>();
+        private final int[][] sketch = new int[SKETCH_DEPTH][SKETCH_WIDTH];
+
+        WindowSketch(long period, int capacity) {
+            this.period = period;
+            this.capacity = capacity;
+        }
+
+        void add(long itemId, long quantity) {
+            if (quantity > 0) {
+                for (int row = 0; row < SKETCH_DEPTH; row++) {
+                    sketch[row][bucket(itemId, row)] += (int) quantity;
+                }
+            }
+
+            long[] counter = counters.get(itemId);
+            if (counter != null) {
+                counter[0] = Math.max(0, counter[0] + quantity);
+                counter[1] = Math.min(counter[1], counter[0]);
+            } else if (quantity > 0) {
+                if (counters.size() < capacity) {
+                    counters.put(itemId, new long[] {quantity, 0});
+                } else {
+                    // Replace the smallest counter; the newcomer may have been sold up to that many times before
+                    Map.Entry<Long, long[]> min = null;
+                    for (Map.Entry<Long, long[]> entry : counters.entrySet()) {
+                        if (min == null || entry.getValue()[0] < min.getValue()[0]) {
+                            min = entry;
+                        }
+                    }
+                    long minCount = min.getValue()[0];
+                    counters.remove(min.getKey());
+                    counters.put(itemId, new long[] {minCount + quantity, minCount});
+                }
+            }
+        }
+
+        /**
+         * Top items as {itemId, estimate, guaranteed}, highest estimate first.
+         */
+        List<long[]> top(int limit) {
+            List<long[]> entries = new ArrayList<>();
+            counters.forEach((itemId, counter) -> {
+                long estimate = Math.max(0, Math.min(counter[0], estimate(itemId)));
+                entries.add(new long[] {itemId, estimate, Math.max(0, Math.min(estimate, counter[0] - counter[1]))});
+            });
+            entries.sort(Comparator.comparingLong((long[] entry) -> entry[1]).reversed());
+            return entries.size() > limit ? new ArrayList<>(entries.subList(0, limit)) : entries;
+        }
+
+        private long estimate(long itemId) {
+            long estimate = Long.MAX_VALUE;
+            for (int row = 0; row < SKETCH_DEPTH; row++) {
+                estimate = Math.min(estimate, sketch[row][bucket(itemId, row)]);
+            }
+            return estimate;
+        }
+
+        private static int bucket(long itemId, int row) {
+            long hash = (itemId + row * 0x632BE59BD9B4E019L) * 0x9E3779B97F4A7C15L;
+            return (int) ((hash ^ (hash >>> 29)) & (SKETCH_WIDTH - 1));
+        }
+    }
+}
@@ -0,0 +1,457 @@
+package dev.andrepontde.retailmanager.retail_system.service;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import dev.andrepontde.retailmanager.retail_system.entity.Item;
+import dev.andrepontde.retailmanager.retail_system.entity.Store;
+import dev.andrepontde.retailmanager.retail_system.entity.User;
+import dev.andrepontde.retailmanager.retail_system.event.CacheInvalidationEvent;
+import dev.andrepontde.retailmanager.retail_system.event.StockChangedEvent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceUnit;
+
+/**
+ * Service that keeps in-process caches consistent across application nodes.
+ *
+ * Committed writes to items, stores, users and stock are sent to every other node over
+ * PostgreSQL LISTEN/NOTIFY on the application's own database:
+ * - Sending: invalidations are collected after commit, de-duplicated, and sent every
+ *   batch-ms as compact messages ("node|i12,s3,u7,k12"), split to stay under the NOTIFY
+ *   payload limit. If more than max-pending pile up (e.g. while the database is down),
+ *   they collapse into one "flush everything" message
+ * - Receiving: a dedicated connection, outside the pool, listens on the channel and evicts
+ *   the matching second-level cache entries, StockAvailabilityCache items and the item prices
+ *   of InventoryValuationService. Messages sent by this node are skipped, its caches are
+ *   already current
+ * - Resync: after every (re)connect the listener clears those caches, since messages sent
+ *   while it was not listening are lost. Reconnects back off up to reconnect-max-ms
+ * - Replica: with a read replica configured, a read-only transaction could reload an evicted
+ *   entry from a replica that has not replayed the change yet and cache it until it expires.
+ *   Every eviction is therefore repeated once replica-lag-ms has passed, which bounds the
+ *   staleness to the replica's lag
+ *
+ * Per-node state that is not a cache (the stock engine, the event-fed aggregates) is not
+ * covered.
+ */
+@Service
+@ConditionalOnProperty(name = "retail.cache-invalidation.enabled", havingValue = "true", matchIfMissing = true)
+public class CacheInvalidationBus {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheInvalidationBus.class);
+
+    // NOTIFY payloads must be shorter than 8000 bytes; messages are ASCII
+    private static final int MAX_PAYLOAD_LENGTH = 7900;
+
+    private static final String FLUSH_ALL = "*";
+
+    private static final String ACCESSIBLE_STORES_ROLE = User.class.getName() + ".accessibleStores";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSourceProperties dataSourceProperties;
+
+    @PersistenceUnit
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private StockAvailabilityCache stockAvailabilityCache;
+
+    @Autowired
+    private InventoryValuationService inventoryValuationService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${retail.cache-invalidation.channel:retail_cache_invalidation}")
+    private String channel;
+
+    @Value("${retail.cache-invalidation.max-pending:10000}")
+    private int maxPending;
+
+    @Value("${retail.cache-invalidation.keepalive-ms:10000}")
+    private int keepaliveMs;
+
+    @Value("${retail.cache-invalidation.reconnect-max-ms:30000}")
+    private long reconnectMaxMs;
+
+    @Value("${retail.datasource.replica.url:}")
+    private String replicaUrl;
+
+    @Value("${retail.cache-invalidation.replica-lag-ms:5000}")
+    private long replicaLagMs;
+
+    private final String nodeId = UUID.randomUUID().toString().substring(0, 8);
+
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean overflowed = new AtomicBoolean();
+
+    // Evictions to repeat once the replica has caught up: key (or FLUSH_ALL) to due time in millis
+    private final Map<String, Long> delayed = new ConcurrentHashMap<>();
+
+    private volatile boolean running = true;
+    private volatile boolean listening;
+    private volatile boolean sendFailing;
+    private volatile Connection listenerConnection;
+    private Thread listener;
+
+    private Counter sentCounter;
+    private Counter receivedCounter;
+    private Counter resyncCounter;
+
+    // ================================
+    // SENDING
+    // ================================
+
+    /**
+     * Queue a committed change for the other nodes.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCacheInvalidation(CacheInvalidationEvent event) {
+        enqueue(event.getType(), event.getId());
+    }
+
+    /**
+     * Queue a committed stock change for the other nodes' availability caches.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        enqueue(CacheInvalidationEvent.Type.STOCK, event.getItemId());
+    }
+
+    /**
+     * Send everything queued since the last batch; on failure it is kept for the next one.
+     */
+    @Scheduled(fixedDelayString = "${retail.cache-invalidation.batch-ms:100}")
+    public void flush() {
+        if (pending.isEmpty() && !overflowed.get()) {
+            return;
+        }
+
+        List<String> keys = new ArrayList<>();
+        boolean flushAll = overflowed.getAndSet(false);
+        if (flushAll) {
+            pending.clear();
+        } else {
+            Iterator<String> iterator = pending.iterator();
+            while (iterator.hasNext()) {
+                keys.add(iterator.next());
+                iterator.remove();
+            }
+        }
+
+        List<String> payloads = flushAll ? List.of(nodeId + "|" + FLUSH_ALL) : toPayloads(keys);
+        try {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(
+                        "SELECT pg_notify(?, payload) FROM unnest(?) AS payload");
+                statement.setString(1, channel);
+                statement.setArray(2, connection.createArrayOf("text", payloads.toArray()));
+                return statement;
+            }, resultSet -> {});
+            sentCounter.increment(flushAll ? 1 : keys.size());
+            if (sendFailing) {
+                sendFailing = false;
+                log.info("Cache invalidations are being sent again");
+            }
+        } catch (DataAccessException e) {
+            if (flushAll) {
+                overflowed.set(true);
+            } else {
+                keys.forEach(this::enqueue);
+            }
+            if (!sendFailing) {
+                sendFailing = true;
+                log.warn("Could not send cache invalidations, will retry: {}", e.getMessage());
+            }
+        }
+    }
+
+    // ================================
+    // LIFECYCLE
+    // ================================
+
+    @PostConstruct
+    public void initialize() {
+        if (!channel.matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalStateException("Invalid cache invalidation channel name: " + channel);
+        }
+        sentCounter = counter("sent");
+        receivedCounter = counter("received");
+        resyncCounter = Counter.builder("retail.cache.invalidation.resyncs")
+                .description("Caches cleared because invalidations may have been missed")
+                .register(meterRegistry);
+        Gauge.builder("retail.cache.invalidation.pending", pending, Set::size)
+                .description("Invalidations waiting to be sent")
+                .register(meterRegistry);
+        Gauge.builder("retail.cache.invalidation.listening", this, bus -> bus.listening ? 1 : 0)
+                .description("1 while this node is receiving invalidations")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        listener = new Thread(this::listen, "cache-invalidation-listener");
+        listener.setDaemon(true);
+        listener.start();
+        log.info("Cache invalidation bus started on channel {} (node {})", channel, nodeId);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        Connection connection = listenerConnection;
+        if (connection != null) {
+            try {
+                // Unblocks the listener thread
+                connection.close();
+            } catch (SQLException e) {
+                log.debug("Error closing the cache invalidation connection: {}", e.getMessage());
+            }
+        }
+        flush();
+    }
+
+    // ================================
+    // RECEIVING
+    // ================================
+
+    private void listen() {
+        long delay = 500;
+        while (running) {
+            try (Connection connection = connect()) {
+                listenerConnection = connection;
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                listening = true;
+                delay = 500;
+                resync("listener connected");
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(keepaliveMs);
+                    if (notifications != null && notifications.length > 0) {
+                        for (PGNotification notification : notifications) {
+                            apply(notification.getParameter());
+                        }
+                    } else if (!connection.isValid(5)) {
+                        throw new SQLException("connection is no longer valid");
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) {
+                    break;
+                }
+                log.warn("Cache invalidation listener disconnected ({}), reconnecting in {} ms", e.getMessage(), delay);
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                delay = Math.min(delay * 2, reconnectMaxMs);
+            } finally {
+                listening = false;
+                listenerConnection = null;
+            }
+        }
+    }
+
+    /**
+     * Evict what a message names. Malformed entries are skipped.
+     */
+    void apply(String payload) {
+        int separator = payload.indexOf('|');
+        if (separator < 0) {
+            log.warn("Ignoring malformed cache invalidation message: {}", payload);
+            return;
+        }
+        if (payload.startsWith(nodeId) && separator == nodeId.length()) {
+            return;
+        }
+
+        String body = payload.substring(separator + 1);
+        if (body.equals(FLUSH_ALL)) {
+            receivedCounter.increment();
+            resync("node " + payload.substring(0, separator) + " dropped invalidations");
+            return;
+        }
+
+        for (String key : body.split(",")) {
+            try {
+                evict(key);
+                receivedCounter.increment();
+                evictAgainLater(key);
+            } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+                log.warn("Ignoring malformed cache invalidation entry: {}", key);
+            }
+        }
+    }
+
+    /**
+     * Repeat evictions whose replica lag has passed (scheduled).
+     */
+    @Scheduled(fixedDelayString = "${retail.cache-invalidation.batch-ms:100}")
+    public void evictDelayed() {
+        if (delayed.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        delayed.forEach((key, due) -> {
+            if (due <= now && delayed.remove(key, due)) {
+                if (key.equals(FLUSH_ALL)) {
+                    clearCaches();
+                } else {
+                    evict(key);
+                }
+            }
+        });
+    }
+
+    // ================================
+    // HELPER METHODS
+    // ================================
+
+    /**
+     * Evict what one message entry names.
+     *
+     * @throws IllegalArgumentException or IndexOutOfBoundsException for a malformed entry
+     */
+    private void evict(String key) {
+        CacheInvalidationEvent.Type type = CacheInvalidationEvent.Type.fromCode(key.charAt(0));
+        Long id = Long.valueOf(key.substring(1));
+        org.hibernate.Cache cache = entityManagerFactory.getCache().unwrap(org.hibernate.Cache.class);
+        switch (type) {
+            case ITEM -> {
+                cache.evictEntityData(Item.class, id);
+                inventoryValuationService.evictPricing(id);
+            }
+            case STORE -> cache.evictEntityData(Store.class, id);
+            case USER -> {
+                cache.evictEntityData(User.class, id);
+                cache.evictCollectionData(ACCESSIBLE_STORES_ROLE, id);
+            }
+            case STOCK -> stockAvailabilityCache.evict(id);
+        }
+    }
+
+    private void evictAgainLater(String key) {
+        if (!replicaUrl.isBlank()) {
+            delayed.put(key, System.currentTimeMillis() + replicaLagMs);
+        }
+    }
+
+    private void enqueue(CacheInvalidationEvent.Type type, Long id) {
+        if (id != null) {
+            enqueue(type.getCode() + id.toString());
+        }
+    }
+
+    private void enqueue(String key) {
+        if (pending.size() >= maxPending) {
+            overflowed.set(true);
+            return;
+        }
+        pending.add(key);
+    }
+
+    private List<String> toPayloads(List<String> keys) {
+        List<String> payloads = new ArrayList<>();
+        StringBuilder payload = new StringBuilder(nodeId).append('|');
+        int start = payload.length();
+        for (String key : keys) {
+            if (payload.length() + key.length() + 1 > MAX_PAYLOAD_LENGTH) {
+                payloads.add(payload.toString());
+                payload.setLength(start);
+            }
+            if (payload.length() > start) {
+                payload.append(',');
+            }
+            payload.append(key);
+        }
+        if (payload.length() > start) {
+            payloads.add(payload.toString());
+        }
+        return payloads;
+    }
+
+    /**
+     * Clear every cache this bus keeps consistent.
+     */
+    private void resync(String reason) {
+        clearCaches();
+        evictAgainLater(FLUSH_ALL);
+        resyncCounter.increment();
+        log.info("Cleared item, store, user, availability and pricing caches: {}", reason);
+    }
+
+    private void clearCaches() {
+        org.hibernate.Cache cache = entityManagerFactory.getCache().unwrap(org.hibernate.Cache.class);
+        cache.evictEntityData(Item.class);
+        cache.evictEntityData(Store.class);
+        cache.evictEntityData(User.class);
+        cache.evictNaturalIdData(User.class);
+        cache.evictCollectionData(ACCESSIBLE_STORES_ROLE);
+        stockAvailabilityCache.clear();
+        inventoryValuationService.clearPricing();
+    }
+
+    private Connection connect() throws SQLException {
+        Properties properties = new Properties();
+        String username = dataSourceProperties.determineUsername();
+        String password = dataSourceProperties.determinePassword();
+        if (username != null) {
+            properties.setProperty("user", username);
+        }
+        if (password != null) {
+            properties.setProperty("password", password);
+        }
+        properties.setProperty("ApplicationName", "retail-cache-invalidation");
+        properties.setProperty("tcpKeepAlive", "true");
+        return DriverManager.getConnection(dataSourceProperties.determineUrl(), properties);
+    }
+
+    private Counter counter(String direction) {
+        return Counter.builder("retail.cache.invalidations")
+                .description("Cache invalidations exchanged with other nodes")
+                .tag("direction", direction)
+                .register(meterRegistry);
+    }
+}
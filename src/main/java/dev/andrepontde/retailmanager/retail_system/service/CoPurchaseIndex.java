@@ -0,0 +1,355 @@
+package dev.andrepontde.retailmanager.retail_system.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import dev.andrepontde.retailmanager.retail_system.dto.CoPurchaseDTO;
+import dev.andrepontde.retailmanager.retail_system.entity.Item;
+import dev.andrepontde.retailmanager.retail_system.event.ItemChangedEvent;
+import dev.andrepontde.retailmanager.retail_system.event.SaleRecordedEvent;
+import dev.andrepontde.retailmanager.retail_system.repository.ItemRepository;
+
+/**
+ * In-memory "frequently bought together" index over the items of each sale.
+ *
+ * For every item the index keeps the number of sales that contained it and a primitive
+ * long-keyed map of partner item -> number of sales containing both. Each committed sale
+ * updates the maps of its items; a partner map that grows past retail.co-purchase.max-partners
+ * drops its rarest quarter, so memory stays bounded and only recurring pairs survive.
+ * Top-N lookups read one small map.
+ *
+ * The index is rebuilt from the sale lines of the last retail.co-purchase.history-days at
+ * startup (and on demand), in parallel over sale id ranges. All ranges read one snapshot,
+ * started through SaleCommitGate and shared with pg_export_snapshot; sales committed after it
+ * are replayed into the new index before it replaces the old one.
+ */
+@Service
+public class CoPurchaseIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(CoPurchaseIndex.class);
+
+    // Larger baskets only count pairs among their first items (pairs grow quadratically)
+    private static final int MAX_BASKET_ITEMS = 50;
+
+    private static final long REBUILD_CHUNK_SALES = 20_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private SaleCommitGate saleCommitGate;
+
+    @Value("${retail.co-purchase.max-partners:64}")
+    private int maxPartners;
+
+    @Value("${retail.co-purchase.history-days:180}")
+    private int historyDays;
+
+    @Value("${retail.co-purchase.rebuild-parallelism:4}")
+    private int rebuildParallelism;
+
+    private volatile Map<Long, Partners> index = new ConcurrentHashMap<>();
+
+    // Held shared by sale updates, exclusively while a rebuilt index is swapped in
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+
+    // Sales committed after the snapshot of a running rebuild (null when none runs)
+    private Queue<SaleRecordedEvent> duringRebuild;
+
+    /**
+     * Partners of one item. All access is synchronized on the instance.
+     */
+    private static final class Partners {
+        private int sales;
+        private final LongIntHashMap counts = new LongIntHashMap();
+
+        synchronized void record(long[] basket, int self, int maxPartners) {
+            sales++;
+            for (int i = 0; i < basket.length; i++) {
+                if (i != self) {
+                    counts.add(basket[i], 1);
+                }
+            }
+            pruneIfFull(maxPartners);
+        }
+
+        synchronized void merge(Partners other, int maxPartners) {
+            synchronized (other) {
+                sales += other.sales;
+                other.counts.forEach(counts::add);
+            }
+            pruneIfFull(maxPartners);
+        }
+
+        synchronized List<long[]> top(int limit) {
+            List<long[]> entries = new ArrayList<>(counts.size());
+            counts.forEach((partner, count) -> entries.add(new long[] {partner, count}));
+            entries.sort(Comparator.comparingLong((long[] entry) -> entry[1]).reversed());
+            return entries.size() > limit ? new ArrayList<>(entries.subList(0, limit)) : entries;
+        }
+
+        synchronized int sales() {
+            return sales;
+        }
+
+        private void pruneIfFull(int maxPartners) {
+            if (counts.size() > maxPartners) {
+                // The rarest quarter by rank, so ties at the bottom do not empty the map
+                counts.removeSmallest(Math.max(counts.size() / 4, counts.size() - maxPartners));
+            }
+        }
+    }
+
+    // ================================
+    // QUERIES
+    // ================================
+
+    /**
+     * Get the items most often bought together with an item, most frequent first.
+     */
+    public List<CoPurchaseDTO> getBoughtTogether(Long itemId, int limit) {
+        if (limit < 1 || limit > maxPartners) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + maxPartners);
+        }
+        Partners partners = index.get(itemId);
+        if (partners == null) {
+            return new ArrayList<>();
+        }
+        // Ask for a few extra in case some partners were deleted since
+        List<long[]> top = partners.top(limit + 5);
+        int sales = partners.sales();
+
+        Map<Long, Item> items = itemRepository.findAllById(top.stream().map(entry -> entry[0]).collect(Collectors.toList()))
+                .stream().collect(Collectors.toMap(Item::getId, Function.identity()));
+        List<CoPurchaseDTO> result = new ArrayList<>();
+        for (long[] entry : top) {
+            Item item = items.get(entry[0]);
+            if (item != null && result.size() < limit) {
+                result.add(new CoPurchaseDTO(item.getId(), item.getName(), (int) entry[1],
+                                             sales > 0 ? (double) entry[1] / sales : 0));
+            }
+        }
+        return result;
+    }
+
+    // ================================
+    // UPDATES
+    // ================================
+
+    /**
+     * Count the item pairs of a committed sale (refunds do not undo a co-purchase).
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSaleRecorded(SaleRecordedEvent event) {
+        if (event.isRefund()) {
+            return;
+        }
+        swapLock.readLock().lock();
+        try {
+            record(index, basket(event));
+            Queue<SaleRecordedEvent> queue = duringRebuild;
+            if (queue != null) {
+                queue.add(event);
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        if (event.isDeleted()) {
+            index.remove(event.getItemId());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        rebuild();
+    }
+
+    /**
+     * Rebuild the index from recent sale lines in parallel and replace the current one.
+     *
+     * @return number of items in the new index
+     */
+    public synchronized int rebuild() {
+        long start = System.currentTimeMillis();
+        TransactionTemplate snapshot = new TransactionTemplate(transactionManager);
+        snapshot.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        Map<Long, Partners> fresh;
+        try {
+            fresh = snapshot.execute(status -> rebuildSnapshot());
+        } catch (RuntimeException e) {
+            swapLock.writeLock().lock();
+            duringRebuild = null;
+            swapLock.writeLock().unlock();
+            throw e;
+        }
+
+        Map<Long, Partners> rebuilt = new ConcurrentHashMap<>(fresh);
+        swapLock.writeLock().lock();
+        try {
+            for (SaleRecordedEvent event : duringRebuild) {
+                record(rebuilt, basket(event));
+            }
+            index = rebuilt;
+            duringRebuild = null;
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+        log.info("Co-purchase index rebuilt with {} items in {} ms", rebuilt.size(), System.currentTimeMillis() - start);
+        return rebuilt.size();
+    }
+
+    /**
+     * Count the baskets of the snapshot of the current (REPEATABLE READ) transaction.
+     * Sales received from its start on are queued for the new index.
+     */
+    private Map<Long, Partners> rebuildSnapshot() {
+        String snapshotId = saleCommitGate.startSnapshot(() -> {
+            swapLock.writeLock().lock();
+            try {
+                duringRebuild = new ConcurrentLinkedQueue<>();
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+        });
+        LocalDateTime since = LocalDateTime.now().minusDays(historyDays);
+        Long maxSaleId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM sale", Long.class);
+        Long minSaleId = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(MIN(id), 1) FROM sale WHERE sale_date >= ?", Long.class, since);
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, rebuildParallelism));
+        try {
+            return pool.invoke(new RebuildTask(snapshotId, minSaleId, maxSaleId));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Counts the baskets of a sale id range, splitting it until each leaf reads at most
+     * REBUILD_CHUNK_SALES sales with its own query, and merges the partial indexes.
+     * Leaves read the exported snapshot of the rebuild, in transactions of their own.
+     */
+    private class RebuildTask extends RecursiveTask<Map<Long, Partners>> {
+        private static final long serialVersionUID = 1L;
+
+        private final String snapshotId;
+        private final long fromSaleId;
+        private final long toSaleId;
+
+        RebuildTask(String snapshotId, long fromSaleId, long toSaleId) {
+            this.snapshotId = snapshotId;
+            this.fromSaleId = fromSaleId;
+            this.toSaleId = toSaleId;
+        }
+
+        @Override
+        protected Map<Long, Partners> compute() {
+            if (toSaleId - fromSaleId < REBUILD_CHUNK_SALES) {
+                TransactionTemplate leaf = new TransactionTemplate(transactionManager);
+                leaf.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+                return leaf.execute(status -> countBaskets());
+            }
+            long middle = fromSaleId + (toSaleId - fromSaleId) / 2;
+            RebuildTask left = new RebuildTask(snapshotId, fromSaleId, middle);
+            RebuildTask right = new RebuildTask(snapshotId, middle + 1, toSaleId);
+            left.fork();
+            Map<Long, Partners> merged = right.compute();
+            Map<Long, Partners> other = left.join();
+            Map<Long, Partners> target = merged.size() >= other.size() ? merged : other;
+            Map<Long, Partners> source = target == merged ? other : merged;
+            source.forEach((itemId, partners) -> {
+                Partners existing = target.putIfAbsent(itemId, partners);
+                if (existing != null) {
+                    existing.merge(partners, maxPartners);
+                }
+            });
+            return target;
+        }
+
+        private Map<Long, Partners> countBaskets() {
+            // Must be the first statement of the transaction; the id comes from pg_export_snapshot
+            jdbcTemplate.execute("SET TRANSACTION SNAPSHOT '" + snapshotId + "'");
+            Map<Long, Partners> partial = new HashMap<>();
+            List<Long> basket = new ArrayList<>();
+            long[] currentSale = {-1};
+            jdbcTemplate.query(
+                "SELECT sale_id, item_id FROM sale_item WHERE sale_id BETWEEN ? AND ? ORDER BY sale_id",
+                (RowCallbackHandler) rs -> {
+                    long saleId = rs.getLong(1);
+                    if (saleId != currentSale[0]) {
+                        record(partial, distinct(basket));
+                        basket.clear();
+                        currentSale[0] = saleId;
+                    }
+                    basket.add(rs.getLong(2));
+                },
+                fromSaleId, toSaleId);
+            record(partial, distinct(basket));
+            return partial;
+        }
+    }
+
+    // ================================
+    // HELPER METHODS
+    // ================================
+
+    /**
+     * Count a sale for every item of its basket. Single-item sales add no pairs but still
+     * count as sales of the item, which the confidence of its pairs is relative to.
+     */
+    private void record(Map<Long, Partners> target, long[] basket) {
+        for (int i = 0; i < basket.length; i++) {
+            target.computeIfAbsent(basket[i], id -> new Partners()).record(basket, i, maxPartners);
+        }
+    }
+
+    private static long[] basket(SaleRecordedEvent event) {
+        List<Long> itemIds = new ArrayList<>();
+        for (SaleRecordedEvent.Line line : event.getLines()) {
+            itemIds.add(line.itemId());
+        }
+        return distinct(itemIds);
+    }
+
+    private static long[] distinct(List<Long> itemIds) {
+        long[] basket = itemIds.stream().mapToLong(Long::longValue).distinct().toArray();
+        return basket.length > MAX_BASKET_ITEMS ? Arrays.copyOf(basket, MAX_BASKET_ITEMS) : basket;
+    }
+}
@@ -0,0 +1,384 @@
+package dev.andrepontde.retailmanager.retail_system.service;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import dev.andrepontde.retailmanager.retail_system.dto.ReorderSuggestionDTO;
+import dev.andrepontde.retailmanager.retail_system.repository.InventoryRepository;
+
+/**
+ * Service class for demand forecasting and reorder points.
+ *
+ * This service handles:
+ * - A nightly job that rolls up the sales of each completed day into item_sales_daily
+ *   (one set-based statement per day, so sale lines are read once)
+ * - Exponential smoothing of daily demand and forecast error per store and item, stored in
+ *   item_demand and advanced only by the days rolled up since the last run
+ * - Recommended min (reorder point) and max stock levels written to the inventory rows
+ * - Reorder suggestions for the items of a store at or below their reorder point
+ *
+ * The forecast runs on a fork-join pool over inventory id ranges; each leaf reads the state
+ * and new rollups of its rows with two queries and writes its results in one transaction.
+ * Refunds of a day that was already rolled up are not reflected in the forecast.
+ */
+@Service
+public class DemandForecastService {
+
+    private static final Logger log = LoggerFactory.getLogger(DemandForecastService.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private StockEngine stockEngine;
+
+    @Autowired
+    private JobLockService jobLockService;
+
+    @Autowired
+    private InventoryVersionService inventoryVersionService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${retail.forecast.history-days:90}")
+    private int historyDays;
+
+    @Value("${retail.forecast.smoothing:0.2}")
+    private double smoothing;
+
+    @Value("${retail.forecast.lead-time-days:7}")
+    private double leadTimeDays;
+
+    @Value("${retail.forecast.review-days:14}")
+    private double reviewDays;
+
+    @Value("${retail.forecast.service-level-z:1.65}")
+    private double serviceLevelZ;
+
+    @Value("${retail.forecast.parallelism:4}")
+    private int parallelism;
+
+    @Value("${retail.forecast.chunk-rows:20000}")
+    private long chunkRows;
+
+    // ================================
+    // REORDER SUGGESTIONS
+    // ================================
+
+    /**
+     * Items of current user's store (or another accessible store) at or below their reorder point,
+     * the ones that run out soonest first.
+     */
+    public List<ReorderSuggestionDTO> getReorderSuggestions(Long storeId, int limit) {
+        Long suggestionStoreId = storeId != null ? storeId : userService.getCurrentUserStoreId();
+        userService.validateStoreAccess(suggestionStoreId);
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be at least 1");
+        }
+
+        List<ReorderSuggestionDTO> suggestions;
+        if (!stockEngine.owns(suggestionStoreId)) {
+            suggestions = inventoryRepository.findReorderSuggestions(suggestionStoreId);
+        } else {
+            suggestions = new ArrayList<>();
+            for (ReorderSuggestionDTO dto : inventoryRepository.findReorderRows(suggestionStoreId)) {
+                int[] stock = stockEngine.getStock(suggestionStoreId, dto.getItemId());
+                if (stock != null) {
+                    dto.setQuantity(stock[0]);
+                }
+                if (dto.getQuantity() <= dto.getMinStockLevel()) {
+                    suggestions.add(dto);
+                }
+            }
+        }
+        for (ReorderSuggestionDTO dto : suggestions) {
+            dto.setSuggestedQuantity(Math.max(0, dto.getMaxStockLevel() - dto.getQuantity()));
+            if (dto.getDailyDemand() != null && dto.getDailyDemand() > 0) {
+                dto.setDaysOfCover(Math.max(0, dto.getQuantity()) / dto.getDailyDemand());
+            }
+        }
+        suggestions.sort(Comparator.comparing(ReorderSuggestionDTO::getDaysOfCover,
+                                              Comparator.nullsLast(Comparator.naturalOrder())));
+        return suggestions.size() > limit ? new ArrayList<>(suggestions.subList(0, limit)) : suggestions;
+    }
+
+    // ================================
+    // FORECAST JOB
+    // ================================
+
+    /**
+     * Nightly run, on one node at a time: the others skip it while the lock is held. A node
+     * starting after the run finished finds nothing new to roll up or forecast.
+     */
+    @Scheduled(cron = "${retail.forecast.cron:0 30 2 * * *}")
+    public void scheduledRun() {
+        TransactionTemplate lockHolder = new TransactionTemplate(transactionManager);
+        // The run commits its own work; the lock transaction stays open (and suspended) around it
+        TransactionTemplate outsideLock = new TransactionTemplate(transactionManager);
+        outsideLock.setPropagationBehavior(TransactionDefinition.PROPAGATION_NOT_SUPPORTED);
+        lockHolder.executeWithoutResult(status -> {
+            if (!jobLockService.tryLock(JobLockService.Job.DEMAND_FORECAST, 0)) {
+                log.info("Demand forecast already running on another node, skipped");
+                return;
+            }
+            outsideLock.executeWithoutResult(inner -> run());
+        });
+    }
+
+    /**
+     * Roll up the days completed since the last run, advance every forecast to yesterday
+     * and write the recommended stock levels.
+     *
+     * @return days rolled up, forecasts updated and inventory rows whose levels changed
+     */
+    public synchronized Map<String, Object> run() {
+        long start = System.currentTimeMillis();
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        LocalDate historyStart = LocalDate.now().minusDays(historyDays);
+
+        int days = rollUp(historyStart, yesterday);
+
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM inventory", Long.class);
+        long[] counts;
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, parallelism));
+        try {
+            counts = pool.invoke(new ForecastTask(1, maxId, historyStart, yesterday));
+        } finally {
+            pool.shutdown();
+        }
+
+        long elapsed = System.currentTimeMillis() - start;
+        log.info("Demand forecast through {}: {} days rolled up, {} forecasts, {} stock levels changed in {} ms",
+                 yesterday, days, counts[0], counts[1], elapsed);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("throughDay", yesterday);
+        result.put("daysRolledUp", days);
+        result.put("forecasts", counts[0]);
+        result.put("levelsChanged", counts[1]);
+        result.put("millis", elapsed);
+        return result;
+    }
+
+    /**
+     * Write the daily sales of each day after the last rolled-up day, up to the given day.
+     */
+    private int rollUp(LocalDate historyStart, LocalDate through) {
+        LocalDate last = jdbcTemplate.queryForObject("SELECT MAX(day) FROM item_sales_daily", LocalDate.class);
+        LocalDate day = last != null && !last.isBefore(historyStart) ? last.plusDays(1) : historyStart;
+        int days = 0;
+        for (; !day.isAfter(through); day = day.plusDays(1)) {
+            jdbcTemplate.update(
+                "INSERT INTO item_sales_daily (store_id, item_id, day, quantity) " +
+                "SELECT s.store_id, si.item_id, ?, SUM(si.quantity) " +
+                "FROM sale s JOIN sale_item si ON si.sale_id = s.id " +
+                "WHERE s.sale_date >= ? AND s.sale_date < ? " +
+                "GROUP BY s.store_id, si.item_id " +
+                "ON CONFLICT (store_id, item_id, day) DO UPDATE SET quantity = EXCLUDED.quantity",
+                Date.valueOf(day), day.atStartOfDay(), day.plusDays(1).atStartOfDay());
+            days++;
+        }
+        return days;
+    }
+
+    /**
+     * Smoothed demand of one inventory row, advanced day by day.
+     */
+    private final class Forecast {
+        final long inventoryId;
+        final long storeId;
+        final long itemId;
+        final int minStockLevel;
+        final int maxStockLevel;
+        double dailyDemand;
+        double deviation;
+        // Last day included; null until the item's first sale in the history window
+        LocalDate throughDay;
+
+        Forecast(long inventoryId, long storeId, long itemId, int minStockLevel, int maxStockLevel) {
+            this.inventoryId = inventoryId;
+            this.storeId = storeId;
+            this.itemId = itemId;
+            this.minStockLevel = minStockLevel;
+            this.maxStockLevel = maxStockLevel;
+        }
+
+        void observe(LocalDate day, int quantity) {
+            if (throughDay == null) {
+                throughDay = day.minusDays(1);
+            }
+            if (!day.isAfter(throughDay)) {
+                return;
+            }
+            advanceTo(day.minusDays(1));
+            step(quantity);
+            throughDay = day;
+        }
+
+        void advanceTo(LocalDate day) {
+            if (throughDay == null) {
+                return;
+            }
+            for (; throughDay.isBefore(day); throughDay = throughDay.plusDays(1)) {
+                step(0);
+            }
+        }
+
+        private void step(int quantity) {
+            double error = quantity - dailyDemand;
+            dailyDemand += smoothing * error;
+            deviation += smoothing * (Math.abs(error) - deviation);
+        }
+
+        int reorderPoint() {
+            // Demand over the lead time plus safety stock (1.25 x mean absolute error ~ standard deviation)
+            double safetyStock = serviceLevelZ * 1.25 * deviation * Math.sqrt(leadTimeDays);
+            return (int) Math.ceil(dailyDemand * leadTimeDays + safetyStock);
+        }
+
+        int maxLevel(int reorderPoint) {
+            return Math.max(reorderPoint + 1, (int) Math.ceil(reorderPoint + dailyDemand * reviewDays));
+        }
+    }
+
+    /**
+     * Advances the forecasts of an inventory id range, splitting it until each leaf handles
+     * at most chunkRows ids. Returns {forecasts written, inventory rows with changed levels}.
+     */
+    private class ForecastTask extends RecursiveTask<long[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final long fromId;
+        private final long toId;
+        private final LocalDate historyStart;
+        private final LocalDate through;
+
+        ForecastTask(long fromId, long toId, LocalDate historyStart, LocalDate through) {
+            this.fromId = fromId;
+            this.toId = toId;
+            this.historyStart = historyStart;
+            this.through = through;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (toId - fromId < chunkRows) {
+                return forecastRange(fromId, toId, historyStart, through);
+            }
+            long middle = fromId + (toId - fromId) / 2;
+            ForecastTask left = new ForecastTask(fromId, middle, historyStart, through);
+            ForecastTask right = new ForecastTask(middle + 1, toId, historyStart, through);
+            left.fork();
+            long[] counts = right.compute();
+            long[] other = left.join();
+            return new long[] {counts[0] + other[0], counts[1] + other[1]};
+        }
+    }
+
+    private long[] forecastRange(long fromId, long toId, LocalDate historyStart, LocalDate through) {
+        Map<Long, Forecast> forecasts = new HashMap<>();
+        LocalDate[] readFrom = {through};
+        jdbcTemplate.query(
+            "SELECT i.id, i.store_id, i.item_id, i.min_stock_level, i.max_stock_level, " +
+            "d.daily_demand, d.deviation, d.through_day " +
+            "FROM inventory i LEFT JOIN item_demand d ON d.store_id = i.store_id AND d.item_id = i.item_id " +
+            "WHERE i.id BETWEEN ? AND ?",
+            (RowCallbackHandler) rs -> {
+                Forecast forecast = new Forecast(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getInt(4), rs.getInt(5));
+                Date throughDay = rs.getDate(8);
+                if (throughDay != null) {
+                    forecast.dailyDemand = rs.getDouble(6);
+                    forecast.deviation = rs.getDouble(7);
+                    forecast.throughDay = throughDay.toLocalDate();
+                }
+                LocalDate after = forecast.throughDay != null ? forecast.throughDay : historyStart.minusDays(1);
+                if (after.isBefore(readFrom[0])) {
+                    readFrom[0] = after;
+                }
+                forecasts.put(forecast.inventoryId, forecast);
+            },
+            fromId, toId);
+        if (forecasts.isEmpty() || !readFrom[0].isBefore(through)) {
+            return new long[2];
+        }
+
+        jdbcTemplate.query(
+            "SELECT i.id, r.day, r.quantity FROM inventory i " +
+            "JOIN item_sales_daily r ON r.store_id = i.store_id AND r.item_id = i.item_id " +
+            "WHERE i.id BETWEEN ? AND ? AND r.day > ? AND r.day <= ? ORDER BY i.id, r.day",
+            (RowCallbackHandler) rs -> {
+                Forecast forecast = forecasts.get(rs.getLong(1));
+                if (forecast != null) {
+                    forecast.observe(rs.getDate(2).toLocalDate(), rs.getInt(3));
+                }
+            },
+            fromId, toId, Date.valueOf(readFrom[0]), Date.valueOf(through));
+
+        List<Object[]> demandRows = new ArrayList<>();
+        List<Forecast> changed = new ArrayList<>();
+        List<int[]> changedLevels = new ArrayList<>();
+        for (Forecast forecast : forecasts.values()) {
+            if (forecast.throughDay == null) {
+                // Not sold in the history window: keep the configured levels
+                continue;
+            }
+            forecast.advanceTo(through);
+            demandRows.add(new Object[] {forecast.storeId, forecast.itemId, forecast.dailyDemand,
+                                         forecast.deviation, Date.valueOf(forecast.throughDay)});
+            int reorderPoint = forecast.reorderPoint();
+            int maxLevel = forecast.maxLevel(reorderPoint);
+            if (reorderPoint != forecast.minStockLevel || maxLevel != forecast.maxStockLevel) {
+                changed.add(forecast);
+                changedLevels.add(new int[] {reorderPoint, maxLevel});
+            }
+        }
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(
+                "INSERT INTO item_demand (store_id, item_id, daily_demand, deviation, through_day) VALUES (?, ?, ?, ?, ?) " +
+                "ON CONFLICT (store_id, item_id) DO UPDATE SET daily_demand = EXCLUDED.daily_demand, " +
+                "deviation = EXCLUDED.deviation, through_day = EXCLUDED.through_day",
+                demandRows);
+            if (!changed.isEmpty()) {
+                // New change versions so delta-sync clients pick up the new levels
+                List<Long> versions = inventoryVersionService.nextVersions(changed.size());
+                List<Object[]> levelRows = new ArrayList<>(changed.size());
+                for (int i = 0; i < changed.size(); i++) {
+                    levelRows.add(new Object[] {changedLevels.get(i)[0], changedLevels.get(i)[1],
+                                                versions.get(i), changed.get(i).inventoryId});
+                }
+                jdbcTemplate.batchUpdate(
+                    "UPDATE inventory SET min_stock_level = ?, max_stock_level = ?, change_version = ? WHERE id = ?",
+                    levelRows);
+            }
+        });
+        return new long[] {demandRows.size(), changed.size()};
+    }
+}
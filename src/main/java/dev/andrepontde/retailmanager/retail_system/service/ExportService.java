@@ -0,0 +1,244 @@
+package dev.andrepontde.retailmanager.retail_system.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import dev.andrepontde.retailmanager.retail_system.repository.InventoryRepository;
+import dev.andrepontde.retailmanager.retail_system.repository.SaleItemRepository;
+
+/**
+ * Service class for bulk data exports (BI extracts).
+ *
+ * This service handles:
+ * - Streaming inventory and sale lines straight from a database cursor to the response
+ * - CSV (with header row) and NDJSON (one JSON object per line) output, optionally gzipped
+ *
+ * Rows are projections, never entities, and are written as they are read, so memory use
+ * does not depend on the size of the export.
+ */
+@Service
+public class ExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportService.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final String[] INVENTORY_COLUMNS = {
+        "inventoryId", "storeId", "storeName", "itemId", "itemName", "category", "price",
+        "quantity", "reservedQuantity", "minStockLevel", "maxStockLevel"
+    };
+
+    private static final String[] SALE_COLUMNS = {
+        "saleItemId", "saleId", "saleDate", "storeId", "paymentMethod", "itemId",
+        "quantity", "unitPrice", "discount", "totalPrice"
+    };
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private SaleItemRepository saleItemRepository;
+
+    @Autowired
+    private StockEngine stockEngine;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Supported export formats.
+     */
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() { return contentType; }
+        public String getExtension() { return extension; }
+
+        public static Format parse(String value) {
+            try {
+                return valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported export format: " + value);
+            }
+        }
+    }
+
+    // ================================
+    // EXPORTS
+    // ================================
+
+    /**
+     * Write the inventory of a store (all stores when storeId is null) to the output stream.
+     *
+     * @return number of rows written
+     */
+    public long exportInventory(Long storeId, Format format, boolean gzip, OutputStream out) throws IOException {
+        // Stores held in memory write their latest stock to the table first
+        stockEngine.flush();
+        return export(INVENTORY_COLUMNS, () -> inventoryRepository.streamForExport(storeId), format, gzip, out);
+    }
+
+    /**
+     * Write the sale lines of [from, to) of a store (all stores when storeId is null) to the output stream.
+     *
+     * @return number of rows written
+     */
+    public long exportSales(Long storeId, LocalDateTime from, LocalDateTime to, Format format, boolean gzip,
+                            OutputStream out) throws IOException {
+        return export(SALE_COLUMNS, () -> saleItemRepository.streamForExport(storeId, from, to), format, gzip, out);
+    }
+
+    // ================================
+    // HELPER METHODS
+    // ================================
+
+    private long export(String[] columns, Supplier<Stream<Object[]>> query, Format format, boolean gzip,
+                        OutputStream out) throws IOException {
+        long start = System.currentTimeMillis();
+        GZIPOutputStream gzipOut = gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : null;
+        Writer writer = new BufferedWriter(
+                new OutputStreamWriter(gzipOut != null ? gzipOut : out, StandardCharsets.UTF_8), BUFFER_SIZE);
+
+        if (format == Format.CSV) {
+            writeCsvRow(writer, columns);
+        }
+
+        // The cursor only stays open (and fetches in batches) inside a transaction
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        Long rows;
+        try {
+            rows = transaction.execute(status -> {
+                long count = 0;
+                try (Stream<Object[]> stream = query.get()) {
+                    Iterator<Object[]> iterator = stream.iterator();
+                    while (iterator.hasNext()) {
+                        Object[] row = iterator.next();
+                        if (format == Format.CSV) {
+                            writeCsvRow(writer, row);
+                        } else {
+                            writeJsonRow(writer, columns, row);
+                        }
+                        count++;
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return count;
+            });
+        } catch (UncheckedIOException e) {
+            // Usually the client went away mid-download
+            throw e.getCause();
+        }
+
+        writer.flush();
+        if (gzipOut != null) {
+            gzipOut.finish();
+        }
+        out.flush();
+        log.info("Exported {} rows as {} in {} ms", rows, format, System.currentTimeMillis() - start);
+        return rows;
+    }
+
+    private static void writeCsvRow(Writer writer, Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (values[i] == null) {
+                continue;
+            }
+            String value = format(values[i]);
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(value.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(value);
+            }
+        }
+        writer.write('\n');
+    }
+
+    private static void writeJsonRow(Writer writer, String[] columns, Object[] values) throws IOException {
+        writer.write('{');
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write('"');
+            writer.write(columns[i]);
+            writer.write("\":");
+            Object value = values[i];
+            if (value == null) {
+                writer.write("null");
+            } else if (value instanceof Number) {
+                writer.write(format(value));
+            } else {
+                writeJsonString(writer, format(value));
+            }
+        }
+        writer.write("}\n");
+    }
+
+    private static void writeJsonString(Writer writer, String value) throws IOException {
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> writer.write("\\\"");
+                case '\\' -> writer.write("\\\\");
+                case '\n' -> writer.write("\\n");
+                case '\r' -> writer.write("\\r");
+                case '\t' -> writer.write("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        writer.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        writer.write(c);
+                    }
+                }
+            }
+        }
+        writer.write('"');
+    }
+
+    private static String format(Object value) {
+        if (value instanceof Double d) {
+            // Plain notation: 1.0E7 is not what spreadsheets and loaders expect
+            return BigDecimal.valueOf(d).toPlainString();
+        }
+        if (value instanceof Enum<?> e) {
+            return e.name();
+        }
+        return value.toString();
+    }
+}
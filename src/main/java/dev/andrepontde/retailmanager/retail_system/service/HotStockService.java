@@ -0,0 +1,304 @@
+package dev.andrepontde.retailmanager.retail_system.service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import dev.andrepontde.retailmanager.retail_system.dto.HotItemDTO;
+import dev.andrepontde.retailmanager.retail_system.entity.Inventory;
+import dev.andrepontde.retailmanager.retail_system.entity.InventorySlot;
+import dev.andrepontde.retailmanager.retail_system.repository.InventoryRepository;
+import dev.andrepontde.retailmanager.retail_system.repository.InventorySlotRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Service for striped stock counters on hot items.
+ * 
+ * During promotions a few items take hundreds of sales per minute in one store, and every
+ * checkout queues on the same Inventory row lock. For items switched to striped mode:
+ * - The row's available stock is handed out across N InventorySlot rows
+ * - A checkout takes stock from one idle slot with a single conditional UPDATE,
+ *   so concurrent checkouts lock different rows
+ * - A background job folds slot sales back into Inventory.quantity and evens out the slots
+ * - Any other stock change first pulls all stock back into the row (collapse)
+ * 
+ * Inventory.quantity of a striped row lags behind by the sales not yet folded (at most one
+ * rebalance interval); reads that must be exact use getCurrentQuantity.
+ */
+@Service
+@Transactional
+public class HotStockService {
+
+    private static final Logger log = LoggerFactory.getLogger(HotStockService.class);
+
+    private static final int MAX_STRIPES = 64;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private InventorySlotRepository inventorySlotRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private StockEngine stockEngine;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // ================================
+    // ADMINISTRATION
+    // ================================
+
+    /**
+     * Stripe an item's stock in a store across the given number of slots.
+     * Calling it again for a striped item changes the number of slots.
+     */
+    public HotItemDTO enableStriping(Long itemId, Long storeId, int stripes) {
+        if (stripes < 2 || stripes > MAX_STRIPES) {
+            throw new RuntimeException("Stripes must be between 2 and " + MAX_STRIPES);
+        }
+        userService.validateStoreAccess(storeId);
+        if (stockEngine.owns(storeId)) {
+            throw new RuntimeException("Store " + storeId + " holds its stock in memory; checkouts there never lock inventory rows");
+        }
+
+        Inventory inventory = lockInventoryEntity(itemId, storeId);
+        collapse(inventory);
+        inventorySlotRepository.deleteByInventoryId(inventory.getId());
+        inventorySlotRepository.flush();
+
+        List<InventorySlot> slots = new ArrayList<>();
+        for (int i = 0; i < stripes; i++) {
+            slots.add(new InventorySlot(inventory.getId(), i));
+        }
+        slots = inventorySlotRepository.saveAll(slots);
+        inventory.setStripeCount(stripes);
+        distribute(inventory, slots, 0);
+        inventorySlotRepository.flush();
+        return convertToDTO(inventory, slots);
+    }
+
+    /**
+     * Return an item in a store to a single inventory row.
+     */
+    public void disableStriping(Long itemId, Long storeId) {
+        userService.validateStoreAccess(storeId);
+
+        Inventory inventory = lockInventoryEntity(itemId, storeId);
+        if (!inventory.isStriped()) {
+            return;
+        }
+        collapse(inventory);
+        inventorySlotRepository.deleteByInventoryId(inventory.getId());
+        inventory.setStripeCount(null);
+    }
+
+    /**
+     * Get the striped items of a store.
+     */
+    @Transactional(readOnly = true)
+    public List<HotItemDTO> getHotItems(Long storeId) {
+        userService.validateStoreAccess(storeId);
+        return inventoryRepository.findStriped().stream()
+                .filter(inventory -> inventory.getStore().getId().equals(storeId))
+                .map(inventory -> convertToDTO(inventory,
+                        inventorySlotRepository.findByInventoryIdOrderBySlotIndex(inventory.getId())))
+                .collect(Collectors.toList());
+    }
+
+    // ================================
+    // CHECKOUT
+    // ================================
+
+    /**
+     * Take stock for a sale from one of the slots of a striped row, without locking the row.
+     * Idle slots are tried first; if all are busy, the first slot holding enough is waited for.
+     * 
+     * @return false when no single slot holds enough stock; the caller should then
+     *         fall back to lockForUpdate and update the row directly
+     */
+    public boolean takeStock(Inventory inventory, int quantity) {
+        int stripes = inventory.getStripeCount();
+        int start = ThreadLocalRandom.current().nextInt(stripes);
+        return inventorySlotRepository.takeFromIdleSlot(inventory.getId(), quantity, start, stripes) == 1
+                || inventorySlotRepository.takeFromSlot(inventory.getId(), quantity, start, stripes) == 1;
+    }
+
+    /**
+     * Current stock of an inventory row, including slot sales not yet folded.
+     */
+    @Transactional(readOnly = true)
+    public int getCurrentQuantity(Inventory inventory) {
+        if (!inventory.isStriped()) {
+            return inventory.getQuantity();
+        }
+        return inventory.getQuantity() - inventorySlotRepository.sumSold(inventory.getId()).intValue();
+    }
+
+    /**
+     * Slot sales of a striped row not yet folded into its quantity.
+     */
+    @Transactional(readOnly = true)
+    public int getUnfoldedSales(Long inventoryId) {
+        return inventorySlotRepository.sumSold(inventoryId).intValue();
+    }
+
+    // ================================
+    // DIRECT UPDATES
+    // ================================
+
+    /**
+     * Lock an inventory row (SELECT ... FOR UPDATE, refreshing its state) before updating it directly.
+     * For striped rows all stock is pulled back from the slots first, so the row's quantity
+     * is exact and nothing is handed out until the next rebalance.
+     */
+    public Inventory lockForUpdate(Inventory inventory) {
+        entityManager.refresh(inventory, LockModeType.PESSIMISTIC_WRITE);
+        collapse(inventory);
+        return inventory;
+    }
+
+    /**
+     * Fold all slot sales into a locked striped row and take back the stock handed out.
+     * Waits for checkouts that are using a slot. Does nothing for rows that are not striped.
+     */
+    public void collapse(Inventory inventory) {
+        if (!inventory.isStriped()) {
+            return;
+        }
+        int sold = 0;
+        for (InventorySlot slot : inventorySlotRepository.lockByInventoryId(inventory.getId())) {
+            sold += slot.getSold();
+            slot.setSold(0);
+            slot.setQuantity(0);
+        }
+        if (sold > 0) {
+            inventory.setQuantity(inventory.getQuantity() - sold);
+        }
+    }
+
+    // ================================
+    // REBALANCING
+    // ================================
+
+    /**
+     * Fold slot sales into every striped row and even out its slots (scheduled).
+     * Each row is handled in its own short transaction: the sweep itself runs outside the
+     * class-level transaction, so row locks are released row by row and a failing row only
+     * rolls back its own fold.
+     */
+    @Scheduled(fixedDelayString = "${retail.hot-stock.rebalance-ms:1000}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void rebalanceAll() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        for (Inventory inventory : inventoryRepository.findStriped()) {
+            try {
+                transaction.executeWithoutResult(status -> rebalance(inventory.getId()));
+            } catch (RuntimeException e) {
+                log.warn("Rebalancing hot item inventory {} failed: {}", inventory.getId(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Fold the sales of the idle slots of a striped row into Inventory.quantity and spread the
+     * available stock evenly over them. Slots in use by a checkout are skipped, never waited for.
+     */
+    public void rebalance(Long inventoryId) {
+        Inventory inventory = inventoryRepository.findById(inventoryId).orElse(null);
+        if (inventory == null) {
+            return;
+        }
+        entityManager.refresh(inventory, LockModeType.PESSIMISTIC_WRITE);
+        if (!inventory.isStriped()) {
+            return;
+        }
+
+        List<InventorySlot> idle = inventorySlotRepository.lockIdleByInventoryId(inventoryId);
+        int sold = 0;
+        for (InventorySlot slot : idle) {
+            sold += slot.getSold();
+            slot.setSold(0);
+        }
+        if (sold > 0) {
+            inventory.setQuantity(inventory.getQuantity() - sold);
+        }
+
+        // Busy slots keep their stock; only their committed sales and stock are accounted for
+        Set<Long> idleIds = new HashSet<>();
+        idle.forEach(slot -> idleIds.add(slot.getId()));
+        int busyHeld = 0;
+        for (InventorySlot slot : inventorySlotRepository.findByInventoryIdOrderBySlotIndex(inventoryId)) {
+            if (!idleIds.contains(slot.getId())) {
+                busyHeld += slot.getQuantity() + slot.getSold();
+            }
+        }
+        distribute(inventory, idle, busyHeld);
+    }
+
+    // ================================
+    // HELPER METHODS
+    // ================================
+
+    private Inventory lockInventoryEntity(Long itemId, Long storeId) {
+        return inventoryRepository.lockByItemIdsAndStoreIds(List.of(itemId), List.of(storeId)).stream()
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException("Inventory not found for item " + itemId + " in store " + storeId));
+    }
+
+    /**
+     * Spread the row's available stock, minus what other slots already hold, evenly over the given slots.
+     */
+    private void distribute(Inventory inventory, List<InventorySlot> slots, int heldElsewhere) {
+        if (slots.isEmpty()) {
+            return;
+        }
+        int reserved = inventory.getReservedQuantity() != null ? inventory.getReservedQuantity() : 0;
+        int available = Math.max(0, inventory.getQuantity() - reserved - heldElsewhere);
+        int share = available / slots.size();
+        int remainder = available % slots.size();
+        for (int i = 0; i < slots.size(); i++) {
+            slots.get(i).setQuantity(share + (i < remainder ? 1 : 0));
+        }
+    }
+
+    /**
+     * Convert a striped Inventory row and its slots to HotItemDTO.
+     */
+    private HotItemDTO convertToDTO(Inventory inventory, List<InventorySlot> slots) {
+        HotItemDTO dto = new HotItemDTO();
+        dto.setInventoryId(inventory.getId());
+        dto.setItemId(inventory.getItem().getId());
+        dto.setStoreId(inventory.getStore().getId());
+        dto.setStripes(inventory.getStripeCount());
+        int sold = 0;
+        for (InventorySlot slot : slots) {
+            dto.getSlotQuantities().add(slot.getQuantity());
+            sold += slot.getSold();
+        }
+        dto.setQuantity(inventory.getQuantity() - sold);
+        return dto;
+    }
+}
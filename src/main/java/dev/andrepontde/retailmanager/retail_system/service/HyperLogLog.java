@@ -0,0 +1,138 @@
+package dev.andrepontde.retailmanager.retail_system.service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * HyperLogLog distinct-count sketch with 2^12 registers (about 1.6% standard error).
+ *
+ * Sketches merge by taking the register-wise maximum, so merging is commutative and
+ * idempotent: the same sketch can be merged twice without counting anything twice.
+ * Serialized sparsely (index/value pairs) while few registers are set, otherwise as
+ * 6-bit packed registers (3 KB).
+ */
+final class HyperLogLog {
+
+    static final int PRECISION = 12;
+
+    static final int REGISTERS = 1 << PRECISION;
+
+    static final double STANDARD_ERROR = 1.04 / Math.sqrt(REGISTERS);
+
+    private static final byte SPARSE = 0;
+
+    private static final byte DENSE = 1;
+
+    private static final int DENSE_BYTES = REGISTERS * 6 / 8;
+
+    private final byte[] registers = new byte[REGISTERS];
+
+    /**
+     * Add a 64-bit hash of an element.
+     */
+    void add(long hash) {
+        int index = (int) (hash >>> (64 - PRECISION));
+        int rank = Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1;
+        if (rank > registers[index]) {
+            registers[index] = (byte) rank;
+        }
+    }
+
+    void merge(HyperLogLog other) {
+        for (int i = 0; i < REGISTERS; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    long estimate() {
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double alpha = 0.7213 / (1 + 1.079 / REGISTERS);
+        double estimate = alpha * REGISTERS * REGISTERS / sum;
+        if (estimate <= 2.5 * REGISTERS && zeros > 0) {
+            // Small range: linear counting is more accurate
+            estimate = REGISTERS * Math.log((double) REGISTERS / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    byte[] toBytes() {
+        int used = 0;
+        for (byte register : registers) {
+            if (register != 0) {
+                used++;
+            }
+        }
+        if (used * 3 < DENSE_BYTES) {
+            ByteBuffer buffer = ByteBuffer.allocate(1 + used * 3);
+            buffer.put(SPARSE);
+            for (int i = 0; i < REGISTERS; i++) {
+                if (registers[i] != 0) {
+                    buffer.putShort((short) i);
+                    buffer.put(registers[i]);
+                }
+            }
+            return buffer.array();
+        }
+        byte[] bytes = new byte[1 + DENSE_BYTES];
+        bytes[0] = DENSE;
+        for (int i = 0; i < REGISTERS; i += 4) {
+            // Four 6-bit registers in three bytes
+            int packed = registers[i] << 18 | registers[i + 1] << 12 | registers[i + 2] << 6 | registers[i + 3];
+            int offset = 1 + i / 4 * 3;
+            bytes[offset] = (byte) (packed >>> 16);
+            bytes[offset + 1] = (byte) (packed >>> 8);
+            bytes[offset + 2] = (byte) packed;
+        }
+        return bytes;
+    }
+
+    static HyperLogLog fromBytes(byte[] bytes) {
+        HyperLogLog sketch = new HyperLogLog();
+        if (bytes == null || bytes.length == 0) {
+            return sketch;
+        }
+        if (bytes[0] == SPARSE) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes, 1, bytes.length - 1);
+            while (buffer.remaining() >= 3) {
+                int index = buffer.getShort() & 0xFFFF;
+                sketch.registers[index] = buffer.get();
+            }
+            return sketch;
+        }
+        for (int i = 0; i < REGISTERS; i += 4) {
+            int offset = 1 + i / 4 * 3;
+            int packed = (bytes[offset] & 0xFF) << 16 | (bytes[offset + 1] & 0xFF) << 8 | (bytes[offset + 2] & 0xFF);
+            sketch.registers[i] = (byte) (packed >>> 18 & 0x3F);
+            sketch.registers[i + 1] = (byte) (packed >>> 12 & 0x3F);
+            sketch.registers[i + 2] = (byte) (packed >>> 6 & 0x3F);
+            sketch.registers[i + 3] = (byte) (packed & 0x3F);
+        }
+        return sketch;
+    }
+
+    /**
+     * 64-bit hash of a string (FNV-1a over UTF-8, then a murmur3 finalizer so all bits mix).
+     */
+    static long hash(String value) {
+        long hash = 0xCBF29CE484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001B3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -1,18 +1,39 @@
 package dev.andrepontde.retailmanager.retail_system.service;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import dev.andrepontde.retailmanager.retail_system.dto.BasketAvailabilityDTO;
+import dev.andrepontde.retailmanager.retail_system.dto.InventoryChangesDTO;
 import dev.andrepontde.retailmanager.retail_system.dto.InventoryDTO;
+import dev.andrepontde.retailmanager.retail_system.dto.ItemAvailabilityDTO;
+import dev.andrepontde.retailmanager.retail_system.dto.StockTransferDTO;
 import dev.andrepontde.retailmanager.retail_system.entity.Inventory;
+import dev.andrepontde.retailmanager.retail_system.entity.InventoryTombstone;
 import dev.andrepontde.retailmanager.retail_system.entity.Item;
 import dev.andrepontde.retailmanager.retail_system.entity.Store;
+import dev.andrepontde.retailmanager.retail_system.entity.User;
+import dev.andrepontde.retailmanager.retail_system.event.CacheInvalidationEvent;
+import dev.andrepontde.retailmanager.retail_system.event.StockChangedEvent;
 import dev.andrepontde.retailmanager.retail_system.repository.InventoryRepository;
+import dev.andrepontde.retailmanager.retail_system.repository.InventoryTombstoneRepository;
 import dev.andrepontde.retailmanager.retail_system.repository.ItemRepository;
 import dev.andrepontde.retailmanager.retail_system.repository.StoreRepository;
 
@@ -29,6 +50,22 @@ import dev.andrepontde.retailmanager.retail_system.repository.StoreRepository;
 @Transactional
 public class InventoryService {
 
+    /**
+     * Number of items whose rows are locked per query during a transfer.
+     * Keeps IN-lists well below driver parameter limits for large rebalancing runs.
+     */
+    private static final int TRANSFER_LOCK_CHUNK_SIZE = 500;
+
+    /**
+     * Upper bound for one page of delta-sync changes.
+     */
+    private static final int MAX_CHANGES_PAGE_SIZE = 5000;
+
+    /**
+     * Upper bound for the number of distinct items in one basket availability check.
+     */
+    private static final int MAX_BASKET_ITEMS = 500;
+
     @Autowired
     private InventoryRepository inventoryRepository;
     
@@ -41,6 +78,27 @@ public class InventoryService {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private InventoryTombstoneRepository inventoryTombstoneRepository;
+
+    @Autowired
+    private InventoryVersionService inventoryVersionService;
+
+    @Autowired
+    private HotStockService hotStockService;
+
+    @Autowired
+    private StockEngine stockEngine;
+
+    @Autowired
+    private StockAvailabilityCache stockAvailabilityCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     // ================================
     // CRUD OPERATIONS
     // ================================
@@ -48,18 +106,20 @@ public class InventoryService {
     /**
      * Get all inventory records.
      */
+    @Transactional(readOnly = true)
     public List<InventoryDTO> getAllInventory() {
-        return inventoryRepository.findAll().stream()
-                .map(this::convertToDTO)
+        return inventoryRepository.findAllAsDTO().stream()
+                .map(this::withEngineStock)
                 .collect(Collectors.toList());
     }
 
     /**
      * Get inventory by ID.
      */
+    @Transactional(readOnly = true)
     public Optional<InventoryDTO> getInventoryById(Long id) {
-        return inventoryRepository.findById(id)
-                .map(this::convertToDTO);
+        return inventoryRepository.findDTOById(id)
+                .map(this::withEngineStock);
     }
 
     // ================================
@@ -77,9 +137,19 @@ public class InventoryService {
         // Find existing inventory or create new
         Optional<Inventory> existingInventory = findInventoryEntity(itemId, storeId);
         
+        // Stores held by the stock engine change stock in memory only
+        if (existingInventory.isPresent() && stockEngine.owns(storeId)) {
+            if (!applyInMemoryChange(existingInventory.get(), quantityToAdd, 0, false, StockChangedEvent.Reason.RECEIVE)) {
+                throw new RuntimeException("Stock cannot go below zero");
+            }
+            return convertToDTO(existingInventory.get());
+        }
+        
         Inventory inventory;
+        int previousQuantity = 0;
         if (existingInventory.isPresent()) {
-            inventory = existingInventory.get();
+            inventory = hotStockService.lockForUpdate(existingInventory.get());
+            previousQuantity = inventory.getQuantity();
             inventory.setQuantity(inventory.getQuantity() + quantityToAdd);
         } else {
             // Create new inventory record
@@ -91,7 +161,8 @@ public class InventoryService {
             inventory = new Inventory(item, store, quantityToAdd);
         }
         
-        Inventory savedInventory = inventoryRepository.save(inventory);
+        Inventory savedInventory = inventoryRepository.saveAndFlush(inventory);
+        eventPublisher.publishEvent(StockChangedEvent.of(savedInventory, previousQuantity, StockChangedEvent.Reason.RECEIVE));
         return convertToDTO(savedInventory);
     }
 
@@ -105,6 +176,14 @@ public class InventoryService {
         
         Inventory inventory = findInventoryEntity(itemId, storeId)
                 .orElseThrow(() -> new RuntimeException("Inventory not found for item " + itemId + " in store " + storeId));
+        if (stockEngine.owns(storeId)) {
+            if (!applyInMemoryChange(inventory, -quantityToRemove, 0, true, StockChangedEvent.Reason.ADJUSTMENT)) {
+                throw new RuntimeException("Insufficient stock. Available: " + getAvailableQuantity(inventory) + 
+                                         ", Requested: " + quantityToRemove);
+            }
+            return convertToDTO(inventory);
+        }
+        hotStockService.lockForUpdate(inventory);
         
         // Business rule: Can't remove more than available
         if (inventory.getAvailableQuantity() < quantityToRemove) {
@@ -112,8 +191,10 @@ public class InventoryService {
                                      ", Requested: " + quantityToRemove);
         }
         
+        int previousQuantity = inventory.getQuantity();
         inventory.setQuantity(inventory.getQuantity() - quantityToRemove);
-        Inventory savedInventory = inventoryRepository.save(inventory);
+        Inventory savedInventory = inventoryRepository.saveAndFlush(inventory);
+        eventPublisher.publishEvent(StockChangedEvent.of(savedInventory, previousQuantity, StockChangedEvent.Reason.ADJUSTMENT));
         return convertToDTO(savedInventory);
     }
 
@@ -127,6 +208,13 @@ public class InventoryService {
         
         Inventory inventory = findInventoryEntity(itemId, storeId)
                 .orElseThrow(() -> new RuntimeException("Inventory not found"));
+        if (stockEngine.owns(storeId)) {
+            if (!applyInMemoryChange(inventory, 0, quantityToReserve, true, StockChangedEvent.Reason.RESERVATION)) {
+                throw new RuntimeException("Insufficient available stock for reservation");
+            }
+            return;
+        }
+        hotStockService.lockForUpdate(inventory);
         
         if (inventory.getAvailableQuantity() < quantityToReserve) {
             throw new RuntimeException("Insufficient available stock for reservation");
@@ -134,27 +222,190 @@ public class InventoryService {
         
         inventory.setReservedQuantity(inventory.getReservedQuantity() + quantityToReserve);
         inventoryRepository.save(inventory);
+        eventPublisher.publishEvent(StockChangedEvent.of(inventory, inventory.getQuantity(), StockChangedEvent.Reason.RESERVATION));
     }
 
     /**
      * Get all items with low stock across all stores.
+     * 
+     * The database filters the rows at or below their minimum stock level; rows of stores held
+     * by the stock engine are checked against the engine's stock instead.
      */
+    @Transactional(readOnly = true)
     public List<InventoryDTO> getLowStockItems() {
-        return inventoryRepository.findAll().stream()
-                .filter(Inventory::isLowStock)
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        Set<Long> engineStores = stockEngine.getOwnedStoreIds();
+        List<InventoryDTO> lowStock = new ArrayList<>();
+        for (InventoryDTO dto : inventoryRepository.findAllLowStockDTOs()) {
+            if (!engineStores.contains(dto.getStoreId())) {
+                lowStock.add(dto);
+            }
+        }
+        for (Long storeId : engineStores) {
+            inventoryRepository.findDTOsByStoreId(storeId).stream()
+                    .map(this::withEngineStock)
+                    .filter(dto -> dto.getQuantity() <= dto.getMinStockLevel())
+                    .forEach(lowStock::add);
+        }
+        lowStock.sort(Comparator.comparing(InventoryDTO::getId));
+        return lowStock;
     }
 
     /**
      * Transfer stock between stores.
      */
     public void transferStock(Long itemId, Long fromStoreId, Long toStoreId, Integer quantity) {
-        // Remove from source store
-        removeStock(itemId, fromStoreId, quantity);
-        
-        // Add to destination store
-        addStock(itemId, toStoreId, quantity);
+        StockTransferDTO.Line line = new StockTransferDTO.Line(itemId, quantity);
+        transferStock(new StockTransferDTO(fromStoreId, toStoreId, List.of(line)));
+    }
+
+    /**
+     * Transfer a batch of item lines between two stores in a single transaction.
+     * 
+     * Both inventory rows of every item are locked with SELECT ... FOR UPDATE in
+     * (item, store) order, so two transfers running in opposite directions always
+     * take their locks in the same sequence and cannot deadlock. Missing destination
+     * rows are inserted with ON CONFLICT DO NOTHING before locking, so two transfers
+     * into the same store never create the same row twice. Either every line is
+     * moved or, on the first failing line, none are.
+     * 
+     * @return the number of distinct item lines transferred
+     */
+    public int transferStock(StockTransferDTO transfer) {
+        Long fromStoreId = transfer.getFromStoreId();
+        Long toStoreId = transfer.getToStoreId();
+        if (fromStoreId == null || toStoreId == null) {
+            throw new RuntimeException("Source and destination stores are required");
+        }
+        if (fromStoreId.equals(toStoreId)) {
+            throw new RuntimeException("Source and destination stores must be different");
+        }
+
+        // Validate user has access to both stores (one user lookup for the whole transfer)
+        User currentUser = userService.getCurrentUser();
+        if (!currentUser.canAccessStore(fromStoreId)) {
+            throw new RuntimeException("Access denied to store ID: " + fromStoreId);
+        }
+        if (!currentUser.canAccessStore(toStoreId)) {
+            throw new RuntimeException("Access denied to store ID: " + toStoreId);
+        }
+
+        // Merge duplicate lines; the sorted map gives the item order used for locking
+        TreeMap<Long, Integer> quantities = new TreeMap<>();
+        if (transfer.getLines() != null) {
+            for (StockTransferDTO.Line line : transfer.getLines()) {
+                if (line.getItemId() == null || line.getQuantity() == null || line.getQuantity() <= 0) {
+                    throw new RuntimeException("Each transfer line needs an item and a positive quantity");
+                }
+                quantities.merge(line.getItemId(), line.getQuantity(), Integer::sum);
+            }
+        }
+        if (quantities.isEmpty()) {
+            throw new RuntimeException("Transfer has no lines");
+        }
+
+        storeRepository.findById(toStoreId)
+                .orElseThrow(() -> new RuntimeException("Store not found with id: " + toStoreId));
+        storeRepository.findById(fromStoreId)
+                .orElseThrow(() -> new RuntimeException("Store not found with id: " + fromStoreId));
+
+        List<Long> storeIds = List.of(fromStoreId, toStoreId);
+        List<Long> itemIds = new ArrayList<>(quantities.keySet());
+        List<StockChangedEvent> events = new ArrayList<>();
+        boolean fromInMemory = stockEngine.owns(fromStoreId);
+        boolean toInMemory = stockEngine.owns(toStoreId);
+
+        for (int start = 0; start < itemIds.size(); start += TRANSFER_LOCK_CHUNK_SIZE) {
+            List<Long> chunk = itemIds.subList(start, Math.min(start + TRANSFER_LOCK_CHUNK_SIZE, itemIds.size()));
+
+            // Load the items first so the locked rows resolve them from the persistence context
+            Map<Long, Item> items = new HashMap<>();
+            for (Item item : itemRepository.findAllById(chunk)) {
+                items.put(item.getId(), item);
+            }
+
+            Map<Long, Inventory> source = new HashMap<>();
+            Map<Long, Inventory> destination = new HashMap<>();
+            for (Inventory inventory : inventoryRepository.lockByItemIdsAndStoreIds(chunk, storeIds)) {
+                hotStockService.collapse(inventory);
+                Map<Long, Inventory> side = inventory.getStore().getId().equals(fromStoreId) ? source : destination;
+                side.putIfAbsent(inventory.getItem().getId(), inventory);
+            }
+
+            List<Long> missing = new ArrayList<>();
+            for (Long itemId : chunk) {
+                if (!items.containsKey(itemId)) {
+                    throw new RuntimeException("Item not found with id: " + itemId);
+                }
+                if (!destination.containsKey(itemId)) {
+                    missing.add(itemId);
+                }
+            }
+            if (!missing.isEmpty()) {
+                // Rows created meanwhile by a concurrent transfer are kept; either way they are locked below
+                insertEmptyInventory(toStoreId, missing);
+                for (Inventory inventory : inventoryRepository.lockByItemIdsAndStoreIds(missing, List.of(toStoreId))) {
+                    destination.putIfAbsent(inventory.getItem().getId(), inventory);
+                }
+            }
+
+            for (Long itemId : chunk) {
+                int quantity = quantities.get(itemId);
+
+                Inventory from = source.get(itemId);
+                if (from == null) {
+                    throw new RuntimeException("Inventory not found for item " + itemId + " in store " + fromStoreId);
+                }
+                if (fromInMemory) {
+                    // Stock is taken in memory; a later failing line rolls the transaction back and restores it
+                    StockEngine.Change change = stockEngine.apply(from, -quantity, 0, true);
+                    if (change == null) {
+                        throw new RuntimeException("Insufficient stock for item " + itemId + ". Available: " +
+                                                 getAvailableQuantity(from) + ", Requested: " + quantity);
+                    }
+                    events.add(StockChangedEvent.of(from, change.previousQuantity(), change.quantity(),
+                            change.reservedQuantity(), StockChangedEvent.Reason.TRANSFER_OUT));
+                } else {
+                    if (from.getAvailableQuantity() < quantity) {
+                        throw new RuntimeException("Insufficient stock for item " + itemId + ". Available: " +
+                                                 from.getAvailableQuantity() + ", Requested: " + quantity);
+                    }
+                    from.setQuantity(from.getQuantity() - quantity);
+                    events.add(StockChangedEvent.of(from, from.getQuantity() + quantity, StockChangedEvent.Reason.TRANSFER_OUT));
+                }
+
+                Inventory to = destination.get(itemId);
+                if (toInMemory) {
+                    StockEngine.Change change = stockEngine.apply(to, quantity, 0, false);
+                    events.add(StockChangedEvent.of(to, change.previousQuantity(), change.quantity(),
+                            change.reservedQuantity(), StockChangedEvent.Reason.TRANSFER_IN));
+                } else {
+                    to.setQuantity(to.getQuantity() + quantity);
+                    events.add(StockChangedEvent.of(to, to.getQuantity() - quantity, StockChangedEvent.Reason.TRANSFER_IN));
+                }
+            }
+        }
+
+        // Updated rows are flushed by dirty checking
+        events.forEach(eventPublisher::publishEvent);
+        return quantities.size();
+    }
+
+    /**
+     * Insert empty inventory rows for the given items in a store unless they already exist.
+     * Items are inserted in id order, the same order transfers lock rows in. A row inserted by
+     * a concurrent transaction that has not committed yet makes this wait for it.
+     */
+    private void insertEmptyInventory(Long storeId, List<Long> itemIds) {
+        List<Long> versions = inventoryVersionService.nextVersions(itemIds.size());
+        List<Object[]> rows = new ArrayList<>(itemIds.size());
+        for (int i = 0; i < itemIds.size(); i++) {
+            rows.add(new Object[] {itemIds.get(i), storeId, versions.get(i)});
+        }
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO inventory (item_id, store_id, quantity, reserved_quantity, min_stock_level, " +
+            "max_stock_level, change_version) VALUES (?, ?, 0, 0, 5, 100, ?) " +
+            "ON CONFLICT (store_id, item_id) DO NOTHING",
+            rows);
     }
 
     /**
@@ -189,6 +440,8 @@ public class InventoryService {
                 inventoryRepository.save(newInventory);
             }
         }
+        // New rows publish no stock change; other nodes' availability of the item is out of date
+        eventPublisher.publishEvent(CacheInvalidationEvent.stock(itemId));
     }
 
     // ================================
@@ -223,6 +476,7 @@ public class InventoryService {
     /**
      * Get stock level for an item in current user's store.
      */
+    @Transactional(readOnly = true)
     public int getStock(Long itemId) {
         Long storeId = userService.getCurrentUserStoreId();
         return getStock(itemId, storeId);
@@ -231,6 +485,7 @@ public class InventoryService {
     /**
      * Get low stock items in current user's store.
      */
+    @Transactional(readOnly = true)
     public List<InventoryDTO> getLowStockItems(int threshold) {
         Long storeId = userService.getCurrentUserStoreId();
         return getLowStockItems(storeId, threshold);
@@ -239,11 +494,166 @@ public class InventoryService {
     /**
      * Get all inventory for current user's store.
      */
+    @Transactional(readOnly = true)
     public List<InventoryDTO> getStoreInventory() {
         Long storeId = userService.getCurrentUserStoreId();
         return getInventoryByStore(storeId);
     }
 
+    /**
+     * Get inventory rows of current user's store changed after the given version,
+     * including tombstones for deleted rows (delta sync for mobile devices).
+     * 
+     * Changes are returned oldest first. The returned version is the cursor for the
+     * next call; when hasMore is true the client should call again straight away.
+     * Not read-only on purpose: the version ceiling comes from the primary's lock table, so
+     * the rows must come from the primary too (a lagging replica could make a client skip a version).
+     */
+    public InventoryChangesDTO getChangesSince(long since, int limit) {
+        Long storeId = userService.getCurrentUserStoreId();
+        int pageSize = Math.max(1, Math.min(limit, MAX_CHANGES_PAGE_SIZE));
+        long ceiling = inventoryVersionService.getVisibleVersionCeiling();
+
+        // Fetch one extra row from each source to know whether more pages follow
+        PageRequest page = PageRequest.of(0, pageSize + 1);
+        List<Inventory> changed = inventoryRepository.findChangedSince(storeId, since, ceiling, page);
+        List<InventoryTombstone> deleted = inventoryTombstoneRepository.findChangedSince(storeId, since, ceiling, page);
+
+        InventoryChangesDTO result = new InventoryChangesDTO();
+        result.setSince(since);
+        long version = since;
+        int c = 0;
+        int d = 0;
+        // Merge both version-ordered lists so the cursor never skips a change
+        while (c + d < pageSize && (c < changed.size() || d < deleted.size())) {
+            boolean takeChange = d >= deleted.size() ||
+                    (c < changed.size() && changed.get(c).getChangeVersion() < deleted.get(d).getChangeVersion());
+            if (takeChange) {
+                Inventory inventory = changed.get(c++);
+                result.getChanges().add(convertToDTO(inventory));
+                version = inventory.getChangeVersion();
+            } else {
+                InventoryTombstone tombstone = deleted.get(d++);
+                result.getDeleted().add(new InventoryChangesDTO.Deletion(
+                        tombstone.getInventoryId(), tombstone.getItemId(), tombstone.getChangeVersion()));
+                version = tombstone.getChangeVersion();
+            }
+        }
+        result.setVersion(version);
+        result.setHasMore(c < changed.size() || d < deleted.size());
+        return result;
+    }
+
+    /**
+     * Get the available quantity of every item of a basket in current user's store,
+     * and optionally in the other stores at the same location.
+     * 
+     * One user lookup and one indexed query for all items and stores; stores held by
+     * the stock engine are answered from memory.
+     */
+    @Transactional(readOnly = true)
+    public BasketAvailabilityDTO getBasketAvailability(List<Long> itemIds, boolean includeNearby) {
+        Store store = userService.getCurrentUserStore();
+        LinkedHashSet<Long> items = new LinkedHashSet<>(itemIds);
+        items.remove(null);
+        if (items.isEmpty()) {
+            throw new RuntimeException("Basket has no items");
+        }
+        if (items.size() > MAX_BASKET_ITEMS) {
+            throw new RuntimeException("A basket can hold at most " + MAX_BASKET_ITEMS + " distinct items");
+        }
+
+        Map<Long, Store> stores = new LinkedHashMap<>();
+        stores.put(store.getId(), store);
+        if (includeNearby && store.getLocation() != null) {
+            for (Store nearby : storeRepository.findByLocation(store.getLocation())) {
+                stores.putIfAbsent(nearby.getId(), nearby);
+            }
+        }
+
+        // Every item starts at 0 so items a store does not stock are reported too
+        Map<Long, Map<Long, Integer>> availableByStore = new HashMap<>();
+        for (Long storeId : stores.keySet()) {
+            Map<Long, Integer> available = new LinkedHashMap<>();
+            items.forEach(itemId -> available.put(itemId, 0));
+            availableByStore.put(storeId, available);
+        }
+        for (Object[] row : inventoryRepository.findStockLevels(stores.keySet(), items)) {
+            Long inventoryId = (Long) row[0];
+            Long itemId = (Long) row[1];
+            Long storeId = (Long) row[2];
+            int quantity = row[3] != null ? (Integer) row[3] : 0;
+            int reserved = row[4] != null ? (Integer) row[4] : 0;
+            Integer stripeCount = (Integer) row[5];
+
+            int available = quantity - reserved;
+            if (stockEngine.owns(storeId)) {
+                available = stockEngine.getAvailableQuantity(storeId, itemId, available);
+            } else if (stripeCount != null && stripeCount > 0) {
+                available -= hotStockService.getUnfoldedSales(inventoryId);
+            }
+            availableByStore.get(storeId).merge(itemId, Math.max(0, available), Integer::sum);
+        }
+
+        BasketAvailabilityDTO result = new BasketAvailabilityDTO();
+        result.setStoreId(store.getId());
+        result.setAvailable(availableByStore.get(store.getId()));
+        for (Store other : stores.values()) {
+            if (!other.getId().equals(store.getId())) {
+                BasketAvailabilityDTO.StoreAvailability availability =
+                        new BasketAvailabilityDTO.StoreAvailability(other.getId(), other.getName());
+                availability.setAvailable(availableByStore.get(other.getId()));
+                result.getNearby().add(availability);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the stock of an item in every store that carries it.
+     * 
+     * Served from the in-memory store-stock matrix, which stock changes keep current;
+     * on a miss the item is loaded with one query over the item index. A cache hit
+     * touches neither the database nor a transaction.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public ItemAvailabilityDTO getItemAvailability(Long itemId) {
+        StockAvailabilityCache.ItemStock stock = stockAvailabilityCache.get(itemId);
+        if (stock == null) {
+            Item item = itemRepository.findById(itemId)
+                    .orElseThrow(() -> new RuntimeException("Item not found with id: " + itemId));
+            TreeMap<Long, int[]> byStore = new TreeMap<>();
+            for (Inventory inventory : inventoryRepository.findByItem(item)) {
+                int[] levels = byStore.computeIfAbsent(inventory.getStore().getId(), id -> new int[2]);
+                levels[0] += getCurrentQuantity(inventory);
+                levels[1] += getReservedQuantity(inventory);
+            }
+            long[] storeIds = new long[byStore.size()];
+            int[] quantities = new int[byStore.size()];
+            int[] reserved = new int[byStore.size()];
+            int i = 0;
+            for (Map.Entry<Long, int[]> entry : byStore.entrySet()) {
+                storeIds[i] = entry.getKey();
+                quantities[i] = entry.getValue()[0];
+                reserved[i] = entry.getValue()[1];
+                i++;
+            }
+            stock = new StockAvailabilityCache.ItemStock(storeIds, quantities, reserved);
+            stockAvailabilityCache.put(itemId, stock);
+        }
+
+        ItemAvailabilityDTO dto = new ItemAvailabilityDTO();
+        dto.setItemId(itemId);
+        for (int i = 0; i < stock.size(); i++) {
+            int quantity = stock.getQuantity(i);
+            int available = Math.max(0, quantity - stock.getReservedQuantity(i));
+            dto.getStores().add(new ItemAvailabilityDTO.StoreStock(stock.getStoreId(i), quantity, available));
+            dto.setTotalQuantity(dto.getTotalQuantity() + quantity);
+            dto.setTotalAvailable(dto.getTotalAvailable() + available);
+        }
+        return dto;
+    }
+
     // ================================
     // ORIGINAL METHODS (Enhanced with validation)
     // ================================
@@ -251,44 +661,111 @@ public class InventoryService {
     /**
      * Get stock level for an item in a specific store.
      */
+    @Transactional(readOnly = true)
     public int getStock(Long itemId, Long storeId) {
         userService.validateStoreAccess(storeId);
         return findInventoryEntity(itemId, storeId)
-                .map(Inventory::getQuantity)
+                .map(this::getCurrentQuantity)
                 .orElse(0);
     }
 
     /**
      * Get inventory by store ID.
      */
+    @Transactional(readOnly = true)
     public List<InventoryDTO> getInventoryByStore(Long storeId) {
         userService.validateStoreAccess(storeId);
-        return inventoryRepository.findAll().stream()
-                .filter(inv -> inv.getStore().getId().equals(storeId))
-                .map(this::convertToDTO)
+        return inventoryRepository.findDTOsByStoreId(storeId).stream()
+                .map(this::withEngineStock)
                 .collect(Collectors.toList());
     }
 
     /**
      * Get low stock items for a specific store.
      */
+    @Transactional(readOnly = true)
     public List<InventoryDTO> getLowStockItems(Long storeId, int threshold) {
         userService.validateStoreAccess(storeId);
-        return inventoryRepository.findAll().stream()
-                .filter(inv -> inv.getStore().getId().equals(storeId) && inv.getQuantity() < threshold)
-                .map(this::convertToDTO)
+        if (!stockEngine.owns(storeId)) {
+            return inventoryRepository.findLowStockDTOs(storeId, threshold);
+        }
+        return inventoryRepository.findDTOsByStoreId(storeId).stream()
+                .map(this::withEngineStock)
+                .filter(dto -> dto.getQuantity() < threshold)
                 .collect(Collectors.toList());
     }
 
+    // ================================
+    // IN-MEMORY STOCK (StockEngine)
+    // ================================
+
+    /**
+     * Whether a store's stock is held by the in-memory stock engine
+     * (checkouts and adjustments then never lock or update its inventory rows).
+     */
+    public boolean isHeldInMemory(Long storeId) {
+        return stockEngine.owns(storeId);
+    }
+
+    /**
+     * Change the stock of a row of a store held in memory and publish the change.
+     * 
+     * @param keepReserved also require the available quantity (quantity - reserved) to stay at or above zero
+     * @return false when the change would take stock below zero; nothing is changed then
+     */
+    public boolean applyInMemoryChange(Inventory inventory, int quantityDelta, int reservedDelta,
+                                       boolean keepReserved, StockChangedEvent.Reason reason) {
+        StockEngine.Change change = stockEngine.apply(inventory, quantityDelta, reservedDelta, keepReserved);
+        if (change == null) {
+            return false;
+        }
+        eventPublisher.publishEvent(StockChangedEvent.of(inventory, change.previousQuantity(), change.quantity(),
+                change.reservedQuantity(), reason));
+        return true;
+    }
+
+    /**
+     * Current stock of an inventory row: from the stock engine for stores held in memory,
+     * otherwise from the row (including unfolded slot sales of striped hot items).
+     */
+    public int getCurrentQuantity(Inventory inventory) {
+        if (stockEngine.owns(inventory.getStore().getId())) {
+            return stockEngine.getQuantity(inventory);
+        }
+        return hotStockService.getCurrentQuantity(inventory);
+    }
+
     // ================================
     // HELPER METHODS
     // ================================
 
+    private int getReservedQuantity(Inventory inventory) {
+        if (stockEngine.owns(inventory.getStore().getId())) {
+            return stockEngine.getReservedQuantity(inventory);
+        }
+        return inventory.getReservedQuantity() != null ? inventory.getReservedQuantity() : 0;
+    }
+
+    private int getAvailableQuantity(Inventory inventory) {
+        return getCurrentQuantity(inventory) - getReservedQuantity(inventory);
+    }
+
     private Optional<Inventory> findInventoryEntity(Long itemId, Long storeId) {
-        return inventoryRepository.findAll().stream()
-                .filter(inv -> inv.getItem().getId().equals(itemId) && 
-                              inv.getStore().getId().equals(storeId))
-                .findFirst();
+        return inventoryRepository.findByItemIdAndStoreId(itemId, storeId);
+    }
+
+    /**
+     * Replace the table stock of a projected row with the stock engine's, for stores it holds.
+     */
+    private InventoryDTO withEngineStock(InventoryDTO dto) {
+        if (stockEngine.owns(dto.getStoreId())) {
+            int[] stock = stockEngine.getStock(dto.getStoreId(), dto.getItemId());
+            if (stock != null) {
+                dto.setQuantity(stock[0]);
+                dto.setReservedQuantity(stock[1]);
+            }
+        }
+        return dto;
     }
 
     /**
@@ -297,8 +774,11 @@ public class InventoryService {
     private InventoryDTO convertToDTO(Inventory inventory) {
         InventoryDTO dto = new InventoryDTO();
         dto.setId(inventory.getId());
-        dto.setQuantity(inventory.getQuantity());
-        dto.setReservedQuantity(inventory.getReservedQuantity());
+        dto.setItemId(inventory.getItem().getId());
+        dto.setStoreId(inventory.getStore().getId());
+        dto.setVersion(inventory.getChangeVersion());
+        dto.setQuantity(getCurrentQuantity(inventory));
+        dto.setReservedQuantity(getReservedQuantity(inventory));
         dto.setMinStockLevel(inventory.getMinStockLevel());
         dto.setMaxStockLevel(inventory.getMaxStockLevel());
         
@@ -0,0 +1,326 @@
+package dev.andrepontde.retailmanager.retail_system.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import dev.andrepontde.retailmanager.retail_system.dto.InventoryValuationDTO;
+import dev.andrepontde.retailmanager.retail_system.entity.Item;
+import dev.andrepontde.retailmanager.retail_system.event.ItemChangedEvent;
+import dev.andrepontde.retailmanager.retail_system.event.StockChangedEvent;
+import dev.andrepontde.retailmanager.retail_system.repository.ItemRepository;
+
+/**
+ * Service class for inventory valuation (quantity x item price per store and category).
+ *
+ * This service handles:
+ * - Per-store, per-category unit and value totals kept in memory (values in cents)
+ * - Incremental updates from committed stock changes and item price/category changes
+ * - A parallel rebuild from the inventory table (fork-join over id ranges) that reports
+ *   and corrects any drift of the incremental totals
+ *
+ * Changes committed while a rebuild runs can be counted twice or missed by it; the next
+ * rebuild reconciles them. A rebuild runs once at startup.
+ */
+@Service
+public class InventoryValuationService {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryValuationService.class);
+
+    private static final String UNCATEGORIZED = "Uncategorized";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private StockEngine stockEngine;
+
+    @Value("${retail.valuation.rebuild-parallelism:4}")
+    private int rebuildParallelism;
+
+    @Value("${retail.valuation.rebuild-chunk-rows:50000}")
+    private long rebuildChunkRows;
+
+    private volatile Map<Long, Map<String, Totals>> totals = new ConcurrentHashMap<>();
+
+    private final Map<Long, Pricing> pricing = new ConcurrentHashMap<>();
+
+    private record Pricing(long priceCents, String category) {}
+
+    private static final class Totals {
+        private final LongAdder units = new LongAdder();
+        private final LongAdder valueCents = new LongAdder();
+
+        void add(long unitDelta, long valueDelta) {
+            units.add(unitDelta);
+            valueCents.add(valueDelta);
+        }
+    }
+
+    // ================================
+    // QUERIES
+    // ================================
+
+    /**
+     * Get the stock value of current user's store.
+     */
+    public InventoryValuationDTO getStoreValuation() {
+        return getStoreValuation(userService.getCurrentUserStoreId());
+    }
+
+    /**
+     * Get the stock value of a store.
+     */
+    public InventoryValuationDTO getStoreValuation(Long storeId) {
+        userService.validateStoreAccess(storeId);
+        return convertToDTO(storeId, totals.getOrDefault(storeId, Map.of()));
+    }
+
+    /**
+     * Get the stock value of every store (finance/admin).
+     */
+    public List<InventoryValuationDTO> getAllValuations() {
+        List<InventoryValuationDTO> result = new ArrayList<>();
+        new TreeMap<>(totals).forEach((storeId, categories) -> result.add(convertToDTO(storeId, categories)));
+        return result;
+    }
+
+    // ================================
+    // INCREMENTAL UPDATES
+    // ================================
+
+    /**
+     * Apply a committed stock change at the item's current price.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        int delta = event.getDelta();
+        if (delta == 0) {
+            return;
+        }
+        Pricing item = pricingOf(event.getItemId());
+        if (item != null) {
+            totalsOf(event.getStoreId(), item.category()).add(delta, delta * item.priceCents());
+        }
+    }
+
+    /**
+     * Revalue an item's stock in every store after its price or category changed (or it was deleted).
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        long previousCents = toCents(event.getPreviousPrice());
+        long cents = toCents(event.getPrice());
+        event.getStockByStore().forEach((storeId, units) -> {
+            totalsOf(storeId, event.getPreviousCategory()).add(-units, -units * previousCents);
+            if (!event.isDeleted()) {
+                totalsOf(storeId, event.getCategory()).add(units, units * cents);
+            }
+        });
+        if (event.isDeleted()) {
+            pricing.remove(event.getItemId());
+        } else {
+            pricing.put(event.getItemId(), new Pricing(cents, categoryOf(event.getCategory())));
+        }
+    }
+
+    /**
+     * Forget the cached price and category of an item changed on another node (CacheInvalidationBus).
+     * Its stock already valued here keeps the old price until the next rebuild.
+     */
+    public void evictPricing(Long itemId) {
+        pricing.remove(itemId);
+    }
+
+    /**
+     * Forget every cached price and category (CacheInvalidationBus resync).
+     */
+    public void clearPricing() {
+        pricing.clear();
+    }
+
+    // ================================
+    // REBUILD
+    // ================================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        rebuild();
+    }
+
+    /**
+     * Recompute all totals from the inventory table in parallel and replace the incremental ones.
+     *
+     * @return the rebuilt valuation of every store, with the drift of the previous totals
+     */
+    public List<InventoryValuationDTO> rebuild() {
+        long start = System.currentTimeMillis();
+        // Stores held in memory write their latest stock to the table first
+        stockEngine.flush();
+
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM inventory", Long.class);
+        Map<Long, Map<String, long[]>> fresh;
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, rebuildParallelism));
+        try {
+            fresh = pool.invoke(new RebuildTask(1, maxId));
+        } finally {
+            pool.shutdown();
+        }
+
+        // Striped hot items hold sales in their slots that are not folded into the row yet
+        jdbcTemplate.query(
+            "SELECT inv.store_id, it.category, SUM(s.sold), SUM(s.sold * ROUND(CAST(it.price AS numeric) * 100)) " +
+            "FROM inventory_slot s JOIN inventory inv ON inv.id = s.inventory_id JOIN item it ON it.id = inv.item_id " +
+            "GROUP BY inv.store_id, it.category",
+            (RowCallbackHandler) rs -> {
+                long[] sums = fresh.computeIfAbsent(rs.getLong(1), id -> new HashMap<>())
+                        .computeIfAbsent(categoryOf(rs.getString(2)), category -> new long[2]);
+                sums[0] -= rs.getLong(3);
+                sums[1] -= rs.getBigDecimal(4).longValue();
+            });
+
+        Map<Long, Map<String, Totals>> rebuilt = new ConcurrentHashMap<>();
+        fresh.forEach((storeId, categories) -> categories.forEach((category, sums) ->
+            rebuilt.computeIfAbsent(storeId, id -> new ConcurrentHashMap<>())
+                   .computeIfAbsent(category, c -> new Totals()).add(sums[0], sums[1])));
+
+        Map<Long, Map<String, Totals>> previous = totals;
+        totals = rebuilt;
+        pricing.clear();
+
+        List<InventoryValuationDTO> result = new ArrayList<>();
+        double totalDrift = 0;
+        for (Long storeId : new TreeMap<>(rebuilt).keySet()) {
+            InventoryValuationDTO dto = convertToDTO(storeId, rebuilt.get(storeId));
+            double before = convertToDTO(storeId, previous.getOrDefault(storeId, Map.of())).getValue();
+            dto.setDrift(before - dto.getValue());
+            totalDrift += Math.abs(dto.getDrift());
+            result.add(dto);
+        }
+        log.info("Inventory valuation rebuilt for {} stores in {} ms (absolute drift {})",
+                 result.size(), System.currentTimeMillis() - start, totalDrift);
+        return result;
+    }
+
+    /**
+     * Sums units and value per store and category over an inventory id range, splitting the
+     * range until each leaf reads at most rebuildChunkRows ids with its own query.
+     */
+    private class RebuildTask extends RecursiveTask<Map<Long, Map<String, long[]>>> {
+        private static final long serialVersionUID = 1L;
+
+        private final long fromId;
+        private final long toId;
+
+        RebuildTask(long fromId, long toId) {
+            this.fromId = fromId;
+            this.toId = toId;
+        }
+
+        @Override
+        protected Map<Long, Map<String, long[]>> compute() {
+            if (toId - fromId < rebuildChunkRows) {
+                Map<Long, Map<String, long[]>> sums = new HashMap<>();
+                jdbcTemplate.query(
+                    "SELECT inv.store_id, it.category, SUM(inv.quantity), " +
+                    "SUM(inv.quantity * ROUND(CAST(it.price AS numeric) * 100)) " +
+                    "FROM inventory inv JOIN item it ON it.id = inv.item_id " +
+                    "WHERE inv.id BETWEEN ? AND ? GROUP BY inv.store_id, it.category",
+                    (RowCallbackHandler) rs -> {
+                        long[] row = sums.computeIfAbsent(rs.getLong(1), id -> new HashMap<>())
+                                .computeIfAbsent(categoryOf(rs.getString(2)), category -> new long[2]);
+                        row[0] += rs.getLong(3);
+                        row[1] += rs.getBigDecimal(4).longValue();
+                    },
+                    fromId, toId);
+                return sums;
+            }
+            long middle = fromId + (toId - fromId) / 2;
+            RebuildTask left = new RebuildTask(fromId, middle);
+            RebuildTask right = new RebuildTask(middle + 1, toId);
+            left.fork();
+            Map<Long, Map<String, long[]>> merged = right.compute();
+            left.join().forEach((storeId, categories) -> categories.forEach((category, sums) -> {
+                long[] target = merged.computeIfAbsent(storeId, id -> new HashMap<>())
+                        .computeIfAbsent(category, c -> new long[2]);
+                target[0] += sums[0];
+                target[1] += sums[1];
+            }));
+            return merged;
+        }
+    }
+
+    // ================================
+    // HELPER METHODS
+    // ================================
+
+    private Totals totalsOf(Long storeId, String category) {
+        return totals.computeIfAbsent(storeId, id -> new ConcurrentHashMap<>())
+                     .computeIfAbsent(categoryOf(category), c -> new Totals());
+    }
+
+    private Pricing pricingOf(Long itemId) {
+        Pricing cached = pricing.get(itemId);
+        if (cached != null) {
+            return cached;
+        }
+        Item item = itemRepository.findById(itemId).orElse(null);
+        if (item == null) {
+            return null;
+        }
+        Pricing loaded = new Pricing(toCents(item.getPrice()), categoryOf(item.getCategory()));
+        pricing.putIfAbsent(itemId, loaded);
+        return loaded;
+    }
+
+    private static String categoryOf(String category) {
+        return category != null ? category : UNCATEGORIZED;
+    }
+
+    private static long toCents(Double price) {
+        return price != null ? Math.round(price * 100) : 0;
+    }
+
+    /**
+     * Convert the totals of a store to InventoryValuationDTO.
+     */
+    private InventoryValuationDTO convertToDTO(Long storeId, Map<String, Totals> categories) {
+        InventoryValuationDTO dto = new InventoryValuationDTO();
+        dto.setStoreId(storeId);
+        long units = 0;
+        long valueCents = 0;
+        for (Map.Entry<String, Totals> entry : new TreeMap<>(categories).entrySet()) {
+            long categoryUnits = entry.getValue().units.sum();
+            long categoryCents = entry.getValue().valueCents.sum();
+            dto.getCategories().add(new InventoryValuationDTO.CategoryValuation(entry.getKey(), categoryUnits, categoryCents / 100.0));
+            units += categoryUnits;
+            valueCents += categoryCents;
+        }
+        dto.setUnits(units);
+        dto.setValue(valueCents / 100.0);
+        return dto;
+    }
+}
@@ -0,0 +1,102 @@
+package dev.andrepontde.retailmanager.retail_system.service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import dev.andrepontde.retailmanager.retail_system.entity.Inventory;
+
+/**
+ * Service that hands out inventory change versions for delta sync.
+ * 
+ * Versions come from the inventory_change_seq database sequence, so they increase
+ * across all application nodes. A version is allocated when a row is written but only
+ * becomes visible when its transaction commits, which may happen after a higher
+ * version has already committed. To never let a client skip past such a row, reads
+ * are capped below every version still held by an open transaction, on any node:
+ * - Before its first allocation, a transaction takes a shared transaction-scoped advisory
+ *   lock keyed by the sequence's last value; everything it allocates afterwards is higher
+ * - The ceiling is the lowest such key in pg_locks, or the sequence's last value (read
+ *   first) when no writer is open, so a writer that has not locked yet is covered too
+ * The locks go away with their transaction, so a crashed node never holds the ceiling back.
+ * The sequence must not use CACHE (each session would hand out its own range).
+ */
+@Service
+public class InventoryVersionService {
+
+    // Last version handed out by the sequence (nothing is handed out before is_called)
+    private static final String LAST_VERSION =
+        "SELECT CASE WHEN is_called THEN last_value ELSE last_value - 1 END FROM inventory_change_seq";
+
+    // Marks the current transaction as holding its in-flight lock
+    private static final Object IN_FLIGHT_LOCK = new Object();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Allocate the next change version for a write in the current transaction.
+     */
+    public long nextVersion() {
+        lockInFlight();
+        return jdbcTemplate.queryForObject("SELECT nextval('inventory_change_seq')", Long.class);
+    }
+
+    /**
+     * Allocate change versions for a batch of writes in the current transaction (one round trip).
+     */
+    public List<Long> nextVersions(int count) {
+        lockInFlight();
+        return jdbcTemplate.queryForList(
+            "SELECT nextval('inventory_change_seq') FROM generate_series(1, ?)", Long.class, count);
+    }
+
+    /**
+     * Highest version that is safe to hand out to sync clients right now.
+     * Must run on the primary: a replica does not see the primary's locks.
+     */
+    public long getVisibleVersionCeiling() {
+        long lastVersion = jdbcTemplate.queryForObject(LAST_VERSION, Long.class);
+        Long oldestInFlight = jdbcTemplate.queryForObject(
+            "SELECT MIN((classid::bigint << 32) | objid::bigint) FROM pg_locks " +
+            "WHERE locktype = 'advisory' AND objsubid = 1 AND granted " +
+            "AND database = (SELECT oid FROM pg_database WHERE datname = current_database())", Long.class);
+        return oldestInFlight != null ? Math.min(lastVersion, oldestInFlight) : lastVersion;
+    }
+
+    /**
+     * Write a tombstone for an inventory row that is about to be deleted.
+     */
+    public void recordDeletion(Inventory inventory) {
+        long version = nextVersion();
+        jdbcTemplate.update(
+            "INSERT INTO inventory_tombstone (inventory_id, store_id, item_id, change_version, deleted_at) VALUES (?, ?, ?, ?, ?)",
+            inventory.getId(), inventory.getStore().getId(), inventory.getItem().getId(), version,
+            Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    /**
+     * Take the in-flight lock of the current transaction, once per transaction.
+     * Versions allocated outside a transaction are not covered; every writer runs in one.
+     */
+    private void lockInFlight() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(IN_FLIGHT_LOCK)) {
+            return;
+        }
+        jdbcTemplate.queryForList("SELECT pg_advisory_xact_lock_shared((" + LAST_VERSION + "))");
+        TransactionSynchronizationManager.bindResource(IN_FLIGHT_LOCK, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(IN_FLIGHT_LOCK);
+            }
+        });
+    }
+}
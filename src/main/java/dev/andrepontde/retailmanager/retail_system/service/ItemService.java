@@ -1,9 +1,12 @@
 package dev.andrepontde.retailmanager.retail_system.service;
 
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Objects;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -12,7 +15,11 @@ import dev.andrepontde.retailmanager.retail_system.entity.Inventory;
 import dev.andrepontde.retailmanager.retail_system.entity.Item;
 import dev.andrepontde.retailmanager.retail_system.entity.Store;
 import dev.andrepontde.retailmanager.retail_system.entity.User;
+import dev.andrepontde.retailmanager.retail_system.event.CacheInvalidationEvent;
+import dev.andrepontde.retailmanager.retail_system.event.ItemChangedEvent;
+import dev.andrepontde.retailmanager.retail_system.event.StockChangedEvent;
 import dev.andrepontde.retailmanager.retail_system.repository.InventoryRepository;
+import dev.andrepontde.retailmanager.retail_system.repository.InventorySlotRepository;
 import dev.andrepontde.retailmanager.retail_system.repository.ItemRepository;
 
 
@@ -27,13 +34,25 @@ public class ItemService {
     
     @Autowired
     private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private InventorySlotRepository inventorySlotRepository;
     
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private StockAvailabilityCache stockAvailabilityCache;
+
     // Create or update a item
     @Transactional
     public ItemDTO saveItem(ItemDTO itemDTO) {
+        if (itemDTO.getId() != null) {
+            return updateItem(itemDTO);
+        }
         Item item = toEntity(itemDTO);
         item = itemRepository.save(item);
         
@@ -46,47 +65,80 @@ public class ItemService {
         return toDTO(item);
     }
 
+    // Update an existing item; price and category changes are published for value aggregates
+    private ItemDTO updateItem(ItemDTO itemDTO) {
+        Item item = itemRepository.findById(itemDTO.getId())
+                .orElseThrow(() -> new RuntimeException("Item not found with ID: " + itemDTO.getId()));
+        String previousCategory = item.getCategory();
+        Double previousPrice = item.getPrice();
+        item.setName(itemDTO.getName());
+        item.setCategory(itemDTO.getCategory());
+        item.setPrice(itemDTO.getPrice());
+        item = itemRepository.save(item);
+        eventPublisher.publishEvent(CacheInvalidationEvent.item(item.getId()));
+
+        if (!Objects.equals(previousCategory, item.getCategory()) || !Objects.equals(previousPrice, item.getPrice())) {
+            eventPublisher.publishEvent(new ItemChangedEvent(item.getId(), previousCategory, previousPrice,
+                    item.getCategory(), item.getPrice(), stockByStore(inventoryRepository.findByItem(item))));
+        }
+        return toDTO(item);
+    }
+
     // Retrieve a item by ID
+    @Transactional(readOnly = true)
     public ItemDTO getItemById(Long id) {
-        Item item = itemRepository.findById(id)
+        return itemRepository.findDTOById(id)
                 .orElseThrow(() -> new RuntimeException("Item not found with ID: " + id));
-        return toDTO(item);
     }
 
+    @Transactional(readOnly = true)
     public ItemDTO getItemByName(String name){
-        Item item = itemRepository.findByName(name).stream()
+        return itemRepository.findDTOsByName(name).stream()
                 .findFirst()
                 .orElseThrow(() -> new RuntimeException("Item not found with name: " + name));
-        return toDTO(item);
     }
 
     // Retrieve all items
+    @Transactional(readOnly = true)
     public List<ItemDTO> getAllItems() {
-        return itemRepository.findAll().stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+        return itemRepository.findAllAsDTO();
     }
 
     // Retrieve items by category
+    @Transactional(readOnly = true)
     public List<ItemDTO> getItemsByCategory(String category) {
-        return itemRepository.findByCategory(category).stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+        return itemRepository.findDTOsByCategory(category);
     }
 
     // Retrieve items by name (multiple items can have the same name)
+    @Transactional(readOnly = true)
     public List<ItemDTO> getItemsByName(String name) {
-        return itemRepository.findByName(name).stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+        return itemRepository.findDTOsByName(name);
     }
 
     // Delete a item
+    @Transactional
     public void deleteItem(Long id) {
-        if (!itemRepository.existsById(id)) {
-            throw new RuntimeException("Item not found with ID: " + id);
+        Item item = itemRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Item not found with ID: " + id));
+        // Remove the item's stock rows first; each leaves a tombstone for delta-sync clients
+        List<Inventory> inventory = inventoryRepository.findByItem(item);
+        inventory.forEach(row -> inventorySlotRepository.deleteByInventoryId(row.getId()));
+        inventoryRepository.deleteAll(inventory);
+        itemRepository.delete(item);
+        stockAvailabilityCache.evict(id);
+        eventPublisher.publishEvent(CacheInvalidationEvent.item(id));
+        eventPublisher.publishEvent(CacheInvalidationEvent.stock(id));
+        eventPublisher.publishEvent(ItemChangedEvent.deleted(id, item.getCategory(), item.getPrice(), stockByStore(inventory)));
+    }
+
+    // Sum an item's inventory rows per store
+    private Map<Long, Integer> stockByStore(List<Inventory> inventory) {
+        Map<Long, Integer> stock = new HashMap<>();
+        for (Inventory row : inventory) {
+            stock.merge(row.getStore().getId(), row.getQuantity(), Integer::sum);
         }
-        itemRepository.deleteById(id);
+        return stock;
     }
 
     // Convert Entity to DTO
@@ -127,6 +179,7 @@ public class ItemService {
                 inventory.setQuantity(initialQuantity);
                 
                 inventoryRepository.save(inventory);
+                eventPublisher.publishEvent(StockChangedEvent.of(inventory, 0, StockChangedEvent.Reason.RECEIVE));
             }
         } catch (Exception e) {
             // If user context is not available (e.g., admin creating global items),
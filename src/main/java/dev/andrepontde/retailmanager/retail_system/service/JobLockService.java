@@ -0,0 +1,60 @@
+package dev.andrepontde.retailmanager.retail_system.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Cluster-wide locks for scheduled jobs that run on every node.
+ *
+ * Transaction-scoped PostgreSQL advisory locks, so they are released when the transaction ends,
+ * also when a node dies half way. They use the two-key form (job, key): the single-key in-flight
+ * locks of InventoryVersionService never collide with them and are the only ones its ceiling sees.
+ */
+@Service
+public class JobLockService {
+
+    /**
+     * Lock namespaces, one per job.
+     */
+    public enum Job {
+        STOCK_SNAPSHOT(1),
+        DEMAND_FORECAST(2);
+
+        private final int id;
+
+        Job(int id) {
+            this.id = id;
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Wait for the lock of a job and key, held until the current transaction ends.
+     */
+    public void lock(Job job, long key) {
+        requireTransaction();
+        jdbcTemplate.queryForList("SELECT pg_advisory_xact_lock(?, ?)", job.id, Long.hashCode(key));
+    }
+
+    /**
+     * Take the lock of a job and key if no other transaction holds it, until the current
+     * transaction ends.
+     *
+     * @return whether the lock was taken
+     */
+    public boolean tryLock(Job job, long key) {
+        requireTransaction();
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?, ?)",
+                Boolean.class, job.id, Long.hashCode(key)));
+    }
+
+    private void requireTransaction() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Job locks are transaction-scoped and need a transaction");
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package dev.andrepontde.retailmanager.retail_system.service;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing long -> int hash map over two primitive arrays (no boxing, no entry objects).
+ *
+ * Linear probing with backward-shift deletion; 0 is a valid key. Not thread-safe.
+ */
+final class LongIntHashMap {
+
+    /**
+     * Receives the entries of a map.
+     */
+    interface EntryConsumer {
+        void accept(long key, int value);
+    }
+
+    private long[] keys;
+    private int[] values;
+    private boolean[] used;
+    private int size;
+
+    LongIntHashMap() {
+        this(8);
+    }
+
+    LongIntHashMap(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(4, expected) * 2 - 1) * 2;
+        keys = new long[capacity];
+        values = new int[capacity];
+        used = new boolean[capacity];
+    }
+
+    int size() {
+        return size;
+    }
+
+    int get(long key) {
+        int slot = find(key);
+        return slot >= 0 ? values[slot] : 0;
+    }
+
+    /**
+     * Add delta to the value of key (inserting it with value delta if absent).
+     */
+    void add(long key, int delta) {
+        int mask = keys.length - 1;
+        int slot = slot(key, mask);
+        while (used[slot]) {
+            if (keys[slot] == key) {
+                values[slot] += delta;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        used[slot] = true;
+        keys[slot] = key;
+        values[slot] = delta;
+        if (++size * 4 > keys.length * 3) {
+            resize(keys.length * 2);
+        }
+    }
+
+    void remove(long key) {
+        int slot = find(key);
+        if (slot < 0) {
+            return;
+        }
+        int mask = keys.length - 1;
+        // Backward-shift the rest of the probe run so lookups never stop at a hole
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (used[next]) {
+            int home = slot(keys[next], mask);
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        used[hole] = false;
+        size--;
+    }
+
+    void forEach(EntryConsumer consumer) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (used[slot]) {
+                consumer.accept(keys[slot], values[slot]);
+            }
+        }
+    }
+
+    /**
+     * Remove the count entries with the smallest values. Among entries tied at the cut-off value,
+     * the ones removed are arbitrary.
+     */
+    void removeSmallest(int count) {
+        if (count <= 0) {
+            return;
+        }
+        if (count >= size) {
+            clear();
+            return;
+        }
+        int[] sorted = sortedValues();
+        int cutoff = sorted[count - 1];
+        int below = 0;
+        while (sorted[below] < cutoff) {
+            below++;
+        }
+        int tiesToRemove = count - below;
+
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        boolean[] oldUsed = used;
+        clear();
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (!oldUsed[slot] || oldValues[slot] < cutoff) {
+                continue;
+            }
+            if (oldValues[slot] == cutoff && tiesToRemove > 0) {
+                tiesToRemove--;
+                continue;
+            }
+            add(oldKeys[slot], oldValues[slot]);
+        }
+    }
+
+    /**
+     * Values in ascending order.
+     */
+    int[] sortedValues() {
+        int[] result = new int[size];
+        int index = 0;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (used[slot]) {
+                result[index++] = values[slot];
+            }
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    private void clear() {
+        keys = new long[keys.length];
+        values = new int[keys.length];
+        used = new boolean[keys.length];
+        size = 0;
+    }
+
+    private int find(long key) {
+        int mask = keys.length - 1;
+        int slot = slot(key, mask);
+        while (used[slot]) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        boolean[] oldUsed = used;
+        keys = new long[capacity];
+        values = new int[capacity];
+        used = new boolean[capacity];
+        size = 0;
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldUsed[slot]) {
+                add(oldKeys[slot], oldValues[slot]);
+            }
+        }
+    }
+
+    private static int slot(long key, int mask) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,83 @@
+package dev.andrepontde.retailmanager.retail_system.service;
+
+import java.sql.Connection;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import dev.andrepontde.retailmanager.retail_system.event.SaleRecordedEvent;
+
+/**
+ * Orders the commits of sales and refunds against the snapshots that in-memory aggregates
+ * (sales cube, best sellers, co-purchase index) are loaded from.
+ *
+ * Sale ids are handed out in insert order, not commit order, and refunds rewrite existing
+ * sale lines, so neither tells whether a loaded snapshot already contains a change. Instead:
+ * - A transaction that records a sale or refund holds a shared lock from just before it
+ *   commits until its after-commit listeners have run
+ * - A load starts its snapshot under the exclusive lock, when no such transaction is between
+ *   those two points
+ * Events a listener received before the snapshot started are therefore part of it, and
+ * events received after are not. The lock is only held exclusively for one statement.
+ */
+@Service
+public class SaleCommitGate {
+
+    // Marks the current transaction as holding the shared lock
+    private static final Object COMMITTING = new Object();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Hold the shared lock over the commit of a transaction that records a sale or refund.
+     * Registered after the event's listeners, so it is released after their after-commit calls.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onSaleRecorded(SaleRecordedEvent event) {
+        if (TransactionSynchronizationManager.hasResource(COMMITTING)) {
+            return;
+        }
+        lock.readLock().lock();
+        TransactionSynchronizationManager.bindResource(COMMITTING, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(COMMITTING);
+                lock.readLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Start the snapshot of the current REPEATABLE READ transaction and run an action at the
+     * same point, with no sale or refund committing. Sales and refunds whose events arrive
+     * after the action are not in the snapshot; the ones before are.
+     *
+     * @return the exported snapshot id, for other transactions to read the same snapshot
+     *         (SET TRANSACTION SNAPSHOT) while this one is open
+     */
+    public String startSnapshot(Runnable atSnapshot) {
+        Integer isolation = TransactionSynchronizationManager.getCurrentTransactionIsolationLevel();
+        if (isolation == null || isolation < Connection.TRANSACTION_REPEATABLE_READ) {
+            throw new IllegalStateException("A snapshot needs a REPEATABLE READ transaction");
+        }
+        lock.writeLock().lock();
+        try {
+            // First statement of the transaction: takes its snapshot
+            String snapshotId = jdbcTemplate.queryForObject("SELECT pg_export_snapshot()", String.class);
+            atSnapshot.run();
+            return snapshotId;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
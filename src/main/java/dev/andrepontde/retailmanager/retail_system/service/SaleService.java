@@ -1,16 +1,21 @@
 package dev.andrepontde.retailmanager.retail_system.service;
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import dev.andrepontde.retailmanager.retail_system.dto.SaleDTO;
 import dev.andrepontde.retailmanager.retail_system.dto.SaleItemDTO;
+import dev.andrepontde.retailmanager.retail_system.dto.SalesAnalyticsDTO;
 import dev.andrepontde.retailmanager.retail_system.dto.StoreDTO;
 import dev.andrepontde.retailmanager.retail_system.entity.Inventory;
 import dev.andrepontde.retailmanager.retail_system.entity.Item;
@@ -18,6 +23,8 @@ import dev.andrepontde.retailmanager.retail_system.entity.Sale;
 import dev.andrepontde.retailmanager.retail_system.entity.SaleItem;
 import dev.andrepontde.retailmanager.retail_system.entity.Store;
 import dev.andrepontde.retailmanager.retail_system.entity.User;
+import dev.andrepontde.retailmanager.retail_system.event.SaleRecordedEvent;
+import dev.andrepontde.retailmanager.retail_system.event.StockChangedEvent;
 import dev.andrepontde.retailmanager.retail_system.repository.InventoryRepository;
 import dev.andrepontde.retailmanager.retail_system.repository.ItemRepository;
 import dev.andrepontde.retailmanager.retail_system.repository.SaleRepository;
@@ -48,6 +55,18 @@ public class SaleService {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private HotStockService hotStockService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private SalesCube salesCube;
+
     // ================================
     // CORE SALES OPERATIONS
     // ================================
@@ -55,6 +74,11 @@ public class SaleService {
     /**
      * Process a new sale transaction.
      * This method validates inventory, updates stock levels, and creates the sale record.
+     * 
+     * Stock is taken once per item, in item order, after all lines are read: a basket that
+     * repeats an item never holds one of its slots while waiting for its row (the fallback of
+     * a striped item locks the row, then every slot), which a concurrent collapse holding the
+     * row and waiting for that slot would deadlock with.
      */
     @Transactional
     public SaleDTO processSale(SaleDTO saleDTO) {
@@ -76,6 +100,8 @@ public class SaleService {
         sale.setCustomerPhone(saleDTO.getCustomerPhone());
         
         double totalAmount = 0.0;
+        Map<Long, Item> items = new HashMap<>();
+        TreeMap<Long, Integer> quantities = new TreeMap<>();
         
         // Process each sale item
         for (SaleItemDTO saleItemDTO : saleDTO.getSaleItems()) {
@@ -86,18 +112,8 @@ public class SaleService {
             }
             
             Item item = itemOpt.get();
-            
-            // Check inventory availability
-            Optional<Inventory> inventoryOpt = inventoryRepository.findByStoreAndItem(userStore, item);
-            if (!inventoryOpt.isPresent()) {
-                throw new IllegalArgumentException("Item not available in store: " + item.getName());
-            }
-            
-            Inventory inventory = inventoryOpt.get();
-            if (inventory.getQuantity() < saleItemDTO.getQuantity()) {
-                throw new IllegalArgumentException("Insufficient stock for item: " + item.getName() + 
-                    ". Available: " + inventory.getQuantity() + ", Requested: " + saleItemDTO.getQuantity());
-            }
+            items.put(item.getId(), item);
+            quantities.merge(item.getId(), saleItemDTO.getQuantity(), Integer::sum);
             
             // Create sale item
             SaleItem saleItem = new SaleItem();
@@ -107,10 +123,6 @@ public class SaleService {
             saleItem.setUnitPrice(item.getPrice());
             saleItem.setTotalPrice(item.getPrice() * saleItemDTO.getQuantity());
             
-            // Update inventory
-            inventory.setQuantity(inventory.getQuantity() - saleItemDTO.getQuantity());
-            inventoryRepository.save(inventory);
-            
             // Add to total
             totalAmount += saleItem.getTotalPrice();
             
@@ -121,10 +133,16 @@ public class SaleService {
             sale.getSaleItems().add(saleItem);
         }
         
+        // Take the stock of each item, all its lines at once
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            takeStock(userStore, items.get(entry.getKey()), entry.getValue());
+        }
+        
         sale.setTotalAmount(totalAmount);
         
         // Save the sale
         Sale savedSale = saleRepository.save(sale);
+        eventPublisher.publishEvent(SaleRecordedEvent.of(savedSale));
         
         return convertToDTO(savedSale);
     }
@@ -132,6 +150,7 @@ public class SaleService {
     /**
      * Get all sales for the current user's store.
      */
+    @Transactional(readOnly = true)
     public List<SaleDTO> getAllSales() {
         User currentUser = userService.getCurrentUser();
         Store userStore = currentUser.getPrimaryStore();
@@ -145,6 +164,7 @@ public class SaleService {
     /**
      * Get a specific sale by ID (user must own the store).
      */
+    @Transactional(readOnly = true)
     public Optional<SaleDTO> getSaleById(Long id) {
         User currentUser = userService.getCurrentUser();
         Store userStore = currentUser.getPrimaryStore();
@@ -159,6 +179,7 @@ public class SaleService {
     /**
      * Get sales by date range for the current user's store.
      */
+    @Transactional(readOnly = true)
     public List<SaleDTO> getSalesByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
         User currentUser = userService.getCurrentUser();
         Store userStore = currentUser.getPrimaryStore();
@@ -176,6 +197,7 @@ public class SaleService {
     /**
      * Get total sales amount for a date range.
      */
+    @Transactional(readOnly = true)
     public Double getTotalSalesAmount(LocalDateTime startDate, LocalDateTime endDate) {
         User currentUser = userService.getCurrentUser();
         Store userStore = currentUser.getPrimaryStore();
@@ -186,6 +208,7 @@ public class SaleService {
     /**
      * Get number of transactions for a date range.
      */
+    @Transactional(readOnly = true)
     public Long getTotalTransactions(LocalDateTime startDate, LocalDateTime endDate) {
         User currentUser = userService.getCurrentUser();
         Store userStore = currentUser.getPrimaryStore();
@@ -193,6 +216,25 @@ public class SaleService {
         return saleRepository.countByStoreAndSaleDateBetween(userStore, startDate, endDate);
     }
 
+    /**
+     * Group the sales of a date range by up to two dimensions (store, item, category, payment,
+     * hour, day), answered from the in-memory sales cube.
+     * Store ID is optional and defaults to the current user's store.
+     */
+    @Transactional(readOnly = true)
+    public SalesAnalyticsDTO getSalesAnalytics(Long storeId, LocalDateTime startDate, LocalDateTime endDate,
+                                               List<String> groupBy, int limit) {
+        Long analyticsStoreId = storeId != null ? storeId : userService.getCurrentUserStoreId();
+        userService.validateStoreAccess(analyticsStoreId);
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("Start date must not be after end date");
+        }
+        List<SalesCube.Dimension> dimensions = groupBy.stream()
+                .map(SalesCube.Dimension::parse)
+                .collect(Collectors.toList());
+        return salesCube.query(analyticsStoreId, startDate, endDate, dimensions, limit);
+    }
+
     // ================================
     // REFUND AND RETURNS
     // ================================
@@ -228,9 +270,16 @@ public class SaleService {
         // Update inventory
         Inventory inventory = inventoryRepository.findByStoreAndItem(userStore, saleItem.getItem())
             .orElseThrow(() -> new IllegalArgumentException("Inventory record not found"));
-        
-        inventory.setQuantity(inventory.getQuantity() + quantity);
-        inventoryRepository.save(inventory);
+        if (inventoryService.isHeldInMemory(userStore.getId())) {
+            inventoryService.applyInMemoryChange(inventory, quantity, 0, false, StockChangedEvent.Reason.REFUND);
+        } else {
+            hotStockService.lockForUpdate(inventory);
+            
+            int previousQuantity = inventory.getQuantity();
+            inventory.setQuantity(inventory.getQuantity() + quantity);
+            inventoryRepository.save(inventory);
+            eventPublisher.publishEvent(StockChangedEvent.of(inventory, previousQuantity, StockChangedEvent.Reason.REFUND));
+        }
         
         // Update sale item (reduce quantity or remove if full refund)
         if (quantity.equals(saleItem.getQuantity())) {
@@ -245,12 +294,49 @@ public class SaleService {
         sale.setTotalAmount(sale.getTotalAmount() - refundAmount);
         
         saleRepository.save(sale);
+        eventPublisher.publishEvent(SaleRecordedEvent.refund(sale, saleItem.getItem(), quantity, refundAmount));
     }
 
     // ================================
     // HELPER METHODS
     // ================================
 
+    /**
+     * Take the stock of an item sold in a store.
+     * Stores held in memory take stock without touching the row; hot items take it from one of
+     * their slots, and otherwise (or when no slot holds enough) the row is locked and updated.
+     */
+    private void takeStock(Store store, Item item, int quantity) {
+        Optional<Inventory> inventoryOpt = inventoryRepository.findByStoreAndItem(store, item);
+        if (!inventoryOpt.isPresent()) {
+            throw new IllegalArgumentException("Item not available in store: " + item.getName());
+        }
+        
+        Inventory inventory = inventoryOpt.get();
+        if (inventoryService.isHeldInMemory(store.getId())) {
+            if (!inventoryService.applyInMemoryChange(inventory, -quantity, 0, false, StockChangedEvent.Reason.SALE)) {
+                throw new IllegalArgumentException("Insufficient stock for item: " + item.getName() + 
+                    ". Available: " + inventoryService.getCurrentQuantity(inventory) + ", Requested: " + quantity);
+            }
+        } else if (inventory.isStriped() && hotStockService.takeStock(inventory, quantity)) {
+            int remaining = hotStockService.getCurrentQuantity(inventory);
+            eventPublisher.publishEvent(StockChangedEvent.of(inventory, remaining + quantity, remaining, StockChangedEvent.Reason.SALE));
+        } else {
+            // Row first, then its slots: no slot of this item is held by this transaction yet
+            hotStockService.lockForUpdate(inventory);
+            if (inventory.getQuantity() < quantity) {
+                throw new IllegalArgumentException("Insufficient stock for item: " + item.getName() + 
+                    ". Available: " + inventory.getQuantity() + ", Requested: " + quantity);
+            }
+            
+            // Update inventory
+            int previousQuantity = inventory.getQuantity();
+            inventory.setQuantity(inventory.getQuantity() - quantity);
+            inventoryRepository.save(inventory);
+            eventPublisher.publishEvent(StockChangedEvent.of(inventory, previousQuantity, StockChangedEvent.Reason.SALE));
+        }
+    }
+
     /**
      * Convert Sale entity to DTO.
      */
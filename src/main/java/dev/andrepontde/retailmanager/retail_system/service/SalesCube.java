@@ -0,0 +1,500 @@
+package dev.andrepontde.retailmanager.retail_system.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import dev.andrepontde.retailmanager.retail_system.dto.SalesAnalyticsDTO;
+import dev.andrepontde.retailmanager.retail_system.entity.Sale;
+import dev.andrepontde.retailmanager.retail_system.event.ItemChangedEvent;
+import dev.andrepontde.retailmanager.retail_system.event.SaleRecordedEvent;
+
+/**
+ * In-memory columnar store of sale lines for analytics (group-by/filter) queries.
+ *
+ * Every sale line is one fact stored across primitive column arrays: epoch minute, store,
+ * item (dictionary-encoded), payment method, quantity and amount in cents. Columns are
+ * split into fixed-size chunks that are only ever appended to, so queries scan them in
+ * parallel without locking; each chunk keeps its minute range so time filters skip whole
+ * chunks. Categories are looked up per item at query time (an item's current category).
+ *
+ * Sale lines of the last retail.sales-cube.history-days are loaded at startup; recorded
+ * sales and refunds are appended as they commit. Every night the chunks whose facts have
+ * all left that window are dropped (facts arrive roughly in time order, so those are the
+ * oldest chunks). Refunds are negative facts dated at the
+ * original sale. The load reads one snapshot started through SaleCommitGate, so sales and
+ * refunds committed while it runs are applied after it exactly when the snapshot missed them.
+ */
+@Service
+public class SalesCube {
+
+    private static final Logger log = LoggerFactory.getLogger(SalesCube.class);
+
+    static final int CHUNK_SIZE = 1 << 16;
+
+    private static final int LOAD_BATCH = 50_000;
+
+    private static final Sale.PaymentMethod[] PAYMENT_METHODS = Sale.PaymentMethod.values();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private SaleCommitGate saleCommitGate;
+
+    @Value("${retail.sales-cube.history-days:400}")
+    private int historyDays;
+
+    /**
+     * Dimensions a query can group by.
+     */
+    public enum Dimension {
+        STORE, ITEM, CATEGORY, PAYMENT, HOUR, DAY;
+
+        public static Dimension parse(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown dimension: " + value);
+            }
+        }
+    }
+
+    /**
+     * CHUNK_SIZE facts, one array per column. Rows below the cube's size are immutable.
+     */
+    private static final class Chunk {
+        final int[] minute = new int[CHUNK_SIZE];
+        final int[] store = new int[CHUNK_SIZE];
+        final int[] item = new int[CHUNK_SIZE];
+        final byte[] payment = new byte[CHUNK_SIZE];
+        final int[] quantity = new int[CHUNK_SIZE];
+        final long[] cents = new long[CHUNK_SIZE];
+        int minMinute = Integer.MAX_VALUE;
+        int maxMinute = Integer.MIN_VALUE;
+    }
+
+    // Facts; appends are serialized on this, readers see rows below size. Chunks below
+    // firstChunk have expired and are null
+    private volatile Chunk[] chunks = new Chunk[0];
+    private volatile int size;
+    private volatile int firstChunk;
+
+    // Dictionaries (codes assigned under the append lock, arrays replaced when they grow)
+    private final Map<Long, Integer> storeCodes = new HashMap<>();
+    private volatile long[] storeIds = new long[64];
+    private final Map<Long, Integer> itemCodes = new HashMap<>();
+    private volatile long[] itemIds = new long[1024];
+    private volatile int[] itemCategories = new int[1024];
+    private final Map<String, Integer> categoryCodes = new HashMap<>();
+    private volatile String[] categoryNames = new String[64];
+
+    // Sales and refunds committed after the load's snapshot, until the load has finished
+    private final List<SaleRecordedEvent> pending = new ArrayList<>();
+    private boolean loaded;
+
+    // ================================
+    // LOADING AND UPDATES
+    // ================================
+
+    /**
+     * Load recent sale lines in id-ordered batches from one snapshot, then apply the sales and
+     * refunds committed after it.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long start = System.currentTimeMillis();
+        TransactionTemplate snapshot = new TransactionTemplate(transactionManager);
+        snapshot.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        snapshot.executeWithoutResult(status -> loadSnapshot());
+
+        synchronized (pending) {
+            pending.forEach(this::apply);
+            pending.clear();
+            loaded = true;
+        }
+        log.info("Sales cube loaded {} sale lines in {} ms", size, System.currentTimeMillis() - start);
+    }
+
+    private void loadSnapshot() {
+        // Everything received so far is in the snapshot
+        saleCommitGate.startSnapshot(() -> {
+            synchronized (pending) {
+                pending.clear();
+            }
+        });
+        LocalDateTime since = LocalDateTime.now().minusDays(historyDays);
+        long[] cursor = {0}; // last sale item id
+        int fetched;
+        do {
+            List<Object[]> batch = new ArrayList<>(LOAD_BATCH);
+            jdbcTemplate.query(
+                "SELECT si.id, s.sale_date, s.store_id, s.payment_method, si.item_id, it.category, " +
+                "si.quantity, si.total_price FROM sale_item si JOIN sale s ON s.id = si.sale_id " +
+                "LEFT JOIN item it ON it.id = si.item_id " +
+                "WHERE si.id > ? AND s.sale_date >= ? ORDER BY si.id LIMIT ?",
+                (RowCallbackHandler) rs -> batch.add(new Object[] {
+                    rs.getLong(1), rs.getTimestamp(2).toLocalDateTime(), rs.getLong(3), rs.getString(4),
+                    rs.getLong(5), rs.getString(6), rs.getInt(7), rs.getDouble(8)
+                }),
+                cursor[0], since, LOAD_BATCH);
+            synchronized (this) {
+                for (Object[] row : batch) {
+                    cursor[0] = (Long) row[0];
+                    String payment = (String) row[3];
+                    append(toMinute((LocalDateTime) row[1]), (Long) row[2], (Long) row[4], (String) row[5],
+                           payment != null ? Sale.PaymentMethod.valueOf(payment).ordinal() : 0,
+                           (Integer) row[6], toCents((Double) row[7]));
+                }
+            }
+            fetched = batch.size();
+        } while (fetched == LOAD_BATCH);
+    }
+
+    /**
+     * Append a committed sale or refund.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSaleRecorded(SaleRecordedEvent event) {
+        synchronized (pending) {
+            if (!loaded) {
+                pending.add(event);
+                return;
+            }
+        }
+        apply(event);
+    }
+
+    /**
+     * Follow category changes of known items.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onItemChanged(ItemChangedEvent event) {
+        Integer code = itemCodes.get(event.getItemId());
+        if (code != null && !event.isDeleted()) {
+            itemCategories[code] = categoryCode(event.getCategory());
+        }
+    }
+
+    private synchronized void apply(SaleRecordedEvent event) {
+        int minute = toMinute(event.getSaleDate());
+        int payment = event.getPaymentMethod() != null ? event.getPaymentMethod().ordinal() : 0;
+        for (SaleRecordedEvent.Line line : event.getLines()) {
+            append(minute, event.getStoreId(), line.itemId(), line.category(), payment,
+                   line.quantity(), toCents(line.amount()));
+        }
+    }
+
+    /**
+     * Drop the full chunks whose facts are all older than history-days (scheduled).
+     *
+     * @return the number of facts dropped
+     */
+    @Scheduled(cron = "${retail.sales-cube.evict-cron:0 10 0 * * *}")
+    public synchronized int evictExpired() {
+        int cutoff = toMinute(LocalDateTime.now().minusDays(historyDays));
+        Chunk[] current = chunks;
+        // The chunk being appended to stays, even when it only holds expired facts
+        int fullChunks = size / CHUNK_SIZE;
+        int evicted = 0;
+        for (int index = firstChunk; index < fullChunks; index++) {
+            if (current[index].maxMinute >= cutoff) {
+                break;
+            }
+            current[index] = null;
+            firstChunk = index + 1;
+            evicted++;
+        }
+        if (evicted > 0) {
+            log.info("Sales cube dropped {} expired sale lines", (long) evicted * CHUNK_SIZE);
+        }
+        return evicted * CHUNK_SIZE;
+    }
+
+    /**
+     * Append one fact. Callers hold the lock on this.
+     */
+    private void append(int minute, long storeId, long itemId, String category, int payment, int quantity, long cents) {
+        int index = size;
+        int chunkIndex = index / CHUNK_SIZE;
+        int offset = index % CHUNK_SIZE;
+        Chunk[] current = chunks;
+        if (chunkIndex == current.length) {
+            current = Arrays.copyOf(current, chunkIndex + 1);
+            current[chunkIndex] = new Chunk();
+            chunks = current;
+        }
+        Chunk chunk = current[chunkIndex];
+        chunk.minute[offset] = minute;
+        chunk.store[offset] = storeCode(storeId);
+        chunk.item[offset] = itemCode(itemId, category);
+        chunk.payment[offset] = (byte) payment;
+        chunk.quantity[offset] = quantity;
+        chunk.cents[offset] = cents;
+        chunk.minMinute = Math.min(chunk.minMinute, minute);
+        chunk.maxMinute = Math.max(chunk.maxMinute, minute);
+        // Publishes the row (and any grown arrays) to readers
+        size = index + 1;
+    }
+
+    private int storeCode(long storeId) {
+        Integer code = storeCodes.get(storeId);
+        if (code == null) {
+            code = storeCodes.size();
+            if (code == storeIds.length) {
+                storeIds = Arrays.copyOf(storeIds, code * 2);
+            }
+            storeIds[code] = storeId;
+            storeCodes.put(storeId, code);
+        }
+        return code;
+    }
+
+    private int itemCode(long itemId, String category) {
+        Integer code = itemCodes.get(itemId);
+        if (code == null) {
+            code = itemCodes.size();
+            if (code == itemIds.length) {
+                itemIds = Arrays.copyOf(itemIds, code * 2);
+                itemCategories = Arrays.copyOf(itemCategories, code * 2);
+            }
+            itemIds[code] = itemId;
+            itemCategories[code] = categoryCode(category);
+            itemCodes.put(itemId, code);
+        }
+        return code;
+    }
+
+    private int categoryCode(String category) {
+        String name = category != null ? category : "Uncategorized";
+        Integer code = categoryCodes.get(name);
+        if (code == null) {
+            code = categoryCodes.size();
+            if (code == categoryNames.length) {
+                categoryNames = Arrays.copyOf(categoryNames, code * 2);
+            }
+            categoryNames[code] = name;
+            categoryCodes.put(name, code);
+        }
+        return code;
+    }
+
+    // ================================
+    // QUERIES
+    // ================================
+
+    /**
+     * Sum quantity and revenue of the sale lines between two dates (inclusive), optionally of
+     * one store, grouped by up to two dimensions. Rows are sorted by revenue, highest first.
+     *
+     * @param storeId store to filter on, or null for all stores
+     * @param limit maximum number of rows, 0 for all
+     */
+    public SalesAnalyticsDTO query(Long storeId, LocalDateTime startDate, LocalDateTime endDate,
+                                   List<Dimension> groupBy, int limit) {
+        if (groupBy.size() > 2) {
+            throw new IllegalArgumentException("At most two dimensions can be grouped by");
+        }
+        // Read size first: everything below it (chunks, dictionaries) is fully written
+        int rows = size;
+        Chunk[] facts = chunks;
+        int from = firstChunk;
+        int[] categories = itemCategories;
+        int fromMinute = toMinute(startDate);
+        int toMinute = toMinute(endDate);
+        Integer storeCode = -1;
+        if (storeId != null) {
+            synchronized (this) {
+                storeCode = storeCodes.get(storeId);
+            }
+        }
+
+        SalesAnalyticsDTO result = new SalesAnalyticsDTO();
+        result.setStoreId(storeId);
+        result.setStartDate(startDate);
+        result.setEndDate(endDate);
+        groupBy.forEach(dimension -> result.getGroupBy().add(dimension.name().toLowerCase(Locale.ROOT)));
+        if (storeCode == null) {
+            return result; // no sales recorded for the store
+        }
+        int store = storeCode;
+
+        Dimension first = groupBy.isEmpty() ? null : groupBy.get(0);
+        Dimension second = groupBy.size() > 1 ? groupBy.get(1) : null;
+        int chunkCount = (rows + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        GroupTable groups = IntStream.range(from, chunkCount).parallel()
+            .mapToObj(index -> scan(facts[index], Math.min(CHUNK_SIZE, rows - index * CHUNK_SIZE),
+                                    store, fromMinute, toMinute, first, second, categories))
+            .reduce(GroupTable::merge)
+            .orElseGet(GroupTable::new);
+
+        List<SalesAnalyticsDTO.Row> resultRows = new ArrayList<>();
+        long totalQuantity = 0;
+        long totalCents = 0;
+        for (int slot = 0; slot < groups.keys.length; slot++) {
+            if (!groups.used[slot]) {
+                continue;
+            }
+            SalesAnalyticsDTO.Row row = new SalesAnalyticsDTO.Row();
+            if (first != null) {
+                row.getGroup().put(result.getGroupBy().get(0), label(first, (int) (groups.keys[slot] >>> 32)));
+            }
+            if (second != null) {
+                row.getGroup().put(result.getGroupBy().get(1), label(second, (int) groups.keys[slot]));
+            }
+            row.setQuantity(groups.quantities[slot]);
+            row.setRevenue(groups.cents[slot] / 100.0);
+            totalQuantity += groups.quantities[slot];
+            totalCents += groups.cents[slot];
+            resultRows.add(row);
+        }
+        resultRows.sort(Comparator.comparingDouble(SalesAnalyticsDTO.Row::getRevenue).reversed());
+        result.setRows(limit > 0 && resultRows.size() > limit ? new ArrayList<>(resultRows.subList(0, limit)) : resultRows);
+        result.setTotalQuantity(totalQuantity);
+        result.setTotalRevenue(totalCents / 100.0);
+        return result;
+    }
+
+    /**
+     * Aggregate the matching facts of one chunk (null once it has expired).
+     */
+    private static GroupTable scan(Chunk chunk, int length, int store, int fromMinute, int toMinute,
+                                   Dimension first, Dimension second, int[] categories) {
+        GroupTable groups = new GroupTable();
+        if (chunk == null || chunk.maxMinute < fromMinute || chunk.minMinute > toMinute) {
+            return groups;
+        }
+        for (int i = 0; i < length; i++) {
+            int minute = chunk.minute[i];
+            if (minute < fromMinute || minute > toMinute || (store >= 0 && chunk.store[i] != store)) {
+                continue;
+            }
+            long key = ((long) code(first, chunk, i, categories) << 32) | (code(second, chunk, i, categories) & 0xFFFFFFFFL);
+            groups.add(key, chunk.quantity[i], chunk.cents[i]);
+        }
+        return groups;
+    }
+
+    private static int code(Dimension dimension, Chunk chunk, int i, int[] categories) {
+        if (dimension == null) {
+            return 0;
+        }
+        return switch (dimension) {
+            case STORE -> chunk.store[i];
+            case ITEM -> chunk.item[i];
+            case CATEGORY -> categories[chunk.item[i]];
+            case PAYMENT -> chunk.payment[i];
+            case HOUR -> (chunk.minute[i] / 60) % 24;
+            case DAY -> chunk.minute[i] / (60 * 24);
+        };
+    }
+
+    private String label(Dimension dimension, int code) {
+        return switch (dimension) {
+            case STORE -> String.valueOf(storeIds[code]);
+            case ITEM -> String.valueOf(itemIds[code]);
+            case CATEGORY -> categoryNames[code];
+            case PAYMENT -> PAYMENT_METHODS[code].name();
+            case HOUR -> String.valueOf(code);
+            case DAY -> LocalDate.ofEpochDay(code).toString();
+        };
+    }
+
+    /**
+     * Open-addressing map from a group key to its quantity and cents sums.
+     */
+    private static final class GroupTable {
+        long[] keys = new long[16];
+        boolean[] used = new boolean[16];
+        long[] quantities = new long[16];
+        long[] cents = new long[16];
+        int count;
+
+        void add(long key, long quantity, long amount) {
+            int mask = keys.length - 1;
+            int slot = Long.hashCode(key * 0x9E3779B97F4A7C15L) & mask;
+            while (used[slot] && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            if (!used[slot]) {
+                used[slot] = true;
+                keys[slot] = key;
+                count++;
+            }
+            quantities[slot] += quantity;
+            cents[slot] += amount;
+            if (count * 2 > keys.length) {
+                grow();
+            }
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            boolean[] oldUsed = used;
+            long[] oldQuantities = quantities;
+            long[] oldCents = cents;
+            keys = new long[oldKeys.length * 2];
+            used = new boolean[keys.length];
+            quantities = new long[keys.length];
+            cents = new long[keys.length];
+            count = 0;
+            for (int slot = 0; slot < oldKeys.length; slot++) {
+                if (oldUsed[slot]) {
+                    add(oldKeys[slot], oldQuantities[slot], oldCents[slot]);
+                }
+            }
+        }
+
+        GroupTable merge(GroupTable other) {
+            GroupTable target = count >= other.count ? this : other;
+            GroupTable source = target == this ? other : this;
+            for (int slot = 0; slot < source.keys.length; slot++) {
+                if (source.used[slot]) {
+                    target.add(source.keys[slot], source.quantities[slot], source.cents[slot]);
+                }
+            }
+            return target;
+        }
+    }
+
+    // ================================
+    // HELPER METHODS
+    // ================================
+
+    /**
+     * Minutes since the epoch of a local date-time (sale dates are local, so no zone shift).
+     */
+    private static int toMinute(LocalDateTime dateTime) {
+        return (int) (dateTime.toEpochSecond(ZoneOffset.UTC) / 60);
+    }
+
+    private static long toCents(double amount) {
+        return Math.round(amount * 100);
+    }
+}
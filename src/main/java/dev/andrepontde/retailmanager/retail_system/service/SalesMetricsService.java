@@ -0,0 +1,55 @@
+package dev.andrepontde.retailmanager.retail_system.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import dev.andrepontde.retailmanager.retail_system.event.SaleRecordedEvent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Service class for business counters exported as metrics.
+ *
+ * This service handles:
+ * - retail.sales: committed sales, by store and payment method
+ * - retail.sale.units: units sold, by store
+ * - retail.refunds: committed refunds, by store and payment method
+ * - retail.refund.units: units refunded, by store
+ *
+ * Counters only move after the sale's transaction commits, so rolled back sales never count.
+ */
+@Service
+public class SalesMetricsService {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSaleRecorded(SaleRecordedEvent event) {
+        String store = String.valueOf(event.getStoreId());
+        String payment = event.getPaymentMethod() != null ? event.getPaymentMethod().name() : "UNKNOWN";
+
+        int units = 0;
+        for (SaleRecordedEvent.Line line : event.getLines()) {
+            units += Math.abs(line.quantity());
+        }
+
+        if (event.isRefund()) {
+            counter("retail.refunds", "Refunds recorded", store, payment).increment();
+            counter("retail.refund.units", "Units refunded", store, null).increment(units);
+        } else {
+            counter("retail.sales", "Sales recorded", store, payment).increment();
+            counter("retail.sale.units", "Units sold", store, null).increment(units);
+        }
+    }
+
+    private Counter counter(String name, String description, String store, String payment) {
+        Counter.Builder builder = Counter.builder(name).description(description).tag("store", store);
+        if (payment != null) {
+            builder.tag("payment", payment);
+        }
+        return builder.register(meterRegistry);
+    }
+}
@@ -0,0 +1,158 @@
+package dev.andrepontde.retailmanager.retail_system.service;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import dev.andrepontde.retailmanager.retail_system.event.StockChangedEvent;
+
+/**
+ * In-memory item -> per-store stock matrix for cross-store availability lookups.
+ *
+ * Each cached item holds its stores' quantities in small sorted primitive arrays and is
+ * replaced copy-on-write, so reads never lock. Committed stock changes are applied
+ * incrementally; a change whose previous quantity does not match the cached one (a missed
+ * or reordered update) drops the item instead, and every item is reloaded after the TTL.
+ * Loading is done by InventoryService.
+ */
+@Service
+public class StockAvailabilityCache {
+
+    @Value("${retail.availability-cache.max-items:100000}")
+    private int maxItems;
+
+    @Value("${retail.availability-cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    private final Map<Long, ItemStock> items = new ConcurrentHashMap<>();
+
+    /**
+     * Stock of one item in every store that has a row for it, sorted by store id.
+     */
+    public static final class ItemStock {
+        private final long[] storeIds;
+        private final int[] quantities;
+        private final int[] reserved;
+        private final long loadedAt;
+
+        public ItemStock(long[] storeIds, int[] quantities, int[] reserved) {
+            this(storeIds, quantities, reserved, System.nanoTime());
+        }
+
+        private ItemStock(long[] storeIds, int[] quantities, int[] reserved, long loadedAt) {
+            this.storeIds = storeIds;
+            this.quantities = quantities;
+            this.reserved = reserved;
+            this.loadedAt = loadedAt;
+        }
+
+        public int size() { return storeIds.length; }
+        public long getStoreId(int index) { return storeIds[index]; }
+        public int getQuantity(int index) { return quantities[index]; }
+        public int getReservedQuantity(int index) { return reserved[index]; }
+
+        /**
+         * Copy with the stock of one store set (inserted in store order if new).
+         * Keeps the load time, so incremental updates never extend the TTL.
+         */
+        ItemStock with(long storeId, int quantity, int reservedQuantity) {
+            int index = Arrays.binarySearch(storeIds, storeId);
+            if (index >= 0) {
+                int[] newQuantities = quantities.clone();
+                int[] newReserved = reserved.clone();
+                newQuantities[index] = quantity;
+                newReserved[index] = reservedQuantity;
+                return new ItemStock(storeIds, newQuantities, newReserved, loadedAt);
+            }
+            int insert = -index - 1;
+            int length = storeIds.length + 1;
+            long[] newStoreIds = new long[length];
+            int[] newQuantities = new int[length];
+            int[] newReserved = new int[length];
+            System.arraycopy(storeIds, 0, newStoreIds, 0, insert);
+            System.arraycopy(quantities, 0, newQuantities, 0, insert);
+            System.arraycopy(reserved, 0, newReserved, 0, insert);
+            newStoreIds[insert] = storeId;
+            newQuantities[insert] = quantity;
+            newReserved[insert] = reservedQuantity;
+            System.arraycopy(storeIds, insert, newStoreIds, insert + 1, storeIds.length - insert);
+            System.arraycopy(quantities, insert, newQuantities, insert + 1, storeIds.length - insert);
+            System.arraycopy(reserved, insert, newReserved, insert + 1, storeIds.length - insert);
+            return new ItemStock(newStoreIds, newQuantities, newReserved, loadedAt);
+        }
+
+        int quantityOf(long storeId) {
+            int index = Arrays.binarySearch(storeIds, storeId);
+            return index >= 0 ? quantities[index] : 0;
+        }
+    }
+
+    // ================================
+    // LOOKUPS
+    // ================================
+
+    /**
+     * Cached stock of an item, or null when it is not cached or has expired.
+     */
+    public ItemStock get(Long itemId) {
+        ItemStock stock = items.get(itemId);
+        if (stock == null) {
+            return null;
+        }
+        if (System.nanoTime() - stock.loadedAt > TimeUnit.SECONDS.toNanos(ttlSeconds)) {
+            items.remove(itemId, stock);
+            return null;
+        }
+        return stock;
+    }
+
+    /**
+     * Cache freshly loaded stock of an item.
+     */
+    public void put(Long itemId, ItemStock stock) {
+        if (items.size() >= maxItems) {
+            // Bounded size: drop an arbitrary entry; hot items are reloaded on their next lookup
+            Iterator<Long> keys = items.keySet().iterator();
+            if (keys.hasNext()) {
+                items.remove(keys.next());
+            }
+        }
+        items.put(itemId, stock);
+    }
+
+    /**
+     * Forget an item (e.g. after it was deleted).
+     */
+    public void evict(Long itemId) {
+        items.remove(itemId);
+    }
+
+    /**
+     * Forget every item (e.g. after changes made on other nodes may have been missed).
+     */
+    public void clear() {
+        items.clear();
+    }
+
+    // ================================
+    // EVENT HANDLING
+    // ================================
+
+    /**
+     * Apply a committed stock change to the cached item, if it is cached.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        long storeId = event.getStoreId();
+        items.computeIfPresent(event.getItemId(), (itemId, stock) ->
+            stock.quantityOf(storeId) == event.getPreviousQuantity()
+                ? stock.with(storeId, event.getQuantity(), event.getReservedQuantity())
+                : null);
+    }
+}
@@ -0,0 +1,807 @@
+package dev.andrepontde.retailmanager.retail_system.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import dev.andrepontde.retailmanager.retail_system.entity.Inventory;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * In-memory stock engine for the largest stores (retail.stock-engine.store-ids).
+ *
+ * For these stores quantity and reserved stock are held in memory and are authoritative:
+ * - Each store's stock sits in lock-striped open-addressing tables of primitive arrays keyed by item id
+ * - Checks and decrements are conditional updates under one stripe lock, with no database round trip
+ * - A change stays pending with its transaction: the transaction sees it, others only see it held
+ *   against the checks (decreases count as made, increases as not made) until it commits
+ * - Each transaction's changes are journaled locally and forced to disk before it commits; once it
+ *   has committed they are published to the committed stock, and a rollback just drops them
+ * - A write-behind flusher batch-updates the Inventory rows with committed stock only and then drops
+ *   the journal it covered
+ * - On startup the stores are loaded from the inventory table and the journal is replayed on top
+ *
+ * Locks are ReentrantLocks rather than monitors, as in StockJournal: a virtual thread that blocks
+ * on a monitor (or does journal I/O while holding one) pins its carrier thread.
+ *
+ * Inventory rows stay the source of item, store and min/max levels, and of stock for all other
+ * stores. The engine is per node: only enable it for stores whose tills are served by one node.
+ * Used through InventoryService.
+ */
+@Service
+@DependsOnDatabaseInitialization
+public class StockEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(StockEngine.class);
+
+    private static final int FLUSH_BATCH_SIZE = 500;
+
+    /**
+     * How long a flush waits for transactions that were committing while it rotated the journal.
+     */
+    private static final long PREPARED_WAIT_MS = 5000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private InventoryVersionService inventoryVersionService;
+
+    @Value("${retail.stock-engine.store-ids:}")
+    private Set<Long> storeIds;
+
+    @Value("${retail.stock-engine.journal-dir:data/stock-journal}")
+    private String journalDir;
+
+    @Value("${retail.stock-engine.stripes:64}")
+    private int stripes;
+
+    private final Map<Long, StoreStock> stores = new ConcurrentHashMap<>();
+
+    /**
+     * Transactions whose changes are in the journal but whose outcome is not published yet.
+     */
+    private final Map<Long, CountDownLatch> preparedTransactions = new ConcurrentHashMap<>();
+
+    /**
+     * Journal transaction ids, seeded from the clock so they do not repeat those of a previous run.
+     */
+    private final AtomicLong transactionIds = new AtomicLong(System.currentTimeMillis() * 1000);
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private StockJournal journal;
+
+    /**
+     * Stock of a row before and after a change made by the engine, as seen by its transaction.
+     */
+    public record Change(int previousQuantity, int quantity, int reservedQuantity) {}
+
+    private record FlushEntry(long storeId, long itemId, long inventoryId, int quantity, int reservedQuantity) {}
+
+    private record RowKey(long storeId, long itemId) {}
+
+    // ================================
+    // LIFECYCLE
+    // ================================
+
+    /**
+     * Load the configured stores and replay what the previous run had not flushed yet.
+     * Runs before the web server accepts requests.
+     */
+    @PostConstruct
+    public void start() throws IOException {
+        if (storeIds.isEmpty()) {
+            return;
+        }
+        journal = new StockJournal(Path.of(journalDir));
+        for (Long storeId : storeIds) {
+            stores.put(storeId, loadStore(storeId));
+        }
+
+        // Stores removed from the configuration are replayed too, so their last changes still reach the table
+        Map<Long, Map<RowKey, StockJournal.Entry>> unresolved = new HashMap<>();
+        int replayed = journal.replay(entry -> {
+            switch (entry.type()) {
+                case STOCK -> {
+                    stores.computeIfAbsent(entry.storeId(), this::loadStore)
+                          .restore(entry.itemId(), entry.inventoryId(), entry.quantity(), entry.reservedQuantity());
+                    Map<RowKey, StockJournal.Entry> rows = unresolved.get(entry.transactionId());
+                    if (rows != null) {
+                        rows.remove(new RowKey(entry.storeId(), entry.itemId()));
+                    }
+                }
+                case PREPARE -> unresolved.computeIfAbsent(entry.transactionId(), id -> new LinkedHashMap<>())
+                                          .put(new RowKey(entry.storeId(), entry.itemId()), entry);
+                case ABORT -> unresolved.remove(entry.transactionId());
+            }
+        });
+        // Prepared but never published: the process died around the commit. The database may hold the
+        // transaction's sale or receipt, so its change is presumed committed (an ABORT record says otherwise).
+        unresolved.values().forEach(rows -> rows.values().forEach(entry -> stores
+                .computeIfAbsent(entry.storeId(), this::loadStore)
+                .restoreChange(entry.itemId(), entry.quantity(), entry.reservedQuantity())));
+        flush();
+        stores.keySet().retainAll(storeIds);
+        log.info("Stock engine holding stores {} in memory ({} journal records replayed)", storeIds, replayed);
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        if (journal == null) {
+            return;
+        }
+        flush();
+        journal.close();
+    }
+
+    /**
+     * Whether the stock of a store is held by the engine.
+     */
+    public boolean owns(Long storeId) {
+        return storeId != null && stores.containsKey(storeId);
+    }
+
+    /**
+     * Ids of the stores held by the engine.
+     */
+    public Set<Long> getOwnedStoreIds() {
+        return Set.copyOf(stores.keySet());
+    }
+
+    // ================================
+    // READS
+    // ================================
+
+    // Reads return committed stock plus the pending changes of the current transaction
+
+    /**
+     * Current quantity of an inventory row of an owned store.
+     */
+    public int getQuantity(Inventory inventory) {
+        Pending pending = pendingOf(inventory.getStore().getId(), inventory.getItem().getId());
+        Stripe stripe = stripeOf(inventory);
+        stripe.lock.lock();
+        try {
+            return stripe.quantities[stripe.load(inventory)] + (pending != null ? pending.quantityDelta : 0);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Current reserved quantity of an inventory row of an owned store.
+     */
+    public int getReservedQuantity(Inventory inventory) {
+        Pending pending = pendingOf(inventory.getStore().getId(), inventory.getItem().getId());
+        Stripe stripe = stripeOf(inventory);
+        stripe.lock.lock();
+        try {
+            return stripe.reserved[stripe.load(inventory)] + (pending != null ? pending.reservedDelta : 0);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Current quantity and reserved quantity of an item in an owned store, or null when the
+     * engine has not seen the row yet (its table values are then current).
+     */
+    public int[] getStock(long storeId, long itemId) {
+        StoreStock stock = stores.get(storeId);
+        if (stock == null) {
+            return null;
+        }
+        Pending pending = pendingOf(storeId, itemId);
+        Stripe stripe = stock.stripe(itemId);
+        stripe.lock.lock();
+        try {
+            int index = stripe.indexOf(itemId);
+            if (index < 0) {
+                return null;
+            }
+            return pending != null
+                    ? new int[] { stripe.quantities[index] + pending.quantityDelta, stripe.reserved[index] + pending.reservedDelta }
+                    : new int[] { stripe.quantities[index], stripe.reserved[index] };
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Current available quantity (quantity - reserved) of an item in an owned store, or the
+     * given fallback when the engine has not seen the row yet (its table values are then current).
+     */
+    public int getAvailableQuantity(long storeId, long itemId, int fallback) {
+        int[] stock = getStock(storeId, itemId);
+        return stock != null ? stock[0] - stock[1] : fallback;
+    }
+
+    // ================================
+    // CHANGES
+    // ================================
+
+    /**
+     * Change the stock of an inventory row of an owned store if the result stays valid.
+     * Quantity and reserved quantity may never go below zero; with keepReserved the
+     * available quantity (quantity - reserved) may not either. The check assumes the worst
+     * outcome of other open transactions, so whichever of them commit the stock stays valid.
+     *
+     * Inside a transaction the change is published when it commits and dropped when it
+     * rolls back; outside of one it is published right away.
+     *
+     * @return the change, or null when the condition failed and nothing was changed
+     */
+    public Change apply(Inventory inventory, int quantityDelta, int reservedDelta, boolean keepReserved) {
+        long storeId = inventory.getStore().getId();
+        long itemId = inventory.getItem().getId();
+        Stripe stripe = stripeOf(inventory);
+        Transaction transaction = TransactionSynchronizationManager.isSynchronizationActive() ? currentTransaction() : null;
+        Pending pending = transaction != null ? transaction.rows.get(new RowKey(storeId, itemId)) : null;
+        Change change;
+        stripe.lock.lock();
+        try {
+            int index = stripe.load(inventory);
+            int quantity = stripe.quantities[index];
+            int reservedQuantity = stripe.reserved[index];
+            int lowQuantity = quantity - stripe.held[index] + Math.min(quantityDelta, 0);
+            int lowReserved = reservedQuantity - stripe.releasing[index] + Math.min(reservedDelta, 0);
+            int highReserved = reservedQuantity + stripe.reserving[index] + Math.max(reservedDelta, 0);
+            if (lowQuantity < 0 || lowReserved < 0 || (keepReserved && lowQuantity < highReserved)) {
+                return null;
+            }
+
+            if (transaction == null) {
+                // Journal first: a change that cannot be made durable is not made at all
+                append(StockJournal.Entry.stock(transactionIds.incrementAndGet(), storeId, itemId,
+                        stripe.inventoryIds[index], quantity + quantityDelta, reservedQuantity + reservedDelta));
+                stripe.quantities[index] = quantity + quantityDelta;
+                stripe.reserved[index] = reservedQuantity + reservedDelta;
+                stripe.dirty[index] = true;
+                change = new Change(quantity, quantity + quantityDelta, reservedQuantity + reservedDelta);
+            } else {
+                if (pending == null) {
+                    pending = new Pending(stripe.inventoryIds[index]);
+                    transaction.rows.put(new RowKey(storeId, itemId), pending);
+                }
+                int previousQuantity = quantity + pending.quantityDelta;
+                pending.add(quantityDelta, reservedDelta);
+                stripe.held[index] += Math.max(-quantityDelta, 0);
+                stripe.releasing[index] += Math.max(-reservedDelta, 0);
+                stripe.reserving[index] += Math.max(reservedDelta, 0);
+                return new Change(previousQuantity, quantity + pending.quantityDelta, reservedQuantity + pending.reservedDelta);
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+        syncJournal();
+        return change;
+    }
+
+    // ================================
+    // WRITE-BEHIND
+    // ================================
+
+    /**
+     * Write changed committed stock to the inventory table in JDBC batches (scheduled).
+     * The journal is rotated first, so every record in the older segments belongs to a row
+     * that is read below; those segments are deleted once the update has committed.
+     * Transactions prepared into them are waited for first, so the rows read hold their
+     * outcome; if one does not finish in time the segments are kept for a later flush.
+     */
+    @Scheduled(fixedDelayString = "${retail.stock-engine.flush-ms:500}")
+    public void flush() {
+        if (journal == null) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            flushJournal();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // ================================
+    // HELPER METHODS
+    // ================================
+
+    private void flushJournal() {
+        List<Path> covered;
+        try {
+            covered = journal.rotate();
+        } catch (IOException e) {
+            log.warn("Stock journal rotation failed: {}", e.getMessage());
+            return;
+        }
+        boolean settled = awaitPrepared(new ArrayList<>(preparedTransactions.values()));
+
+        List<FlushEntry> pending = new ArrayList<>();
+        stores.values().forEach(stock -> stock.drainDirty(pending));
+        if (!pending.isEmpty()) {
+            try {
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> write(pending));
+            } catch (RuntimeException e) {
+                log.warn("Stock engine flush of {} rows failed: {}", pending.size(), e.getMessage());
+                pending.forEach(entry -> {
+                    StoreStock stock = stores.get(entry.storeId());
+                    if (stock != null) {
+                        stock.markDirty(entry.itemId());
+                    }
+                });
+                return;
+            }
+        }
+        if (settled) {
+            journal.delete(covered);
+        }
+    }
+
+    private void write(List<FlushEntry> pending) {
+        for (int start = 0; start < pending.size(); start += FLUSH_BATCH_SIZE) {
+            List<FlushEntry> chunk = pending.subList(start, Math.min(start + FLUSH_BATCH_SIZE, pending.size()));
+            List<Long> versions = inventoryVersionService.nextVersions(chunk.size());
+            List<Object[]> args = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                FlushEntry entry = chunk.get(i);
+                args.add(new Object[] { entry.quantity(), entry.reservedQuantity(), versions.get(i), entry.inventoryId() });
+            }
+            int[] counts = jdbcTemplate.batchUpdate(
+                "UPDATE inventory SET quantity = ?, reserved_quantity = ?, change_version = ? WHERE id = ?", args);
+
+            // A row that no longer exists was deleted with its item; stop tracking it
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 0) {
+                    FlushEntry entry = chunk.get(i);
+                    StoreStock stock = stores.get(entry.storeId());
+                    if (stock != null) {
+                        stock.evict(entry.itemId(), entry.inventoryId());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Journal a transaction's pending changes and force them to disk (before it commits).
+     */
+    private void prepare(Transaction transaction) {
+        // Registered before the first record, so a flush rotating past it waits for the outcome
+        preparedTransactions.put(transaction.id, transaction.completed);
+        transaction.prepared = true;
+        transaction.rows.forEach((key, pending) -> append(StockJournal.Entry.prepare(transaction.id,
+                key.storeId(), key.itemId(), pending.inventoryId, pending.quantityDelta, pending.reservedDelta)));
+        syncJournal();
+    }
+
+    /**
+     * Release a transaction's holds and, if it committed, publish its changes (after it completed).
+     */
+    private void complete(Transaction transaction, boolean committed) {
+        try {
+            transaction.rows.forEach((key, pending) -> {
+                StoreStock stock = stores.get(key.storeId());
+                if (stock == null) {
+                    return;
+                }
+                Stripe stripe = stock.stripe(key.itemId());
+                stripe.lock.lock();
+                try {
+                    int index = stripe.indexOf(key.itemId());
+                    if (index < 0 || stripe.inventoryIds[index] != pending.inventoryId) {
+                        return;
+                    }
+                    stripe.held[index] -= pending.held;
+                    stripe.releasing[index] -= pending.releasing;
+                    stripe.reserving[index] -= pending.reserving;
+                    if (!committed) {
+                        return;
+                    }
+                    stripe.quantities[index] += pending.quantityDelta;
+                    stripe.reserved[index] += pending.reservedDelta;
+                    stripe.dirty[index] = true;
+                    // Not forced: until it is on disk, replay publishes the durable PREPARE record instead
+                    try {
+                        journal.append(StockJournal.Entry.stock(transaction.id, key.storeId(), key.itemId(),
+                                pending.inventoryId, stripe.quantities[index], stripe.reserved[index]));
+                    } catch (IOException e) {
+                        log.warn("Stock journal could not record commit of item {} in store {}: {}",
+                                key.itemId(), key.storeId(), e.getMessage());
+                    }
+                } finally {
+                    stripe.lock.unlock();
+                }
+            });
+            if (!committed && transaction.prepared) {
+                // Forced: otherwise a crash would presume the prepared transaction committed
+                try {
+                    journal.append(StockJournal.Entry.abort(transaction.id));
+                    journal.sync();
+                } catch (IOException e) {
+                    log.warn("Stock journal could not record rollback of transaction {}: {}", transaction.id, e.getMessage());
+                }
+            }
+        } finally {
+            preparedTransactions.remove(transaction.id);
+            transaction.completed.countDown();
+        }
+    }
+
+    private boolean awaitPrepared(List<CountDownLatch> prepared) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(PREPARED_WAIT_MS);
+        try {
+            for (CountDownLatch completed : prepared) {
+                if (!completed.await(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                    log.warn("Stock journal segments kept: a transaction is still committing after {} ms", PREPARED_WAIT_MS);
+                    return false;
+                }
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * The engine's synchronization of the current transaction, registered on its first change.
+     * Looked up in the transaction's synchronizations, so a suspended outer transaction is not found.
+     */
+    private Transaction currentTransaction() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof Transaction transaction && transaction.engine() == this) {
+                return transaction;
+            }
+        }
+        Transaction transaction = new Transaction();
+        TransactionSynchronizationManager.registerSynchronization(transaction);
+        return transaction;
+    }
+
+    private Pending pendingOf(long storeId, long itemId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof Transaction transaction && transaction.engine() == this) {
+                return transaction.rows.get(new RowKey(storeId, itemId));
+            }
+        }
+        return null;
+    }
+
+    private void append(StockJournal.Entry entry) {
+        try {
+            journal.append(entry);
+        } catch (IOException e) {
+            throw new RuntimeException("Stock journal could not be written", e);
+        }
+    }
+
+    private void syncJournal() {
+        try {
+            journal.sync();
+        } catch (IOException e) {
+            throw new RuntimeException("Stock journal could not be synced", e);
+        }
+    }
+
+    private Stripe stripeOf(Inventory inventory) {
+        StoreStock stock = stores.get(inventory.getStore().getId());
+        if (stock == null) {
+            throw new RuntimeException("Store " + inventory.getStore().getId() + " is not held by the stock engine");
+        }
+        return stock.stripe(inventory.getItem().getId());
+    }
+
+    private StoreStock loadStore(Long storeId) {
+        StoreStock stock = new StoreStock(storeId, stripes);
+        jdbcTemplate.query("SELECT id, item_id, quantity, reserved_quantity FROM inventory WHERE store_id = ?",
+            (RowCallbackHandler) rs -> stock.stripe(rs.getLong("item_id")).put(
+                rs.getLong("item_id"), rs.getLong("id"), rs.getInt("quantity"), rs.getInt("reserved_quantity"), false),
+            storeId);
+        return stock;
+    }
+
+    private static long mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 29);
+    }
+
+    /**
+     * Pending changes of one transaction, keyed by row, and its commit hooks.
+     */
+    private final class Transaction implements TransactionSynchronization {
+        private final long id = transactionIds.incrementAndGet();
+        private final Map<RowKey, Pending> rows = new LinkedHashMap<>();
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private boolean prepared;
+
+        StockEngine engine() {
+            return StockEngine.this;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            prepare(this);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            complete(this, status == STATUS_COMMITTED);
+        }
+    }
+
+    /**
+     * Net change of one row in a transaction, and the parts of it held against other transactions' checks.
+     */
+    private static final class Pending {
+        private final long inventoryId;
+        private int quantityDelta;
+        private int reservedDelta;
+        private int held;
+        private int releasing;
+        private int reserving;
+
+        Pending(long inventoryId) {
+            this.inventoryId = inventoryId;
+        }
+
+        void add(int quantityChange, int reservedChange) {
+            quantityDelta += quantityChange;
+            reservedDelta += reservedChange;
+            held += Math.max(-quantityChange, 0);
+            releasing += Math.max(-reservedChange, 0);
+            reserving += Math.max(reservedChange, 0);
+        }
+    }
+
+    /**
+     * Stock of one store, split over a power-of-two number of independently locked stripes.
+     */
+    private static final class StoreStock {
+        private final long storeId;
+        private final Stripe[] stripes;
+
+        StoreStock(long storeId, int stripeCount) {
+            this.storeId = storeId;
+            int size = Integer.highestOneBit(Math.max(1, Math.min(stripeCount, 1 << 16)));
+            this.stripes = new Stripe[size];
+            for (int i = 0; i < size; i++) {
+                stripes[i] = new Stripe();
+            }
+        }
+
+        Stripe stripe(long itemId) {
+            // High bits pick the stripe, low bits the slot inside it
+            return stripes[(int) (mix(itemId) >>> 48) & (stripes.length - 1)];
+        }
+
+        void restore(long itemId, long inventoryId, int quantity, int reservedQuantity) {
+            Stripe stripe = stripe(itemId);
+            stripe.lock.lock();
+            try {
+                stripe.put(itemId, inventoryId, quantity, reservedQuantity, true);
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+
+        /**
+         * Add the change of a transaction that was prepared but whose outcome was never journaled.
+         */
+        void restoreChange(long itemId, int quantityDelta, int reservedDelta) {
+            Stripe stripe = stripe(itemId);
+            stripe.lock.lock();
+            try {
+                int index = stripe.indexOf(itemId);
+                if (index >= 0) {
+                    stripe.quantities[index] += quantityDelta;
+                    stripe.reserved[index] += reservedDelta;
+                    stripe.dirty[index] = true;
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+
+        void markDirty(long itemId) {
+            Stripe stripe = stripe(itemId);
+            stripe.lock.lock();
+            try {
+                int index = stripe.indexOf(itemId);
+                if (index >= 0) {
+                    stripe.dirty[index] = true;
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+
+        void evict(long itemId, long inventoryId) {
+            Stripe stripe = stripe(itemId);
+            stripe.lock.lock();
+            try {
+                int index = stripe.indexOf(itemId);
+                if (index >= 0 && stripe.inventoryIds[index] == inventoryId) {
+                    stripe.removeAt(index);
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+
+        void drainDirty(List<FlushEntry> out) {
+            for (Stripe stripe : stripes) {
+                stripe.lock.lock();
+                try {
+                    for (int i = 0; i < stripe.itemIds.length; i++) {
+                        if (stripe.itemIds[i] != 0 && stripe.dirty[i]) {
+                            out.add(new FlushEntry(storeId, stripe.itemIds[i], stripe.inventoryIds[i],
+                                    stripe.quantities[i], stripe.reserved[i]));
+                            stripe.dirty[i] = false;
+                        }
+                    }
+                } finally {
+                    stripe.lock.unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * Open-addressing (linear probing) table from item id to stock, in parallel primitive arrays.
+     * Item id 0 marks an empty slot. Callers hold the stripe's lock.
+     *
+     * Quantities are committed stock; held, releasing and reserving sum the quantity decreases,
+     * reserved decreases and reserved increases of open transactions.
+     */
+    private static final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private long[] itemIds = new long[16];
+        private long[] inventoryIds = new long[16];
+        private int[] quantities = new int[16];
+        private int[] reserved = new int[16];
+        private int[] held = new int[16];
+        private int[] releasing = new int[16];
+        private int[] reserving = new int[16];
+        private boolean[] dirty = new boolean[16];
+        private int size;
+
+        /**
+         * Slot of an item, or -(insertion point + 1) when absent.
+         */
+        int indexOf(long itemId) {
+            int mask = itemIds.length - 1;
+            int i = (int) mix(itemId) & mask;
+            while (itemIds[i] != 0) {
+                if (itemIds[i] == itemId) {
+                    return i;
+                }
+                i = (i + 1) & mask;
+            }
+            return -(i + 1);
+        }
+
+        /**
+         * Slot of an inventory row, taking its stock from the row the first time it is seen.
+         */
+        int load(Inventory inventory) {
+            int index = indexOf(inventory.getItem().getId());
+            if (index >= 0) {
+                return index;
+            }
+            int reservedQuantity = inventory.getReservedQuantity() != null ? inventory.getReservedQuantity() : 0;
+            return put(inventory.getItem().getId(), inventory.getId(), inventory.getQuantity(), reservedQuantity, false);
+        }
+
+        int put(long itemId, long inventoryId, int quantity, int reservedQuantity, boolean markDirty) {
+            if ((size + 1) * 4 > itemIds.length * 3) {
+                grow();
+            }
+            int index = indexOf(itemId);
+            if (index < 0) {
+                index = -index - 1;
+                itemIds[index] = itemId;
+                size++;
+            }
+            inventoryIds[index] = inventoryId;
+            quantities[index] = quantity;
+            reserved[index] = reservedQuantity;
+            dirty[index] = markDirty;
+            return index;
+        }
+
+        /**
+         * Remove a slot, shifting later entries of the probe run back so lookups stay correct.
+         */
+        void removeAt(int index) {
+            int mask = itemIds.length - 1;
+            int hole = index;
+            int i = (index + 1) & mask;
+            while (itemIds[i] != 0) {
+                int home = (int) mix(itemIds[i]) & mask;
+                if (((i - home) & mask) >= ((i - hole) & mask)) {
+                    itemIds[hole] = itemIds[i];
+                    inventoryIds[hole] = inventoryIds[i];
+                    quantities[hole] = quantities[i];
+                    reserved[hole] = reserved[i];
+                    held[hole] = held[i];
+                    releasing[hole] = releasing[i];
+                    reserving[hole] = reserving[i];
+                    dirty[hole] = dirty[i];
+                    hole = i;
+                }
+                i = (i + 1) & mask;
+            }
+            itemIds[hole] = 0;
+            held[hole] = 0;
+            releasing[hole] = 0;
+            reserving[hole] = 0;
+            dirty[hole] = false;
+            size--;
+        }
+
+        private void grow() {
+            long[] oldItemIds = itemIds;
+            long[] oldInventoryIds = inventoryIds;
+            int[] oldQuantities = quantities;
+            int[] oldReserved = reserved;
+            int[] oldHeld = held;
+            int[] oldReleasing = releasing;
+            int[] oldReserving = reserving;
+            boolean[] oldDirty = dirty;
+            int capacity = oldItemIds.length * 2;
+            itemIds = new long[capacity];
+            inventoryIds = new long[capacity];
+            quantities = new int[capacity];
+            reserved = new int[capacity];
+            held = new int[capacity];
+            releasing = new int[capacity];
+            reserving = new int[capacity];
+            dirty = new boolean[capacity];
+            for (int i = 0; i < oldItemIds.length; i++) {
+                if (oldItemIds[i] != 0) {
+                    int index = -indexOf(oldItemIds[i]) - 1;
+                    itemIds[index] = oldItemIds[i];
+                    inventoryIds[index] = oldInventoryIds[i];
+                    quantities[index] = oldQuantities[i];
+                    reserved[index] = oldReserved[i];
+                    held[index] = oldHeld[i];
+                    releasing[index] = oldReleasing[i];
+                    reserving[index] = oldReserving[i];
+                    dirty[index] = oldDirty[i];
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,315 @@
+package dev.andrepontde.retailmanager.retail_system.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Append-only local journal of the in-memory stock engine.
+ *
+ * Records are tagged with the transaction that wrote them:
+ * - PREPARE: a transaction's net change of one (store, item), forced to disk before it commits
+ * - STOCK: the absolute committed stock of one (store, item), written once the change has committed,
+ *   so replaying the retained segments in order restores the latest state no matter how much of it
+ *   was already flushed to the inventory table
+ * - ABORT: a prepared transaction that did not commit after all
+ * The flusher rotates to a new segment before it reads the dirty rows and deletes the older
+ * segments once its update has committed.
+ *
+ * Appends only write to the page cache; sync() forces them to disk and is shared by all
+ * transactions committing at the same time (group commit). Locks are ReentrantLocks rather
+ * than monitors: on Java 21 a virtual thread waiting for a monitor pins its carrier thread,
+ * and every committing sale queues on the sync lock. Apart from close(), no fsync runs under the
+ * append lock, so appends never wait for the disk.
+ */
+class StockJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(StockJournal.class);
+
+    /**
+     * type (4 bytes), transactionId, storeId, itemId, inventoryId (8 bytes each),
+     * quantity, reserved, CRC32 (4 bytes each).
+     */
+    private static final int RECORD_SIZE = 48;
+
+    private static final String SEGMENT_PREFIX = "stock-journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    /**
+     * Record types, stored by ordinal: only ever add new ones at the end.
+     */
+    enum Type { STOCK, PREPARE, ABORT }
+
+    private static final Type[] TYPES = Type.values();
+
+    /**
+     * One journal record. Quantities are absolute for STOCK, deltas for PREPARE and unused for ABORT.
+     */
+    record Entry(Type type, long transactionId, long storeId, long itemId, long inventoryId,
+                 int quantity, int reservedQuantity) {
+
+        static Entry stock(long transactionId, long storeId, long itemId, long inventoryId, int quantity, int reservedQuantity) {
+            return new Entry(Type.STOCK, transactionId, storeId, itemId, inventoryId, quantity, reservedQuantity);
+        }
+
+        static Entry prepare(long transactionId, long storeId, long itemId, long inventoryId, int quantityDelta, int reservedDelta) {
+            return new Entry(Type.PREPARE, transactionId, storeId, itemId, inventoryId, quantityDelta, reservedDelta);
+        }
+
+        static Entry abort(long transactionId) {
+            return new Entry(Type.ABORT, transactionId, 0, 0, 0, 0, 0);
+        }
+    }
+
+    private final Path directory;
+    private final List<Path> closedSegments = new ArrayList<>();
+    private final ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE);
+    private final CRC32 crc = new CRC32();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ReentrantLock syncLock = new ReentrantLock();
+
+    private FileChannel channel;
+    private Path currentSegment;
+    private long nextSegmentNumber;
+    private long segmentStart;
+    private long appended;
+    private long forced;
+
+    StockJournal(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(StockJournal::isSegment)
+                 .sorted(Comparator.comparingLong(StockJournal::segmentNumber))
+                 .forEach(closedSegments::add);
+        }
+        nextSegmentNumber = closedSegments.isEmpty() ? 1 : segmentNumber(closedSegments.get(closedSegments.size() - 1)) + 1;
+        openSegment();
+    }
+
+    // ================================
+    // WRITING
+    // ================================
+
+    /**
+     * Append a record. Not durable until sync() returns.
+     */
+    void append(Entry entry) throws IOException {
+        lock.lock();
+        try {
+            buffer.clear();
+            buffer.putInt(entry.type().ordinal()).putLong(entry.transactionId())
+                  .putLong(entry.storeId()).putLong(entry.itemId()).putLong(entry.inventoryId())
+                  .putInt(entry.quantity()).putInt(entry.reservedQuantity());
+            crc.reset();
+            crc.update(buffer.array(), 0, RECORD_SIZE - 4);
+            buffer.putInt((int) crc.getValue());
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            appended++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Force every record appended so far to disk.
+     * A caller arriving while another thread is forcing waits for it and usually finds its
+     * records already covered, so concurrent commits share one fsync.
+     */
+    void sync() throws IOException {
+        long target;
+        lock.lock();
+        try {
+            target = appended;
+        } finally {
+            lock.unlock();
+        }
+        syncLock.lock();
+        try {
+            FileChannel current;
+            lock.lock();
+            try {
+                if (forced >= target) {
+                    return;
+                }
+                target = appended;
+                current = channel;
+            } finally {
+                lock.unlock();
+            }
+            current.force(false);
+            lock.lock();
+            try {
+                forced = Math.max(forced, target);
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    // ================================
+    // SEGMENTS
+    // ================================
+
+    /**
+     * Close the current segment (if anything was written to it) and start a new one.
+     *
+     * @return every closed segment not deleted yet, oldest first
+     */
+    List<Path> rotate() throws IOException {
+        // Holding syncLock keeps sync() from reporting records of the old segment as forced
+        // before they are; appends only wait for the switch, not for the fsync
+        syncLock.lock();
+        try {
+            FileChannel closing;
+            long target;
+            lock.lock();
+            try {
+                if (appended == segmentStart) {
+                    return new ArrayList<>(closedSegments);
+                }
+                closing = channel;
+                target = appended;
+                Path closed = currentSegment;
+                openSegment();
+                closedSegments.add(closed);
+            } finally {
+                lock.unlock();
+            }
+            closing.force(false);
+            closing.close();
+            lock.lock();
+            try {
+                forced = Math.max(forced, target);
+                return new ArrayList<>(closedSegments);
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Delete closed segments whose records have been flushed.
+     */
+    void delete(List<Path> segments) {
+        lock.lock();
+        try {
+            for (Path segment : segments) {
+                try {
+                    Files.deleteIfExists(segment);
+                    closedSegments.remove(segment);
+                } catch (IOException e) {
+                    log.warn("Could not delete stock journal segment {}: {}", segment, e.getMessage());
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Read the records of every closed segment in write order.
+     * A torn or corrupt record ends its segment (it was never synced, so never committed).
+     *
+     * @return the number of records replayed
+     */
+    int replay(Consumer<Entry> consumer) throws IOException {
+        lock.lock();
+        try {
+            int count = 0;
+            ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+            CRC32 check = new CRC32();
+            for (Path segment : closedSegments) {
+                try (FileChannel in = FileChannel.open(segment, StandardOpenOption.READ)) {
+                    while (true) {
+                        record.clear();
+                        while (record.hasRemaining() && in.read(record) > 0) {
+                            // keep reading until the record is complete or the file ends
+                        }
+                        if (record.hasRemaining()) {
+                            if (record.position() > 0) {
+                                log.warn("Ignoring torn record at the end of stock journal segment {}", segment);
+                            }
+                            break;
+                        }
+                        check.reset();
+                        check.update(record.array(), 0, RECORD_SIZE - 4);
+                        record.flip();
+                        record.position(RECORD_SIZE - 4);
+                        int type = record.getInt(0);
+                        if (record.getInt() != (int) check.getValue() || type < 0 || type >= TYPES.length) {
+                            log.warn("Ignoring corrupt record in stock journal segment {}", segment);
+                            break;
+                        }
+                        record.position(4);
+                        Entry entry = new Entry(TYPES[type], record.getLong(), record.getLong(), record.getLong(),
+                                record.getLong(), record.getInt(), record.getInt());
+                        consumer.accept(entry);
+                        count++;
+                    }
+                }
+            }
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Force and close the current segment.
+     */
+    void close() throws IOException {
+        syncLock.lock();
+        lock.lock();
+        try {
+            channel.force(false);
+            channel.close();
+        } finally {
+            lock.unlock();
+            syncLock.unlock();
+        }
+    }
+
+    // ================================
+    // HELPER METHODS
+    // ================================
+
+    private void openSegment() throws IOException {
+        // Fields change only once the new segment is open, so a failure keeps writing to the old one
+        Path segment = directory.resolve(String.format("%s%012d%s", SEGMENT_PREFIX, nextSegmentNumber, SEGMENT_SUFFIX));
+        channel = FileChannel.open(segment, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        nextSegmentNumber++;
+        currentSegment = segment;
+        segmentStart = appended;
+    }
+
+    private static boolean isSegment(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+    }
+
+    private static long segmentNumber(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
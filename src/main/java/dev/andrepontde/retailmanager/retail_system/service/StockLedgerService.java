@@ -0,0 +1,317 @@
+package dev.andrepontde.retailmanager.retail_system.service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import dev.andrepontde.retailmanager.retail_system.dto.StockMovementDTO;
+import dev.andrepontde.retailmanager.retail_system.entity.Inventory;
+import dev.andrepontde.retailmanager.retail_system.entity.Store;
+import dev.andrepontde.retailmanager.retail_system.entity.StockMovement;
+import dev.andrepontde.retailmanager.retail_system.entity.StockSnapshot;
+import dev.andrepontde.retailmanager.retail_system.event.StockChangedEvent;
+import dev.andrepontde.retailmanager.retail_system.repository.InventoryRepository;
+import dev.andrepontde.retailmanager.retail_system.repository.StockMovementRepository;
+import dev.andrepontde.retailmanager.retail_system.repository.StockSnapshotRepository;
+import dev.andrepontde.retailmanager.retail_system.repository.StoreRepository;
+
+/**
+ * Service class for the stock movement ledger.
+ * 
+ * This service handles:
+ * - Recording every stock change as an append-only movement row
+ * - Periodic per-store snapshots of the items whose stock changed, and their retention
+ * - Point-in-time stock queries (snapshot read + bounded movement replay)
+ */
+@Service
+public class StockLedgerService {
+
+    private static final Logger log = LoggerFactory.getLogger(StockLedgerService.class);
+
+    private static final int MAX_MOVEMENTS_PAGE_SIZE = 1000;
+
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+
+    @Autowired
+    private StockSnapshotRepository stockSnapshotRepository;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private JobLockService jobLockService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Movements newer than this are left out of a snapshot, so transactions that
+     * were still running when the snapshot was taken are not missed.
+     */
+    @Value("${retail.ledger.snapshot-settle-minutes:5}")
+    private long snapshotSettleMinutes;
+
+    @Value("${retail.ledger.snapshot-retention-days:90}")
+    private long snapshotRetentionDays;
+
+    // ================================
+    // RECORDING
+    // ================================
+
+    /**
+     * Record a stock change in the ledger.
+     * Runs just before the stock change commits, so the movement is part of the same
+     * transaction; the inserts of one transaction are flushed together in JDBC batches.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        if (event.getDelta() != 0) {
+            stockMovementRepository.save(new StockMovement(event));
+        }
+    }
+
+    // ================================
+    // SNAPSHOTS
+    // ================================
+
+    /**
+     * Take a snapshot of every store (scheduled, hourly by default).
+     * Every node runs this; the first to reach a store takes its snapshot and the others
+     * find it already taken.
+     */
+    @Scheduled(cron = "${retail.ledger.snapshot-cron:0 0 * * * *}")
+    public void takeSnapshots() {
+        // The same on every node running this tick, however long the stores before took
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        for (Store store : storeRepository.findAll()) {
+            try {
+                transaction.executeWithoutResult(status -> takeSnapshot(store.getId(), now));
+            } catch (RuntimeException e) {
+                log.warn("Stock snapshot failed for store {}: {}", store.getId(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Take a snapshot of one store.
+     * The first snapshot is the opening balance of every item; later snapshots hold only the
+     * items whose stock changed since the previous one, rolled forward with their movements.
+     */
+    @Transactional
+    public Optional<StockSnapshot> takeSnapshot(Long storeId) {
+        return takeSnapshot(storeId, LocalDateTime.now());
+    }
+
+    private Optional<StockSnapshot> takeSnapshot(Long storeId, LocalDateTime now) {
+        // Nodes snapshotting the same store take turns, so the later one sees the earlier one's snapshot
+        jobLockService.lock(JobLockService.Job.STOCK_SNAPSHOT, storeId);
+        Optional<StockSnapshot> previous = stockSnapshotRepository.findFirstByStoreIdOrderByTakenAtDesc(storeId);
+        if (previous.isEmpty()) {
+            return Optional.of(stockSnapshotRepository.save(
+                    new StockSnapshot(storeId, LocalDateTime.now(), getCurrentQuantities(storeId))));
+        }
+
+        LocalDateTime takenAt = now.minusMinutes(snapshotSettleMinutes);
+        if (!takenAt.isAfter(previous.get().getTakenAt())) {
+            return Optional.empty();
+        }
+        Map<Long, Integer> changes = new HashMap<>();
+        for (Object[] row : stockMovementRepository.sumQuantityChangeByItem(storeId, previous.get().getTakenAt(), takenAt)) {
+            int change = ((Number) row[1]).intValue();
+            if (change != 0) {
+                changes.put((Long) row[0], change);
+            }
+        }
+        Map<Long, Integer> quantities = new HashMap<>();
+        if (!changes.isEmpty()) {
+            Map<Long, Integer> last = getSnapshotQuantities(storeId, previous.get().getTakenAt());
+            changes.forEach((itemId, change) -> quantities.put(itemId, last.getOrDefault(itemId, 0) + change));
+        }
+        return Optional.of(stockSnapshotRepository.save(new StockSnapshot(storeId, takenAt, quantities)));
+    }
+
+    /**
+     * Drop the snapshots older than the retention period from every store (scheduled, nightly by default).
+     */
+    @Scheduled(cron = "${retail.ledger.snapshot-retention-cron:0 30 3 * * *}")
+    public void pruneSnapshots() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(snapshotRetentionDays);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        for (Store store : storeRepository.findAll()) {
+            try {
+                transaction.executeWithoutResult(status -> pruneSnapshots(store.getId(), cutoff));
+            } catch (RuntimeException e) {
+                log.warn("Stock snapshot pruning failed for store {}: {}", store.getId(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Drop the snapshots of a store taken before a cutoff.
+     * The latest of them is kept and given the last quantity of every item it lacks, so the
+     * oldest remaining snapshot still holds every item; movements are kept.
+     *
+     * @return the number of snapshots deleted
+     */
+    @Transactional
+    public int pruneSnapshots(Long storeId, LocalDateTime cutoff) {
+        jobLockService.lock(JobLockService.Job.STOCK_SNAPSHOT, storeId);
+        Optional<StockSnapshot> oldest = stockSnapshotRepository
+                .findFirstByStoreIdAndTakenAtLessThanEqualOrderByTakenAtDesc(storeId, cutoff);
+        if (oldest.isEmpty()) {
+            return 0;
+        }
+        LocalDateTime takenAt = oldest.get().getTakenAt();
+        stockSnapshotRepository.completeSnapshot(oldest.get().getId(), storeId, takenAt);
+        stockSnapshotRepository.deleteLinesTakenBefore(storeId, takenAt);
+        return stockSnapshotRepository.deleteTakenBefore(storeId, takenAt);
+    }
+
+    // ================================
+    // POINT-IN-TIME QUERIES
+    // ================================
+
+    /**
+     * Get the stock level of an item in current user's store at a point in time.
+     */
+    @Transactional(readOnly = true)
+    public int getStockAt(Long itemId, LocalDateTime time) {
+        return getStockAt(itemId, userService.getCurrentUserStoreId(), time);
+    }
+
+    /**
+     * Get the stock level of an item in a store at a point in time.
+     */
+    @Transactional(readOnly = true)
+    public int getStockAt(Long itemId, Long storeId, LocalDateTime time) {
+        userService.validateStoreAccess(storeId);
+
+        Optional<StockSnapshot> before = stockSnapshotRepository
+                .findFirstByStoreIdAndTakenAtLessThanEqualOrderByTakenAtDesc(storeId, time);
+        if (before.isPresent()) {
+            int base = stockSnapshotRepository.findQuantity(storeId, itemId, before.get().getTakenAt()).orElse(0);
+            return base + stockMovementRepository.sumQuantityChange(storeId, itemId, before.get().getTakenAt(), time).intValue();
+        }
+
+        // No snapshot that early: replay backwards from the first snapshot (or current stock)
+        Optional<StockSnapshot> after = stockSnapshotRepository
+                .findFirstByStoreIdAndTakenAtGreaterThanOrderByTakenAtAsc(storeId, time);
+        LocalDateTime end = after.map(StockSnapshot::getTakenAt).orElse(LocalDateTime.now());
+        int base = after.isPresent()
+                ? stockSnapshotRepository.findQuantity(storeId, itemId, after.get().getTakenAt()).orElse(0)
+                : inventoryRepository.findByItemIdAndStoreId(itemId, storeId).map(inventoryService::getCurrentQuantity).orElse(0);
+        return base - stockMovementRepository.sumQuantityChange(storeId, itemId, time, end).intValue();
+    }
+
+    /**
+     * Get the stock level of every item in current user's store at a point in time.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, Integer> getStoreStockAt(LocalDateTime time) {
+        Long storeId = userService.getCurrentUserStoreId();
+
+        Optional<StockSnapshot> before = stockSnapshotRepository
+                .findFirstByStoreIdAndTakenAtLessThanEqualOrderByTakenAtDesc(storeId, time);
+        Map<Long, Integer> quantities = new HashMap<>();
+        if (before.isPresent()) {
+            quantities.putAll(getSnapshotQuantities(storeId, before.get().getTakenAt()));
+            for (Object[] row : stockMovementRepository.sumQuantityChangeByItem(storeId, before.get().getTakenAt(), time)) {
+                quantities.merge((Long) row[0], ((Number) row[1]).intValue(), Integer::sum);
+            }
+            return quantities;
+        }
+
+        Optional<StockSnapshot> after = stockSnapshotRepository
+                .findFirstByStoreIdAndTakenAtGreaterThanOrderByTakenAtAsc(storeId, time);
+        LocalDateTime end = after.map(StockSnapshot::getTakenAt).orElse(LocalDateTime.now());
+        quantities.putAll(after.isPresent()
+                ? getSnapshotQuantities(storeId, after.get().getTakenAt())
+                : getCurrentQuantities(storeId));
+        for (Object[] row : stockMovementRepository.sumQuantityChangeByItem(storeId, time, end)) {
+            quantities.merge((Long) row[0], -((Number) row[1]).intValue(), Integer::sum);
+        }
+        return quantities;
+    }
+
+    /**
+     * Get the movements of an item in current user's store within a time range.
+     */
+    @Transactional(readOnly = true)
+    public List<StockMovementDTO> getMovements(Long itemId, LocalDateTime from, LocalDateTime to, int limit) {
+        Long storeId = userService.getCurrentUserStoreId();
+        int pageSize = Math.max(1, Math.min(limit, MAX_MOVEMENTS_PAGE_SIZE));
+        return stockMovementRepository.findMovements(storeId, itemId, from, to, PageRequest.of(0, pageSize)).stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+    }
+
+    // ================================
+    // HELPER METHODS
+    // ================================
+
+    /**
+     * Live stock of every item of a store: the stock engine's for stores it holds, and
+     * without the slot sales not yet folded for striped rows.
+     */
+    private Map<Long, Integer> getCurrentQuantities(Long storeId) {
+        Map<Long, Integer> quantities = new HashMap<>();
+        for (Inventory inventory : inventoryRepository.findByStoreId(storeId)) {
+            quantities.merge(inventory.getItem().getId(), inventoryService.getCurrentQuantity(inventory), Integer::sum);
+        }
+        return quantities;
+    }
+
+    /**
+     * Stock of every item of a store as of the snapshot taken at the given time.
+     */
+    private Map<Long, Integer> getSnapshotQuantities(Long storeId, LocalDateTime takenAt) {
+        Map<Long, Integer> quantities = new HashMap<>();
+        for (Object[] row : stockSnapshotRepository.findQuantities(storeId, takenAt)) {
+            quantities.put(((Number) row[0]).longValue(), ((Number) row[1]).intValue());
+        }
+        return quantities;
+    }
+
+    /**
+     * Convert StockMovement entity to DTO.
+     */
+    private StockMovementDTO convertToDTO(StockMovement movement) {
+        StockMovementDTO dto = new StockMovementDTO();
+        dto.setId(movement.getId());
+        dto.setStoreId(movement.getStoreId());
+        dto.setItemId(movement.getItemId());
+        dto.setReason(movement.getReason().name());
+        dto.setQuantityChange(movement.getQuantityChange());
+        dto.setQuantityAfter(movement.getQuantityAfter());
+        dto.setOccurredAt(movement.getOccurredAt());
+        return dto;
+    }
+}
@@ -0,0 +1,227 @@
+package dev.andrepontde.retailmanager.retail_system.service;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import dev.andrepontde.retailmanager.retail_system.dto.StockChangeDTO;
+import dev.andrepontde.retailmanager.retail_system.event.StockChangedEvent;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Service for per-store Server-Sent Event streams of stock changes.
+ *
+ * This service pushes committed stock changes to store dashboards:
+ * - "stock" events with the changed inventory row (delta)
+ * - "low-stock" / "stock-recovered" events when the minimum stock level is crossed
+ * - "resync" events when a slow client overflowed its buffer and must reload
+ * - Heartbeat comments so idle connections survive proxies
+ *
+ * Each subscriber has a bounded buffer drained on its own virtual thread,
+ * so one slow client can never hold up a checkout or another dashboard.
+ */
+@Service
+public class StockStreamService {
+
+    private static final Logger log = LoggerFactory.getLogger(StockStreamService.class);
+
+    @Value("${retail.stock-stream.buffer-size:256}")
+    private int bufferSize;
+
+    @Value("${retail.stock-stream.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    private final Map<Long, List<Subscriber>> subscribersByStore = new ConcurrentHashMap<>();
+
+    private final ExecutorService dispatcher = Executors.newVirtualThreadPerTaskExecutor();
+
+    // ================================
+    // SUBSCRIPTIONS
+    // ================================
+
+    /**
+     * Open a new stream for a store.
+     */
+    public SseEmitter subscribe(Long storeId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(storeId, emitter, bufferSize);
+
+        subscribersByStore.computeIfAbsent(storeId, id -> new CopyOnWriteArrayList<>()).add(subscriber);
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(e -> unsubscribe(subscriber));
+
+        // First message tells the client the stream is live
+        subscriber.offer(SseEmitter.event().name("connected").data(Map.of("storeId", storeId)));
+        schedule(subscriber);
+        return emitter;
+    }
+
+    /**
+     * Number of open streams for a store.
+     */
+    public int getSubscriberCount(Long storeId) {
+        List<Subscriber> subscribers = subscribersByStore.get(storeId);
+        return subscribers != null ? subscribers.size() : 0;
+    }
+
+    // ================================
+    // EVENT HANDLING
+    // ================================
+
+    /**
+     * Push a committed stock change to every stream of the affected store.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        List<Subscriber> subscribers = subscribersByStore.get(event.getStoreId());
+        if (subscribers == null || subscribers.isEmpty()) {
+            return;
+        }
+
+        StockChangeDTO change = convertToDTO(event);
+        String crossing = null;
+        if (event.isLowStock() && !event.wasLowStock()) {
+            crossing = "low-stock";
+        } else if (!event.isLowStock() && event.wasLowStock()) {
+            crossing = "stock-recovered";
+        }
+
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(SseEmitter.event().name("stock").data(change));
+            if (crossing != null) {
+                subscriber.offer(SseEmitter.event().name(crossing).data(change));
+            }
+            schedule(subscriber);
+        }
+    }
+
+    /**
+     * Send a heartbeat comment on every open stream.
+     */
+    @Scheduled(fixedRateString = "${retail.stock-stream.heartbeat-ms:15000}")
+    public void sendHeartbeats() {
+        for (List<Subscriber> subscribers : subscribersByStore.values()) {
+            for (Subscriber subscriber : subscribers) {
+                subscriber.offer(SseEmitter.event().comment("heartbeat"));
+                schedule(subscriber);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (List<Subscriber> subscribers : subscribersByStore.values()) {
+            subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        }
+        dispatcher.shutdownNow();
+    }
+
+    // ================================
+    // HELPER METHODS
+    // ================================
+
+    private void unsubscribe(Subscriber subscriber) {
+        subscriber.closed = true;
+        List<Subscriber> subscribers = subscribersByStore.get(subscriber.storeId);
+        if (subscribers != null) {
+            subscribers.remove(subscriber);
+        }
+    }
+
+    /**
+     * Start draining a subscriber's buffer unless a drain is already running.
+     */
+    private void schedule(Subscriber subscriber) {
+        if (!subscriber.closed && subscriber.draining.compareAndSet(false, true)) {
+            dispatcher.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            while (!subscriber.closed) {
+                if (subscriber.overflowed.getAndSet(false)) {
+                    subscriber.emitter.send(SseEmitter.event().name("resync")
+                            .data(Map.of("storeId", subscriber.storeId)));
+                }
+                SseEmitter.SseEventBuilder next = subscriber.buffer.poll();
+                if (next == null) {
+                    break;
+                }
+                subscriber.emitter.send(next);
+            }
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Closing stock stream for store {}: {}", subscriber.storeId, e.getMessage());
+            unsubscribe(subscriber);
+            subscriber.emitter.completeWithError(e);
+        } finally {
+            subscriber.draining.set(false);
+        }
+
+        // An event may have arrived after the last poll but before draining was cleared
+        if (!subscriber.buffer.isEmpty() || subscriber.overflowed.get()) {
+            schedule(subscriber);
+        }
+    }
+
+    /**
+     * Convert StockChangedEvent to StockChangeDTO.
+     */
+    private StockChangeDTO convertToDTO(StockChangedEvent event) {
+        StockChangeDTO dto = new StockChangeDTO();
+        dto.setInventoryId(event.getInventoryId());
+        dto.setStoreId(event.getStoreId());
+        dto.setItemId(event.getItemId());
+        dto.setQuantity(event.getQuantity());
+        dto.setReservedQuantity(event.getReservedQuantity());
+        dto.setDelta(event.getDelta());
+        dto.setMinStockLevel(event.getMinStockLevel());
+        dto.setLowStock(event.isLowStock());
+        dto.setReason(event.getReason().name());
+        dto.setOccurredAt(event.getOccurredAt());
+        return dto;
+    }
+
+    /**
+     * One open stream with its bounded buffer.
+     * When the buffer is full the oldest event is dropped and the client is told to resync.
+     */
+    private static class Subscriber {
+        private final Long storeId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> buffer;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean overflowed = new AtomicBoolean();
+        private volatile boolean closed;
+
+        Subscriber(Long storeId, SseEmitter emitter, int bufferSize) {
+            this.storeId = storeId;
+            this.emitter = emitter;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        void offer(SseEmitter.SseEventBuilder event) {
+            while (!buffer.offer(event)) {
+                buffer.poll();
+                overflowed.set(true);
+            }
+        }
+    }
+}
@@ -2,15 +2,16 @@ package dev.andrepontde.retailmanager.retail_system.service;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import dev.andrepontde.retailmanager.retail_system.dto.StoreDTO;
 import dev.andrepontde.retailmanager.retail_system.entity.Store;
 import dev.andrepontde.retailmanager.retail_system.entity.User;
+import dev.andrepontde.retailmanager.retail_system.event.CacheInvalidationEvent;
 import dev.andrepontde.retailmanager.retail_system.repository.StoreRepository;
 
 /**
@@ -31,6 +32,9 @@ public class StoreService {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     // ================================
     // CRUD OPERATIONS
     // ================================
@@ -41,25 +45,26 @@ public class StoreService {
     public StoreDTO saveStore(StoreDTO storeDTO) {
         Store store = convertToEntity(storeDTO);
         Store savedStore = storeRepository.save(store);
+        if (storeDTO.getId() != null) {
+            eventPublisher.publishEvent(CacheInvalidationEvent.store(savedStore.getId()));
+        }
         return convertToDTO(savedStore);
     }
 
     /**
      * Get all stores.
      */
+    @Transactional(readOnly = true)
     public List<StoreDTO> getAllStores() {
-        List<Store> stores = storeRepository.findAll();
-        return stores.stream()
-                    .map(this::convertToDTO)
-                    .collect(Collectors.toList());
+        return storeRepository.findAllAsDTO();
     }
 
     /**
      * Get a store by ID.
      */
+    @Transactional(readOnly = true)
     public Optional<StoreDTO> getStoreById(Long id) {
-        Optional<Store> storeOpt = storeRepository.findById(id);
-        return storeOpt.map(this::convertToDTO);
+        return storeRepository.findDTOById(id);
     }
 
     /**
@@ -67,11 +72,13 @@ public class StoreService {
      */
     public void deleteStore(Long id) {
         storeRepository.deleteById(id);
+        eventPublisher.publishEvent(CacheInvalidationEvent.store(id));
     }
 
     /**
      * Get the current user's store.
      */
+    @Transactional(readOnly = true)
     public StoreDTO getCurrentUserStore() {
         User currentUser = userService.getCurrentUser();
         Store userStore = currentUser.getPrimaryStore();
@@ -88,21 +95,17 @@ public class StoreService {
     /**
      * Find stores by name (partial match).
      */
+    @Transactional(readOnly = true)
     public List<StoreDTO> findStoresByName(String name) {
-        List<Store> stores = storeRepository.findByNameContainingIgnoreCase(name);
-        return stores.stream()
-                    .map(this::convertToDTO)
-                    .collect(Collectors.toList());
+        return storeRepository.findDTOsByNameContaining(name);
     }
 
     /**
      * Find stores by city.
      */
+    @Transactional(readOnly = true)
     public List<StoreDTO> findStoresByCity(String city) {
-        List<Store> stores = storeRepository.findByAddressContainingIgnoreCase(city);
-        return stores.stream()
-                    .map(this::convertToDTO)
-                    .collect(Collectors.toList());
+        return storeRepository.findDTOsByAddressContaining(city);
     }
 
     // ================================
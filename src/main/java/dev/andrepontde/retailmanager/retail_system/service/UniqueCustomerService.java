@@ -0,0 +1,250 @@
+package dev.andrepontde.retailmanager.retail_system.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import dev.andrepontde.retailmanager.retail_system.dto.UniqueCustomersDTO;
+import dev.andrepontde.retailmanager.retail_system.entity.CustomerSketch;
+import dev.andrepontde.retailmanager.retail_system.event.SaleRecordedEvent;
+import dev.andrepontde.retailmanager.retail_system.repository.CustomerSketchRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Service class for approximate distinct-customer counts.
+ *
+ * This service handles:
+ * - A HyperLogLog sketch per store and day, fed by committed sales
+ * - Periodic merging of the sketches into customer_sketch rows (plus one chain-wide row per day)
+ * - Distinct counts over any range of days and any set of stores, by merging sketches
+ * - Backfilling sketches from the sale table
+ *
+ * Merging is idempotent, so a sketch that is merged into its row twice (a retried flush,
+ * a repeated backfill, several nodes) never counts a customer twice.
+ */
+@Service
+public class UniqueCustomerService {
+
+    private static final Logger log = LoggerFactory.getLogger(UniqueCustomerService.class);
+
+    @Autowired
+    private CustomerSketchRepository customerSketchRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private record SketchKey(long storeId, LocalDate day) {}
+
+    // Sketches of sales not merged into the table yet
+    private final Map<SketchKey, HyperLogLog> pending = new ConcurrentHashMap<>();
+
+    // ================================
+    // QUERIES
+    // ================================
+
+    /**
+     * Distinct customers of current user's store (or another accessible store) between two days.
+     */
+    public UniqueCustomersDTO getStoreUniqueCustomers(Long storeId, LocalDate from, LocalDate to) {
+        Long customersStoreId = storeId != null ? storeId : userService.getCurrentUserStoreId();
+        userService.validateStoreAccess(customersStoreId);
+        return getUniqueCustomers(List.of(customersStoreId), from, to);
+    }
+
+    /**
+     * Distinct customers of the given stores between two days (inclusive); all stores when the list is empty.
+     */
+    public UniqueCustomersDTO getUniqueCustomers(List<Long> storeIds, LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("From date must not be after to date");
+        }
+        boolean chain = storeIds.isEmpty();
+        HyperLogLog merged = new HyperLogLog();
+        for (byte[] registers : customerSketchRepository.findRegisters(chain ? List.of(CustomerSketch.CHAIN) : storeIds, from, to)) {
+            merged.merge(HyperLogLog.fromBytes(registers));
+        }
+        pending.forEach((key, sketch) -> {
+            if ((chain || storeIds.contains(key.storeId())) && !key.day().isBefore(from) && !key.day().isAfter(to)) {
+                synchronized (sketch) {
+                    merged.merge(sketch);
+                }
+            }
+        });
+
+        UniqueCustomersDTO dto = new UniqueCustomersDTO();
+        dto.setStoreIds(new ArrayList<>(storeIds));
+        dto.setFrom(from);
+        dto.setTo(to);
+        dto.setUniqueCustomers(merged.estimate());
+        dto.setStandardError(HyperLogLog.STANDARD_ERROR);
+        return dto;
+    }
+
+    // ================================
+    // UPDATES
+    // ================================
+
+    /**
+     * Add the customer of a committed sale to its store's sketch of the sale day.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSaleRecorded(SaleRecordedEvent event) {
+        if (event.isRefund()) {
+            return;
+        }
+        String customer = customerKey(event.getCustomerEmail(), event.getCustomerPhone());
+        if (customer != null) {
+            add(event.getStoreId(), event.getSaleDate().toLocalDate(), HyperLogLog.hash(customer));
+        }
+    }
+
+    /**
+     * Merge pending sketches into their rows and the chain-wide rows.
+     * A sketch whose merge fails is put back and retried on the next run.
+     */
+    @Scheduled(fixedDelayString = "${retail.customer-sketch.flush-ms:60000}")
+    public void flush() {
+        Map<LocalDate, HyperLogLog> chainDays = new HashMap<>();
+        for (SketchKey key : new ArrayList<>(pending.keySet())) {
+            HyperLogLog sketch = pending.remove(key);
+            if (sketch == null) {
+                continue;
+            }
+            try {
+                mergeIntoRow(key.storeId(), key.day(), sketch);
+                chainDays.computeIfAbsent(key.day(), day -> new HyperLogLog()).merge(sketch);
+            } catch (RuntimeException e) {
+                log.warn("Customer sketch flush failed for store {} on {}: {}", key.storeId(), key.day(), e.getMessage());
+                restore(key, sketch);
+            }
+        }
+        chainDays.forEach((day, sketch) -> {
+            try {
+                mergeIntoRow(CustomerSketch.CHAIN, day, sketch);
+            } catch (RuntimeException e) {
+                // The store rows are already written; keep the chain part pending under the chain key
+                log.warn("Chain customer sketch flush failed for {}: {}", day, e.getMessage());
+                restore(new SketchKey(CustomerSketch.CHAIN, day), sketch);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    /**
+     * Rebuild the sketches of a range of days from the sale table (e.g. for sales made before
+     * sketches existed). Safe to repeat: rows only ever gain customers already in the range.
+     *
+     * @return number of sales read
+     */
+    public long backfill(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("From date must not be after to date");
+        }
+        long[] sales = {0};
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            Map<Long, HyperLogLog> stores = new HashMap<>();
+            HyperLogLog chain = new HyperLogLog();
+            jdbcTemplate.query(
+                "SELECT store_id, customer_email, customer_phone FROM sale WHERE sale_date >= ? AND sale_date < ?",
+                (RowCallbackHandler) rs -> {
+                    String customer = customerKey(rs.getString(2), rs.getString(3));
+                    if (customer != null) {
+                        long hash = HyperLogLog.hash(customer);
+                        stores.computeIfAbsent(rs.getLong(1), id -> new HyperLogLog()).add(hash);
+                        chain.add(hash);
+                    }
+                    sales[0]++;
+                },
+                day.atStartOfDay(), day.plusDays(1).atStartOfDay());
+            for (Map.Entry<Long, HyperLogLog> entry : stores.entrySet()) {
+                mergeIntoRow(entry.getKey(), day, entry.getValue());
+            }
+            if (!stores.isEmpty()) {
+                mergeIntoRow(CustomerSketch.CHAIN, day, chain);
+            }
+        }
+        log.info("Customer sketches backfilled from {} to {} ({} sales)", from, to, sales[0]);
+        return sales[0];
+    }
+
+    // ================================
+    // HELPER METHODS
+    // ================================
+
+    private void add(long storeId, LocalDate day, long hash) {
+        // compute() keeps the add atomic with flush's remove(), so no add lands on a removed sketch
+        pending.compute(new SketchKey(storeId, day), (key, sketch) -> {
+            HyperLogLog target = sketch != null ? sketch : new HyperLogLog();
+            synchronized (target) {
+                target.add(hash);
+            }
+            return target;
+        });
+    }
+
+    private void restore(SketchKey key, HyperLogLog sketch) {
+        pending.merge(key, sketch, (current, failed) -> {
+            synchronized (current) {
+                current.merge(failed);
+            }
+            return current;
+        });
+    }
+
+    /**
+     * Merge a sketch into the row of a store and day (created if missing), under a row lock.
+     */
+    private void mergeIntoRow(long storeId, LocalDate day, HyperLogLog sketch) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            CustomerSketch row = customerSketchRepository.lockByStoreIdAndDay(storeId, day)
+                    .orElseGet(() -> new CustomerSketch(storeId, day, null));
+            HyperLogLog merged = HyperLogLog.fromBytes(row.getRegisters());
+            merged.merge(sketch);
+            row.setRegisters(merged.toBytes());
+            customerSketchRepository.save(row);
+        });
+    }
+
+    /**
+     * Identify a customer by normalized e-mail, else by phone digits; null for anonymous sales.
+     */
+    static String customerKey(String email, String phone) {
+        if (email != null && !email.isBlank()) {
+            return "e:" + email.trim().toLowerCase(Locale.ROOT);
+        }
+        if (phone != null) {
+            String digits = phone.replaceAll("\\D", "");
+            if (digits.length() >= 6) {
+                return "p:" + digits;
+            }
+        }
+        return null;
+    }
+}
@@ -3,9 +3,10 @@ package dev.andrepontde.retailmanager.retail_system.service;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
+import org.hibernate.Session;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
@@ -15,9 +16,13 @@ import dev.andrepontde.retailmanager.retail_system.dto.UserDTO;
 import dev.andrepontde.retailmanager.retail_system.entity.Store;
 import dev.andrepontde.retailmanager.retail_system.entity.User;
 import dev.andrepontde.retailmanager.retail_system.entity.User.UserRole;
+import dev.andrepontde.retailmanager.retail_system.event.CacheInvalidationEvent;
 import dev.andrepontde.retailmanager.retail_system.repository.StoreRepository;
 import dev.andrepontde.retailmanager.retail_system.repository.UserRepository;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
 /**
  * Service for user management and authentication context.
  * Provides methods to get current user's store context for automatic operations.
@@ -35,6 +40,12 @@ public class UserService {
     @Autowired
     private StoreRepository storeRepository;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     // Add password encoder for secure password handling
     @Autowired
     private org.springframework.security.crypto.password.PasswordEncoder passwordEncoder;
@@ -47,6 +58,7 @@ public class UserService {
      * Get the currently authenticated user from Spring Security context.
      * This is the key method that enables automatic store context.
      */
+    @Transactional(readOnly = true)
     public User getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         
@@ -58,7 +70,7 @@ public class UserService {
         String username = authentication.getName();
         
         // Load user from database
-        return userRepository.findByUsername(username)
+        return findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found: " + username));
     }
 
@@ -66,6 +78,7 @@ public class UserService {
      * Get the current user's primary store.
      * This enables automatic store context for inventory operations.
      */
+    @Transactional(readOnly = true)
     public Store getCurrentUserStore() {
         User currentUser = getCurrentUser();
         if (currentUser.getPrimaryStore() == null) {
@@ -78,6 +91,7 @@ public class UserService {
      * Get the current user's primary store ID.
      * Convenience method for services that need store ID.
      */
+    @Transactional(readOnly = true)
     public Long getCurrentUserStoreId() {
         return getCurrentUserStore().getId();
     }
@@ -85,6 +99,7 @@ public class UserService {
     /**
      * Check if current user can access a specific store.
      */
+    @Transactional(readOnly = true)
     public boolean currentUserCanAccessStore(Long storeId) {
         User currentUser = getCurrentUser();
         return currentUser.canAccessStore(storeId);
@@ -94,6 +109,7 @@ public class UserService {
      * Validate that current user can perform operations on the specified store.
      * Throws exception if access denied.
      */
+    @Transactional(readOnly = true)
     public void validateStoreAccess(Long storeId) {
         if (!currentUserCanAccessStore(storeId)) {
             throw new RuntimeException("Access denied to store ID: " + storeId);
@@ -139,8 +155,9 @@ public class UserService {
      * Authenticate user with username and password.
      * Returns the user if authentication is successful.
      */
+    @Transactional(readOnly = true)
     public Optional<User> authenticateUser(String username, String rawPassword) {
-        Optional<User> userOpt = userRepository.findByUsername(username);
+        Optional<User> userOpt = findByUsername(username);
         
         if (userOpt.isPresent()) {
             User user = userOpt.get();
@@ -156,30 +173,32 @@ public class UserService {
     /**
      * Get user by ID.
      */
+    @Transactional(readOnly = true)
     public Optional<UserDTO> getUserById(Long id) {
-        return userRepository.findById(id).map(this::convertToDTO);
+        return userRepository.findDTOById(id);
     }
 
     /**
      * Get user by username.
      */
+    @Transactional(readOnly = true)
     public Optional<UserDTO> getUserByUsername(String username) {
-        return userRepository.findByUsername(username).map(this::convertToDTO);
+        return userRepository.findDTOByUsername(username);
     }
 
     /**
      * Get all users in current user's store (for managers).
      */
+    @Transactional(readOnly = true)
     public List<UserDTO> getUsersInCurrentStore() {
         Long storeId = getCurrentUserStoreId();
-        return userRepository.findByPrimaryStoreId(storeId).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return userRepository.findDTOsByPrimaryStoreId(storeId);
     }
 
     /**
      * Get all users (admin only).
      */
+    @Transactional(readOnly = true)
     public List<UserDTO> getAllUsers() {
         // Check if current user has admin privileges
         User currentUser = getCurrentUser();
@@ -187,18 +206,17 @@ public class UserService {
             throw new RuntimeException("Access denied: Admin privileges required");
         }
 
-        return userRepository.findAll().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return userRepository.findAllAsDTO();
     }
 
     /**
      * Update user's last login time.
      */
     public void updateLastLogin(String username) {
-        userRepository.findByUsername(username).ifPresent(user -> {
+        findByUsername(username).ifPresent(user -> {
             user.setLastLogin(LocalDateTime.now());
             userRepository.save(user);
+            eventPublisher.publishEvent(CacheInvalidationEvent.user(user.getId()));
         });
     }
 
@@ -206,6 +224,14 @@ public class UserService {
     // HELPER METHODS
     // ================================
 
+    /**
+     * Load a user by username through its natural id, so repeated lookups are answered by the
+     * second-level cache (username to id, then id to user) instead of a query per request.
+     */
+    private Optional<User> findByUsername(String username) {
+        return entityManager.unwrap(Session.class).bySimpleNaturalId(User.class).loadOptional(username);
+    }
+
     /**
      * Convert User entity to UserDTO.
      */
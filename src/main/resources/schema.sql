@@ -0,0 +1,44 @@
+-- Runs after Hibernate has updated the schema (spring.jpa.defer-datasource-initialization=true).
+-- Every statement must be safe to run on each startup.
+
+-- Change versions for inventory delta sync
+CREATE SEQUENCE IF NOT EXISTS inventory_change_seq;
+UPDATE inventory SET change_version = nextval('inventory_change_seq') WHERE change_version IS NULL;
+
+-- One row per store and item. Hibernate cannot add uk_inventory_store_item while duplicates exist
+-- (it logs the failure and carries on), so duplicates are merged into the oldest row first:
+-- stock and reservations are summed (minus unfolded slot sales of the merged rows), the merged rows
+-- get tombstones for delta-sync clients and are deleted with their slots. A single statement, so a
+-- restart half way cannot merge twice. Does nothing once the unique index exists.
+WITH ranked AS (
+    SELECT id, store_id, item_id, quantity, reserved_quantity,
+           MIN(id) OVER (PARTITION BY store_id, item_id) AS keep_id
+    FROM inventory
+), duplicate AS (
+    SELECT r.id, r.store_id, r.item_id, r.keep_id,
+           GREATEST(0, COALESCE(r.quantity, 0)
+                   - COALESCE((SELECT SUM(s.sold) FROM inventory_slot s WHERE s.inventory_id = r.id), 0)) AS quantity,
+           COALESCE(r.reserved_quantity, 0) AS reserved_quantity
+    FROM ranked r
+    WHERE r.id <> r.keep_id
+), merged AS (
+    UPDATE inventory i
+    SET quantity = COALESCE(i.quantity, 0) + d.quantity,
+        reserved_quantity = COALESCE(i.reserved_quantity, 0) + d.reserved_quantity,
+        change_version = nextval('inventory_change_seq')
+    FROM (SELECT keep_id, SUM(quantity) AS quantity, SUM(reserved_quantity) AS reserved_quantity
+          FROM duplicate GROUP BY keep_id) d
+    WHERE i.id = d.keep_id
+), tombstones AS (
+    INSERT INTO inventory_tombstone (inventory_id, store_id, item_id, change_version, deleted_at)
+    SELECT id, store_id, item_id, nextval('inventory_change_seq'), now() FROM duplicate
+), slots AS (
+    DELETE FROM inventory_slot WHERE inventory_id IN (SELECT id FROM duplicate)
+)
+DELETE FROM inventory WHERE id IN (SELECT id FROM duplicate);
+
+-- Same name as the entity's constraint, so Hibernate finds it and does not try to add it again
+CREATE UNIQUE INDEX IF NOT EXISTS uk_inventory_store_item ON inventory (store_id, item_id);
+
+-- Superseded by uk_inventory_store_item; dropped only once that exists
+DROP INDEX IF EXISTS idx_inventory_store_item;
@@ -0,0 +1,157 @@
+package dev.andrepontde.retailmanager.retail_system.benchmark;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import dev.andrepontde.retailmanager.retail_system.RetailSystemApplication;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+/**
+ * Shared environment of the benchmarks that need the application: an embedded PostgreSQL
+ * server and the application context started against it (once per JMH fork), plus bulk
+ * seeding of stores, items, stock and users with set-based SQL.
+ */
+public final class BenchmarkEnvironment {
+
+    /**
+     * Password of every seeded user.
+     */
+    public static final String PASSWORD = "bench";
+
+    private static EmbeddedPostgres postgres;
+    private static ConfigurableApplicationContext context;
+    private static final List<String> extraProperties = new ArrayList<>();
+    private static long dbLatencyMillis;
+
+    private BenchmarkEnvironment() {}
+
+    /**
+     * Add application properties (name=value) and a simulated delay per SQL statement
+     * (0 for none) to the next start().
+     */
+    public static synchronized void configure(List<String> properties, long statementDelayMillis) {
+        extraProperties.addAll(properties);
+        dbLatencyMillis = statementDelayMillis;
+    }
+
+    /**
+     * Start PostgreSQL and the application on a random port, or return the running context.
+     */
+    public static synchronized ConfigurableApplicationContext start() {
+        if (context == null) {
+            try {
+                postgres = EmbeddedPostgres.builder().start();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not start embedded PostgreSQL", e);
+            }
+            // Command line arguments, so they take precedence over application.properties
+            String url = postgres.getJdbcUrl("postgres", "postgres");
+            List<String> args = new ArrayList<>(List.of(
+                    "--spring.datasource.url=" + url,
+                    "--spring.datasource.username=postgres",
+                    "--spring.datasource.password=",
+                    "--server.port=0",
+                    "--management.server.port=0",
+                    "--server.address=127.0.0.1",
+                    "--logging.level.root=WARN"));
+            extraProperties.forEach(property -> args.add("--" + property));
+            SpringApplicationBuilder builder = new SpringApplicationBuilder(RetailSystemApplication.class);
+            if (dbLatencyMillis > 0) {
+                long delay = dbLatencyMillis;
+                builder.initializers(applicationContext ->
+                        applicationContext.getBeanFactory().addBeanPostProcessor(new SimulatedDbLatency(delay)));
+            }
+            context = builder.run(args.toArray(String[]::new));
+
+            // Seeding writes in bulk: never let it reach the database configured for development
+            String actualUrl = context.getEnvironment().getProperty("spring.datasource.url");
+            if (!url.equals(actualUrl)) {
+                stop();
+                throw new IllegalStateException("Benchmark context is not using the embedded database: " + actualUrl);
+            }
+        }
+        return context;
+    }
+
+    /**
+     * Base URL of the running application, e.g. http://127.0.0.1:54321
+     */
+    public static synchronized String baseUrl() {
+        return "http://127.0.0.1:" + ((WebServerApplicationContext) start()).getWebServer().getPort();
+    }
+
+    public static synchronized void stop() {
+        if (context != null) {
+            context.close();
+            context = null;
+        }
+        if (postgres != null) {
+            try {
+                postgres.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            postgres = null;
+        }
+    }
+
+    /**
+     * Insert stores and items, stock every item in every store, and add one store manager
+     * per store (username "bench-{storeId}", password {@link #PASSWORD}).
+     *
+     * @return ids of the new stores
+     */
+    public static List<Long> seed(int stores, int items, int stockPerItem) {
+        JdbcTemplate jdbcTemplate = start().getBean(JdbcTemplate.class);
+        String password = context.getBean(PasswordEncoder.class).encode(PASSWORD);
+
+        List<Long> storeIds = jdbcTemplate.queryForList(
+            "INSERT INTO store (name, location, address, phone, manager) " +
+            "SELECT 'Bench Store ' || g, 'Bench', g || ' Bench Street', '555-' || g, 'Bench Manager' " +
+            "FROM generate_series(1, ?) g RETURNING id",
+            Long.class, stores);
+        jdbcTemplate.update(
+            "INSERT INTO item (name, category, price) " +
+            "SELECT 'Bench Item ' || g, 'Category ' || (g % 20), 1 + (g % 100) + 0.99 " +
+            "FROM generate_series(1, ?) g",
+            items);
+        jdbcTemplate.update(
+            "INSERT INTO inventory (item_id, store_id, quantity, reserved_quantity, min_stock_level, max_stock_level, change_version) " +
+            "SELECT i.id, s.id, ?, 0, 5, 100, nextval('inventory_change_seq') " +
+            "FROM item i CROSS JOIN store s WHERE s.id = ANY (?) " +
+            "AND NOT EXISTS (SELECT 1 FROM inventory x WHERE x.item_id = i.id AND x.store_id = s.id)",
+            stockPerItem, storeIds.toArray(new Long[0]));
+        jdbcTemplate.update(
+            "INSERT INTO users (username, email, password, first_name, last_name, role, primary_store_id, active, created_at) " +
+            "SELECT 'bench-' || s.id, 'bench-' || s.id || '@example.com', ?, 'Bench', 'User', 'STORE_MANAGER', s.id, true, now() " +
+            "FROM store s WHERE s.id = ANY (?)",
+            password, storeIds.toArray(new Long[0]));
+        jdbcTemplate.execute("ANALYZE");
+        return storeIds;
+    }
+
+    public static String username(Long storeId) {
+        return "bench-" + storeId;
+    }
+
+    /**
+     * Authenticate every thread as the seeded user of a store (services read the current
+     * user from the security context).
+     */
+    public static void authenticate(Long storeId) {
+        SecurityContextHolder.setStrategyName(SecurityContextHolder.MODE_GLOBAL);
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+            username(storeId), null, List.of(new SimpleGrantedAuthority("ROLE_STORE_MANAGER"))));
+    }
+}
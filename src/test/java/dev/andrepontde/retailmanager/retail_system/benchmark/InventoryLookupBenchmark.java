@@ -0,0 +1,80 @@
+package dev.andrepontde.retailmanager.retail_system.benchmark;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import dev.andrepontde.retailmanager.retail_system.dto.ItemAvailabilityDTO;
+import dev.andrepontde.retailmanager.retail_system.service.InventoryService;
+
+/**
+ * InventoryService lookups of random items as the inventory table grows
+ * (10 stores, inventoryRows / 10 items each).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class InventoryLookupBenchmark {
+
+    private static final int STORES = 10;
+
+    @Param({"1000", "10000", "100000"})
+    public int inventoryRows;
+
+    private InventoryService inventoryService;
+    private long[] itemIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ConfigurableApplicationContext context = BenchmarkEnvironment.start();
+        List<Long> storeIds = BenchmarkEnvironment.seed(STORES, inventoryRows / STORES, 1_000);
+        BenchmarkEnvironment.authenticate(storeIds.get(0));
+        inventoryService = context.getBean(InventoryService.class);
+        itemIds = context.getBean(JdbcTemplate.class).queryForList("SELECT id FROM item", Long.class)
+                .stream().mapToLong(Long::longValue).toArray();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkEnvironment.stop();
+    }
+
+    /**
+     * Stock of one item in the current user's store.
+     */
+    @Benchmark
+    public int getStock() {
+        return inventoryService.getStock(randomItemId());
+    }
+
+    /**
+     * Stock of one item in every store.
+     */
+    @Benchmark
+    public ItemAvailabilityDTO getItemAvailability() {
+        return inventoryService.getItemAvailability(randomItemId());
+    }
+
+    private long randomItemId() {
+        return itemIds[ThreadLocalRandom.current().nextInt(itemIds.length)];
+    }
+}
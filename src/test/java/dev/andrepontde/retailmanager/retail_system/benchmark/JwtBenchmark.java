@@ -0,0 +1,59 @@
+package dev.andrepontde.retailmanager.retail_system.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import dev.andrepontde.retailmanager.retail_system.security.JwtUtil;
+
+/**
+ * JwtUtil token generation, parsing and verification (the work done on every authenticated request).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    private JwtUtil jwtUtil;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secretKey", "mySecretKey12345678901234567890123456789012345678901234567890");
+        ReflectionTestUtils.setField(jwtUtil, "jwtExpiration", 86400);
+        token = jwtUtil.generateToken(42L, "bench-1", "STORE_MANAGER", 1L, "Bench Store 1");
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(42L, "bench-1", "STORE_MANAGER", 1L, "Bench Store 1");
+    }
+
+    /**
+     * Signature check and claim extraction, as done by the authentication filter.
+     */
+    @Benchmark
+    public String parseToken() {
+        return jwtUtil.extractUsername(token);
+    }
+
+    @Benchmark
+    public Boolean validateToken() {
+        return jwtUtil.validateToken(token, "bench-1");
+    }
+}
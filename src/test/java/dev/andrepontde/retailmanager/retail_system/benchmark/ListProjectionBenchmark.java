@@ -0,0 +1,129 @@
+package dev.andrepontde.retailmanager.retail_system.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import dev.andrepontde.retailmanager.retail_system.dto.InventoryDTO;
+import dev.andrepontde.retailmanager.retail_system.dto.ItemDTO;
+import dev.andrepontde.retailmanager.retail_system.entity.Inventory;
+import dev.andrepontde.retailmanager.retail_system.entity.Item;
+import dev.andrepontde.retailmanager.retail_system.repository.InventoryRepository;
+import dev.andrepontde.retailmanager.retail_system.repository.ItemRepository;
+import dev.andrepontde.retailmanager.retail_system.service.InventoryService;
+import dev.andrepontde.retailmanager.retail_system.service.ItemService;
+
+/**
+ * Large list endpoints: managed entities copied into DTOs (the previous implementation,
+ * in a read-write transaction) against DTO projection queries (the services today).
+ *
+ * Run with the GC profiler (on in the benchmark profile) to compare allocation per call
+ * (gc.alloc.rate.norm) as well as latency.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ListProjectionBenchmark {
+
+    @Param({"1000", "10000", "50000"})
+    public int rows;
+
+    private Long storeId;
+    private ItemService itemService;
+    private InventoryService inventoryService;
+    private ItemRepository itemRepository;
+    private InventoryRepository inventoryRepository;
+    private TransactionTemplate readWrite;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ConfigurableApplicationContext context = BenchmarkEnvironment.start();
+        storeId = BenchmarkEnvironment.seed(1, rows, 1_000).get(0);
+        BenchmarkEnvironment.authenticate(storeId);
+        itemService = context.getBean(ItemService.class);
+        inventoryService = context.getBean(InventoryService.class);
+        itemRepository = context.getBean(ItemRepository.class);
+        inventoryRepository = context.getBean(InventoryRepository.class);
+        readWrite = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkEnvironment.stop();
+    }
+
+    /**
+     * All items: entities loaded and mapped field by field.
+     */
+    @Benchmark
+    public List<ItemDTO> itemsFromEntities() {
+        return readWrite.execute(status -> {
+            List<ItemDTO> result = new ArrayList<>();
+            for (Item item : itemRepository.findAll()) {
+                ItemDTO dto = new ItemDTO(item.getName(), item.getCategory(), item.getPrice());
+                dto.setId(item.getId());
+                result.add(dto);
+            }
+            return result;
+        });
+    }
+
+    /**
+     * All items: constructor projection.
+     */
+    @Benchmark
+    public List<ItemDTO> itemsFromProjection() {
+        return itemService.getAllItems();
+    }
+
+    /**
+     * Inventory of a store: entities loaded and mapped field by field.
+     */
+    @Benchmark
+    public List<InventoryDTO> inventoryFromEntities() {
+        return readWrite.execute(status -> {
+            List<InventoryDTO> result = new ArrayList<>();
+            for (Inventory inventory : inventoryRepository.findByStoreId(storeId)) {
+                InventoryDTO dto = new InventoryDTO();
+                dto.setId(inventory.getId());
+                dto.setItemId(inventory.getItem().getId());
+                dto.setStoreId(inventory.getStore().getId());
+                dto.setVersion(inventory.getChangeVersion());
+                dto.setQuantity(inventory.getQuantity());
+                dto.setReservedQuantity(inventory.getReservedQuantity());
+                dto.setMinStockLevel(inventory.getMinStockLevel());
+                dto.setMaxStockLevel(inventory.getMaxStockLevel());
+                result.add(dto);
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Inventory of a store: constructor projection.
+     */
+    @Benchmark
+    public List<InventoryDTO> inventoryFromProjection() {
+        return inventoryService.getInventoryByStore(storeId);
+    }
+}
@@ -0,0 +1,88 @@
+package dev.andrepontde.retailmanager.retail_system.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import dev.andrepontde.retailmanager.retail_system.dto.ItemDTO;
+import dev.andrepontde.retailmanager.retail_system.dto.SaleDTO;
+import dev.andrepontde.retailmanager.retail_system.dto.SaleItemDTO;
+import dev.andrepontde.retailmanager.retail_system.dto.StoreDTO;
+
+/**
+ * JSON serialization of SaleDTO lists (sales history responses) with an ObjectMapper
+ * configured the way Spring MVC configures its own.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SaleJsonBenchmark {
+
+    private static final int LINES_PER_SALE = 5;
+
+    @Param({"10", "100", "1000"})
+    public int sales;
+
+    private ObjectMapper objectMapper;
+    private List<SaleDTO> saleList;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        StoreDTO store = new StoreDTO();
+        store.setId(1L);
+        store.setName("Bench Store");
+        store.setAddress("1 Bench Street");
+        store.setPhone("555-0100");
+
+        saleList = new ArrayList<>(sales);
+        for (int s = 0; s < sales; s++) {
+            SaleDTO sale = new SaleDTO();
+            sale.setId((long) s + 1);
+            sale.setStore(store);
+            sale.setSaleDate(LocalDateTime.now().minusMinutes(s));
+            sale.setPaymentMethod(SaleDTO.PaymentMethod.CARD);
+            sale.setCustomerEmail("customer" + s + "@example.com");
+            List<SaleItemDTO> lines = new ArrayList<>(LINES_PER_SALE);
+            double total = 0;
+            for (int i = 0; i < LINES_PER_SALE; i++) {
+                ItemDTO item = new ItemDTO("Bench Item " + i, "Category " + i, 9.99 + i);
+                item.setId((long) i + 1);
+                SaleItemDTO line = new SaleItemDTO(item, 1 + i % 3, item.getPrice());
+                line.setId((long) s * LINES_PER_SALE + i + 1);
+                line.setTotalPrice(item.getPrice() * line.getQuantity());
+                total += line.getTotalPrice();
+                lines.add(line);
+            }
+            sale.setSaleItems(lines);
+            sale.setTotalAmount(total);
+            saleList.add(sale);
+        }
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(saleList);
+    }
+}
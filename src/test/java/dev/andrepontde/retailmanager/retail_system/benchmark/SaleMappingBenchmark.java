@@ -0,0 +1,78 @@
+package dev.andrepontde.retailmanager.retail_system.benchmark;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dev.andrepontde.retailmanager.retail_system.dto.SaleDTO;
+import dev.andrepontde.retailmanager.retail_system.entity.Item;
+import dev.andrepontde.retailmanager.retail_system.entity.Sale;
+import dev.andrepontde.retailmanager.retail_system.entity.SaleItem;
+import dev.andrepontde.retailmanager.retail_system.entity.Store;
+import dev.andrepontde.retailmanager.retail_system.service.SaleService;
+
+/**
+ * SaleService's entity to DTO mapping on its own (no database), for sales of several sizes.
+ * The mapping method is private, so it is called through a method handle.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SaleMappingBenchmark {
+
+    @Param({"1", "5", "20"})
+    public int basketSize;
+
+    private SaleService saleService;
+    private MethodHandle convertToDTO;
+    private Sale sale;
+
+    @Setup(Level.Trial)
+    public void setUp() throws ReflectiveOperationException {
+        // The mapping uses no injected collaborators, so a plain instance is enough
+        saleService = new SaleService();
+        convertToDTO = MethodHandles.privateLookupIn(SaleService.class, MethodHandles.lookup())
+                .findVirtual(SaleService.class, "convertToDTO", MethodType.methodType(SaleDTO.class, Sale.class));
+
+        Store store = new Store("Bench Store", "Bench", "1 Bench Street", "555-0100", "Bench Manager");
+        store.setId(1L);
+        sale = new Sale(store, 0.0, Sale.PaymentMethod.CARD);
+        sale.setId(1L);
+        sale.setSaleDate(LocalDateTime.now());
+        sale.setCustomerEmail("customer@example.com");
+        List<SaleItem> lines = new ArrayList<>();
+        for (int i = 0; i < basketSize; i++) {
+            Item item = new Item("Bench Item " + i, "Category " + (i % 5), 9.99 + i);
+            item.setId((long) i + 1);
+            SaleItem line = new SaleItem(sale, item, 2, item.getPrice());
+            line.setId((long) i + 1);
+            lines.add(line);
+        }
+        sale.setSaleItems(lines);
+    }
+
+    @Benchmark
+    public SaleDTO convertToDTO() throws Throwable {
+        return (SaleDTO) convertToDTO.invoke(saleService, sale);
+    }
+}
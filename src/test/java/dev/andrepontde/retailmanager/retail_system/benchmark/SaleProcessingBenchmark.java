@@ -0,0 +1,79 @@
+package dev.andrepontde.retailmanager.retail_system.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import dev.andrepontde.retailmanager.retail_system.dto.ItemDTO;
+import dev.andrepontde.retailmanager.retail_system.dto.SaleDTO;
+import dev.andrepontde.retailmanager.retail_system.dto.SaleItemDTO;
+import dev.andrepontde.retailmanager.retail_system.service.SaleService;
+
+/**
+ * SaleService.processSale end to end (item lookups, stock updates, sale insert, events)
+ * for baskets of random items of a store with 1,000 items.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SaleProcessingBenchmark {
+
+    @Param({"1", "5", "20"})
+    public int basketSize;
+
+    private SaleService saleService;
+    private long[] itemIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ConfigurableApplicationContext context = BenchmarkEnvironment.start();
+        Long storeId = BenchmarkEnvironment.seed(1, 1_000, 10_000_000).get(0);
+        BenchmarkEnvironment.authenticate(storeId);
+        saleService = context.getBean(SaleService.class);
+        itemIds = context.getBean(JdbcTemplate.class).queryForList("SELECT id FROM item", Long.class)
+                .stream().mapToLong(Long::longValue).toArray();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkEnvironment.stop();
+    }
+
+    @Benchmark
+    public SaleDTO processSale() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<SaleItemDTO> lines = new ArrayList<>(basketSize);
+        for (int i = 0; i < basketSize; i++) {
+            ItemDTO item = new ItemDTO();
+            item.setId(itemIds[random.nextInt(itemIds.length)]);
+            SaleItemDTO line = new SaleItemDTO();
+            line.setItem(item);
+            line.setQuantity(1);
+            lines.add(line);
+        }
+        SaleDTO sale = new SaleDTO();
+        sale.setPaymentMethod(SaleDTO.PaymentMethod.CARD);
+        sale.setSaleItems(lines);
+        return saleService.processSale(sale);
+    }
+}
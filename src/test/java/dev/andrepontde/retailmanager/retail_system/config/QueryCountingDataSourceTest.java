@@ -0,0 +1,80 @@
+package dev.andrepontde.retailmanager.retail_system.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class QueryCountingDataSourceTest {
+
+    private DataSource pool;
+    private Connection connection;
+    private SimpleMeterRegistry meterRegistry;
+    private QueryCountingDataSource dataSource;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        pool = mock(DataSource.class, withSettings().extraInterfaces(AutoCloseable.class));
+        connection = mock(Connection.class);
+        when(pool.getConnection()).thenReturn(connection);
+
+        meterRegistry = new SimpleMeterRegistry();
+        ObjectProvider<MeterRegistry> meterRegistryProvider = mock(ObjectProvider.class);
+        when(meterRegistryProvider.getIfAvailable()).thenReturn(meterRegistry);
+        dataSource = new QueryCountingDataSource(pool, 200, meterRegistryProvider);
+    }
+
+    @Test
+    void countsEveryExecutionInTheCurrentScope() throws Exception {
+        PreparedStatement prepared = mock(PreparedStatement.class);
+        Statement plain = mock(Statement.class);
+        when(connection.prepareStatement(anyString())).thenReturn(prepared);
+        when(connection.createStatement()).thenReturn(plain);
+
+        QueryStats stats = QueryStats.begin();
+        try (Connection wrapped = dataSource.getConnection()) {
+            PreparedStatement select = wrapped.prepareStatement("SELECT * FROM item WHERE id = ?");
+            select.setLong(1, 1);
+            select.executeQuery();
+            select.setLong(1, 2);
+            select.executeQuery();
+
+            Statement batch = wrapped.createStatement();
+            batch.addBatch("UPDATE item SET price = 1");
+            batch.addBatch("UPDATE item SET price = 2");
+            batch.executeBatch();
+        } finally {
+            QueryStats.end(stats);
+        }
+
+        // A batch is one execution
+        assertThat(stats.getCount()).isEqualTo(3);
+        assertThat(stats.getMaxRepeats()).isEqualTo(2);
+        assertThat(stats.getRepeated(2)).containsOnlyKeys("SELECT * FROM item WHERE id = ?");
+        assertThat(meterRegistry.get("retail.jdbc.statements").timer().count()).isEqualTo(3);
+        verify(connection).close();
+    }
+
+    @Test
+    void closeClosesThePool() throws Exception {
+        dataSource.close();
+
+        verify((AutoCloseable) pool).close();
+    }
+}
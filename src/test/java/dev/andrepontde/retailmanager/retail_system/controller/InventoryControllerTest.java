@@ -0,0 +1,126 @@
+package dev.andrepontde.retailmanager.retail_system.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import dev.andrepontde.retailmanager.retail_system.entity.Inventory;
+import dev.andrepontde.retailmanager.retail_system.entity.Item;
+import dev.andrepontde.retailmanager.retail_system.entity.Store;
+import dev.andrepontde.retailmanager.retail_system.entity.User;
+import dev.andrepontde.retailmanager.retail_system.repository.InventoryRepository;
+import dev.andrepontde.retailmanager.retail_system.repository.ItemRepository;
+import dev.andrepontde.retailmanager.retail_system.repository.StoreRepository;
+import dev.andrepontde.retailmanager.retail_system.repository.UserRepository;
+import dev.andrepontde.retailmanager.retail_system.security.JwtUtil;
+import dev.andrepontde.retailmanager.retail_system.support.QueryBudget;
+
+/**
+ * Query budgets of the inventory endpoints, against the configured database.
+ *
+ * Each test creates its own stores, items and user (names are unique per run) and removes
+ * them afterwards.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class InventoryControllerTest {
+
+    private static final int BASKET_SIZE = 10;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private final List<Store> stores = new ArrayList<>();
+    private final List<Item> items = new ArrayList<>();
+    private final List<Inventory> inventory = new ArrayList<>();
+    private User user;
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        String location = "Test-" + run;
+        for (int i = 0; i < 3; i++) {
+            stores.add(storeRepository.save(new Store("Store " + run + "-" + i, location, null, null, null)));
+        }
+        for (int i = 0; i < BASKET_SIZE; i++) {
+            items.add(itemRepository.save(new Item("Item " + run + "-" + i, "Test", 1.0 + i)));
+        }
+        // Every store stocks every other item
+        for (Store store : stores) {
+            for (int i = 0; i < items.size(); i += 2) {
+                inventory.add(inventoryRepository.save(new Inventory(items.get(i), store, 10 + i)));
+            }
+        }
+
+        user = userRepository.save(new User("user-" + run, run + "@example.com", "unused", "Test", "User",
+                User.UserRole.EMPLOYEE, stores.get(0)));
+        token = "Bearer " + jwtUtil.generateToken(user.getId(), user.getUsername(), user.getRole().name(),
+                stores.get(0).getId(), stores.get(0).getName());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (user != null) {
+            userRepository.delete(user);
+        }
+        inventoryRepository.deleteAll(inventory);
+        itemRepository.deleteAll(items);
+        storeRepository.deleteAll(stores);
+    }
+
+    @Test
+    void basketAvailabilityHasAFixedQueryCount() throws Exception {
+        mockMvc.perform(get("/api/inventory/availability")
+                        .param("itemIds", itemIds())
+                        .header("Authorization", token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.available.length()").value(BASKET_SIZE))
+                .andExpect(QueryBudget.atMost(4))
+                .andExpect(QueryBudget.noStatementRepeatedMoreThan(1));
+    }
+
+    @Test
+    void basketAvailabilityWithNearbyStoresHasAFixedQueryCount() throws Exception {
+        mockMvc.perform(get("/api/inventory/availability")
+                        .param("itemIds", itemIds())
+                        .param("nearby", "true")
+                        .header("Authorization", token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nearby.length()").value(stores.size() - 1))
+                .andExpect(QueryBudget.atMost(5))
+                .andExpect(QueryBudget.noStatementRepeatedMoreThan(1));
+    }
+
+    private String itemIds() {
+        return items.stream().map(item -> item.getId().toString()).collect(Collectors.joining(","));
+    }
+}
@@ -0,0 +1,457 @@
+package dev.andrepontde.retailmanager.retail_system.datagen;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * Fills the database with a large, realistic, reproducible dataset for benchmarks and query plans.
+ *
+ * Generates stores, items, stock of every item in every store, one manager per store and
+ * (by default) ten million sales over the last year, written with PostgreSQL COPY on several
+ * connections in parallel. The data is skewed like real retail data:
+ * - item popularity follows a Zipf distribution (a few items make most of the sales), and
+ *   store traffic a flatter one
+ * - sales follow the opening hours with lunch and evening peaks, weekday/weekend and
+ *   December seasonality, and a slow growth over the period
+ * - basket sizes are geometric; a third of the sales carry a customer e-mail from a fixed pool
+ *
+ * The same seed and options always generate the same data, whatever the number of threads:
+ * each day is generated from its own random stream. Generated rows are added to the existing
+ * data (new ids after the current maximum); run it while the application is stopped, after
+ * the application has created the schema once.
+ *
+ * Options (--name=value): url, user, password, seed, stores, items, sales, days, customers,
+ * item-skew, store-skew, threads.
+ *
+ * ./mvnw -Pdataset verify -DskipTests -Ddataset.args="--sales=10000000 --seed=7"
+ */
+public class DatasetGenerator {
+
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final String[] CATEGORIES = {
+        "Grocery", "Dairy", "Bakery", "Produce", "Meat", "Frozen", "Beverages", "Snacks", "Household",
+        "Personal Care", "Baby", "Pet", "Electronics", "Toys", "Stationery", "Clothing", "Footwear",
+        "Garden", "Hardware", "Kitchen", "Sports", "Books", "Health", "Beauty", "Seasonal"
+    };
+
+    private static final String[] PAYMENT_METHODS = {"CARD", "CASH", "MOBILE_PAYMENT", "BANK_TRANSFER"};
+    private static final double[] PAYMENT_WEIGHTS = {55, 25, 15, 5};
+
+    // Share of sales per opening hour (8:00 to 21:59), with lunch and after-work peaks
+    private static final int FIRST_HOUR = 8;
+    private static final double[] HOUR_WEIGHTS = {2, 4, 6, 8, 11, 10, 7, 6, 7, 10, 11, 8, 5, 3};
+
+    // Monday to Sunday
+    private static final double[] WEEKDAY_WEIGHTS = {0.9, 0.9, 0.95, 1.0, 1.15, 1.35, 0.8};
+
+    private static final int MAX_BASKET = 30;
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final long seed;
+    private final int stores;
+    private final int items;
+    private final long sales;
+    private final int days;
+    private final int customers;
+    private final double itemSkew;
+    private final double storeSkew;
+    private final int threads;
+
+    // Catalog, indexed from 0
+    private long[] storeIds;
+    private long[] itemIds;
+    private double[] itemPrices;
+
+    public DatasetGenerator(Map<String, String> options) {
+        this.url = options.getOrDefault("url", "jdbc:postgresql://localhost:5332/postgres");
+        this.user = options.getOrDefault("user", "postgres");
+        this.password = options.getOrDefault("password", "261010");
+        this.seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        this.stores = Integer.parseInt(options.getOrDefault("stores", "50"));
+        this.items = Integer.parseInt(options.getOrDefault("items", "20000"));
+        this.sales = Long.parseLong(options.getOrDefault("sales", "10000000"));
+        this.days = Integer.parseInt(options.getOrDefault("days", "365"));
+        this.customers = Integer.parseInt(options.getOrDefault("customers", "2000000"));
+        this.itemSkew = Double.parseDouble(options.getOrDefault("item-skew", "1.05"));
+        this.storeSkew = Double.parseDouble(options.getOrDefault("store-skew", "0.6"));
+        this.threads = Integer.parseInt(options.getOrDefault("threads", "4"));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            for (String part : arg.trim().split("\\s+")) {
+                if (part.startsWith("--") && part.contains("=")) {
+                    options.put(part.substring(2, part.indexOf('=')), part.substring(part.indexOf('=') + 1));
+                }
+            }
+        }
+        new DatasetGenerator(options).generate();
+    }
+
+    public void generate() throws Exception {
+        long start = System.currentTimeMillis();
+        try (Connection connection = connect()) {
+            generateCatalog(connection);
+            log(start, "Catalog: %d stores, %d items, %d inventory rows", stores, items, (long) stores * items);
+
+            generateSales(connection, start);
+
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("ANALYZE store, item, inventory, users, sale, sale_item");
+            }
+        }
+        log(start, "Done");
+    }
+
+    // ================================
+    // CATALOG
+    // ================================
+
+    private void generateCatalog(Connection connection) throws SQLException {
+        SplittableRandom random = new SplittableRandom(seed);
+
+        long firstStoreId = reserveIds(connection, "store", stores);
+        storeIds = new long[stores];
+        StringBuilder rows = new StringBuilder();
+        for (int s = 0; s < stores; s++) {
+            storeIds[s] = firstStoreId + s;
+            rows.append(storeIds[s]).append('\t').append("Store ").append(storeIds[s]).append('\t')
+                .append("City ").append(1 + random.nextInt(Math.max(1, stores / 3))).append('\t')
+                .append(100 + random.nextInt(900)).append(" Main Street").append('\t')
+                .append("555-").append(1000 + random.nextInt(9000)).append('\t')
+                .append("Manager ").append(storeIds[s]).append('\n');
+        }
+        copy(connection, "COPY store (id, name, location, address, phone, manager) FROM STDIN", rows);
+
+        long firstItemId = reserveIds(connection, "item", items);
+        itemIds = new long[items];
+        itemPrices = new double[items];
+        rows.setLength(0);
+        for (int i = 0; i < items; i++) {
+            itemIds[i] = firstItemId + i;
+            // Log-normal prices: mostly a few euros, a long tail of expensive items
+            itemPrices[i] = Math.max(0.19, (Math.round(Math.exp(1.3 + random.nextGaussian()) * 100) - 1) / 100.0);
+            String category = CATEGORIES[random.nextInt(CATEGORIES.length)];
+            rows.append(itemIds[i]).append('\t').append(category).append(" Item ").append(itemIds[i]).append('\t')
+                .append(category).append('\t').append(itemPrices[i]).append('\n');
+        }
+        copy(connection, "COPY item (id, name, category, price) FROM STDIN", rows);
+
+        long versions = (long) stores * items;
+        long firstVersion;
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT nextval('inventory_change_seq')")) {
+            rs.next();
+            firstVersion = rs.getLong(1);
+            statement.execute("SELECT setval('inventory_change_seq', " + (firstVersion + versions - 1) + ")");
+        }
+        CopyBuffer inventory = new CopyBuffer(connection,
+            "COPY inventory (item_id, store_id, quantity, reserved_quantity, min_stock_level, max_stock_level, change_version) FROM STDIN");
+        long version = firstVersion;
+        for (long storeId : storeIds) {
+            for (long itemId : itemIds) {
+                inventory.row().append(itemId).append('\t').append(storeId).append('\t')
+                         .append(random.nextInt(500)).append("\t0\t5\t100\t").append(version++).append('\n');
+                inventory.flushIfFull();
+            }
+        }
+        inventory.end();
+
+        String passwordHash = new BCryptPasswordEncoder().encode("password");
+        rows.setLength(0);
+        for (long storeId : storeIds) {
+            rows.append("gen-manager-").append(storeId).append('\t').append("gen-manager-").append(storeId)
+                .append("@example.com").append('\t').append(passwordHash).append('\t').append("Store").append('\t')
+                .append("Manager").append('\t').append("STORE_MANAGER").append('\t').append(storeId)
+                .append("\tt\t").append(LocalDate.now().atStartOfDay().format(TIMESTAMP)).append('\n');
+        }
+        copy(connection, "COPY users (username, email, password, first_name, last_name, role, primary_store_id, active, created_at) FROM STDIN", rows);
+    }
+
+    // ================================
+    // SALES
+    // ================================
+
+    private void generateSales(Connection connection, long start) throws Exception {
+        LocalDate firstDay = LocalDate.now().minusDays(days);
+        long[] dayCounts = dayCounts(firstDay);
+        long[] dayFirstIds = new long[days];
+        long firstSaleId = reserveIds(connection, "sale", sales);
+        long offset = 0;
+        for (int d = 0; d < days; d++) {
+            dayFirstIds[d] = firstSaleId + offset;
+            offset += dayCounts[d];
+        }
+
+        ZipfSampler itemPopularity = new ZipfSampler(items, itemSkew);
+        ZipfSampler storeTraffic = new ZipfSampler(stores, storeSkew);
+        // Popularity rank -> item, so best sellers are spread over ids and categories
+        int[] itemByRank = permutation(items, new SplittableRandom(seed + 1));
+        int[] storeByRank = permutation(stores, new SplittableRandom(seed + 2));
+
+        AtomicInteger nextDay = new AtomicInteger();
+        AtomicLong salesWritten = new AtomicLong();
+        AtomicLong linesWritten = new AtomicLong();
+        List<Thread> workers = new ArrayList<>();
+        List<Exception> failures = new ArrayList<>();
+        for (int t = 0; t < Math.max(1, threads); t++) {
+            Thread worker = new Thread(() -> {
+                try (Connection workerConnection = connect()) {
+                    for (int d = nextDay.getAndIncrement(); d < days; d = nextDay.getAndIncrement()) {
+                        linesWritten.addAndGet(generateDay(workerConnection, firstDay.plusDays(d), d, dayCounts[d],
+                                                           dayFirstIds[d], itemPopularity, storeTraffic,
+                                                           itemByRank, storeByRank));
+                        long written = salesWritten.addAndGet(dayCounts[d]);
+                        if (d % 30 == 0) {
+                            log(start, "Sales: %d of %d", written, sales);
+                        }
+                    }
+                } catch (Exception e) {
+                    synchronized (failures) {
+                        failures.add(e);
+                    }
+                }
+            }, "dataset-" + t);
+            worker.start();
+            workers.add(worker);
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        if (!failures.isEmpty()) {
+            throw failures.get(0);
+        }
+        log(start, "Sales: %d sales, %d sale lines", salesWritten.get(), linesWritten.get());
+    }
+
+    /**
+     * Write the sales of one day (with consecutive ids in time order), then their lines.
+     *
+     * @return number of sale lines written
+     */
+    private long generateDay(Connection connection, LocalDate day, int dayIndex, long count, long firstId,
+                             ZipfSampler itemPopularity, ZipfSampler storeTraffic,
+                             int[] itemByRank, int[] storeByRank) throws SQLException {
+        SplittableRandom random = new SplittableRandom(seed * 1_000_003L + dayIndex);
+        double[] hourCdf = cumulative(HOUR_WEIGHTS);
+        double[] paymentCdf = cumulative(PAYMENT_WEIGHTS);
+
+        int[] secondsOfDay = new int[(int) count];
+        for (int i = 0; i < count; i++) {
+            int hour = FIRST_HOUR + pick(hourCdf, random);
+            secondsOfDay[i] = hour * 3600 + random.nextInt(3600);
+        }
+        Arrays.sort(secondsOfDay);
+
+        CopyBuffer saleRows = new CopyBuffer(connection,
+            "COPY sale (id, store_id, sale_date, total_amount, payment_method, customer_email, customer_phone) FROM STDIN");
+        StringBuilder lineRows = new StringBuilder((int) count * 3 * 40);
+        long lines = 0;
+        for (int i = 0; i < count; i++) {
+            long saleId = firstId + i;
+            long storeId = storeIds[storeByRank[storeTraffic.sample(random)]];
+
+            int basketSize = 1;
+            while (basketSize < MAX_BASKET && random.nextDouble() < 0.62) {
+                basketSize++;
+            }
+            double total = 0;
+            for (int l = 0; l < basketSize; l++) {
+                int item = itemByRank[itemPopularity.sample(random)];
+                int quantity = random.nextDouble() < 0.8 ? 1 : 2 + random.nextInt(3);
+                double lineTotal = Math.round(itemPrices[item] * quantity * 100) / 100.0;
+                total += lineTotal;
+                lineRows.append(saleId).append('\t').append(itemIds[item]).append('\t').append(quantity).append('\t')
+                        .append(itemPrices[item]).append('\t').append(lineTotal).append("\t0\n");
+            }
+            lines += basketSize;
+
+            String email = "\\N";
+            String phone = "\\N";
+            double customer = random.nextDouble();
+            if (customer < 0.33) {
+                email = "customer" + random.nextInt(customers) + "@example.com";
+            } else if (customer < 0.40) {
+                phone = "+3538" + (10_000_000 + random.nextInt(90_000_000));
+            }
+            int second = secondsOfDay[i];
+            saleRows.row().append(saleId).append('\t').append(storeId).append('\t')
+                    .append(day.atTime(second / 3600, second / 60 % 60, second % 60).format(TIMESTAMP)).append('\t')
+                    .append(Math.round(total * 100) / 100.0).append('\t')
+                    .append(PAYMENT_METHODS[pick(paymentCdf, random)]).append('\t')
+                    .append(email).append('\t').append(phone).append('\n');
+            saleRows.flushIfFull();
+        }
+        // Sales first (committed), so the lines' foreign keys find them
+        saleRows.end();
+        copy(connection, "COPY sale_item (sale_id, item_id, quantity, unit_price, total_price, discount) FROM STDIN", lineRows);
+        return lines;
+    }
+
+    /**
+     * Number of sales of each day: weekday and December seasonality plus 20% growth over the period,
+     * scaled so the days add up to exactly the requested number of sales.
+     */
+    private long[] dayCounts(LocalDate firstDay) {
+        double[] weights = new double[days];
+        double sum = 0;
+        for (int d = 0; d < days; d++) {
+            LocalDate day = firstDay.plusDays(d);
+            double weight = WEEKDAY_WEIGHTS[day.getDayOfWeek().getValue() - 1] * (1.0 + 0.2 * d / days);
+            if (day.getMonthValue() == 12) {
+                weight *= day.getDayOfMonth() <= 24 ? 1.4 : 1.1;
+            }
+            weights[d] = weight;
+            sum += weight;
+        }
+        long[] counts = new long[days];
+        long assigned = 0;
+        for (int d = 0; d < days; d++) {
+            counts[d] = (long) (sales * weights[d] / sum);
+            assigned += counts[d];
+        }
+        counts[days - 1] += sales - assigned;
+        return counts;
+    }
+
+    // ================================
+    // HELPER METHODS
+    // ================================
+
+    /**
+     * Samples ranks 0..n-1 with probability proportional to 1 / (rank + 1)^exponent.
+     */
+    private static final class ZipfSampler {
+        private final double[] cdf;
+
+        ZipfSampler(int n, double exponent) {
+            double[] weights = new double[n];
+            for (int rank = 0; rank < n; rank++) {
+                weights[rank] = 1.0 / Math.pow(rank + 1, exponent);
+            }
+            cdf = cumulative(weights);
+        }
+
+        int sample(SplittableRandom random) {
+            return pick(cdf, random);
+        }
+    }
+
+    /**
+     * Accumulates COPY text rows and sends them to the server in chunks of about 1 MB.
+     */
+    private static final class CopyBuffer {
+        private final CopyIn copyIn;
+        private final StringBuilder rows = new StringBuilder(1 << 20);
+
+        CopyBuffer(Connection connection, String sql) throws SQLException {
+            this.copyIn = copyManager(connection).copyIn(sql);
+        }
+
+        StringBuilder row() {
+            return rows;
+        }
+
+        void flushIfFull() throws SQLException {
+            if (rows.length() >= 1 << 20) {
+                flush();
+            }
+        }
+
+        void end() throws SQLException {
+            flush();
+            copyIn.endCopy();
+        }
+
+        private void flush() throws SQLException {
+            byte[] bytes = rows.toString().getBytes(StandardCharsets.UTF_8);
+            copyIn.writeToCopy(bytes, 0, bytes.length);
+            rows.setLength(0);
+        }
+    }
+
+    private Connection connect() throws SQLException {
+        return DriverManager.getConnection(url, user, password);
+    }
+
+    private static void copy(Connection connection, String sql, CharSequence rows) throws SQLException {
+        CopyIn copyIn = copyManager(connection).copyIn(sql);
+        byte[] bytes = rows.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        copyIn.endCopy();
+    }
+
+    private static CopyManager copyManager(Connection connection) throws SQLException {
+        return connection.unwrap(PGConnection.class).getCopyAPI();
+    }
+
+    /**
+     * First of count new ids after the table's current maximum; the identity sequence is moved
+     * past them so the application keeps generating unique ids.
+     */
+    private static long reserveIds(Connection connection, String table, long count) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COALESCE(MAX(id), 0) + 1 FROM " + table)) {
+            rs.next();
+            long first = rs.getLong(1);
+            statement.execute("SELECT setval(pg_get_serial_sequence('" + table + "', 'id'), " + (first + count - 1) + ")");
+            return first;
+        }
+    }
+
+    private static int[] permutation(int n, SplittableRandom random) {
+        int[] result = new int[n];
+        for (int i = 0; i < n; i++) {
+            result[i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = result[i];
+            result[i] = result[j];
+            result[j] = swap;
+        }
+        return result;
+    }
+
+    private static double[] cumulative(double[] weights) {
+        double[] cdf = new double[weights.length];
+        double sum = 0;
+        for (int i = 0; i < weights.length; i++) {
+            sum += weights[i];
+            cdf[i] = sum;
+        }
+        return cdf;
+    }
+
+    private static int pick(double[] cdf, SplittableRandom random) {
+        int index = Arrays.binarySearch(cdf, random.nextDouble() * cdf[cdf.length - 1]);
+        return Math.min(index >= 0 ? index : -index - 1, cdf.length - 1);
+    }
+
+    private static void log(long start, String format, Object... args) {
+        System.out.printf("[%6.1fs] %s%n", (System.currentTimeMillis() - start) / 1000.0, String.format(format, args));
+    }
+}
@@ -0,0 +1,95 @@
+package dev.andrepontde.retailmanager.retail_system.loadtest;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Latencies and errors per endpoint of a load test run.
+ *
+ * Every latency is kept (microseconds in a growing array per endpoint), so percentiles
+ * are exact; a run of a few million requests needs a few tens of MB.
+ */
+class LoadStats {
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    private volatile boolean recording;
+
+    private static final class Endpoint {
+        private long[] latencies = new long[1024];
+        private int count;
+        private int errors;
+
+        synchronized void add(long micros, boolean error) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = micros;
+            if (error) {
+                errors++;
+            }
+        }
+
+        synchronized long[] sorted() {
+            long[] result = Arrays.copyOf(latencies, count);
+            Arrays.sort(result);
+            return result;
+        }
+
+        synchronized int errors() {
+            return errors;
+        }
+    }
+
+    /**
+     * Start keeping results (requests made before, during warm-up, are not counted).
+     */
+    void startRecording() {
+        recording = true;
+    }
+
+    void stopRecording() {
+        recording = false;
+    }
+
+    void record(String endpoint, long startNanos, boolean error) {
+        if (recording) {
+            long micros = (System.nanoTime() - startNanos) / 1_000;
+            endpoints.computeIfAbsent(endpoint, name -> new Endpoint()).add(micros, error);
+        }
+    }
+
+    /**
+     * Summary per endpoint (sorted by name): requests, errors, error rate, throughput
+     * per second and p50/p99/p999/max latency in milliseconds.
+     */
+    Map<String, Map<String, Object>> summary(double seconds) {
+        Map<String, Map<String, Object>> result = new LinkedHashMap<>();
+        for (Map.Entry<String, Endpoint> entry : new TreeMap<>(endpoints).entrySet()) {
+            long[] latencies = entry.getValue().sorted();
+            int errors = entry.getValue().errors();
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("requests", latencies.length);
+            row.put("errors", errors);
+            row.put("errorRate", latencies.length > 0 ? (double) errors / latencies.length : 0.0);
+            row.put("throughput", latencies.length / seconds);
+            row.put("p50Ms", percentile(latencies, 0.50));
+            row.put("p99Ms", percentile(latencies, 0.99));
+            row.put("p999Ms", percentile(latencies, 0.999));
+            row.put("maxMs", latencies.length > 0 ? latencies[latencies.length - 1] / 1000.0 : 0.0);
+            result.put(entry.getKey(), row);
+        }
+        return result;
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1000.0;
+    }
+}
@@ -0,0 +1,356 @@
+package dev.andrepontde.retailmanager.retail_system.loadtest;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import dev.andrepontde.retailmanager.retail_system.benchmark.BenchmarkEnvironment;
+
+/**
+ * End-to-end load generator simulating store traffic against the real application.
+ *
+ * Boots the application on an embedded PostgreSQL server, seeds stores, items and users,
+ * and runs for each store a number of tills (one virtual thread each) plus a dashboard
+ * poller over HTTP:
+ * - tills log in at start and again at every shift change (all at once, like the real thing),
+ *   then loop over checkouts, stock lookups and occasional refunds with random think time
+ * - the dashboard polls best sellers and low stock of its store
+ * - a probe calls the public health endpoint every second, like a container health check
+ *
+ * Prints requests, error rate, throughput and p50/p99/p999 latency per endpoint after the
+ * warm-up, and writes the same figures as JSON for comparison between runs.
+ *
+ * Options (--name=value): stores, tills (per store), items, duration and warmup (seconds),
+ * think-ms, shift-change-seconds, poll-seconds, max-basket, refund-share, result-file, and
+ * for the application: virtual-threads (true/false), pool-size (connections) and
+ * db-latency-ms (delay added to every SQL statement, to simulate a slow database).
+ *
+ * ./mvnw -Pload-test verify -DskipTests -Dload.args="--stores=20 --tills=8 --duration=300"
+ */
+public class LoadTest {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final Map<String, String> options;
+    private final int stores;
+    private final int tillsPerStore;
+    private final int items;
+    private final int durationSeconds;
+    private final int warmupSeconds;
+    private final int thinkMillis;
+    private final int shiftChangeSeconds;
+    private final int pollSeconds;
+    private final int maxBasket;
+    private final double refundShare;
+    private final boolean virtualThreads;
+    private final int poolSize;
+    private final int dbLatencyMillis;
+
+    private final LoadStats stats = new LoadStats();
+    private final AtomicInteger shift = new AtomicInteger();
+    private volatile boolean running = true;
+
+    private HttpClient client;
+    private String baseUrl;
+    private long[] itemIds;
+
+    LoadTest(Map<String, String> options) {
+        this.options = options;
+        this.stores = intOption("stores", 5);
+        this.tillsPerStore = intOption("tills", 4);
+        this.items = intOption("items", 2_000);
+        this.durationSeconds = intOption("duration", 60);
+        this.warmupSeconds = intOption("warmup", 10);
+        this.thinkMillis = intOption("think-ms", 250);
+        this.shiftChangeSeconds = intOption("shift-change-seconds", 30);
+        this.pollSeconds = intOption("poll-seconds", 5);
+        this.maxBasket = intOption("max-basket", 8);
+        this.refundShare = Double.parseDouble(options.getOrDefault("refund-share", "0.03"));
+        this.virtualThreads = Boolean.parseBoolean(options.getOrDefault("virtual-threads", "false"));
+        this.poolSize = intOption("pool-size", 20);
+        this.dbLatencyMillis = intOption("db-latency-ms", 0);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            for (String part : arg.trim().split("\\s+")) {
+                if (part.startsWith("--") && part.contains("=")) {
+                    options.put(part.substring(2, part.indexOf('=')), part.substring(part.indexOf('=') + 1));
+                }
+            }
+        }
+        try {
+            new LoadTest(options).run();
+        } finally {
+            BenchmarkEnvironment.stop();
+        }
+        System.exit(0);
+    }
+
+    void run() throws Exception {
+        BenchmarkEnvironment.configure(List.of(
+                "spring.threads.virtual.enabled=" + virtualThreads,
+                "spring.datasource.hikari.maximum-pool-size=" + poolSize,
+                "spring.datasource.hikari.minimum-idle=" + poolSize), dbLatencyMillis);
+        System.out.printf("Seeding %d stores x %d items...%n", stores, items);
+        List<Long> storeIds = BenchmarkEnvironment.seed(stores, items, 10_000_000);
+        itemIds = BenchmarkEnvironment.start().getBean(JdbcTemplate.class)
+                .queryForList("SELECT id FROM item ORDER BY id", Long.class)
+                .stream().mapToLong(Long::longValue).toArray();
+        baseUrl = BenchmarkEnvironment.baseUrl();
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        System.out.printf("Running %d tills and %d dashboards against %s for %ds (+%ds warm-up)...%n",
+                          stores * tillsPerStore, stores, baseUrl, durationSeconds, warmupSeconds);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Long storeId : storeIds) {
+                for (int till = 0; till < tillsPerStore; till++) {
+                    executor.submit(() -> runTill(storeId));
+                }
+                executor.submit(() -> runDashboard(storeId));
+            }
+            executor.submit(this::runHealthProbe);
+
+            Thread.sleep(warmupSeconds * 1000L);
+            stats.startRecording();
+            long measured = 0;
+            while (measured < durationSeconds * 1000L) {
+                long step = Math.min(shiftChangeSeconds * 1000L, durationSeconds * 1000L - measured);
+                Thread.sleep(step);
+                measured += step;
+                if (measured < durationSeconds * 1000L) {
+                    shift.incrementAndGet();
+                }
+            }
+            stats.stopRecording();
+            running = false;
+        }
+
+        report(stats.summary(durationSeconds));
+    }
+
+    // ================================
+    // SIMULATED CLIENTS
+    // ================================
+
+    private void runTill(Long storeId) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Deque<long[]> recentSaleLines = new ArrayDeque<>();
+        String token = null;
+        int loggedInShift = -1;
+        while (running) {
+            if (token == null || loggedInShift != shift.get()) {
+                loggedInShift = shift.get();
+                token = login(storeId);
+                if (token == null) {
+                    pause(1_000);
+                    continue;
+                }
+            }
+            double roll = random.nextDouble();
+            if (roll < refundShare && !recentSaleLines.isEmpty()) {
+                long[] line = recentSaleLines.pollFirst();
+                send("PUT /api/sales/{saleId}/refund/{itemId}", request(token,
+                     "/api/sales/" + line[0] + "/refund/" + line[1] + "?quantity=1")
+                     .PUT(HttpRequest.BodyPublishers.noBody()).build());
+            } else if (roll < 0.6) {
+                checkout(token, recentSaleLines);
+            } else {
+                send("GET /api/inventory/stock/{itemId}",
+                     request(token, "/api/inventory/stock/" + popularItem()).GET().build());
+            }
+            // Exponentially distributed think time between customers/actions
+            pause((long) (-thinkMillis * Math.log(1 - random.nextDouble())));
+        }
+    }
+
+    private void runHealthProbe() {
+        while (running) {
+            send("GET /api/public/health", HttpRequest.newBuilder(URI.create(baseUrl + "/api/public/health"))
+                    .timeout(Duration.ofSeconds(10)).GET().build());
+            pause(1_000);
+        }
+    }
+
+    private void runDashboard(Long storeId) {
+        String token = null;
+        while (running) {
+            if (token == null) {
+                token = login(storeId);
+            }
+            if (token != null) {
+                send("GET /api/sales/best-sellers",
+                     request(token, "/api/sales/best-sellers?window=day&limit=10").GET().build());
+                send("GET /api/inventory/low-stock",
+                     request(token, "/api/inventory/low-stock?threshold=10").GET().build());
+            }
+            pause(pollSeconds * 1000L);
+        }
+    }
+
+    private String login(Long storeId) {
+        String body = toJson(Map.of("username", BenchmarkEnvironment.username(storeId),
+                                    "password", BenchmarkEnvironment.PASSWORD));
+        HttpResponse<String> response = send("POST /api/users/login",
+                request(null, "/api/users/login").POST(HttpRequest.BodyPublishers.ofString(body)).build());
+        if (response == null || response.statusCode() != 200) {
+            return null;
+        }
+        return readJson(response.body()).path("token").asText(null);
+    }
+
+    private void checkout(String token, Deque<long[]> recentSaleLines) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int basketSize = 1 + random.nextInt(maxBasket);
+        List<Map<String, Object>> lines = new ArrayList<>(basketSize);
+        for (int i = 0; i < basketSize; i++) {
+            lines.add(Map.of("item", Map.of("id", popularItem()), "quantity", 1 + random.nextInt(3)));
+        }
+        Map<String, Object> sale = new LinkedHashMap<>();
+        sale.put("paymentMethod", random.nextBoolean() ? "CARD" : "CASH");
+        if (random.nextInt(3) == 0) {
+            sale.put("customerEmail", "customer" + random.nextInt(50_000) + "@example.com");
+        }
+        sale.put("saleItems", lines);
+
+        HttpResponse<String> response = send("POST /api/sales", request(token, "/api/sales")
+                .POST(HttpRequest.BodyPublishers.ofString(toJson(sale))).build());
+        if (response != null && response.statusCode() == 201) {
+            JsonNode created = readJson(response.body());
+            JsonNode firstLine = created.path("saleItems").path(0);
+            if (!firstLine.isMissingNode()) {
+                recentSaleLines.addLast(new long[] {created.path("id").asLong(), firstLine.path("item").path("id").asLong()});
+                if (recentSaleLines.size() > 20) {
+                    recentSaleLines.pollFirst();
+                }
+            }
+        }
+    }
+
+    // ================================
+    // HELPER METHODS
+    // ================================
+
+    /**
+     * Send a request and record its latency; any status of 400 or more, or an I/O error, is an error.
+     */
+    private HttpResponse<String> send(String endpoint, HttpRequest request) {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            stats.record(endpoint, start, response.statusCode() >= 400);
+            return response;
+        } catch (IOException e) {
+            stats.record(endpoint, start, true);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+            return null;
+        }
+    }
+
+    private HttpRequest.Builder request(String token, String path) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json");
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    /**
+     * A random item, skewed so that a few items sell far more often than the rest.
+     */
+    private long popularItem() {
+        double skewed = Math.pow(ThreadLocalRandom.current().nextDouble(), 3);
+        return itemIds[(int) (skewed * itemIds.length)];
+    }
+
+    private void report(Map<String, Map<String, Object>> endpoints) throws IOException {
+        System.out.printf("%n%-42s %9s %8s %10s %9s %9s %9s%n",
+                          "Endpoint", "Requests", "Errors", "Req/s", "p50 ms", "p99 ms", "p999 ms");
+        endpoints.forEach((endpoint, row) -> System.out.printf("%-42s %9d %7.2f%% %10.1f %9.2f %9.2f %9.2f%n",
+                endpoint, row.get("requests"), 100 * (double) row.get("errorRate"), row.get("throughput"),
+                row.get("p50Ms"), row.get("p99Ms"), row.get("p999Ms")));
+
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("stores", stores);
+        config.put("tillsPerStore", tillsPerStore);
+        config.put("items", items);
+        config.put("durationSeconds", durationSeconds);
+        config.put("warmupSeconds", warmupSeconds);
+        config.put("thinkMillis", thinkMillis);
+        config.put("shiftChangeSeconds", shiftChangeSeconds);
+        config.put("pollSeconds", pollSeconds);
+        config.put("maxBasket", maxBasket);
+        config.put("refundShare", refundShare);
+        config.put("virtualThreads", virtualThreads);
+        config.put("poolSize", poolSize);
+        config.put("dbLatencyMillis", dbLatencyMillis);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("config", config);
+        result.put("endpoints", endpoints);
+
+        File file = new File(options.getOrDefault("result-file", "target/load-test-result.json"));
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        JSON.writerWithDefaultPrettyPrinter().writeValue(file, result);
+        System.out.println("Results written to " + file.getPath());
+    }
+
+    private int intOption(String name, int defaultValue) {
+        return Integer.parseInt(options.getOrDefault(name, String.valueOf(defaultValue)));
+    }
+
+    private static void pause(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String toJson(Object value) {
+        try {
+            return JSON.writeValueAsString(value);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static JsonNode readJson(String body) {
+        try {
+            return JSON.readTree(body);
+        } catch (IOException e) {
+            return JSON.missingNode();
+        }
+    }
+}
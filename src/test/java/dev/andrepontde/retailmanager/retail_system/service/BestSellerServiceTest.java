@@ -0,0 +1,145 @@
+package dev.andrepontde.retailmanager.retail_system.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import dev.andrepontde.retailmanager.retail_system.dto.BestSellerDTO;
+import dev.andrepontde.retailmanager.retail_system.entity.Sale;
+import dev.andrepontde.retailmanager.retail_system.event.SaleRecordedEvent;
+import dev.andrepontde.retailmanager.retail_system.repository.ItemRepository;
+import dev.andrepontde.retailmanager.retail_system.service.BestSellerService.Window;
+
+/**
+ * Space-Saving and Count-Min bounds of the best-seller windows, with refunds.
+ */
+class BestSellerServiceTest {
+
+    private static final long STORE_ID = 1;
+
+    private static final int CAPACITY = 20;
+
+    private final BestSellerService service = new BestSellerService();
+
+    private final Map<Long, Long> sold = new HashMap<>();
+
+    BestSellerServiceTest() {
+        ReflectionTestUtils.setField(service, "itemRepository", mock(ItemRepository.class));
+        ReflectionTestUtils.setField(service, "userService", mock(UserService.class));
+        ReflectionTestUtils.setField(service, "capacity", CAPACITY);
+        ReflectionTestUtils.setField(service, "seeded", true);
+    }
+
+    @Test
+    void countsExactlyWhileEveryItemHasACounter() {
+        sell(1, 5);
+        sell(2, 3);
+        sell(1, 2);
+        refund(1, 5);
+
+        List<BestSellerDTO> top = top(Window.DAY, 10);
+        assertThat(top).extracting(BestSellerDTO::getItemId).containsExactly(2L, 1L);
+        assertThat(top).allSatisfy(entry -> {
+            assertThat(entry.getQuantity()).isEqualTo(sold.get(entry.getItemId()));
+            assertThat(entry.getGuaranteedQuantity()).isEqualTo(entry.getQuantity());
+        });
+    }
+
+    @Test
+    void boundsHoldForSkewedSalesWithRefunds() {
+        Random random = new Random(42);
+        for (int i = 0; i < 20_000; i++) {
+            // Zipf-like: a few items sell far more than the long tail of 2000
+            long itemId = (long) Math.floor(Math.pow(2000, random.nextDouble())) + 1;
+            int quantity = 1 + random.nextInt(3);
+            sell(itemId, quantity);
+            if (random.nextInt(10) == 0) {
+                refund(itemId, 1 + random.nextInt(quantity));
+            }
+        }
+
+        List<BestSellerDTO> top = top(Window.DAY, CAPACITY);
+        assertThat(top).isNotEmpty();
+        for (BestSellerDTO entry : top) {
+            long actual = sold.get(entry.getItemId());
+            assertThat(entry.getGuaranteedQuantity()).isBetween(0L, actual);
+            assertThat(entry.getQuantity()).isGreaterThanOrEqualTo(actual);
+        }
+        // The biggest sellers are never missing
+        List<Long> expected = sold.entrySet().stream()
+                .sorted(Map.Entry.<Long, Long>comparingByValue().reversed())
+                .limit(3).map(Map.Entry::getKey).toList();
+        assertThat(top.stream().map(BestSellerDTO::getItemId).toList()).containsAll(expected);
+    }
+
+    @Test
+    void fullyRefundedItemDropsToZero() {
+        sell(7, 4);
+        refund(7, 4);
+
+        assertThat(top(Window.DAY, 5)).allSatisfy(entry -> {
+            assertThat(entry.getQuantity()).isZero();
+            assertThat(entry.getGuaranteedQuantity()).isZero();
+        });
+    }
+
+    @Test
+    void refundsOfOtherItemsNeverLowerAnEstimate() {
+        // Refunds of sales the window did not count, spread over every sketch bucket
+        for (long itemId = 1000; itemId < 4000; itemId++) {
+            service.onSaleRecorded(event(itemId, -100, LocalDateTime.now(), true));
+        }
+        for (long itemId = 1; itemId <= 10; itemId++) {
+            sell(itemId, (int) itemId);
+        }
+
+        List<BestSellerDTO> top = top(Window.DAY, 10);
+        assertThat(top).hasSize(10).allSatisfy(entry ->
+                assertThat(entry.getQuantity()).isEqualTo(sold.get(entry.getItemId())));
+    }
+
+    @Test
+    void refundsOnlyCountInWindowsContainingTheSale() {
+        LocalDateTime today = LocalDate.now().atTime(12, 0);
+        LocalDateTime lastMonth = today.minusMonths(1);
+        service.onSaleRecorded(event(9, 6, today, false));
+        service.onSaleRecorded(event(9, -2, lastMonth, true));
+
+        assertThat(top(Window.DAY, 5)).singleElement()
+                .satisfies(entry -> assertThat(entry.getQuantity()).isEqualTo(6));
+        assertThat(top(Window.MONTH, 5)).singleElement()
+                .satisfies(entry -> assertThat(entry.getQuantity()).isEqualTo(6));
+    }
+
+    // ================================
+    // HELPER METHODS
+    // ================================
+
+    private void sell(long itemId, int quantity) {
+        sold.merge(itemId, (long) quantity, Long::sum);
+        service.onSaleRecorded(event(itemId, quantity, LocalDateTime.now(), false));
+    }
+
+    private void refund(long itemId, int quantity) {
+        sold.merge(itemId, (long) -quantity, Long::sum);
+        service.onSaleRecorded(event(itemId, -quantity, LocalDateTime.now(), true));
+    }
+
+    private static SaleRecordedEvent event(long itemId, int quantity, LocalDateTime date, boolean refund) {
+        return new SaleRecordedEvent(1L, STORE_ID, date, Sale.PaymentMethod.CASH, null, null,
+                List.of(new SaleRecordedEvent.Line(itemId, "Food", quantity, quantity * 2.0)), refund);
+    }
+
+    private List<BestSellerDTO> top(Window window, int limit) {
+        return service.getBestSellers(STORE_ID, window, limit);
+    }
+}
@@ -0,0 +1,118 @@
+package dev.andrepontde.retailmanager.retail_system.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import dev.andrepontde.retailmanager.retail_system.dto.CoPurchaseDTO;
+import dev.andrepontde.retailmanager.retail_system.entity.Item;
+import dev.andrepontde.retailmanager.retail_system.entity.Sale;
+import dev.andrepontde.retailmanager.retail_system.event.SaleRecordedEvent;
+import dev.andrepontde.retailmanager.retail_system.repository.ItemRepository;
+
+class CoPurchaseIndexTest {
+
+    private static final int MAX_PARTNERS = 8;
+
+    private final CoPurchaseIndex index = new CoPurchaseIndex();
+
+    CoPurchaseIndexTest() {
+        ItemRepository itemRepository = mock(ItemRepository.class);
+        when(itemRepository.findAllById(any())).thenAnswer(invocation -> {
+            List<Item> items = new ArrayList<>();
+            for (Long id : invocation.<Iterable<Long>>getArgument(0)) {
+                Item item = new Item("Item " + id, "Food", 1.0);
+                item.setId(id);
+                items.add(item);
+            }
+            return items;
+        });
+        ReflectionTestUtils.setField(index, "itemRepository", itemRepository);
+        ReflectionTestUtils.setField(index, "maxPartners", MAX_PARTNERS);
+    }
+
+    @Test
+    void countsPairsMostFrequentFirst() {
+        sale(1, 2, 3);
+        sale(1, 2);
+        sale(2, 3);
+
+        List<CoPurchaseDTO> together = index.getBoughtTogether(1L, 5);
+        assertThat(together).extracting(CoPurchaseDTO::getItemId).containsExactly(2L, 3L);
+        assertThat(together).extracting(CoPurchaseDTO::getCount).containsExactly(2, 1);
+        assertThat(index.getBoughtTogether(3L, 5)).extracting(CoPurchaseDTO::getItemId).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void singleItemSalesCountTowardsConfidence() {
+        sale(1, 2);
+        sale(1);
+        sale(1);
+        sale(1);
+
+        assertThat(index.getBoughtTogether(1L, 5)).singleElement()
+                .satisfies(entry -> assertThat(entry.getConfidence()).isEqualTo(0.25));
+        assertThat(index.getBoughtTogether(2L, 5)).singleElement()
+                .satisfies(entry -> assertThat(entry.getConfidence()).isEqualTo(1.0));
+    }
+
+    @Test
+    void repeatedItemsInABasketCountOnce() {
+        sale(1, 2, 2, 1);
+
+        assertThat(index.getBoughtTogether(1L, 5)).singleElement()
+                .satisfies(entry -> {
+                    assertThat(entry.getCount()).isEqualTo(1);
+                    assertThat(entry.getConfidence()).isEqualTo(1.0);
+                });
+    }
+
+    @Test
+    void refundsDoNotUndoACoPurchase() {
+        sale(1, 2);
+        index.onSaleRecorded(new SaleRecordedEvent(1L, 1L, LocalDateTime.now(), Sale.PaymentMethod.CASH, null, null,
+                List.of(new SaleRecordedEvent.Line(2L, "Food", -1, -1.0)), true));
+
+        assertThat(index.getBoughtTogether(1L, 5)).extracting(CoPurchaseDTO::getCount).containsExactly(1);
+    }
+
+    @Test
+    void pruningKeepsRecurringPartnersWithinTheBound() {
+        // Item 1 is bought with 2 and 3 every time, and once with each of many other items
+        for (long other = 100; other < 400; other++) {
+            sale(1, 2, 3, other);
+        }
+
+        List<CoPurchaseDTO> together = index.getBoughtTogether(1L, MAX_PARTNERS);
+        assertThat(together).hasSizeLessThanOrEqualTo(MAX_PARTNERS);
+        assertThat(together.subList(0, 2)).extracting(CoPurchaseDTO::getItemId).containsExactlyInAnyOrder(2L, 3L);
+        assertThat(together.get(0).getCount()).isEqualTo(300);
+        assertThat(together.get(0).getConfidence()).isEqualTo(1.0);
+    }
+
+    @Test
+    void pruningPartnersWithEqualCountsDropsOnlyAQuarter() {
+        // Every partner of item 1 was bought with it exactly once
+        for (long other = 2; other <= MAX_PARTNERS + 2; other++) {
+            sale(1, other);
+        }
+
+        assertThat(index.getBoughtTogether(1L, MAX_PARTNERS)).hasSize(MAX_PARTNERS + 1 - (MAX_PARTNERS + 1) / 4);
+    }
+
+    private void sale(long... itemIds) {
+        List<SaleRecordedEvent.Line> lines = Arrays.stream(itemIds)
+                .mapToObj(itemId -> new SaleRecordedEvent.Line(itemId, "Food", 1, 1.0)).toList();
+        index.onSaleRecorded(new SaleRecordedEvent(1L, 1L, LocalDateTime.now(), Sale.PaymentMethod.CASH, null, null,
+                lines, false));
+    }
+}
@@ -0,0 +1,160 @@
+package dev.andrepontde.retailmanager.retail_system.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import dev.andrepontde.retailmanager.retail_system.dto.ReorderSuggestionDTO;
+import dev.andrepontde.retailmanager.retail_system.entity.Inventory;
+import dev.andrepontde.retailmanager.retail_system.entity.Item;
+import dev.andrepontde.retailmanager.retail_system.entity.ItemDemand;
+import dev.andrepontde.retailmanager.retail_system.entity.Store;
+import dev.andrepontde.retailmanager.retail_system.entity.User;
+import dev.andrepontde.retailmanager.retail_system.repository.InventoryRepository;
+import dev.andrepontde.retailmanager.retail_system.repository.ItemDemandRepository;
+import dev.andrepontde.retailmanager.retail_system.repository.ItemRepository;
+import dev.andrepontde.retailmanager.retail_system.repository.StoreRepository;
+import dev.andrepontde.retailmanager.retail_system.repository.UserRepository;
+
+/**
+ * Reorder suggestions and the forecast job lock against the configured database.
+ *
+ * Each test creates its own store, items and user and removes them, with their demand rows,
+ * afterwards.
+ */
+@SpringBootTest
+class DemandForecastServiceTest {
+
+    @Autowired
+    private DemandForecastService demandForecastService;
+
+    @Autowired
+    private JobLockService jobLockService;
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private ItemDemandRepository itemDemandRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Store store;
+    private final List<Item> items = new ArrayList<>();
+    private final List<Inventory> inventory = new ArrayList<>();
+    private final List<ItemDemand> demand = new ArrayList<>();
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        store = storeRepository.save(new Store("Store " + run, "Test-" + run, null, null, null));
+        // Below, at and above the reorder point of 5
+        for (int quantity : new int[] {2, 5, 6}) {
+            Item item = itemRepository.save(new Item("Item " + run + "-" + quantity, "Test", 1.0));
+            items.add(item);
+            inventory.add(inventoryRepository.save(new Inventory(item, store, quantity)));
+        }
+        ItemDemand atReorderPoint = new ItemDemand();
+        atReorderPoint.setStoreId(store.getId());
+        atReorderPoint.setItemId(items.get(1).getId());
+        atReorderPoint.setDailyDemand(2.0);
+        atReorderPoint.setDeviation(1.0);
+        atReorderPoint.setThroughDay(LocalDate.now().minusDays(1));
+        demand.add(itemDemandRepository.save(atReorderPoint));
+        user = userRepository.save(new User("user-" + run, run + "@example.com", "unused", "Test", "User",
+                User.UserRole.STORE_MANAGER, store));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        userRepository.delete(user);
+        itemDemandRepository.deleteAll(demand);
+        inventoryRepository.deleteAll(inventory);
+        itemRepository.deleteAll(items);
+        storeRepository.delete(store);
+    }
+
+    @Test
+    void suggestionsListItemsAtOrBelowTheirReorderPoint() {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                user.getUsername(), null, List.of(new SimpleGrantedAuthority("ROLE_" + user.getRole().name()))));
+
+        List<ReorderSuggestionDTO> suggestions = demandForecastService.getReorderSuggestions(store.getId(), 10);
+
+        // The item with demand runs out first; the one without has no days of cover
+        assertThat(suggestions).extracting(ReorderSuggestionDTO::getItemId)
+                .containsExactly(items.get(1).getId(), items.get(0).getId());
+        ReorderSuggestionDTO first = suggestions.get(0);
+        assertThat(first.getItemName()).isEqualTo(items.get(1).getName());
+        assertThat(first.getQuantity()).isEqualTo(5);
+        assertThat(first.getDailyDemand()).isEqualTo(2.0);
+        assertThat(first.getDaysOfCover()).isEqualTo(2.5);
+        assertThat(first.getSuggestedQuantity()).isEqualTo(first.getMaxStockLevel() - 5);
+        assertThat(suggestions.get(1).getDaysOfCover()).isNull();
+    }
+
+    @Test
+    void forecastLockIsTakenByOneTransactionAtATime() throws Exception {
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Boolean> holder = executor.submit(() -> new TransactionTemplate(transactionManager).execute(status -> {
+                boolean locked = jobLockService.tryLock(JobLockService.Job.DEMAND_FORECAST, 0);
+                held.countDown();
+                try {
+                    release.await(60, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return locked;
+            }));
+            held.await(60, TimeUnit.SECONDS);
+
+            assertThat(tryLock()).isFalse();
+            release.countDown();
+            assertThat(holder.get(60, TimeUnit.SECONDS)).isTrue();
+            // Released with the holder's transaction
+            assertThat(tryLock()).isTrue();
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private boolean tryLock() {
+        return new TransactionTemplate(transactionManager).execute(status ->
+                jobLockService.tryLock(JobLockService.Job.DEMAND_FORECAST, 0));
+    }
+}
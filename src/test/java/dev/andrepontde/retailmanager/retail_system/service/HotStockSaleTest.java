@@ -0,0 +1,184 @@
+package dev.andrepontde.retailmanager.retail_system.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import dev.andrepontde.retailmanager.retail_system.dto.ItemDTO;
+import dev.andrepontde.retailmanager.retail_system.dto.SaleDTO;
+import dev.andrepontde.retailmanager.retail_system.dto.SaleItemDTO;
+import dev.andrepontde.retailmanager.retail_system.entity.Inventory;
+import dev.andrepontde.retailmanager.retail_system.entity.Item;
+import dev.andrepontde.retailmanager.retail_system.entity.Store;
+import dev.andrepontde.retailmanager.retail_system.entity.User;
+import dev.andrepontde.retailmanager.retail_system.repository.InventoryRepository;
+import dev.andrepontde.retailmanager.retail_system.repository.ItemRepository;
+import dev.andrepontde.retailmanager.retail_system.repository.StoreRepository;
+import dev.andrepontde.retailmanager.retail_system.repository.UserRepository;
+
+/**
+ * Checkouts of a striped item against the configured database, with baskets that repeat the
+ * item while its slots are collapsed concurrently.
+ *
+ * The test creates its own store, item and user and removes them, with the sales, afterwards.
+ */
+@SpringBootTest
+class HotStockSaleTest {
+
+    private static final int STOCK = 10000;
+    private static final int STRIPES = 4;
+
+    @Autowired
+    private SaleService saleService;
+
+    @Autowired
+    private HotStockService hotStockService;
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Store store;
+    private Item item;
+    private Inventory inventory;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        store = storeRepository.save(new Store("Store " + run, "Test-" + run, null, null, null));
+        item = itemRepository.save(new Item("Item " + run, "Test", 2.0));
+        // Only 40 units are handed out to the slots (10 each): a line of 20 always falls back to the row
+        Inventory row = new Inventory(item, store, STOCK);
+        row.setReservedQuantity(STOCK - 40);
+        inventory = inventoryRepository.save(row);
+        user = userRepository.save(new User("user-" + run, run + "@example.com", "unused", "Test", "User",
+                User.UserRole.STORE_MANAGER, store));
+
+        authenticate();
+        try {
+            hotStockService.enableStriping(item.getId(), store.getId(), STRIPES);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM sale_item WHERE sale_id IN (SELECT id FROM sale WHERE store_id = ?)", store.getId());
+        jdbcTemplate.update("DELETE FROM sale WHERE store_id = ?", store.getId());
+        for (String table : List.of("stock_movement", "item_sales_daily", "item_demand", "customer_sketch")) {
+            jdbcTemplate.update("DELETE FROM " + table + " WHERE store_id = ?", store.getId());
+        }
+        jdbcTemplate.update("DELETE FROM inventory_slot WHERE inventory_id = ?", inventory.getId());
+        userRepository.delete(user);
+        inventoryRepository.deleteById(inventory.getId());
+        itemRepository.delete(item);
+        storeRepository.delete(store);
+    }
+
+    @Test
+    void basketsRepeatingAStripedItemDoNotDeadlockWithCollapses() throws Exception {
+        int tills = 8;
+        int salesPerTill = 25;
+        AtomicBoolean selling = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(tills + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> tillFutures = new ArrayList<>();
+            for (int i = 0; i < tills; i++) {
+                tillFutures.add(executor.submit(authenticated(start, () -> {
+                    for (int sale = 0; sale < salesPerTill; sale++) {
+                        // Line by line, the first would hold a slot while the second waits for the row
+                        saleService.processSale(basket(1, 20));
+                    }
+                    return null;
+                })));
+            }
+            // Collapses the row (row lock, then every slot) and hands stock out again, over and over
+            Future<?> restriping = executor.submit(authenticated(start, () -> {
+                while (selling.get()) {
+                    hotStockService.enableStriping(item.getId(), store.getId(), STRIPES);
+                }
+                return null;
+            }));
+
+            start.countDown();
+            try {
+                for (Future<?> future : tillFutures) {
+                    // Fails with the sale's exception, e.g. a detected deadlock
+                    future.get(120, TimeUnit.SECONDS);
+                }
+            } finally {
+                selling.set(false);
+            }
+            restriping.get(60, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Inventory row = inventoryRepository.findById(inventory.getId()).orElseThrow();
+        assertThat(hotStockService.getCurrentQuantity(row)).isEqualTo(STOCK - tills * salesPerTill * 21);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM sale WHERE store_id = ?",
+                Integer.class, store.getId())).isEqualTo(tills * salesPerTill);
+    }
+
+    private SaleDTO basket(int... quantities) {
+        ItemDTO itemDTO = new ItemDTO(item.getId(), item.getName(), item.getCategory(), item.getPrice());
+        List<SaleItemDTO> lines = new ArrayList<>();
+        for (int quantity : quantities) {
+            lines.add(new SaleItemDTO(itemDTO, quantity, item.getPrice()));
+        }
+        SaleDTO sale = new SaleDTO();
+        sale.setPaymentMethod(SaleDTO.PaymentMethod.CARD);
+        sale.setSaleItems(lines);
+        return sale;
+    }
+
+    private Callable<Object> authenticated(CountDownLatch start, Callable<Object> task) {
+        return () -> {
+            authenticate();
+            try {
+                start.await();
+                return task.call();
+            } finally {
+                SecurityContextHolder.clearContext();
+            }
+        };
+    }
+
+    private void authenticate() {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                user.getUsername(), null, List.of(new SimpleGrantedAuthority("ROLE_" + user.getRole().name()))));
+    }
+}
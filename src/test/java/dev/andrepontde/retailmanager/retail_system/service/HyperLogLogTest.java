@@ -0,0 +1,115 @@
+package dev.andrepontde.retailmanager.retail_system.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import org.junit.jupiter.api.Test;
+
+class HyperLogLogTest {
+
+    // Three standard errors: a correct sketch stays within this bound almost always
+    private static final double TOLERANCE = 3 * HyperLogLog.STANDARD_ERROR;
+
+    @Test
+    void emptySketchCountsNothing() {
+        assertThat(new HyperLogLog().estimate()).isZero();
+        assertThat(HyperLogLog.fromBytes(null).estimate()).isZero();
+        assertThat(HyperLogLog.fromBytes(new byte[0]).estimate()).isZero();
+    }
+
+    @Test
+    void estimatesWithinTheStandardError() {
+        for (int distinct : new int[] {10, 1_000, 50_000, 1_000_000}) {
+            HyperLogLog sketch = sketchOf(0, distinct);
+            assertThat((double) sketch.estimate()).as("%d distinct", distinct)
+                    .isCloseTo(distinct, within(Math.max(1, distinct * TOLERANCE)));
+        }
+    }
+
+    @Test
+    void duplicatesAreNotCountedTwice() {
+        HyperLogLog once = sketchOf(0, 5_000);
+        HyperLogLog twice = sketchOf(0, 5_000);
+        for (int i = 0; i < 5_000; i++) {
+            twice.add(HyperLogLog.hash("customer-" + i));
+        }
+
+        assertThat(twice.estimate()).isEqualTo(once.estimate());
+        assertThat(twice.toBytes()).isEqualTo(once.toBytes());
+    }
+
+    @Test
+    void mergeCountsTheUnion() {
+        HyperLogLog first = sketchOf(0, 30_000);
+        HyperLogLog second = sketchOf(20_000, 50_000);
+        HyperLogLog union = sketchOf(0, 50_000);
+
+        HyperLogLog merged = HyperLogLog.fromBytes(first.toBytes());
+        merged.merge(second);
+        assertThat(merged.toBytes()).isEqualTo(union.toBytes());
+
+        HyperLogLog reversed = HyperLogLog.fromBytes(second.toBytes());
+        reversed.merge(first);
+        assertThat(reversed.toBytes()).isEqualTo(merged.toBytes());
+    }
+
+    @Test
+    void mergeIsIdempotent() {
+        HyperLogLog sketch = sketchOf(0, 10_000);
+        byte[] before = sketch.toBytes();
+        sketch.merge(HyperLogLog.fromBytes(before));
+        sketch.merge(HyperLogLog.fromBytes(before));
+
+        assertThat(sketch.toBytes()).isEqualTo(before);
+    }
+
+    @Test
+    void smallSketchRoundTripsSparsely() {
+        HyperLogLog sketch = sketchOf(0, 100);
+        byte[] bytes = sketch.toBytes();
+
+        assertThat(bytes[0]).isEqualTo((byte) 0);
+        assertThat(bytes.length).isLessThan(1 + HyperLogLog.REGISTERS * 6 / 8);
+        HyperLogLog copy = HyperLogLog.fromBytes(bytes);
+        assertThat(copy.toBytes()).isEqualTo(bytes);
+        assertThat(copy.estimate()).isEqualTo(sketch.estimate());
+    }
+
+    @Test
+    void largeSketchRoundTripsDensely() {
+        HyperLogLog sketch = sketchOf(0, 200_000);
+        byte[] bytes = sketch.toBytes();
+
+        assertThat(bytes[0]).isEqualTo((byte) 1);
+        assertThat(bytes).hasSize(1 + HyperLogLog.REGISTERS * 6 / 8);
+        HyperLogLog copy = HyperLogLog.fromBytes(bytes);
+        assertThat(copy.toBytes()).isEqualTo(bytes);
+        assertThat(copy.estimate()).isEqualTo(sketch.estimate());
+    }
+
+    @Test
+    void sparseSketchMergedIntoDenseOneRoundTrips() {
+        HyperLogLog dense = HyperLogLog.fromBytes(sketchOf(0, 200_000).toBytes());
+        dense.merge(HyperLogLog.fromBytes(sketchOf(500_000, 500_050).toBytes()));
+
+        HyperLogLog expected = sketchOf(0, 200_000);
+        expected.merge(sketchOf(500_000, 500_050));
+        assertThat(HyperLogLog.fromBytes(dense.toBytes()).toBytes()).isEqualTo(expected.toBytes());
+    }
+
+    @Test
+    void hashIsStableAndSpreadsSimilarStrings() {
+        assertThat(HyperLogLog.hash("a@example.com")).isEqualTo(HyperLogLog.hash("a@example.com"));
+        assertThat(HyperLogLog.hash("a@example.com")).isNotEqualTo(HyperLogLog.hash("b@example.com"));
+        // Neighbouring strings land in different registers
+        assertThat(HyperLogLog.hash("customer-1") >>> 52).isNotEqualTo(HyperLogLog.hash("customer-2") >>> 52);
+    }
+
+    private static HyperLogLog sketchOf(int from, int to) {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = from; i < to; i++) {
+            sketch.add(HyperLogLog.hash("customer-" + i));
+        }
+        return sketch;
+    }
+}
@@ -0,0 +1,232 @@
+package dev.andrepontde.retailmanager.retail_system.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import dev.andrepontde.retailmanager.retail_system.dto.StockTransferDTO;
+import dev.andrepontde.retailmanager.retail_system.entity.Inventory;
+import dev.andrepontde.retailmanager.retail_system.entity.Item;
+import dev.andrepontde.retailmanager.retail_system.entity.Store;
+import dev.andrepontde.retailmanager.retail_system.entity.User;
+import dev.andrepontde.retailmanager.retail_system.repository.InventoryRepository;
+import dev.andrepontde.retailmanager.retail_system.repository.ItemRepository;
+import dev.andrepontde.retailmanager.retail_system.repository.StoreRepository;
+import dev.andrepontde.retailmanager.retail_system.repository.UserRepository;
+
+/**
+ * Batch stock transfers against the configured database: all-or-nothing lines, destination
+ * rows created once under concurrency, and no deadlock between opposite transfers.
+ *
+ * Each test creates its own two stores, items and user and removes them afterwards.
+ */
+@SpringBootTest
+class InventoryTransferTest {
+
+    private static final int ITEMS = 20;
+    private static final int STOCK = 100;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Store storeA;
+    private Store storeB;
+    private final List<Item> items = new ArrayList<>();
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        storeA = storeRepository.save(new Store("Store " + run + "-A", "Test-" + run, null, null, null));
+        storeB = storeRepository.save(new Store("Store " + run + "-B", "Test-" + run, null, null, null));
+        for (int i = 0; i < ITEMS; i++) {
+            Item item = itemRepository.save(new Item("Item " + run + "-" + i, "Test", 1.0));
+            items.add(item);
+            inventoryRepository.save(new Inventory(item, storeA, STOCK));
+        }
+
+        User created = new User("user-" + run, run + "@example.com", "unused", "Test", "User",
+                User.UserRole.DISTRICT_MANAGER, storeA);
+        created.setAccessibleStores(Set.of(storeB));
+        user = userRepository.save(created);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        userRepository.delete(user);
+        inventoryRepository.deleteAll(inventoryRepository.findByStoreId(storeA.getId()));
+        inventoryRepository.deleteAll(inventoryRepository.findByStoreId(storeB.getId()));
+        itemRepository.deleteAll(items);
+        storeRepository.deleteAll(List.of(storeA, storeB));
+    }
+
+    @Test
+    void batchTransferMovesEveryLineAndCreatesDestinationRows() {
+        authenticate();
+        List<StockTransferDTO.Line> lines = new ArrayList<>();
+        for (Item item : items) {
+            lines.add(new StockTransferDTO.Line(item.getId(), 3));
+        }
+        // Repeated lines of an item are merged
+        lines.add(new StockTransferDTO.Line(items.get(0).getId(), 2));
+
+        int transferred = inventoryService.transferStock(new StockTransferDTO(storeA.getId(), storeB.getId(), lines));
+
+        assertThat(transferred).isEqualTo(ITEMS);
+        Map<Long, Integer> a = quantities(storeA);
+        Map<Long, Integer> b = quantities(storeB);
+        assertThat(b).hasSize(ITEMS);
+        assertThat(a.get(items.get(0).getId())).isEqualTo(STOCK - 5);
+        assertThat(b.get(items.get(0).getId())).isEqualTo(5);
+        assertThat(a.get(items.get(1).getId())).isEqualTo(STOCK - 3);
+        assertThat(b.get(items.get(1).getId())).isEqualTo(3);
+    }
+
+    @Test
+    void failingLineTransfersNothing() {
+        authenticate();
+        List<StockTransferDTO.Line> lines = new ArrayList<>();
+        for (Item item : items) {
+            lines.add(new StockTransferDTO.Line(item.getId(), 1));
+        }
+        lines.add(new StockTransferDTO.Line(items.get(ITEMS - 1).getId(), STOCK));
+
+        assertThatThrownBy(() -> inventoryService.transferStock(
+                new StockTransferDTO(storeA.getId(), storeB.getId(), lines)))
+                .hasMessageContaining("Insufficient stock");
+
+        assertThat(quantities(storeA).values()).containsOnly(STOCK);
+        assertThat(quantities(storeB)).isEmpty();
+    }
+
+    @Test
+    void concurrentTransfersIntoAStoreCreateOneRowPerItem() throws Exception {
+        int transfers = 6;
+        List<StockTransferDTO.Line> lines = new ArrayList<>();
+        for (Item item : items) {
+            lines.add(new StockTransferDTO.Line(item.getId(), 1));
+        }
+
+        runConcurrently(transfers, task -> inventoryService.transferStock(
+                new StockTransferDTO(storeA.getId(), storeB.getId(), lines)));
+
+        assertThat(inventoryRepository.findByStoreId(storeB.getId())).hasSize(ITEMS);
+        assertThat(quantities(storeB).values()).containsOnly(transfers);
+        assertThat(quantities(storeA).values()).containsOnly(STOCK - transfers);
+    }
+
+    @Test
+    void oppositeTransfersOfTheSameItemsDoNotDeadlock() throws Exception {
+        // Both stores stock every item
+        authenticate();
+        List<StockTransferDTO.Line> all = new ArrayList<>();
+        for (Item item : items) {
+            all.add(new StockTransferDTO.Line(item.getId(), STOCK / 2));
+        }
+        inventoryService.transferStock(new StockTransferDTO(storeA.getId(), storeB.getId(), all));
+
+        // Lines in reverse item order: the locks are still taken in (item, store) order
+        List<StockTransferDTO.Line> lines = new ArrayList<>();
+        for (int i = ITEMS - 1; i >= 0; i--) {
+            lines.add(new StockTransferDTO.Line(items.get(i).getId(), 1));
+        }
+        int rounds = 10;
+        runConcurrently(8, task -> {
+            for (int round = 0; round < rounds; round++) {
+                if (task % 2 == 0) {
+                    inventoryService.transferStock(new StockTransferDTO(storeA.getId(), storeB.getId(), lines));
+                } else {
+                    inventoryService.transferStock(new StockTransferDTO(storeB.getId(), storeA.getId(), lines));
+                }
+            }
+            return null;
+        });
+
+        Map<Long, Integer> a = quantities(storeA);
+        Map<Long, Integer> b = quantities(storeB);
+        for (Item item : items) {
+            assertThat(a.get(item.getId()) + b.get(item.getId())).isEqualTo(STOCK);
+        }
+        // Four transfers each way of the same size
+        assertThat(a.values()).containsOnly(STOCK / 2);
+    }
+
+    private void authenticate() {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                user.getUsername(), null, List.of(new SimpleGrantedAuthority("ROLE_" + user.getRole().name()))));
+    }
+
+    private interface Task {
+        Object run(int task) throws Exception;
+    }
+
+    private void runConcurrently(int threads, Task task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Object>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                int index = i;
+                Callable<Object> callable = () -> {
+                    authenticate();
+                    try {
+                        start.await();
+                        return task.run(index);
+                    } finally {
+                        SecurityContextHolder.clearContext();
+                    }
+                };
+                futures.add(executor.submit(callable));
+            }
+            start.countDown();
+            for (Future<Object> future : futures) {
+                // Fails with the transfer's exception, e.g. a detected deadlock
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Map<Long, Integer> quantities(Store store) {
+        Map<Long, Integer> quantities = new HashMap<>();
+        for (Inventory inventory : inventoryRepository.findByStoreId(store.getId())) {
+            quantities.put(inventory.getItem().getId(), inventory.getQuantity());
+        }
+        return quantities;
+    }
+}
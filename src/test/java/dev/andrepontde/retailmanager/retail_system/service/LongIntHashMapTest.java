@@ -0,0 +1,106 @@
+package dev.andrepontde.retailmanager.retail_system.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class LongIntHashMapTest {
+
+    @Test
+    void addsAndReadsValues() {
+        LongIntHashMap map = new LongIntHashMap();
+        map.add(5, 1);
+        map.add(5, 2);
+        map.add(0, 7);
+        map.add(-3, 4);
+
+        assertThat(map.size()).isEqualTo(3);
+        assertThat(map.get(5)).isEqualTo(3);
+        assertThat(map.get(0)).isEqualTo(7);
+        assertThat(map.get(-3)).isEqualTo(4);
+        assertThat(map.get(6)).isZero();
+    }
+
+    @Test
+    void matchesAHashMapUnderRandomAddsAndRemoves() {
+        Random random = new Random(7);
+        LongIntHashMap map = new LongIntHashMap(2);
+        Map<Long, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 200_000; i++) {
+            // Small key space so probe runs collide and removals shift entries back
+            long key = random.nextInt(3_000) - 1_000;
+            if (random.nextInt(4) == 0) {
+                map.remove(key);
+                expected.remove(key);
+            } else {
+                int delta = 1 + random.nextInt(5);
+                map.add(key, delta);
+                expected.merge(key, delta, Integer::sum);
+            }
+        }
+
+        assertThat(map.size()).isEqualTo(expected.size());
+        expected.forEach((key, value) -> assertThat(map.get(key)).as("key %d", key).isEqualTo(value));
+        Map<Long, Integer> visited = new HashMap<>();
+        map.forEach(visited::put);
+        assertThat(visited).isEqualTo(expected);
+    }
+
+    @Test
+    void removingAnAbsentKeyChangesNothing() {
+        LongIntHashMap map = new LongIntHashMap();
+        map.add(1, 1);
+        map.remove(2);
+
+        assertThat(map.size()).isEqualTo(1);
+        assertThat(map.get(1)).isEqualTo(1);
+    }
+
+    @Test
+    void removeSmallestRemovesExactlyThatManyEntries() {
+        LongIntHashMap map = new LongIntHashMap();
+        for (long key = 1; key <= 100; key++) {
+            map.add(key, (int) key);
+        }
+        map.removeSmallest(60);
+
+        assertThat(map.size()).isEqualTo(40);
+        assertThat(map.get(60)).isZero();
+        assertThat(map.get(61)).isEqualTo(61);
+        // Still usable after the rebuild
+        map.add(1, 1);
+        assertThat(map.get(1)).isEqualTo(1);
+        assertThat(map.size()).isEqualTo(41);
+    }
+
+    @Test
+    void removeSmallestSplitsTies() {
+        LongIntHashMap map = new LongIntHashMap();
+        map.add(1, 1);
+        for (long key = 2; key <= 10; key++) {
+            map.add(key, 5);
+        }
+        map.add(11, 9);
+        map.removeSmallest(3);
+
+        assertThat(map.size()).isEqualTo(8);
+        assertThat(map.get(1)).isZero();
+        assertThat(map.get(11)).isEqualTo(9);
+        assertThat(map.sortedValues()).containsExactly(5, 5, 5, 5, 5, 5, 5, 9);
+    }
+
+    @Test
+    void sortedValuesAreAscending() {
+        LongIntHashMap map = new LongIntHashMap();
+        map.add(10, 3);
+        map.add(20, 1);
+        map.add(30, 2);
+        map.add(20, 5);
+
+        assertThat(map.sortedValues()).containsExactly(2, 3, 6);
+    }
+}
@@ -0,0 +1,215 @@
+package dev.andrepontde.retailmanager.retail_system.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import dev.andrepontde.retailmanager.retail_system.dto.SalesAnalyticsDTO;
+import dev.andrepontde.retailmanager.retail_system.entity.Sale;
+import dev.andrepontde.retailmanager.retail_system.event.SaleRecordedEvent;
+import dev.andrepontde.retailmanager.retail_system.service.SalesCube.Dimension;
+
+class SalesCubeTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2026, 3, 2, 0, 0);
+
+    @Test
+    void groupsByTwoDimensionsSortedByRevenue() {
+        SalesCube cube = loadedCube();
+        cube.onSaleRecorded(sale(1, 10, DAY.plusHours(9), Sale.PaymentMethod.CASH,
+                line(100, "Food", 2, 4.00), line(200, "Toys", 1, 20.00)));
+        cube.onSaleRecorded(sale(2, 10, DAY.plusHours(10), Sale.PaymentMethod.CARD,
+                line(100, "Food", 3, 6.00)));
+        cube.onSaleRecorded(sale(3, 20, DAY.plusHours(9), Sale.PaymentMethod.CARD,
+                line(300, "Food", 1, 1.50)));
+
+        SalesAnalyticsDTO result = cube.query(null, DAY, DAY.plusDays(1),
+                List.of(Dimension.CATEGORY, Dimension.PAYMENT), 0);
+
+        assertThat(result.getGroupBy()).containsExactly("category", "payment");
+        assertThat(result.getRows()).extracting(row -> row.getGroup().get("category") + "/" + row.getGroup().get("payment"))
+                .containsExactly("Toys/CASH", "Food/CARD", "Food/CASH");
+        assertThat(revenues(result)).containsEntry("Food/CARD", 7.50).containsEntry("Food/CASH", 4.00);
+        assertThat(result.getTotalQuantity()).isEqualTo(7);
+        assertThat(result.getTotalRevenue()).isEqualTo(31.50);
+    }
+
+    @Test
+    void filtersByStoreAndTime() {
+        SalesCube cube = loadedCube();
+        cube.onSaleRecorded(sale(1, 10, DAY.plusHours(9), Sale.PaymentMethod.CASH, line(100, "Food", 2, 4.00)));
+        cube.onSaleRecorded(sale(2, 20, DAY.plusHours(9), Sale.PaymentMethod.CASH, line(100, "Food", 5, 10.00)));
+        cube.onSaleRecorded(sale(3, 10, DAY.plusDays(2), Sale.PaymentMethod.CASH, line(100, "Food", 7, 14.00)));
+
+        SalesAnalyticsDTO result = cube.query(10L, DAY, DAY.plusDays(1), List.of(Dimension.HOUR), 0);
+        assertThat(result.getRows()).hasSize(1);
+        assertThat(result.getRows().get(0).getGroup()).containsEntry("hour", "9");
+        assertThat(result.getTotalQuantity()).isEqualTo(2);
+
+        assertThat(cube.query(30L, DAY, DAY.plusDays(3), List.of(), 0).getRows()).isEmpty();
+    }
+
+    @Test
+    void refundsAreNegativeFactsOfTheOriginalSale() {
+        SalesCube cube = loadedCube();
+        cube.onSaleRecorded(sale(1, 10, DAY.plusHours(9), Sale.PaymentMethod.CASH, line(100, "Food", 3, 6.00)));
+        cube.onSaleRecorded(refund(1, 10, DAY.plusHours(9), line(100, "Food", -1, -2.00)));
+
+        SalesAnalyticsDTO result = cube.query(10L, DAY, DAY.plusDays(1), List.of(Dimension.DAY), 0);
+        assertThat(result.getRows().get(0).getGroup()).containsEntry("day", "2026-03-02");
+        assertThat(result.getTotalQuantity()).isEqualTo(2);
+        assertThat(result.getTotalRevenue()).isEqualTo(4.00);
+    }
+
+    @Test
+    void timeFiltersSpanningChunksCountEveryMatchingFact() {
+        SalesCube cube = loadedCube();
+        // One chunk of day-one facts, then facts of day two in the next chunk
+        int dayOne = SalesCube.CHUNK_SIZE;
+        for (int i = 0; i < dayOne; i++) {
+            cube.onSaleRecorded(sale(i, 10, DAY.plusMinutes(i % 1440), Sale.PaymentMethod.CASH, line(100, "Food", 1, 1.00)));
+        }
+        for (int i = 0; i < 1000; i++) {
+            cube.onSaleRecorded(sale(dayOne + i, 10, DAY.plusDays(1).plusMinutes(i), Sale.PaymentMethod.CARD,
+                    line(200, "Toys", 2, 3.00)));
+        }
+
+        assertThat(cube.query(null, DAY.plusDays(1), DAY.plusDays(2), List.of(), 0).getTotalQuantity()).isEqualTo(2000);
+        assertThat(cube.query(null, DAY, DAY.plusHours(1).minusMinutes(1), List.of(), 0).getTotalQuantity())
+                .isEqualTo(dayOne / 1440 * 60 + Math.min(60, dayOne % 1440));
+        assertThat(cube.query(null, DAY, DAY.plusDays(2), List.of(Dimension.ITEM), 0).getRows())
+                .extracting(SalesAnalyticsDTO.Row::getQuantity).containsExactly((long) dayOne, 2000L);
+    }
+
+    @Test
+    void limitKeepsTheHighestRevenueGroups() {
+        SalesCube cube = loadedCube();
+        for (int item = 1; item <= 5; item++) {
+            cube.onSaleRecorded(sale(item, 10, DAY, Sale.PaymentMethod.CASH, line(item, "Food", 1, item * 10.0)));
+        }
+
+        SalesAnalyticsDTO result = cube.query(null, DAY, DAY.plusDays(1), List.of(Dimension.ITEM), 2);
+        assertThat(result.getRows()).extracting(row -> row.getGroup().get("item")).containsExactly("5", "4");
+        // Totals still cover every group
+        assertThat(result.getTotalRevenue()).isEqualTo(150.00);
+    }
+
+    @Test
+    void evictsFullChunksThatLeftTheHistoryWindow() {
+        SalesCube cube = loadedCube();
+        ReflectionTestUtils.setField(cube, "historyDays", 400);
+        LocalDateTime expired = LocalDateTime.now().minusDays(500);
+        LocalDateTime recent = LocalDateTime.now().minusDays(1);
+        // One full chunk of expired facts, then a chunk of recent facts with one expired refund in it
+        for (int i = 0; i < SalesCube.CHUNK_SIZE; i++) {
+            cube.onSaleRecorded(sale(i, 10, expired, Sale.PaymentMethod.CASH, line(100, "Food", 1, 1.00)));
+        }
+        cube.onSaleRecorded(sale(-1, 10, recent, Sale.PaymentMethod.CASH, line(100, "Food", 5, 5.00)));
+        cube.onSaleRecorded(refund(0, 10, expired, line(100, "Food", -1, -1.00)));
+
+        assertThat(cube.evictExpired()).isEqualTo(SalesCube.CHUNK_SIZE);
+        assertThat(cube.evictExpired()).isZero();
+
+        SalesAnalyticsDTO all = cube.query(null, expired.minusDays(1), LocalDateTime.now(), List.of(), 0);
+        assertThat(all.getTotalQuantity()).isEqualTo(5 - 1);
+        cube.onSaleRecorded(sale(-2, 10, recent, Sale.PaymentMethod.CASH, line(100, "Food", 2, 2.00)));
+        assertThat(cube.query(10L, recent.minusHours(1), LocalDateTime.now(), List.of(), 0).getTotalQuantity())
+                .isEqualTo(7);
+    }
+
+    @Test
+    void rejectsMoreThanTwoDimensions() {
+        SalesCube cube = loadedCube();
+        assertThatThrownBy(() -> cube.query(null, DAY, DAY, List.of(Dimension.STORE, Dimension.ITEM, Dimension.DAY), 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void loadAppliesOnlyChangesCommittedAfterItsSnapshot() throws SQLException {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        SaleCommitGate gate = mock(SaleCommitGate.class);
+        SalesCube cube = new SalesCube();
+        ReflectionTestUtils.setField(cube, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(cube, "transactionManager", mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(cube, "saleCommitGate", gate);
+        ReflectionTestUtils.setField(cube, "historyDays", 400);
+
+        // Committed before the snapshot: the loaded line already holds it, refund included
+        cube.onSaleRecorded(sale(1, 10, DAY, Sale.PaymentMethod.CASH, line(100, "Food", 3, 6.00)));
+        cube.onSaleRecorded(refund(1, 10, DAY, line(100, "Food", -1, -2.00)));
+        when(gate.startSnapshot(any())).thenAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return "snapshot";
+        });
+        doAnswer(invocation -> {
+            // Committed while the load reads, so after its snapshot (a lower sale id than the loaded one)
+            cube.onSaleRecorded(sale(0, 10, DAY, Sale.PaymentMethod.CARD, line(100, "Food", 4, 8.00)));
+            cube.onSaleRecorded(refund(1, 10, DAY, line(100, "Food", -1, -2.00)));
+            ResultSet rs = mock(ResultSet.class);
+            when(rs.getLong(1)).thenReturn(1L);
+            when(rs.getTimestamp(2)).thenReturn(Timestamp.valueOf(DAY));
+            when(rs.getLong(3)).thenReturn(10L);
+            when(rs.getString(4)).thenReturn("CASH");
+            when(rs.getLong(5)).thenReturn(100L);
+            when(rs.getString(6)).thenReturn("Food");
+            when(rs.getInt(7)).thenReturn(2);
+            when(rs.getDouble(8)).thenReturn(4.00);
+            invocation.<RowCallbackHandler>getArgument(1).processRow(rs);
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(), any(), any());
+
+        cube.load();
+        cube.onSaleRecorded(sale(2, 10, DAY, Sale.PaymentMethod.CASH, line(100, "Food", 1, 2.00)));
+
+        SalesAnalyticsDTO result = cube.query(10L, DAY, DAY.plusDays(1), List.of(), 0);
+        assertThat(result.getTotalQuantity()).isEqualTo(2 + 4 - 1 + 1);
+        assertThat(result.getTotalRevenue()).isEqualTo(12.00);
+    }
+
+    // ================================
+    // HELPER METHODS
+    // ================================
+
+    private static SalesCube loadedCube() {
+        SalesCube cube = new SalesCube();
+        ReflectionTestUtils.setField(cube, "loaded", true);
+        return cube;
+    }
+
+    private static SaleRecordedEvent.Line line(long itemId, String category, int quantity, double amount) {
+        return new SaleRecordedEvent.Line(itemId, category, quantity, amount);
+    }
+
+    private static SaleRecordedEvent sale(long saleId, long storeId, LocalDateTime date, Sale.PaymentMethod payment,
+                                          SaleRecordedEvent.Line... lines) {
+        return new SaleRecordedEvent(saleId, storeId, date, payment, null, null, List.of(lines), false);
+    }
+
+    private static SaleRecordedEvent refund(long saleId, long storeId, LocalDateTime date, SaleRecordedEvent.Line line) {
+        return new SaleRecordedEvent(saleId, storeId, date, Sale.PaymentMethod.CASH, null, null, List.of(line), true);
+    }
+
+    private static Map<String, Double> revenues(SalesAnalyticsDTO result) {
+        return result.getRows().stream().collect(Collectors.toMap(
+                row -> row.getGroup().get("category") + "/" + row.getGroup().get("payment"),
+                SalesAnalyticsDTO.Row::getRevenue));
+    }
+}
@@ -0,0 +1,337 @@
+package dev.andrepontde.retailmanager.retail_system.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import dev.andrepontde.retailmanager.retail_system.entity.Inventory;
+import dev.andrepontde.retailmanager.retail_system.entity.Item;
+import dev.andrepontde.retailmanager.retail_system.entity.Store;
+
+/**
+ * Stock engine tables and journal replay, with the database mocked out: stores start empty
+ * and flushed rows are captured instead of written.
+ */
+class StockEngineTest {
+
+    private static final long STORE_ID = 1;
+
+    @TempDir
+    Path journalDir;
+
+    /**
+     * Rows written by flushes: inventory id to [quantity, reserved].
+     */
+    private final Map<Long, int[]> flushed = new HashMap<>();
+
+    private final List<StockEngine> started = new ArrayList<>();
+
+    @AfterEach
+    void shutDown() throws IOException {
+        for (StockEngine engine : started) {
+            engine.shutdown();
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void appliesConditionalChanges() throws IOException {
+        StockEngine engine = start();
+        Inventory inventory = inventory(42, 10, 3);
+
+        assertThat(engine.apply(inventory, -5, 0, true)).isEqualTo(new StockEngine.Change(10, 5, 3));
+        // Available stock would go below zero
+        assertThat(engine.apply(inventory, -3, 0, true)).isNull();
+        assertThat(engine.apply(inventory, -3, 0, false)).isEqualTo(new StockEngine.Change(5, 2, 3));
+        assertThat(engine.apply(inventory, 0, -4, false)).isNull();
+        assertThat(engine.apply(inventory, 0, -3, false)).isEqualTo(new StockEngine.Change(2, 2, 0));
+
+        assertThat(engine.getStock(STORE_ID, 42)).containsExactly(2, 0);
+        assertThat(engine.getAvailableQuantity(STORE_ID, 42, -1)).isEqualTo(2);
+        assertThat(engine.getAvailableQuantity(STORE_ID, 43, -1)).isEqualTo(-1);
+        assertThat(engine.getStock(STORE_ID, 43)).isNull();
+    }
+
+    @Test
+    void tableKeepsEveryItemAcrossGrowth() throws IOException {
+        StockEngine engine = start();
+        // Far more items than the initial capacity of a stripe
+        LongStream.rangeClosed(1, 5000).forEach(itemId ->
+                engine.apply(inventory(itemId, (int) itemId, 0), 1, 0, false));
+
+        for (long itemId = 1; itemId <= 5000; itemId++) {
+            assertThat(engine.getStock(STORE_ID, itemId)).containsExactly((int) itemId + 1, 0);
+        }
+        assertThat(engine.getStock(STORE_ID, 5001)).isNull();
+    }
+
+    @Test
+    void rollbackRestoresStock() throws IOException {
+        StockEngine engine = start();
+        Inventory inventory = inventory(7, 10, 0);
+
+        TransactionSynchronizationManager.initSynchronization();
+        engine.apply(inventory, -4, 2, true);
+        assertThat(engine.getStock(STORE_ID, 7)).containsExactly(6, 2);
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertThat(engine.getStock(STORE_ID, 7)).containsExactly(10, 0);
+    }
+
+    @Test
+    void flushWritesChangedRowsOnce() throws IOException {
+        StockEngine engine = start();
+        engine.apply(inventory(1, 10, 0), -1, 0, true);
+        engine.apply(inventory(2, 10, 0), -2, 0, true);
+        engine.flush();
+
+        assertThat(flushed).containsOnlyKeys(1001L, 1002L);
+        assertThat(flushed.get(1001L)).containsExactly(9, 0);
+        assertThat(flushed.get(1002L)).containsExactly(8, 0);
+
+        flushed.clear();
+        engine.flush();
+        assertThat(flushed).isEmpty();
+    }
+
+    @Test
+    void restartReplaysUnflushedChanges() throws IOException {
+        StockEngine engine = start();
+        engine.apply(inventory(1, 10, 0), -1, 0, true);
+        engine.apply(inventory(1, 10, 0), -1, 0, true);
+        engine.apply(inventory(2, 5, 0), 0, 2, true);
+        crash(engine);
+
+        StockEngine restarted = start();
+        assertThat(restarted.getStock(STORE_ID, 1)).containsExactly(8, 0);
+        assertThat(restarted.getStock(STORE_ID, 2)).containsExactly(5, 2);
+        // Replayed stock is written to the table on startup
+        assertThat(flushed.get(1001L)).containsExactly(8, 0);
+        assertThat(flushed.get(1002L)).containsExactly(5, 2);
+    }
+
+    @Test
+    void rolledBackChangeIsNotReplayed() throws IOException {
+        StockEngine engine = start();
+        Inventory inventory = inventory(3, 10, 0);
+        engine.apply(inventory, -1, 0, true);
+
+        TransactionSynchronizationManager.initSynchronization();
+        engine.apply(inventory, -5, 0, true);
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+        crash(engine);
+
+        StockEngine restarted = start();
+        assertThat(restarted.getStock(STORE_ID, 3)).containsExactly(9, 0);
+    }
+
+    @Test
+    void uncommittedChangeIsNeverFlushed() throws IOException {
+        StockEngine engine = start();
+        Inventory inventory = inventory(4, 10, 0);
+
+        TransactionSynchronizationManager.initSynchronization();
+        engine.apply(inventory, -6, 0, true);
+        engine.flush();
+        assertThat(flushed).isEmpty();
+
+        // The flush dropped the journal it covered; a crash now must not lose the rollback
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+        engine.flush();
+        assertThat(flushed).isEmpty();
+        crash(engine);
+
+        // Nothing left to replay: the table row keeps its committed stock
+        StockEngine restarted = start();
+        assertThat(restarted.getStock(STORE_ID, 4)).isNull();
+        assertThat(flushed).isEmpty();
+    }
+
+    @Test
+    void pendingIncreaseCannotBeSoldByOthers() throws Exception {
+        StockEngine engine = start();
+        Inventory inventory = inventory(5, 5, 0);
+
+        TransactionSynchronizationManager.initSynchronization();
+        assertThat(engine.apply(inventory, 10, 0, false)).isEqualTo(new StockEngine.Change(5, 15, 0));
+        // Other transactions see committed stock, and the receipt only once it commits
+        assertThat(onOtherThread(() -> engine.getStock(STORE_ID, 5))).containsExactly(5, 0);
+        assertThat(onOtherThread(() -> engine.apply(inventory, -12, 0, false))).isNull();
+        assertThat(onOtherThread(() -> engine.apply(inventory, -5, 0, false))).isEqualTo(new StockEngine.Change(5, 0, 0));
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertThat(engine.getStock(STORE_ID, 5)).containsExactly(0, 0);
+    }
+
+    @Test
+    void pendingDecreaseIsHeldAgainstOthers() throws Exception {
+        StockEngine engine = start();
+        Inventory inventory = inventory(6, 10, 0);
+
+        TransactionSynchronizationManager.initSynchronization();
+        engine.apply(inventory, -8, 0, false);
+        assertThat(onOtherThread(() -> engine.apply(inventory, -3, 0, false))).isNull();
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertThat(engine.getStock(STORE_ID, 6)).containsExactly(2, 0);
+        engine.flush();
+        assertThat(flushed.get(1006L)).containsExactly(2, 0);
+    }
+
+    @Test
+    void preparedTransactionIsPresumedCommittedOnRestart() throws IOException {
+        StockEngine engine = start();
+        Inventory inventory = inventory(8, 10, 0);
+        engine.apply(inventory, -1, 0, true);
+
+        // Died after the journal was forced, around the database commit
+        TransactionSynchronizationManager.initSynchronization();
+        engine.apply(inventory, -4, 1, true);
+        TransactionSynchronizationManager.getSynchronizations().forEach(synchronization -> synchronization.beforeCommit(false));
+        TransactionSynchronizationManager.clearSynchronization();
+        crash(engine);
+
+        StockEngine restarted = start();
+        assertThat(restarted.getStock(STORE_ID, 8)).containsExactly(5, 1);
+    }
+
+    @Test
+    void abortedPreparedTransactionIsNotReplayed() throws IOException {
+        StockEngine engine = start();
+        Inventory inventory = inventory(9, 10, 0);
+        engine.apply(inventory, -1, 0, true);
+
+        // The database commit failed after the journal was forced
+        TransactionSynchronizationManager.initSynchronization();
+        engine.apply(inventory, -4, 0, true);
+        TransactionSynchronizationManager.getSynchronizations().forEach(synchronization -> synchronization.beforeCommit(false));
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+        crash(engine);
+
+        StockEngine restarted = start();
+        assertThat(restarted.getStock(STORE_ID, 9)).containsExactly(9, 0);
+    }
+
+    @Test
+    void restartIgnoresTornRecord() throws IOException {
+        StockEngine engine = start();
+        engine.apply(inventory(1, 10, 0), -3, 0, true);
+        crash(engine);
+        try (var files = Files.list(journalDir)) {
+            Path segment = files.filter(path -> path.toFile().length() > 0).findFirst().orElseThrow();
+            try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                channel.write(ByteBuffer.wrap(new byte[] {0, 0, 0, 0, 0, 0, 0, 1, 0, 0}));
+            }
+        }
+
+        StockEngine restarted = start();
+        assertThat(restarted.getStock(STORE_ID, 1)).containsExactly(7, 0);
+    }
+
+    // ================================
+    // HELPER METHODS
+    // ================================
+
+    private StockEngine start() throws IOException {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            List<Object[]> rows = invocation.getArgument(1);
+            int[] counts = new int[rows.size()];
+            for (int i = 0; i < rows.size(); i++) {
+                Object[] row = rows.get(i);
+                flushed.put((Long) row[3], new int[] {(Integer) row[0], (Integer) row[1]});
+                counts[i] = 1;
+            }
+            return counts;
+        });
+        InventoryVersionService versions = mock(InventoryVersionService.class);
+        when(versions.nextVersions(anyInt())).thenAnswer(invocation ->
+                LongStream.rangeClosed(1, invocation.<Integer>getArgument(0)).boxed().toList());
+
+        StockEngine engine = new StockEngine();
+        ReflectionTestUtils.setField(engine, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(engine, "transactionManager", mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(engine, "inventoryVersionService", versions);
+        ReflectionTestUtils.setField(engine, "storeIds", Set.of(STORE_ID));
+        ReflectionTestUtils.setField(engine, "journalDir", journalDir.toString());
+        ReflectionTestUtils.setField(engine, "stripes", 4);
+        engine.start();
+        started.add(engine);
+        return engine;
+    }
+
+    /**
+     * Stop using an engine without flushing, as if the process had died after its last sync.
+     */
+    private void crash(StockEngine engine) {
+        started.remove(engine);
+    }
+
+    /**
+     * End the test thread's transaction, running the synchronizations as a commit or rollback would.
+     */
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        if (status == TransactionSynchronization.STATUS_COMMITTED) {
+            synchronizations.forEach(synchronization -> synchronization.beforeCommit(false));
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+
+    /**
+     * Run outside the test thread's transaction.
+     */
+    private static <T> T onOtherThread(Callable<T> task) throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            return executor.submit(task).get();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Inventory row 1000 + itemId of the test store.
+     */
+    private static Inventory inventory(long itemId, int quantity, int reserved) {
+        Item item = new Item();
+        item.setId(itemId);
+        Store store = new Store();
+        store.setId(STORE_ID);
+        Inventory inventory = new Inventory(item, store, quantity);
+        inventory.setId(1000 + itemId);
+        inventory.setReservedQuantity(reserved);
+        return inventory;
+    }
+}
@@ -0,0 +1,151 @@
+package dev.andrepontde.retailmanager.retail_system.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class StockJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replaysClosedSegmentsInWriteOrder() throws IOException {
+        StockJournal journal = new StockJournal(directory);
+        journal.append(stock(1, 10, 100, 5, 0));
+        journal.append(stock(1, 11, 101, 7, 2));
+        journal.rotate();
+        journal.append(stock(1, 10, 100, 4, 0));
+        journal.rotate();
+
+        assertThat(replay(journal)).containsExactly(
+                stock(1, 10, 100, 5, 0),
+                stock(1, 11, 101, 7, 2),
+                stock(1, 10, 100, 4, 0));
+        journal.close();
+    }
+
+    @Test
+    void deletedSegmentsAreNotReplayed() throws IOException {
+        StockJournal journal = new StockJournal(directory);
+        journal.append(stock(1, 10, 100, 5, 0));
+        List<Path> covered = journal.rotate();
+        journal.append(stock(1, 10, 100, 3, 0));
+        journal.delete(covered);
+        journal.rotate();
+
+        assertThat(replay(journal)).containsExactly(stock(1, 10, 100, 3, 0));
+        journal.close();
+    }
+
+    @Test
+    void rotatingWithoutNewRecordsKeepsTheSameSegments() throws IOException {
+        StockJournal journal = new StockJournal(directory);
+        journal.append(stock(1, 10, 100, 5, 0));
+        List<Path> first = journal.rotate();
+
+        assertThat(journal.rotate()).isEqualTo(first);
+        journal.close();
+    }
+
+    @Test
+    void segmentsOfAPreviousRunAreReplayedOnRestart() throws IOException {
+        StockJournal previous = new StockJournal(directory);
+        previous.append(stock(2, 20, 200, 9, 1));
+        previous.sync();
+        previous.close();
+
+        StockJournal journal = new StockJournal(directory);
+        assertThat(replay(journal)).containsExactly(stock(2, 20, 200, 9, 1));
+        journal.close();
+    }
+
+    @Test
+    void tornRecordEndsItsSegment() throws IOException {
+        StockJournal previous = new StockJournal(directory);
+        previous.append(stock(1, 10, 100, 5, 0));
+        previous.close();
+        Path segment = onlySegment();
+        appendBytes(segment, new byte[20]);
+
+        StockJournal journal = new StockJournal(directory);
+        assertThat(replay(journal)).containsExactly(stock(1, 10, 100, 5, 0));
+        journal.close();
+    }
+
+    @Test
+    void corruptRecordEndsItsSegment() throws IOException {
+        StockJournal previous = new StockJournal(directory);
+        previous.append(stock(1, 10, 100, 5, 0));
+        previous.append(stock(1, 11, 101, 6, 0));
+        previous.append(stock(1, 12, 102, 7, 0));
+        previous.close();
+
+        // Flip a byte of the second record's quantity
+        Path segment = onlySegment();
+        byte[] bytes = Files.readAllBytes(segment);
+        bytes[48 + 36] ^= 0x01;
+        Files.write(segment, bytes);
+
+        StockJournal journal = new StockJournal(directory);
+        assertThat(replay(journal)).containsExactly(stock(1, 10, 100, 5, 0));
+        journal.close();
+    }
+
+    @Test
+    void recordsKeepTheirTypeAndTransaction() throws IOException {
+        StockJournal journal = new StockJournal(directory);
+        journal.append(StockJournal.Entry.prepare(7, 1, 10, 100, -2, 1));
+        journal.append(StockJournal.Entry.abort(7));
+        journal.rotate();
+
+        assertThat(replay(journal)).containsExactly(
+                new StockJournal.Entry(StockJournal.Type.PREPARE, 7, 1, 10, 100, -2, 1),
+                new StockJournal.Entry(StockJournal.Type.ABORT, 7, 0, 0, 0, 0, 0));
+        journal.close();
+    }
+
+    /**
+     * STOCK record of transaction 1.
+     */
+    private static StockJournal.Entry stock(long storeId, long itemId, long inventoryId, int quantity, int reserved) {
+        return StockJournal.Entry.stock(1, storeId, itemId, inventoryId, quantity, reserved);
+    }
+
+    private static List<StockJournal.Entry> replay(StockJournal journal) throws IOException {
+        List<StockJournal.Entry> entries = new ArrayList<>();
+        int count = journal.replay(entries::add);
+        assertThat(count).isEqualTo(entries.size());
+        return entries;
+    }
+
+    private Path onlySegment() throws IOException {
+        try (var files = Files.list(directory)) {
+            List<Path> segments = files.filter(path -> {
+                try {
+                    return Files.size(path) > 0;
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }).toList();
+            assertThat(segments).hasSize(1);
+            return segments.get(0);
+        }
+    }
+
+    private static void appendBytes(Path segment, byte[] bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(bytes));
+        }
+    }
+}
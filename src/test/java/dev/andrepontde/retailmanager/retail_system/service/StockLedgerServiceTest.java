@@ -0,0 +1,211 @@
+package dev.andrepontde.retailmanager.retail_system.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import dev.andrepontde.retailmanager.retail_system.entity.Inventory;
+import dev.andrepontde.retailmanager.retail_system.entity.Item;
+import dev.andrepontde.retailmanager.retail_system.entity.StockMovement;
+import dev.andrepontde.retailmanager.retail_system.entity.StockSnapshot;
+import dev.andrepontde.retailmanager.retail_system.entity.Store;
+import dev.andrepontde.retailmanager.retail_system.event.StockChangedEvent;
+import dev.andrepontde.retailmanager.retail_system.repository.InventoryRepository;
+import dev.andrepontde.retailmanager.retail_system.repository.ItemRepository;
+import dev.andrepontde.retailmanager.retail_system.repository.StockMovementRepository;
+import dev.andrepontde.retailmanager.retail_system.repository.StockSnapshotRepository;
+import dev.andrepontde.retailmanager.retail_system.repository.StoreRepository;
+
+/**
+ * Stock ledger snapshots against the configured database.
+ *
+ * Each test creates its own store and items and removes them, with their movements and
+ * snapshots, afterwards.
+ */
+@SpringBootTest
+class StockLedgerServiceTest {
+
+    @Autowired
+    private StockLedgerService stockLedgerService;
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+
+    @Autowired
+    private StockSnapshotRepository stockSnapshotRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Store store;
+    private final List<Item> items = new ArrayList<>();
+    private final List<Inventory> inventory = new ArrayList<>();
+    private long settleMinutes;
+
+    @BeforeEach
+    void setUp() {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        store = storeRepository.save(new Store("Store " + run, "Test-" + run, null, null, null));
+        for (int i = 0; i < 3; i++) {
+            Item item = itemRepository.save(new Item("Item " + run + "-" + i, "Test", 1.0));
+            items.add(item);
+            inventory.add(inventoryRepository.save(new Inventory(item, store, 10)));
+        }
+        // Movements recorded by a test are snapshotted right away
+        settleMinutes = (Long) ReflectionTestUtils.getField(target(), "snapshotSettleMinutes");
+        ReflectionTestUtils.setField(target(), "snapshotSettleMinutes", 0L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.setField(target(), "snapshotSettleMinutes", settleMinutes);
+        LocalDateTime future = LocalDateTime.now().plusYears(1);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            stockSnapshotRepository.deleteLinesTakenBefore(store.getId(), future);
+            stockSnapshotRepository.deleteTakenBefore(store.getId(), future);
+        });
+        jdbcTemplate.update("DELETE FROM stock_movement WHERE store_id = ?", store.getId());
+        inventoryRepository.deleteAll(inventory);
+        itemRepository.deleteAll(items);
+        storeRepository.delete(store);
+    }
+
+    @Test
+    void laterSnapshotsHoldOnlyChangedItems() throws Exception {
+        StockSnapshot opening = stockLedgerService.takeSnapshot(store.getId()).orElseThrow();
+        assertThat(lines(opening)).hasSize(3).containsValue(10);
+
+        sell(0, 3);
+        Thread.sleep(5);
+        StockSnapshot next = stockLedgerService.takeSnapshot(store.getId()).orElseThrow();
+
+        assertThat(lines(next)).containsExactly(Map.entry(items.get(0).getId(), 7));
+        assertThat(quantitiesAt(next.getTakenAt())).containsOnly(
+                Map.entry(items.get(0).getId(), 7),
+                Map.entry(items.get(1).getId(), 10),
+                Map.entry(items.get(2).getId(), 10));
+    }
+
+    @Test
+    void nodesRunningTheSameTickTakeOneSnapshot() throws Exception {
+        stockLedgerService.takeSnapshot(store.getId());
+        sell(1, 2);
+        Thread.sleep(5);
+        LocalDateTime tick = LocalDateTime.now().plusMinutes(1).truncatedTo(ChronoUnit.MINUTES);
+
+        int nodes = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(nodes);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Object>> futures = new ArrayList<>();
+            for (int i = 0; i < nodes; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return new TransactionTemplate(transactionManager).execute(status ->
+                            ReflectionTestUtils.invokeMethod(target(), "takeSnapshot", store.getId(), tick));
+                }));
+            }
+            start.countDown();
+            for (Future<Object> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(countSnapshots()).isEqualTo(2);
+    }
+
+    @Test
+    void pruningKeepsEveryItemInTheOldestSnapshot() {
+        LocalDateTime now = LocalDateTime.now();
+        Long item0 = items.get(0).getId();
+        Long item1 = items.get(1).getId();
+        Long item2 = items.get(2).getId();
+        save(now.minusDays(10), Map.of(item0, 10, item1, 10, item2, 10));
+        save(now.minusDays(5), Map.of(item0, 8));
+        save(now.minusDays(4), Map.of(item1, 6));
+        save(now.minusDays(1), Map.of(item0, 4));
+
+        int deleted = new TransactionTemplate(transactionManager).execute(status ->
+                stockLedgerService.pruneSnapshots(store.getId(), now.minusDays(3)));
+
+        assertThat(deleted).isEqualTo(2);
+        assertThat(countSnapshots()).isEqualTo(2);
+        assertThat(quantitiesAt(now.minusDays(4))).containsOnly(
+                Map.entry(item0, 8), Map.entry(item1, 6), Map.entry(item2, 10));
+        assertThat(quantitiesAt(now)).containsOnly(
+                Map.entry(item0, 4), Map.entry(item1, 6), Map.entry(item2, 10));
+    }
+
+    private StockLedgerService target() {
+        return AopTestUtils.getTargetObject(stockLedgerService);
+    }
+
+    private void sell(int index, int quantity) {
+        Inventory row = inventory.get(index);
+        int previous = row.getQuantity();
+        row.setQuantity(previous - quantity);
+        inventory.set(index, inventoryRepository.save(row));
+        stockMovementRepository.save(new StockMovement(
+                StockChangedEvent.of(row, previous, StockChangedEvent.Reason.SALE)));
+    }
+
+    private void save(LocalDateTime takenAt, Map<Long, Integer> quantities) {
+        stockSnapshotRepository.save(new StockSnapshot(store.getId(), takenAt, new HashMap<>(quantities)));
+    }
+
+    private Map<Long, Integer> lines(StockSnapshot snapshot) {
+        Map<Long, Integer> lines = new HashMap<>();
+        jdbcTemplate.query("SELECT item_id, quantity FROM stock_snapshot_line WHERE snapshot_id = ?",
+                row -> { lines.put(row.getLong(1), row.getInt(2)); }, snapshot.getId());
+        return lines;
+    }
+
+    private Map<Long, Integer> quantitiesAt(LocalDateTime time) {
+        Map<Long, Integer> quantities = new HashMap<>();
+        for (Object[] row : stockSnapshotRepository.findQuantities(store.getId(), time)) {
+            quantities.put(((Number) row[0]).longValue(), ((Number) row[1]).intValue());
+        }
+        return quantities;
+    }
+
+    private int countSnapshots() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM stock_snapshot WHERE store_id = ?",
+                Integer.class, store.getId());
+    }
+}
@@ -0,0 +1,90 @@
+package dev.andrepontde.retailmanager.retail_system.support;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import dev.andrepontde.retailmanager.retail_system.config.QueryStats;
+
+/**
+ * Assertions on the number of statements an endpoint or a piece of code executes.
+ *
+ * Needs the query inspector (on by default) and a real database, e.g. a
+ * {@code @SpringBootTest @AutoConfigureMockMvc} test:
+ *
+ * <pre>
+ * mockMvc.perform(get("/api/sales").header("Authorization", token))
+ *        .andExpect(status().isOk())
+ *        .andExpect(QueryBudget.atMost(4))
+ *        .andExpect(QueryBudget.noStatementRepeatedMoreThan(1));
+ *
+ * List&lt;SaleDTO&gt; sales = QueryBudget.assertAtMost(3, () -&gt; saleService.getAllSales());
+ * </pre>
+ */
+public final class QueryBudget {
+
+    private QueryBudget() {}
+
+    /**
+     * The request executed at most the given number of statements.
+     */
+    public static ResultMatcher atMost(int statements) {
+        return result -> {
+            QueryStats stats = stats(result);
+            if (stats.getCount() > statements) {
+                throw new AssertionError("Expected at most " + statements + " statements but "
+                        + stats.getCount() + " were executed" + describeRepeats(stats));
+            }
+        };
+    }
+
+    /**
+     * No single statement was executed more than the given number of times by the request.
+     */
+    public static ResultMatcher noStatementRepeatedMoreThan(int times) {
+        return result -> {
+            QueryStats stats = stats(result);
+            if (stats.getMaxRepeats() > times) {
+                throw new AssertionError("Expected no statement executed more than " + times + " times"
+                        + describeRepeats(stats));
+            }
+        };
+    }
+
+    /**
+     * Run the action on this thread and check it executed at most the given number of statements.
+     */
+    public static <T> T assertAtMost(int statements, Supplier<T> action) {
+        QueryStats stats = QueryStats.begin();
+        T result;
+        try {
+            result = action.get();
+        } finally {
+            QueryStats.end(stats);
+        }
+        if (stats.getCount() > statements) {
+            throw new AssertionError("Expected at most " + statements + " statements but "
+                    + stats.getCount() + " were executed" + describeRepeats(stats));
+        }
+        return result;
+    }
+
+    private static QueryStats stats(MvcResult result) {
+        Object stats = result.getRequest().getAttribute(QueryStats.REQUEST_ATTRIBUTE);
+        if (!(stats instanceof QueryStats queryStats)) {
+            throw new AssertionError("No query stats on the request; is retail.query-inspector.enabled set "
+                    + "and the MockMvc built from the application context (with filters)?");
+        }
+        return queryStats;
+    }
+
+    private static String describeRepeats(QueryStats stats) {
+        StringBuilder description = new StringBuilder();
+        for (Map.Entry<String, Integer> entry : stats.getRepeated(2).entrySet()) {
+            description.append("\n  ").append(entry.getValue()).append("x ").append(entry.getKey());
+        }
+        return description.toString();
+    }
+}